@@ -1,11 +1,10 @@
 package com.example.backend.audit;
 
+import com.example.backend.audit.dto.AuditLogCleanupChunkResponse;
 import com.example.backend.audit.dto.AuditLogCleanupResponse;
 import com.example.backend.audit.dto.AuditLogPageResponse;
-import com.example.backend.audit.dto.AuditLogResponse;
+import com.example.backend.common.CsvStreamWriter;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -14,11 +13,10 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 /**
  * HTTPリクエストを受けてユースケースを公開するコントローラ。
  */
@@ -46,27 +44,37 @@ public class AuditLogController {
             @RequestParam(required = false) String action,
             @RequestParam(required = false) String actor,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean includeTotal
     ) {
-        return auditLogService.getLogs(page, size, action, actor, from, to);
+        return auditLogService.getLogs(page, size, action, actor, from, to, cursor, includeTotal);
     }
 
-    @GetMapping(value = "/export.csv", produces = "text/csv")
+    @GetMapping(value = "/export.csv", produces = {"text/csv", "application/gzip"})
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<String> exportAuditLogsCsv(
+    public ResponseEntity<StreamingResponseBody> exportAuditLogsCsv(
             @RequestParam(required = false) String action,
             @RequestParam(required = false) String actor,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
-            @RequestParam(defaultValue = "1000") int limit
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean gzip
     ) {
-        List<AuditLogResponse> logs = auditLogService.getLogsForExport(action, actor, from, to, limit);
-        String csv = toCsv(logs);
-
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"audit-logs.csv\"")
-                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
-                .body(csv);
+        return CsvStreamWriter.response("audit-logs.csv", gzip, outputStream -> {
+            try (CsvStreamWriter writer = CsvStreamWriter.open(outputStream, gzip)) {
+                writer.writeHeader("createdAt,actorUsername,actorRole,action,targetType,targetId,detail");
+                auditLogService.streamLogsForExport(action, actor, from, to, limit, log -> writer.writeRow(
+                        log.createdAt() == null ? "" : log.createdAt().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME),
+                        log.actorUsername(),
+                        log.actorRole(),
+                        log.action(),
+                        log.targetType(),
+                        log.targetId(),
+                        log.detail()
+                ));
+            }
+        });
     }
 
     @PostMapping("/cleanup")
@@ -84,40 +92,15 @@ public class AuditLogController {
                 result.deletedCount(),
                 result.retentionDays(),
                 result.cutoff(),
-                result.executedAt()
+                result.executedAt(),
+                result.chunks().stream()
+                        .map(chunk -> new AuditLogCleanupChunkResponse(
+                                chunk.type().name(),
+                                chunk.target(),
+                                chunk.deletedCount(),
+                                chunk.durationMs()
+                        ))
+                        .toList()
         );
     }
-
-    private String toCsv(List<AuditLogResponse> logs) {
-        StringBuilder builder = new StringBuilder();
-        builder.append("createdAt,actorUsername,actorRole,action,targetType,targetId,detail\n");
-
-        for (AuditLogResponse log : logs) {
-            builder.append(escapeCsv(log.createdAt() == null ? "" : log.createdAt().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)))
-                    .append(',')
-                    .append(escapeCsv(log.actorUsername()))
-                    .append(',')
-                    .append(escapeCsv(log.actorRole()))
-                    .append(',')
-                    .append(escapeCsv(log.action()))
-                    .append(',')
-                    .append(escapeCsv(log.targetType()))
-                    .append(',')
-                    .append(escapeCsv(log.targetId()))
-                    .append(',')
-                    .append(escapeCsv(log.detail()))
-                    .append('\n');
-        }
-
-        return builder.toString();
-    }
-
-    private String escapeCsv(String value) {
-        if (value == null) {
-            return "\"\"";
-        }
-
-        String escaped = value.replace("\"", "\"\"");
-        return "\"" + escaped + "\"";
-    }
 }
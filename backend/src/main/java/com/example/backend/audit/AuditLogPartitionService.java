@@ -0,0 +1,158 @@
+package com.example.backend.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 月単位でパーティション化したaudit_logs(PostgreSQL)の子テーブルを作成・削除するサービス。
+ * パーティション化されていないDB(H2など)では何もしない。
+ */
+@Service
+public class AuditLogPartitionService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogPartitionService.class);
+
+    private static final String PARTITION_PREFIX = "audit_logs_p";
+    private static final Pattern PARTITION_NAME = Pattern.compile("^" + PARTITION_PREFIX + "(\\d{6})$");
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ZoneId storageZone;
+    private volatile Boolean partitioned;
+
+    public AuditLogPartitionService(
+            JdbcTemplate jdbcTemplate,
+            @Value("${spring.jpa.properties.hibernate.jdbc.time_zone:}") String jdbcTimeZone
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.storageZone = jdbcTimeZone == null || jdbcTimeZone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(jdbcTimeZone);
+    }
+
+    /**
+     * audit_logsがパーティションテーブルかを返す。判定結果は初回のみDBへ問い合わせて保持する。
+     */
+    public boolean isPartitioned() {
+        Boolean current = partitioned;
+        if (current == null) {
+            current = detectPartitioned();
+            partitioned = current;
+        }
+        return current;
+    }
+
+    /**
+     * 当月から指定月数先までの月パーティションを作成し、新たに作成したパーティション名を返す。
+     */
+    public List<String> ensureMonthlyPartitions(int monthsAhead) {
+        if (!isPartitioned()) {
+            return List.of();
+        }
+
+        List<String> existing = findMonthlyPartitions().stream().map(MonthlyPartition::name).toList();
+        List<String> created = new ArrayList<>();
+        YearMonth current = YearMonth.from(LocalDate.now(storageZone));
+        for (int i = 0; i <= Math.max(0, monthsAhead); i++) {
+            YearMonth month = current.plusMonths(i);
+            String name = partitionName(month);
+            if (existing.contains(name)) {
+                continue;
+            }
+            try {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name
+                        + " PARTITION OF audit_logs FOR VALUES FROM ('" + month.atDay(1)
+                        + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+                created.add(name);
+            } catch (DataAccessException ex) {
+                // 既定パーティションに同じ期間の行がある場合は作成できないため、次回以降に持ち越す。
+                log.warn("Failed to create audit log partition: name={}", name, ex);
+            }
+        }
+        return created;
+    }
+
+    /**
+     * 全期間がcutoffより前の月パーティションを古い順に返す。
+     */
+    public List<MonthlyPartition> findPartitionsBefore(OffsetDateTime cutoff) {
+        if (!isPartitioned()) {
+            return List.of();
+        }
+        LocalDateTime cutoffInStorage = cutoff.atZoneSameInstant(storageZone).toLocalDateTime();
+        return findMonthlyPartitions().stream()
+                .filter(partition -> !partition.month().plusMonths(1).atDay(1).atStartOfDay().isAfter(cutoffInStorage))
+                .toList();
+    }
+
+    /**
+     * 月パーティションを削除し、削除した行数を返す。
+     */
+    public long dropPartition(MonthlyPartition partition) {
+        Long rowCount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + partition.name(), Long.class);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition.name());
+        return rowCount == null ? 0 : rowCount;
+    }
+
+    private List<MonthlyPartition> findMonthlyPartitions() {
+        List<String> names = jdbcTemplate.queryForList("""
+                SELECT c.relname
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = to_regclass('audit_logs')
+                """, String.class);
+
+        List<MonthlyPartition> partitions = new ArrayList<>();
+        for (String name : names) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (matcher.matches()) {
+                partitions.add(new MonthlyPartition(name, YearMonth.parse(matcher.group(1), PARTITION_SUFFIX)));
+            }
+        }
+        partitions.sort(Comparator.comparing(MonthlyPartition::month));
+        return partitions;
+    }
+
+    private boolean detectPartitioned() {
+        try {
+            Boolean result = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName()));
+            if (!Boolean.TRUE.equals(result)) {
+                return false;
+            }
+            Long count = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM pg_partitioned_table WHERE partrelid = to_regclass('audit_logs')",
+                    Long.class
+            );
+            return count != null && count > 0;
+        } catch (DataAccessException ex) {
+            log.warn("Failed to detect audit log partitioning. Falling back to chunked delete.", ex);
+            return false;
+        }
+    }
+
+    private static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+
+    /**
+     * 月パーティション1つ分。
+     */
+    public record MonthlyPartition(String name, YearMonth month) {
+    }
+}
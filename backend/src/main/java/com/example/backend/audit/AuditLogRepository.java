@@ -1,14 +1,19 @@
 package com.example.backend.audit;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.OffsetDateTime;
+import java.util.List;
 /**
  * JPA経由で永続化データへアクセスするリポジトリ。
  */
 
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long>, JpaSpecificationExecutor<AuditLog> {
-    // 保持期限より古い監査ログを一括削除する。
-    long deleteByCreatedAtBefore(OffsetDateTime cutoff);
+    // 保持期限の適用用。古い順に件数上限付きでIDを取得し、チャンク単位で削除する。
+    @Query("select a.id from AuditLog a where a.createdAt < :cutoff order by a.createdAt asc, a.id asc")
+    List<Long> findIdsCreatedBefore(@Param("cutoff") OffsetDateTime cutoff, Pageable pageable);
 }
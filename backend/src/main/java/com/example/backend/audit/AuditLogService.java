@@ -2,18 +2,35 @@ package com.example.backend.audit;
 
 import com.example.backend.audit.dto.AuditLogPageResponse;
 import com.example.backend.audit.dto.AuditLogResponse;
+import com.example.backend.common.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 /**
  * ドメインルールと業務処理をまとめるサービス。
  */
@@ -21,14 +38,37 @@ import java.util.List;
 @Service
 public class AuditLogService {
 
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogService.class);
+
     private static final String SYSTEM_USER = "SYSTEM";
     private static final String SYSTEM_ROLE = "SYSTEM";
     private static final String AUDIT_LOG_CLEANUP_ACTION = "AUDIT_LOG_CLEANUP";
+    private static final int EXPORT_FETCH_SIZE = 500;
 
     private final AuditLogRepository auditLogRepository;
-
-    public AuditLogService(AuditLogRepository auditLogRepository) {
+    private final AuditLogWriter auditLogWriter;
+    private final AuditLogPartitionService auditLogPartitionService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxExportRows;
+    private final int retentionBatchSize;
+
+    public AuditLogService(
+            AuditLogRepository auditLogRepository,
+            AuditLogWriter auditLogWriter,
+            AuditLogPartitionService auditLogPartitionService,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.export.max-rows:1000000}") int maxExportRows,
+            @Value("${jobs.audit-log-retention-batch-size:5000}") int retentionBatchSize
+    ) {
         this.auditLogRepository = auditLogRepository;
+        this.auditLogWriter = auditLogWriter;
+        this.auditLogPartitionService = auditLogPartitionService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxExportRows = Math.max(1, maxExportRows);
+        this.retentionBatchSize = Math.max(1, retentionBatchSize);
     }
 
     @Transactional(readOnly = true)
@@ -38,50 +78,98 @@ public class AuditLogService {
             String action,
             String actor,
             OffsetDateTime from,
-            OffsetDateTime to
+            OffsetDateTime to,
+            String cursor,
+            boolean includeTotal
     ) {
         int safePage = Math.max(0, page);
         int safeSize = Math.max(1, Math.min(size, 200));
-        PageRequest pageable = PageRequest.of(
-                safePage,
-                safeSize,
-                Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"))
-        );
+        Sort sort = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+        KeysetCursor keysetCursor = KeysetCursor.decode(cursor);
 
         Specification<AuditLog> specification = buildSpecification(action, actor, from, to);
 
-        Page<AuditLogResponse> pageResult = auditLogRepository.findAll(specification, pageable)
-                .map(this::toResponse);
+        if (keysetCursor == null && includeTotal) {
+            Page<AuditLog> pageResult = auditLogRepository.findAll(specification, PageRequest.of(safePage, safeSize, sort));
+            return new AuditLogPageResponse(
+                    pageResult.getContent().stream().map(this::toResponse).toList(),
+                    pageResult.getNumber(),
+                    pageResult.getSize(),
+                    pageResult.getTotalElements(),
+                    pageResult.getTotalPages(),
+                    pageResult.hasNext(),
+                    pageResult.hasPrevious(),
+                    nextCursor(pageResult)
+            );
+        }
 
+        // カーソル指定時はOFFSETを使わず (createdAt, id) の続きから読む。件数は必要な場合のみ別途数える。
+        Slice<AuditLog> sliceResult = keysetCursor == null
+                ? auditLogRepository.findBy(specification, query -> query.slice(PageRequest.of(safePage, safeSize, sort)))
+                : auditLogRepository.findBy(
+                        specification.and(keysetCursor.after("createdAt")),
+                        query -> query.slice(PageRequest.of(0, safeSize, sort))
+                );
+        long totalElements = includeTotal ? auditLogRepository.count(specification) : -1;
         return new AuditLogPageResponse(
-                pageResult.getContent(),
-                pageResult.getNumber(),
-                pageResult.getSize(),
-                pageResult.getTotalElements(),
-                pageResult.getTotalPages(),
-                pageResult.hasNext(),
-                pageResult.hasPrevious()
+                sliceResult.getContent().stream().map(this::toResponse).toList(),
+                keysetCursor == null ? safePage : 0,
+                safeSize,
+                totalElements,
+                totalElements < 0 ? -1 : (int) Math.ceil((double) totalElements / safeSize),
+                sliceResult.hasNext(),
+                keysetCursor != null || sliceResult.hasPrevious(),
+                nextCursor(sliceResult)
         );
     }
 
+    /**
+     * 検索条件に一致する監査ログを新しい順に1件ずつconsumerへ渡し、出力件数を返す。
+     * エンティティを経由せずDTOで読み込み、永続化コンテキストに溜めないことでヒープ使用量を一定に保つ。
+     */
     @Transactional(readOnly = true)
-    public List<AuditLogResponse> getLogsForExport(
+    public long streamLogsForExport(
             String action,
             String actor,
             OffsetDateTime from,
             OffsetDateTime to,
-            int limit
+            Integer limit,
+            Consumer<AuditLogResponse> consumer
     ) {
-        int safeLimit = Math.max(1, Math.min(limit, 5000));
-        PageRequest pageable = PageRequest.of(
-                0,
-                safeLimit,
-                Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"))
-        );
-
-        return auditLogRepository.findAll(buildSpecification(action, actor, from, to), pageable).stream()
-                .map(this::toResponse)
-                .toList();
+        int safeLimit = limit == null || limit <= 0 ? maxExportRows : Math.min(limit, maxExportRows);
+
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AuditLogResponse> query = criteriaBuilder.createQuery(AuditLogResponse.class);
+        Root<AuditLog> root = query.from(AuditLog.class);
+        query.select(criteriaBuilder.construct(
+                AuditLogResponse.class,
+                root.get("id"),
+                root.get("actorUsername"),
+                root.get("actorRole"),
+                root.get("action"),
+                root.get("targetType"),
+                root.get("targetId"),
+                root.get("detail"),
+                root.get("createdAt")
+        ));
+        Predicate predicate = buildSpecification(action, actor, from, to).toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(criteriaBuilder.desc(root.get("createdAt")), criteriaBuilder.desc(root.get("id")));
+
+        try (Stream<AuditLogResponse> logs = entityManager.createQuery(query)
+                .setMaxResults(safeLimit)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, EXPORT_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            long[] count = {0};
+            logs.forEach(log -> {
+                consumer.accept(log);
+                count[0]++;
+            });
+            return count[0];
+        }
     }
 
     @Transactional(readOnly = true)
@@ -111,18 +199,48 @@ public class AuditLogService {
         save(username, role, action, targetType, targetId, detail);
     }
 
-    @Transactional
+    /**
+     * 保持期限より古い監査ログを削除する。
+     * パーティション化されている場合は期限切れの月パーティションを削除し、残りは件数上限付きのDELETEを
+     * チャンクごとに別トランザクションで繰り返す。チャンクごとの削除件数と所要時間を結果に含める。
+     */
     public AuditLogCleanupResult cleanupExpiredLogs(int retentionDays, CleanupTrigger trigger) {
         // 不正値が来ても監査ログ全消去を避けるため1日以上へ補正する。
         int safeRetentionDays = Math.max(1, retentionDays);
         OffsetDateTime executedAt = OffsetDateTime.now();
         OffsetDateTime cutoff = executedAt.minusDays(safeRetentionDays);
-        long deletedCount = auditLogRepository.deleteByCreatedAtBefore(cutoff);
+        List<AuditLogCleanupChunk> chunks = new ArrayList<>();
+
+        for (AuditLogPartitionService.MonthlyPartition partition : auditLogPartitionService.findPartitionsBefore(cutoff)) {
+            long startedAt = System.nanoTime();
+            long deleted = auditLogPartitionService.dropPartition(partition);
+            chunks.add(recordChunk(CleanupChunkType.PARTITION_DROP, partition.name(), deleted, startedAt));
+        }
+
+        while (true) {
+            long startedAt = System.nanoTime();
+            Integer deleted = transactionTemplate.execute(status -> {
+                List<Long> ids = auditLogRepository.findIdsCreatedBefore(cutoff, PageRequest.of(0, retentionBatchSize));
+                if (!ids.isEmpty()) {
+                    auditLogRepository.deleteAllByIdInBatch(ids);
+                }
+                return ids.size();
+            });
+            int deletedCount = deleted == null ? 0 : deleted;
+            if (deletedCount > 0) {
+                chunks.add(recordChunk(CleanupChunkType.DELETE, "audit_logs", deletedCount, startedAt));
+            }
+            if (deletedCount < retentionBatchSize) {
+                break;
+            }
+        }
 
+        long deletedCount = chunks.stream().mapToLong(AuditLogCleanupChunk::deletedCount).sum();
         String detail = "trigger=" + trigger
                 + ", retentionDays=" + safeRetentionDays
                 + ", cutoff=" + cutoff
-                + ", deletedCount=" + deletedCount;
+                + ", deletedCount=" + deletedCount
+                + ", chunks=" + chunks.size();
 
         if (trigger == CleanupTrigger.MANUAL) {
             log(AUDIT_LOG_CLEANUP_ACTION, "AUDIT_LOG", null, detail);
@@ -130,10 +248,25 @@ public class AuditLogService {
             logAs(SYSTEM_USER, SYSTEM_ROLE, AUDIT_LOG_CLEANUP_ACTION, "AUDIT_LOG", null, detail);
         }
 
-        return new AuditLogCleanupResult(deletedCount, safeRetentionDays, cutoff, executedAt);
+        return new AuditLogCleanupResult(deletedCount, safeRetentionDays, cutoff, executedAt, chunks);
+    }
+
+    private AuditLogCleanupChunk recordChunk(CleanupChunkType type, String target, long deletedCount, long startedAtNanos) {
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAtNanos);
+        logger.info("Audit log cleanup chunk: type={}, target={}, deletedCount={}, durationMs={}",
+                type, target, deletedCount, durationMs);
+        return new AuditLogCleanupChunk(type, target, deletedCount, durationMs);
     }
 
     private void save(String actorUsername, String actorRole, String action, String targetType, String targetId, String detail) {
+        if (auditLogWriter.isEnabled()) {
+            // 非同期モードでは業務トランザクションでINSERTせず、コミット後にライタへ渡してまとめて書き込む。
+            auditLogWriter.submit(new AuditLogWriter.PendingAuditLog(
+                    actorUsername, actorRole, action, targetType, targetId, detail, OffsetDateTime.now()
+            ));
+            return;
+        }
+
         AuditLog auditLog = new AuditLog();
         auditLog.setActorUsername(actorUsername);
         auditLog.setActorRole(actorRole);
@@ -144,6 +277,14 @@ public class AuditLogService {
         auditLogRepository.save(auditLog);
     }
 
+    private String nextCursor(Slice<AuditLog> slice) {
+        if (!slice.hasNext() || slice.getContent().isEmpty()) {
+            return null;
+        }
+        AuditLog last = slice.getContent().get(slice.getContent().size() - 1);
+        return KeysetCursor.of(last.getCreatedAt(), last.getId()).encode();
+    }
+
     private Specification<AuditLog> buildSpecification(
             String action,
             String actor,
@@ -215,11 +356,25 @@ public class AuditLogService {
         MANUAL
     }
 
+    public enum CleanupChunkType {
+        PARTITION_DROP,
+        DELETE
+    }
+
+    public record AuditLogCleanupChunk(
+            CleanupChunkType type,
+            String target,
+            long deletedCount,
+            long durationMs
+    ) {
+    }
+
     public record AuditLogCleanupResult(
             long deletedCount,
             int retentionDays,
             OffsetDateTime cutoff,
-            OffsetDateTime executedAt
+            OffsetDateTime executedAt,
+            List<AuditLogCleanupChunk> chunks
     ) {
     }
 }
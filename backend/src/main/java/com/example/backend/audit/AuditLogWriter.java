@@ -0,0 +1,329 @@
+package com.example.backend.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 監査ログを有界キューに溜め、バックグラウンドのスレッドからJDBCバッチINSERTでまとめて書き込むライタ。
+ * 業務トランザクションのコミット後にキューへ積むため、ロールバックされた操作の監査ログは残らない。
+ * キューが満杯の場合はenqueue-timeout-msだけ待ち、それでも空かなければoverflow-policyに従う。
+ * 書き込みは常に独立したトランザクション(REQUIRES_NEW)で行う。コミット後のコールバックから呼び出し元スレッドで
+ * 直接書き込む場合も、完了済みの業務トランザクションのコネクションに相乗りしてロールバックされることはない。
+ */
+@Component
+public class AuditLogWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    // IDはエンティティと同じシーケンスから1件ずつ採番する。増分50のシーケンスから取得した値はHibernateのpooled採番の範囲の上端にあたり、
+    // その範囲はHibernateには払い出されないため、エンティティ経由の保存とIDが衝突しない。
+    private static final String INSERT_SQL = """
+            insert into audit_logs (id, actor_username, actor_role, action, target_type, target_id, detail, created_at)
+            values (nextval('audit_logs_id_seq'), ?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final long POLL_INTERVAL_MS = 200;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeTransactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long enqueueTimeoutMs;
+    private final OverflowPolicy overflowPolicy;
+    private final Duration lateThreshold;
+    private final long shutdownTimeoutMs;
+    private final ZoneId storageZone;
+    private final boolean virtualThreads;
+    private final BlockingQueue<PendingAuditLog> queue;
+    // flushとバックグラウンド書き込みが同時にバッチを作らないよう、書き込みは常にこのロック内で行う。
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // キューに積んでからDBへ書き終えるまでの件数。flushの完了判定に使う。
+    private final AtomicLong pendingCount = new AtomicLong();
+
+    private final Counter enqueuedCounter;
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+    private final Counter overflowCounter;
+    private final Counter lateCounter;
+    private final Counter failedCounter;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public AuditLogWriter(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.audit.async.enabled:false}") boolean enabled,
+            @Value("${app.audit.async.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.audit.async.batch-size:500}") int batchSize,
+            @Value("${app.audit.async.enqueue-timeout-ms:50}") long enqueueTimeoutMs,
+            @Value("${app.audit.async.overflow-policy:CALLER_RUNS}") OverflowPolicy overflowPolicy,
+            @Value("${app.audit.async.late-threshold-ms:5000}") long lateThresholdMs,
+            @Value("${app.audit.async.shutdown-timeout-ms:10000}") long shutdownTimeoutMs,
+            @Value("${spring.jpa.properties.hibernate.jdbc.time_zone:}") String jdbcTimeZone,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.writeTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.enqueueTimeoutMs = Math.max(0, enqueueTimeoutMs);
+        this.overflowPolicy = overflowPolicy;
+        this.lateThreshold = Duration.ofMillis(Math.max(0, lateThresholdMs));
+        this.shutdownTimeoutMs = Math.max(0, shutdownTimeoutMs);
+        // JPA経由の書き込みと同じタイムゾーンでcreated_atを保存し、検索・保持期限の判定をそろえる。
+        this.storageZone = jdbcTimeZone == null || jdbcTimeZone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(jdbcTimeZone);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.virtualThreads = virtualThreads;
+
+        this.enqueuedCounter = meterRegistry.counter("app.audit.log.enqueued");
+        this.writtenCounter = meterRegistry.counter("app.audit.log.written");
+        this.droppedCounter = meterRegistry.counter("app.audit.log.dropped");
+        this.overflowCounter = meterRegistry.counter("app.audit.log.overflow");
+        this.lateCounter = meterRegistry.counter("app.audit.log.late");
+        this.failedCounter = meterRegistry.counter("app.audit.log.failed");
+        Gauge.builder("app.audit.log.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        Thread.Builder builder = virtualThreads
+                ? Thread.ofVirtual().name("audit-log-writer")
+                : Thread.ofPlatform().name("audit-log-writer").daemon(true);
+        writerThread = builder.start(this::runWriterLoop);
+    }
+
+    /**
+     * 監査ログを書き込み待ちにする。トランザクション中はコミット後に、それ以外は即時にキューへ積む。
+     */
+    public void submit(PendingAuditLog entry) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(entry);
+                }
+            });
+            return;
+        }
+        enqueue(entry);
+    }
+
+    /**
+     * キューに残っている監査ログを呼び出し元スレッドで書き込み、書き込み中のバッチの完了まで待つ。
+     */
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        drainAndWrite();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(shutdownTimeoutMs, POLL_INTERVAL_MS));
+        while (pendingCount.get() > 0 && System.nanoTime() < deadline) {
+            drainAndWrite();
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        if (writerThread != null) {
+            writerThread.interrupt();
+            try {
+                writerThread.join(shutdownTimeoutMs);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // 停止時に残った監査ログは取りこぼさないよう書き切る。
+        drainAndWrite();
+        if (pendingCount.get() > 0) {
+            log.warn("Audit log writer stopped with pending entries: pendingCount={}", pendingCount.get());
+        }
+    }
+
+    private void enqueue(PendingAuditLog entry) {
+        if (!running) {
+            // 停止処理中・停止後はキューを経由せず直接書き込む。
+            writeDirectly(entry);
+            return;
+        }
+        pendingCount.incrementAndGet();
+        boolean accepted;
+        try {
+            accepted = queue.offer(entry, enqueueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            accepted = queue.offer(entry);
+        }
+        if (accepted) {
+            enqueuedCounter.increment();
+            return;
+        }
+        pendingCount.decrementAndGet();
+
+        if (overflowPolicy == OverflowPolicy.DROP) {
+            droppedCounter.increment();
+            log.warn("Audit log dropped because the queue is full: action={}, targetType={}, targetId={}",
+                    entry.action(), entry.targetType(), entry.targetId());
+            return;
+        }
+        overflowCounter.increment();
+        writeDirectly(entry);
+    }
+
+    private void runWriterLoop() {
+        List<PendingAuditLog> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingAuditLog first = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException ex) {
+                if (!running) {
+                    break;
+                }
+            } catch (RuntimeException ex) {
+                log.error("Audit log writer loop failed", ex);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void drainAndWrite() {
+        List<PendingAuditLog> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void writeDirectly(PendingAuditLog entry) {
+        pendingCount.incrementAndGet();
+        writeBatch(List.of(entry));
+    }
+
+    private void writeBatch(List<PendingAuditLog> batch) {
+        writeLock.lock();
+        try {
+            insert(batch);
+            writtenCounter.increment(batch.size());
+            countLateEntries(batch);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to write audit log batch, retrying one by one: batchSize={}", batch.size(), ex);
+            retryOneByOne(batch);
+        } finally {
+            pendingCount.addAndGet(-batch.size());
+            writeLock.unlock();
+        }
+    }
+
+    // 1件の不正な行でバッチ全体を失わないよう1件ずつ書き直し、それでも失敗した行は内容をエラーログに残す。
+    private void retryOneByOne(List<PendingAuditLog> batch) {
+        for (PendingAuditLog entry : batch) {
+            try {
+                insert(List.of(entry));
+                writtenCounter.increment();
+                countLateEntries(List.of(entry));
+            } catch (RuntimeException ex) {
+                failedCounter.increment();
+                log.error("Failed to write audit log: actor={}, action={}, targetType={}, targetId={}, createdAt={}, detail={}",
+                        entry.actorUsername(), entry.action(), entry.targetType(), entry.targetId(),
+                        entry.createdAt(), entry.detail(), ex);
+            }
+        }
+    }
+
+    private void insert(List<PendingAuditLog> entries) {
+        writeTransactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_SQL, entries, entries.size(), (statement, entry) -> {
+                    statement.setString(1, entry.actorUsername());
+                    statement.setString(2, entry.actorRole());
+                    statement.setString(3, entry.action());
+                    statement.setString(4, entry.targetType());
+                    statement.setString(5, entry.targetId());
+                    statement.setString(6, entry.detail());
+                    statement.setTimestamp(7, Timestamp.valueOf(
+                            entry.createdAt().atZoneSameInstant(storageZone).toLocalDateTime()));
+                }));
+    }
+
+    private void countLateEntries(List<PendingAuditLog> batch) {
+        OffsetDateTime lateBefore = OffsetDateTime.now().minus(lateThreshold);
+        long lateEntries = batch.stream()
+                .filter(entry -> entry.createdAt().isBefore(lateBefore))
+                .count();
+        if (lateEntries > 0) {
+            lateCounter.increment(lateEntries);
+        }
+    }
+
+    /**
+     * キューが満杯のときの扱い。CALLER_RUNSは呼び出し元スレッドで直接書き込み、DROPは破棄して件数だけ記録する。
+     */
+    public enum OverflowPolicy {
+        CALLER_RUNS,
+        DROP
+    }
+
+    /**
+     * 書き込み待ちの監査ログ1件。作成日時は操作時点の値を保持する。
+     */
+    public record PendingAuditLog(
+            String actorUsername,
+            String actorRole,
+            String action,
+            String targetType,
+            String targetId,
+            String detail,
+            OffsetDateTime createdAt
+    ) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.backend.audit.dto;
+
+// 監査ログクリーンアップの1チャンク分(パーティション削除または件数上限付きDELETE)の結果。
+public record AuditLogCleanupChunkResponse(
+        String type,
+        String target,
+        long deletedCount,
+        long durationMs
+) {
+}
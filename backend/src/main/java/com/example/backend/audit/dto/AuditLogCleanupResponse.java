@@ -1,12 +1,14 @@
 package com.example.backend.audit.dto;
 
 import java.time.OffsetDateTime;
+import java.util.List;
 
 // 監査ログクリーンアップ結果を返すAPIレスポンス。
 public record AuditLogCleanupResponse(
         long deletedCount,
         int retentionDays,
         OffsetDateTime cutoff,
-        OffsetDateTime executedAt
+        OffsetDateTime executedAt,
+        List<AuditLogCleanupChunkResponse> chunks
 ) {
 }
@@ -4,6 +4,7 @@ import java.util.List;
 
 /**
  * 監査ログ一覧をページ単位で返すレスポンスモデル。
+ * totalElements/totalPagesは件数取得を省略した場合-1、nextCursorは次ページがない場合nullとなる。
  */
 public record AuditLogPageResponse(
         List<AuditLogResponse> items,
@@ -12,6 +13,7 @@ public record AuditLogPageResponse(
         long totalElements,
         int totalPages,
         boolean hasNext,
-        boolean hasPrevious
+        boolean hasPrevious,
+        String nextCursor
 ) {
 }
@@ -0,0 +1,58 @@
+package com.example.backend.common;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 件数上限と有効期限を持つプロセス内キャッシュ。
+ * 上限を超えた場合は最も長く参照されていないエントリから破棄し、期限切れのエントリは参照時に取り除く。
+ */
+public class BoundedTtlCache<K, V> {
+
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    public BoundedTtlCache(int maxEntries) {
+        int safeMaxEntries = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > safeMaxEntries;
+            }
+        };
+    }
+
+    /**
+     * 有効期限内の値を返す。未登録または期限切れの場合はnullを返す。
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.expiresAt().isAfter(Instant.now())) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    public synchronized void put(K key, V value, Instant expiresAt) {
+        if (!expiresAt.isAfter(Instant.now())) {
+            entries.remove(key);
+            return;
+        }
+        entries.put(key, new Entry<>(value, expiresAt));
+    }
+
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private record Entry<V>(V value, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.backend.common;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CSVを1行ずつレスポンスへ書き出すライタ。全件をメモリに保持せず、gzip圧縮にも対応する。
+ */
+public final class CsvStreamWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final MediaType CSV_MEDIA_TYPE = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    private static final MediaType GZIP_MEDIA_TYPE = new MediaType("application", "gzip");
+
+    private final Writer writer;
+
+    private CsvStreamWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    public static CsvStreamWriter open(OutputStream outputStream, boolean gzip) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(outputStream, BUFFER_SIZE) : outputStream;
+        return new CsvStreamWriter(new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE));
+    }
+
+    /**
+     * ストリーミング出力用のレスポンスを組み立てる。gzip指定時は.csv.gzとして返す。
+     */
+    public static ResponseEntity<StreamingResponseBody> response(String filename, boolean gzip, StreamingResponseBody body) {
+        String resolvedFilename = gzip ? filename + ".gz" : filename;
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + resolvedFilename + "\"")
+                .contentType(gzip ? GZIP_MEDIA_TYPE : CSV_MEDIA_TYPE)
+                .body(body);
+    }
+
+    public void writeHeader(String header) {
+        write(header);
+        write("\n");
+    }
+
+    /**
+     * 値をすべてダブルクォートで囲んで1行出力する。
+     */
+    public void writeRow(String... values) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            line.append(escapeCsv(values[i]));
+        }
+        line.append('\n');
+        write(line.toString());
+    }
+
+    @Override
+    public void close() throws IOException {
+        // gzip時はcloseでトレーラまで書き出す。
+        writer.close();
+    }
+
+    private void write(String value) {
+        try {
+            writer.write(value);
+        } catch (IOException ex) {
+            // クエリのストリーム処理中に呼ばれるため、非チェック例外として中断させる。
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static String escapeCsv(String value) {
+        if (value == null) {
+            return "\"\"";
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
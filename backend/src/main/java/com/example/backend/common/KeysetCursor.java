@@ -0,0 +1,60 @@
+package com.example.backend.common;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * (時刻, id) の降順キーセットページングで次ページ開始位置を表すカーソル。
+ * クライアントには中身を意識させないよう、base64url文字列として受け渡す。
+ */
+public record KeysetCursor(OffsetDateTime timestamp, long id) {
+
+    public static KeysetCursor of(OffsetDateTime timestamp, Long id) {
+        return new KeysetCursor(timestamp, id);
+    }
+
+    public String encode() {
+        Instant instant = timestamp.toInstant();
+        String raw = instant.getEpochSecond() + ":" + instant.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * (timestampAttribute, id) の降順で、このカーソルより後ろの行に絞り込む条件を返す。
+     */
+    public <T> Specification<T> after(String timestampAttribute) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.or(
+                criteriaBuilder.lessThan(root.<OffsetDateTime>get(timestampAttribute), timestamp),
+                criteriaBuilder.and(
+                        criteriaBuilder.equal(root.<OffsetDateTime>get(timestampAttribute), timestamp),
+                        criteriaBuilder.lessThan(root.<Long>get("id"), id)
+                )
+        );
+    }
+
+    /**
+     * カーソル文字列を復元する。未指定時はnull、形式不正時はBadRequestExceptionとする。
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("unexpected cursor format");
+            }
+            Instant instant = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new KeysetCursor(OffsetDateTime.ofInstant(instant, ZoneOffset.UTC), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeException ex) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
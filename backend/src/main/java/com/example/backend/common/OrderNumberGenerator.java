@@ -0,0 +1,12 @@
+package com.example.backend.common;
+
+/**
+ * 受注・発注の伝票番号を採番する。実装は重複しない番号をDBへ問い合わせずに返す。
+ */
+public interface OrderNumberGenerator {
+
+    /**
+     * 接頭辞(例: SO, PO)付きの新しい伝票番号を返す。
+     */
+    String next(String prefix);
+}
@@ -0,0 +1,59 @@
+package com.example.backend.common;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.OffsetDateTime;
+import java.util.function.Supplier;
+
+/**
+ * 一覧リソースの版。ETag・Last-Modifiedを作り、条件付きGETで変化がなければ本文を組み立てずに304を返す。
+ */
+public record ResourceVersion(String tag, OffsetDateTime lastModified) {
+
+    /**
+     * 集計値を組み合わせて版を作る。最終更新日時は各集計値のうち最も新しいものを使う。
+     */
+    public static ResourceVersion of(VersionMarker... markers) {
+        StringBuilder tag = new StringBuilder();
+        OffsetDateTime lastModified = null;
+        for (VersionMarker marker : markers) {
+            if (!tag.isEmpty()) {
+                tag.append('.');
+            }
+            tag.append(valueOf(marker.count()))
+                    .append('-')
+                    .append(marker.lastModified() == null ? 0 : marker.lastModified().toInstant().toEpochMilli())
+                    .append('-')
+                    .append(valueOf(marker.revision()));
+            if (marker.lastModified() != null && (lastModified == null || marker.lastModified().isAfter(lastModified))) {
+                lastModified = marker.lastModified();
+            }
+        }
+        return new ResourceVersion(tag.toString(), lastModified);
+    }
+
+    public String eTag() {
+        // 本文のバイト列ではなくデータの版から作るため弱いETagとする。
+        return "W/\"" + tag + "\"";
+    }
+
+    /**
+     * If-None-Match / If-Modified-Sinceが現在の版と一致すれば304を、そうでなければ本文を返す。
+     * キャッシュは保持させつつ毎回再検証させるため、Cache-Controlはno-cache(private)とする。
+     */
+    public <T> ResponseEntity<T> toResponse(WebRequest request, Supplier<T> body) {
+        long lastModifiedMillis = lastModified == null ? -1 : lastModified.toInstant().toEpochMilli();
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (request.checkNotModified(eTag(), lastModifiedMillis)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().cacheControl(cacheControl).body(body.get());
+    }
+
+    private static long valueOf(Long value) {
+        return value == null ? 0 : value;
+    }
+}
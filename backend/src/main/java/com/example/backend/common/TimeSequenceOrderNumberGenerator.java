@@ -0,0 +1,54 @@
+package com.example.backend.common;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 時刻(UTC、秒単位)・ノードID・秒内連番から伝票番号を作る採番器。形式は {@code PREFIX-yyyyMMddHHmmss-NNSSSS}
+ * (NN=ノードID、SSSS=秒内連番)で、ノードIDが重ならない限り複数ノードでも重複しない。
+ * 秒内連番を使い切った場合や時計が戻った場合は、採番上の時刻を進めて単調増加を保つ。
+ */
+@Component
+public class TimeSequenceOrderNumberGenerator implements OrderNumberGenerator {
+
+    private static final int MAX_NODE_ID = 99;
+    private static final long SEQUENCES_PER_SECOND = 10_000;
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss")
+            .withZone(ZoneOffset.UTC);
+
+    private final String nodePart;
+    private final Clock clock;
+    // 直前に払い出した「エポック秒 * 秒内連番の上限 + 秒内連番」。
+    private final AtomicLong lastIssued = new AtomicLong();
+
+    @Autowired
+    public TimeSequenceOrderNumberGenerator(@Value("${app.order-number.node-id:0}") int nodeId) {
+        this(nodeId, Clock.systemUTC());
+    }
+
+    TimeSequenceOrderNumberGenerator(int nodeId, Clock clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("app.order-number.node-id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodePart = String.format("%02d", nodeId);
+        this.clock = clock;
+    }
+
+    @Override
+    public String next(String prefix) {
+        long nowFloor = clock.instant().getEpochSecond() * SEQUENCES_PER_SECOND;
+        long issued = lastIssued.updateAndGet(previous -> Math.max(previous + 1, nowFloor));
+        long epochSecond = issued / SEQUENCES_PER_SECOND;
+        long sequence = issued % SEQUENCES_PER_SECOND;
+        String sequencePart = Long.toString(sequence);
+        return prefix + "-" + TIMESTAMP_FORMATTER.format(Instant.ofEpochSecond(epochSecond))
+                + "-" + nodePart + "0".repeat(4 - sequencePart.length()) + sequencePart;
+    }
+}
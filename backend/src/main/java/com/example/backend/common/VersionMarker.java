@@ -0,0 +1,9 @@
+package com.example.backend.common;
+
+import java.time.OffsetDateTime;
+
+/**
+ * テーブル1つ分の変更検知用の集計値。件数・最終更新日時・単調に増える補助値(version合計や最大IDなど)を持つ。
+ */
+public record VersionMarker(Long count, OffsetDateTime lastModified, Long revision) {
+}
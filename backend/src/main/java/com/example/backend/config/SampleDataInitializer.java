@@ -3,7 +3,6 @@ package com.example.backend.config;
 import com.example.backend.inventory.Inventory;
 import com.example.backend.inventory.InventoryRepository;
 import com.example.backend.order.OrderService;
-import com.example.backend.order.SalesOrder;
 import com.example.backend.order.SalesOrderRepository;
 import com.example.backend.order.dto.CreateSalesOrderItemRequest;
 import com.example.backend.order.dto.CreateSalesOrderRequest;
@@ -11,7 +10,6 @@ import com.example.backend.product.Product;
 import com.example.backend.product.ProductCategory;
 import com.example.backend.product.ProductCategoryRepository;
 import com.example.backend.product.ProductRepository;
-import com.example.backend.purchase.PurchaseOrder;
 import com.example.backend.purchase.PurchaseOrderRepository;
 import com.example.backend.purchase.PurchaseOrderService;
 import com.example.backend.purchase.dto.CreatePurchaseOrderItemRequest;
@@ -530,19 +528,11 @@ public class SampleDataInitializer implements ApplicationRunner {
     }
 
     private long countSampleSalesOrders() {
-        return salesOrderRepository.findAllDetailed().stream()
-                .map(SalesOrder::getCustomerName)
-                .filter(Objects::nonNull)
-                .filter(name -> name.startsWith(SAMPLE_TAG))
-                .count();
+        return salesOrderRepository.countByCustomerNameStartingWith(SAMPLE_TAG);
     }
 
     private long countSamplePurchaseOrders() {
-        return purchaseOrderRepository.findAllDetailed().stream()
-                .map(PurchaseOrder::getNote)
-                .filter(Objects::nonNull)
-                .filter(note -> note.startsWith(SAMPLE_TAG))
-                .count();
+        return purchaseOrderRepository.countByNoteStartingWith(SAMPLE_TAG);
     }
 
     private boolean isSampleProduct(Product product) {
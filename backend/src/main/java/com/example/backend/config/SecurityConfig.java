@@ -2,6 +2,7 @@ package com.example.backend.config;
 
 import com.example.backend.security.JwtAuthenticationFilter;
 import com.example.backend.security.AdminIpRestrictionFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -54,6 +55,8 @@ public class SecurityConfig {
                 .authorizeHttpRequests(authorize -> authorize
                         // CORSのプリフライト(OPTIONS)を許可してブラウザからの呼び出しを成立させる。
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                        // ストリーミング応答の非同期ディスパッチは、初回リクエストで認可済みのため再判定しない。
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/auth/login").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/auth/refresh").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/auth/logout").permitAll()
@@ -80,8 +83,10 @@ public class SecurityConfig {
         // フロントは毎リクエストでAuthorization(Bearer)を送るため、必要ヘッダを明示的に許可する。
         configuration.setAllowedOrigins(allowedOrigins);
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(List.of("Authorization", "Content-Type", "Idempotency-Key", "X-Request-Id"));
-        configuration.setExposedHeaders(List.of("Location", "X-Request-Id"));
+        configuration.setAllowedHeaders(List.of(
+                "Authorization", "Content-Type", "Idempotency-Key", "X-Request-Id", "If-None-Match", "If-Modified-Since"
+        ));
+        configuration.setExposedHeaders(List.of("Location", "X-Request-Id", "ETag", "Last-Modified"));
         configuration.setAllowCredentials(false);
         configuration.setMaxAge(3600L);
 
@@ -30,9 +30,16 @@ public class ApiIdempotencyKey {
     @Column(name = "idempotency_key", nullable = false, length = 128)
     private String idempotencyKey;
 
-    @Column(name = "response_body", nullable = false, columnDefinition = "TEXT")
+    @Column(name = "response_body", columnDefinition = "TEXT")
     private String responseBody;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "response_format", nullable = false, length = 20)
+    private IdempotencyResponseFormat responseFormat = IdempotencyResponseFormat.JSON;
+
+    @Column(name = "response_payload", columnDefinition = "BYTEA")
+    private byte[] responsePayload;
+
     @Column(name = "created_at", nullable = false)
     private OffsetDateTime createdAt;
 
@@ -82,6 +89,22 @@ public class ApiIdempotencyKey {
         this.responseBody = responseBody;
     }
 
+    public IdempotencyResponseFormat getResponseFormat() {
+        return responseFormat;
+    }
+
+    public void setResponseFormat(IdempotencyResponseFormat responseFormat) {
+        this.responseFormat = responseFormat;
+    }
+
+    public byte[] getResponsePayload() {
+        return responsePayload;
+    }
+
+    public void setResponsePayload(byte[] responsePayload) {
+        this.responsePayload = responsePayload;
+    }
+
     public OffsetDateTime getCreatedAt() {
         return createdAt;
     }
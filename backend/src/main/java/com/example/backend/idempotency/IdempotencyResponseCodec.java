@@ -0,0 +1,86 @@
+package com.example.backend.idempotency;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 冪等キーに保存する応答JSONを格納形式に応じて変換する。
+ * 読み出しは行ごとの形式を見て行うため、形式を切り替えても既存の行はそのまま読める。
+ */
+public final class IdempotencyResponseCodec {
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private IdempotencyResponseCodec() {
+    }
+
+    /**
+     * 応答JSONを指定形式でエンティティへ設定する。
+     */
+    public static void write(ApiIdempotencyKey key, String json, IdempotencyResponseFormat format) {
+        key.setResponseFormat(format);
+        if (format == IdempotencyResponseFormat.JSON_DEFLATE) {
+            key.setResponseBody(null);
+            key.setResponsePayload(deflate(json));
+            return;
+        }
+        key.setResponseBody(json);
+        key.setResponsePayload(null);
+    }
+
+    /**
+     * エンティティに保存された応答をJSON文字列へ戻す。
+     */
+    public static String read(ApiIdempotencyKey key) {
+        if (key.getResponseFormat() == IdempotencyResponseFormat.JSON_DEFLATE) {
+            return inflate(key.getResponsePayload());
+        }
+        return key.getResponseBody();
+    }
+
+    static byte[] deflate(String json) {
+        byte[] input = json.getBytes(StandardCharsets.UTF_8);
+        // 応答は数KB程度のため、圧縮率より速度を優先する。
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(64, input.length / 4));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                output.write(buffer, 0, length);
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static String inflate(byte[] payload) {
+        if (payload == null) {
+            throw new IllegalStateException("Compressed idempotent response is missing");
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(payload);
+            ByteArrayOutputStream output = new ByteArrayOutputStream(payload.length * 4);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Compressed idempotent response is truncated");
+                }
+                output.write(buffer, 0, length);
+            }
+            return output.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException ex) {
+            throw new IllegalStateException("Failed to inflate idempotent response", ex);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.backend.idempotency;
+
+/**
+ * 冪等キーに保存する応答の格納形式。
+ */
+public enum IdempotencyResponseFormat {
+    /** response_bodyにJSON文字列をそのまま保存する（従来形式）。 */
+    JSON,
+    /** JSONをdeflate圧縮してresponse_payloadに保存する。 */
+    JSON_DEFLATE
+}
@@ -1,15 +1,28 @@
 package com.example.backend.idempotency;
 
+import com.example.backend.common.BoundedTtlCache;
 import com.example.backend.common.BusinessRuleException;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Supplier;
 
 /**
@@ -22,22 +35,54 @@ public class IdempotencyService {
 
     private final ApiIdempotencyKeyRepository repository;
     private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
     private final boolean enabled;
     private final long ttlSeconds;
+    private final IdempotencyResponseFormat responseFormat;
+    private final long negativeTtlSeconds;
+    private final long inFlightWaitMs;
+    // 保存済みの応答(Stored)と、DBに存在しないことを確認済みのキー(NotSeen)を保持するローカルキャッシュ。
+    private final BoundedTtlCache<CacheKey, CachedResult> cache;
+    // 実行中のキー。同じキーの後続リクエストは先行リクエストのコミットを待って結果を共有する。
+    private final ConcurrentHashMap<CacheKey, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter hitCounter;
+    private final Counter negativeHitCounter;
+    private final Counter missCounter;
+    private final Counter coalescedCounter;
 
     public IdempotencyService(
             ApiIdempotencyKeyRepository repository,
             ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
             @Value("${app.idempotency.enabled:true}") boolean enabled,
-            @Value("${app.idempotency.ttl-seconds:86400}") long ttlSeconds
+            @Value("${app.idempotency.ttl-seconds:86400}") long ttlSeconds,
+            @Value("${app.idempotency.response-format:JSON}") IdempotencyResponseFormat responseFormat,
+            @Value("${app.idempotency.cache.max-entries:10000}") int cacheMaxEntries,
+            @Value("${app.idempotency.cache.negative-ttl-seconds:30}") long negativeTtlSeconds,
+            @Value("${app.idempotency.in-flight-wait-ms:30000}") long inFlightWaitMs
     ) {
         this.repository = repository;
         this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.enabled = enabled;
         this.ttlSeconds = ttlSeconds;
+        this.responseFormat = responseFormat;
+        this.negativeTtlSeconds = Math.max(0, negativeTtlSeconds);
+        this.inFlightWaitMs = Math.max(1, inFlightWaitMs);
+        this.cache = new BoundedTtlCache<>(cacheMaxEntries);
+
+        this.hitCounter = meterRegistry.counter("app.idempotency.cache", "result", "hit");
+        this.negativeHitCounter = meterRegistry.counter("app.idempotency.cache", "result", "negative_hit");
+        this.missCounter = meterRegistry.counter("app.idempotency.cache", "result", "miss");
+        this.coalescedCounter = meterRegistry.counter("app.idempotency.coalesced");
     }
 
-    @Transactional
+    /**
+     * 冪等キー付きの処理を1回だけ実行し、同じキーの再送には保存済みの応答を返す。
+     * キーの照会・処理本体・応答の保存は1トランザクションで行い、同じキーの同時リクエストはその完了を待つ。
+     */
     public <T> T execute(
             String actorUsername,
             String endpointKey,
@@ -54,46 +99,125 @@ public class IdempotencyService {
             return action.get();
         }
 
+        CacheKey cacheKey = new CacheKey(actorUsername, endpointKey, normalizedKey);
+        while (true) {
+            CachedResult cached = cache.get(cacheKey);
+            if (cached instanceof Stored stored) {
+                hitCounter.increment();
+                return deserialize(stored.responseBody(), responseType);
+            }
+
+            CompletableFuture<String> execution = new CompletableFuture<>();
+            CompletableFuture<String> running = inFlight.putIfAbsent(cacheKey, execution);
+            if (running != null) {
+                coalescedCounter.increment();
+                String responseBody = awaitRunning(running);
+                if (responseBody != null) {
+                    return deserialize(responseBody, responseType);
+                }
+                // 先行リクエストが失敗した場合は、自分が実行者になって再試行する。
+                continue;
+            }
+
+            try {
+                boolean knownAbsent = cached instanceof NotSeen;
+                return transactionTemplate.execute(status ->
+                        executeOwned(cacheKey, knownAbsent, execution, responseType, action));
+            } finally {
+                inFlight.remove(cacheKey, execution);
+                if (!execution.isDone()) {
+                    execution.completeExceptionally(new IllegalStateException("Idempotent execution did not complete"));
+                }
+            }
+        }
+    }
+
+    private <T> T executeOwned(
+            CacheKey cacheKey,
+            boolean knownAbsent,
+            CompletableFuture<String> execution,
+            Class<T> responseType,
+            Supplier<T> action
+    ) {
         OffsetDateTime now = OffsetDateTime.now();
-        var existing = repository.findByActorUsernameAndEndpointKeyAndIdempotencyKey(
-                actorUsername,
-                endpointKey,
-                normalizedKey
-        );
-        if (existing.isPresent()) {
-            ApiIdempotencyKey key = existing.get();
-            if (key.getExpiresAt().isAfter(now)) {
-                return deserialize(key.getResponseBody(), responseType);
+        if (knownAbsent) {
+            // 直前にDBで未登録を確認済みのため、照会を省略する。重複は一意制約で検出される。
+            negativeHitCounter.increment();
+        } else {
+            missCounter.increment();
+            var existing = repository.findByActorUsernameAndEndpointKeyAndIdempotencyKey(
+                    cacheKey.actorUsername(),
+                    cacheKey.endpointKey(),
+                    cacheKey.idempotencyKey()
+            );
+            if (existing.isPresent()) {
+                ApiIdempotencyKey key = existing.get();
+                if (key.getExpiresAt().isAfter(now)) {
+                    String storedBody = IdempotencyResponseCodec.read(key);
+                    cache.put(cacheKey, new Stored(storedBody), key.getExpiresAt().toInstant());
+                    execution.complete(storedBody);
+                    return deserialize(storedBody, responseType);
+                }
+                repository.delete(key);
+            }
+            if (negativeTtlSeconds > 0) {
+                cache.put(cacheKey, NotSeen.INSTANCE, Instant.now().plusSeconds(negativeTtlSeconds));
             }
-            repository.delete(key);
         }
 
         T response = action.get();
         String responseBody = serialize(response);
 
         ApiIdempotencyKey key = new ApiIdempotencyKey();
-        key.setActorUsername(actorUsername);
-        key.setEndpointKey(endpointKey);
-        key.setIdempotencyKey(normalizedKey);
-        key.setResponseBody(responseBody);
+        key.setActorUsername(cacheKey.actorUsername());
+        key.setEndpointKey(cacheKey.endpointKey());
+        key.setIdempotencyKey(cacheKey.idempotencyKey());
+        IdempotencyResponseCodec.write(key, responseBody, responseFormat);
         key.setExpiresAt(now.plusSeconds(Math.max(60, ttlSeconds)));
 
         try {
             repository.save(key);
         } catch (DataIntegrityViolationException ex) {
-            // 同時リクエストで先に保存された場合は既存結果を返す。
+            // 他ノードなどで先に保存された場合は既存結果を返す。
+            cache.remove(cacheKey);
             ApiIdempotencyKey saved = repository.findByActorUsernameAndEndpointKeyAndIdempotencyKey(
-                            actorUsername,
-                            endpointKey,
-                            normalizedKey
+                            cacheKey.actorUsername(),
+                            cacheKey.endpointKey(),
+                            cacheKey.idempotencyKey()
                     )
                     .orElseThrow(() -> ex);
-            return deserialize(saved.getResponseBody(), responseType);
+            return deserialize(IdempotencyResponseCodec.read(saved), responseType);
         }
 
+        // 待機中のリクエストとキャッシュには、応答がコミットされてから公開する。
+        Instant expiresAt = key.getExpiresAt().toInstant();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    cache.put(cacheKey, new Stored(responseBody), expiresAt);
+                    execution.complete(responseBody);
+                } else {
+                    execution.completeExceptionally(new IllegalStateException("Idempotent execution was rolled back"));
+                }
+            }
+        });
         return response;
     }
 
+    private String awaitRunning(CompletableFuture<String> running) {
+        try {
+            return running.get(inFlightWaitMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            return null;
+        } catch (TimeoutException ex) {
+            throw new BusinessRuleException("A request with the same Idempotency-Key is still in progress");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BusinessRuleException("A request with the same Idempotency-Key is still in progress");
+        }
+    }
+
     @Scheduled(cron = "${jobs.idempotency-cleanup-cron:0 */30 * * * *}")
     @Transactional
     public void cleanupExpiredKeys() {
@@ -131,4 +255,17 @@ public class IdempotencyService {
             throw new IllegalStateException("Failed to deserialize idempotent response", ex);
         }
     }
+
+    private record CacheKey(String actorUsername, String endpointKey, String idempotencyKey) {
+    }
+
+    private sealed interface CachedResult permits Stored, NotSeen {
+    }
+
+    private record Stored(String responseBody) implements CachedResult {
+    }
+
+    private enum NotSeen implements CachedResult {
+        INSTANCE
+    }
 }
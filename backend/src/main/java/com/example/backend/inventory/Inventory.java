@@ -2,6 +2,8 @@ package com.example.backend.inventory;
 
 import com.example.backend.product.Product;
 import jakarta.persistence.*;
+
+import java.time.OffsetDateTime;
 /**
  * DBテーブルに対応する永続化エンティティ。
  */
@@ -11,7 +13,8 @@ import jakarta.persistence.*;
 public class Inventory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventories_id_seq")
+    @SequenceGenerator(name = "inventories_id_seq", sequenceName = "inventories_id_seq", allocationSize = 50)
     private Long id;
 
     @OneToOne(fetch = FetchType.LAZY, optional = false)
@@ -28,6 +31,15 @@ public class Inventory {
     @Column(nullable = false)
     private Long version;
 
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void onWrite() {
+        this.updatedAt = OffsetDateTime.now();
+    }
+
     public Long getId() {
         return id;
     }
@@ -59,4 +71,8 @@ public class Inventory {
     public void setReservedQuantity(Integer reservedQuantity) {
         this.reservedQuantity = reservedQuantity;
     }
+
+    public OffsetDateTime getUpdatedAt() {
+        return updatedAt;
+    }
 }
@@ -0,0 +1,15 @@
+package com.example.backend.inventory;
+
+/**
+ * 在庫台帳が保持する販売可能数・引当済み数のスナップショット。
+ */
+public record InventoryCounts(int available, int reserved) {
+
+    public InventoryCounts plus(int availableDelta, int reservedDelta) {
+        return new InventoryCounts(available + availableDelta, reserved + reservedDelta);
+    }
+
+    public boolean isValid() {
+        return available >= 0 && reserved >= 0;
+    }
+}
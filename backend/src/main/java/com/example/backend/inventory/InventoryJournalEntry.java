@@ -0,0 +1,78 @@
+package com.example.backend.inventory;
+
+import jakarta.persistence.*;
+
+import java.time.OffsetDateTime;
+/**
+ * 在庫台帳で引当した差分を、inventoriesへ反映するまで保持する永続化エンティティ。
+ */
+
+@Entity
+@Table(name = "inventory_journal")
+public class InventoryJournalEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_journal_id_seq")
+    @SequenceGenerator(name = "inventory_journal_id_seq", sequenceName = "inventory_journal_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "available_delta", nullable = false)
+    private Integer availableDelta;
+
+    @Column(name = "reserved_delta", nullable = false)
+    private Integer reservedDelta;
+
+    @Column(nullable = false, length = 40)
+    private String reason;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    @PrePersist
+    void onCreate() {
+        this.createdAt = OffsetDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Integer getAvailableDelta() {
+        return availableDelta;
+    }
+
+    public void setAvailableDelta(Integer availableDelta) {
+        this.availableDelta = availableDelta;
+    }
+
+    public Integer getReservedDelta() {
+        return reservedDelta;
+    }
+
+    public void setReservedDelta(Integer reservedDelta) {
+        this.reservedDelta = reservedDelta;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.backend.inventory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * inventory_journalの未反映差分を商品単位に合算し、inventoriesへまとめて反映するサービス。
+ */
+@Service
+public class InventoryJournalFlusher {
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryJournalRepository inventoryJournalRepository;
+    private final int batchSize;
+
+    public InventoryJournalFlusher(
+            InventoryRepository inventoryRepository,
+            InventoryJournalRepository inventoryJournalRepository,
+            @Value("${app.inventory.ledger.flush-batch-size:500}") int batchSize
+    ) {
+        this.inventoryRepository = inventoryRepository;
+        this.inventoryJournalRepository = inventoryJournalRepository;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * 古い順に最大batchSize件のジャーナルを反映して削除し、処理件数を返す。
+     * 反映と削除は同一トランザクションのため、途中で停止しても二重反映は起きない。
+     */
+    @Transactional
+    public int flushBatch() {
+        List<InventoryJournalEntry> entries = inventoryJournalRepository.findOldest(PageRequest.of(0, batchSize));
+        if (entries.isEmpty()) {
+            return 0;
+        }
+
+        // 商品ID昇順で更新し、受注側の一括ロックと同じ順序に揃える。
+        Map<Long, int[]> deltas = new TreeMap<>();
+        for (InventoryJournalEntry entry : entries) {
+            int[] delta = deltas.computeIfAbsent(entry.getProductId(), id -> new int[2]);
+            delta[0] += entry.getAvailableDelta();
+            delta[1] += entry.getReservedDelta();
+        }
+        OffsetDateTime appliedAt = OffsetDateTime.now();
+        for (Map.Entry<Long, int[]> delta : deltas.entrySet()) {
+            inventoryRepository.applyDelta(delta.getKey(), delta.getValue()[0], delta.getValue()[1], appliedAt);
+        }
+
+        inventoryJournalRepository.deleteAllInBatch(entries);
+        return entries.size();
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.backend.inventory;
+
+import com.example.backend.common.VersionMarker;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import jakarta.persistence.LockModeType;
+import java.util.List;
+/**
+ * JPA経由で永続化データへアクセスするリポジトリ。
+ */
+
+public interface InventoryJournalRepository extends JpaRepository<InventoryJournalEntry, Long> {
+
+    // 反映処理が重複起動しても同じ行を二重に反映しないよう、対象行をロックして取得する。
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select j from InventoryJournalEntry j order by j.id asc")
+    List<InventoryJournalEntry> findOldest(Pageable pageable);
+
+    // 商品一覧の条件付きGET用。未反映の在庫差分も一覧の在庫数に含まれるため、追記を最大IDで検知する。
+    @Query("select new com.example.backend.common.VersionMarker(count(j), max(j.createdAt), coalesce(max(j.id), 0)) from InventoryJournalEntry j")
+    VersionMarker findVersionMarker();
+}
@@ -0,0 +1,143 @@
+package com.example.backend.inventory;
+
+import com.example.backend.common.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * 商品ごとの販売可能数・引当済み数をメモリ上のCASセルで管理し、inventoriesの行ロックなしで引当する在庫台帳。
+ * 差分は呼び出し元トランザクション内でinventory_journalへ記録し、InventoryJournalFlusherが非同期にまとめて反映する。
+ * セルはプロセス内にのみ存在するため、単一ノード構成でのみ有効化すること。
+ */
+@Service
+public class InventoryLedger {
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryJournalRepository inventoryJournalRepository;
+    private final boolean enabled;
+    private final ConcurrentHashMap<Long, AtomicReference<InventoryCounts>> cells = new ConcurrentHashMap<>();
+
+    public InventoryLedger(
+            InventoryRepository inventoryRepository,
+            InventoryJournalRepository inventoryJournalRepository,
+            @Value("${app.inventory.ledger.enabled:false}") boolean enabled
+    ) {
+        this.inventoryRepository = inventoryRepository;
+        this.inventoryJournalRepository = inventoryJournalRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 読み込み済みセルの現在値を返す。未読み込みの商品はDB値が最新のためemptyを返す。
+     */
+    public Optional<InventoryCounts> peek(Long productId) {
+        AtomicReference<InventoryCounts> cell = cells.get(productId);
+        return cell == null ? Optional.empty() : Optional.of(cell.get());
+    }
+
+    /**
+     * 在庫差分をセルへ適用し、適用前の数量を返す。
+     * 適用後にavailable/reservedが負になる場合は適用せず、onViolationの例外を送出する。
+     * 減算は引当のため即時にセルへ反映し、ロールバック時は逆差分で戻す。加算はコミット後にだけ反映する。
+     */
+    public InventoryCounts apply(
+            Long productId,
+            int availableDelta,
+            int reservedDelta,
+            String reason,
+            Function<InventoryCounts, ? extends RuntimeException> onViolation
+    ) {
+        return update(productId, current -> current.plus(availableDelta, reservedDelta), reason, onViolation);
+    }
+
+    /**
+     * 販売可能数を指定値へ置き換え、適用前の数量を返す（CSV取込の在庫上書き用）。
+     */
+    public InventoryCounts setAvailable(
+            Long productId,
+            int availableQuantity,
+            String reason,
+            Function<InventoryCounts, ? extends RuntimeException> onViolation
+    ) {
+        return update(productId, current -> new InventoryCounts(availableQuantity, current.reserved()), reason, onViolation);
+    }
+
+    private InventoryCounts update(
+            Long productId,
+            UnaryOperator<InventoryCounts> change,
+            String reason,
+            Function<InventoryCounts, ? extends RuntimeException> onViolation
+    ) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Inventory ledger requires an active transaction");
+        }
+
+        AtomicReference<InventoryCounts> cell = cellFor(productId);
+        InventoryCounts current;
+        int availableDelta;
+        int reservedDelta;
+        while (true) {
+            current = cell.get();
+            InventoryCounts next = change.apply(current);
+            if (!next.isValid()) {
+                throw onViolation.apply(current);
+            }
+            availableDelta = next.available() - current.available();
+            reservedDelta = next.reserved() - current.reserved();
+            // 未コミットの加算を他のトランザクションが引き当てないよう、先に反映するのは減算分だけにする。
+            InventoryCounts reserved = current.plus(Math.min(availableDelta, 0), Math.min(reservedDelta, 0));
+            if (cell.compareAndSet(current, reserved)) {
+                break;
+            }
+        }
+
+        int eagerAvailable = Math.min(availableDelta, 0);
+        int eagerReserved = Math.min(reservedDelta, 0);
+        int deferredAvailable = Math.max(availableDelta, 0);
+        int deferredReserved = Math.max(reservedDelta, 0);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (deferredAvailable != 0 || deferredReserved != 0) {
+                    cell.updateAndGet(counts -> counts.plus(deferredAvailable, deferredReserved));
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED && (eagerAvailable != 0 || eagerReserved != 0)) {
+                    // ジャーナル行もロールバック済みのため、先に反映した減算だけを戻せば整合する。
+                    cell.updateAndGet(counts -> counts.plus(-eagerAvailable, -eagerReserved));
+                }
+            }
+        });
+
+        InventoryJournalEntry entry = new InventoryJournalEntry();
+        entry.setProductId(productId);
+        entry.setAvailableDelta(availableDelta);
+        entry.setReservedDelta(reservedDelta);
+        entry.setReason(reason);
+        inventoryJournalRepository.save(entry);
+        return current;
+    }
+
+    private AtomicReference<InventoryCounts> cellFor(Long productId) {
+        // 初回のみinventoriesと未反映ジャーナルの合計から初期化する。以降はセルが正となる。
+        return cells.computeIfAbsent(productId, id -> new AtomicReference<>(
+                inventoryRepository.findCountsWithPendingJournal(id)
+                        .orElseThrow(() -> new ResourceNotFoundException("Inventory not found for product: " + id))
+        ));
+    }
+}
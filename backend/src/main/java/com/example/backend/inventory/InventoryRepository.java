@@ -1,11 +1,17 @@
 package com.example.backend.inventory;
 
+import com.example.backend.common.VersionMarker;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import jakarta.persistence.LockModeType;
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 /**
@@ -22,9 +28,87 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     @Query("select i from Inventory i where i.product.id = :productId")
     Optional<Inventory> findByProductIdForUpdate(@Param("productId") Long productId);
 
+    // 複数商品の在庫を1回のSELECT ... FOR UPDATEで取得する。
+    // ロック順を常に商品ID昇順に固定し、明細順の異なる受注同士のデッドロックを防ぐ。
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Inventory i where i.product.id in :productIds order by i.product.id asc")
+    List<Inventory> findByProductIdInForUpdate(@Param("productIds") Collection<Long> productIds);
+
+    // 在庫台帳のセル初期化用。未反映のジャーナル差分を同一ステートメントで加算し、反映処理との競合でずれないようにする。
+    @Query("""
+            select new com.example.backend.inventory.InventoryCounts(
+                cast(i.availableQuantity + coalesce((select sum(j.availableDelta) from InventoryJournalEntry j
+                    where j.productId = i.product.id), 0) as Integer),
+                cast(i.reservedQuantity + coalesce((select sum(j.reservedDelta) from InventoryJournalEntry j
+                    where j.productId = i.product.id), 0) as Integer)
+            )
+            from Inventory i
+            where i.product.id = :productId
+            """)
+    Optional<InventoryCounts> findCountsWithPendingJournal(@Param("productId") Long productId);
+
+    // ジャーナル差分の一括反映。versionを進め、JPA経由で読み込んだ古い在庫エンティティの上書きを楽観ロックで防ぐ。
+    @Modifying
+    @Query("""
+            update Inventory i
+            set i.availableQuantity = i.availableQuantity + :availableDelta,
+                i.reservedQuantity = i.reservedQuantity + :reservedDelta,
+                i.version = i.version + 1,
+                i.updatedAt = :updatedAt
+            where i.product.id = :productId
+            """)
+    int applyDelta(
+            @Param("productId") Long productId,
+            @Param("availableDelta") int availableDelta,
+            @Param("reservedDelta") int reservedDelta,
+            @Param("updatedAt") OffsetDateTime updatedAt
+    );
+
+    // 商品一覧の条件付きGET用。在庫の更新はすべてversionを進めるため、合計値の変化で更新を検知する。
+    @Query("select new com.example.backend.common.VersionMarker(count(i), max(i.updatedAt), coalesce(sum(i.version), 0)) from Inventory i")
+    VersionMarker findVersionMarker();
+
     @Query("select i from Inventory i join fetch i.product p where i.availableQuantity <= :threshold order by i.availableQuantity asc")
     List<Inventory> findLowStockInventories(@Param("threshold") Integer threshold);
 
     @Query("select i from Inventory i join fetch i.product p order by i.availableQuantity asc")
     List<Inventory> findAllWithProduct();
+
+    // 補充提案の対象(再発注数が正で、販売可能数が再発注点以下)だけをDB側で絞り込む。並び順は不足数の多い順・販売可能数の少ない順。
+    // supplierId指定時は、提案に使う契約(有効な仕入先のうち主仕入先優先・単価の安い順・ID順の先頭)がその仕入先の商品に限る。
+    @Query(value = """
+            select i from Inventory i join fetch i.product p
+            where p.reorderQuantity > 0
+              and i.availableQuantity <= case when p.reorderPoint < 0 then 0 else p.reorderPoint end
+              and (:supplierId is null or exists (
+                    select 1 from ProductSupplier ps join ps.supplier s
+                    where ps.product = p and s.active = true and s.id = :supplierId
+                      and not exists (
+                            select 1 from ProductSupplier better join better.supplier bs
+                            where better.product = p and bs.active = true
+                              and ((better.primarySupplier = true and ps.primarySupplier = false)
+                                or (better.primarySupplier = ps.primarySupplier and better.unitCost < ps.unitCost)
+                                or (better.primarySupplier = ps.primarySupplier and better.unitCost = ps.unitCost and better.id < ps.id))
+                      )
+              ))
+            order by (case when p.reorderPoint < 0 then 0 else p.reorderPoint end) - i.availableQuantity desc,
+                     i.availableQuantity asc,
+                     p.id asc
+            """, countQuery = """
+            select count(i) from Inventory i join i.product p
+            where p.reorderQuantity > 0
+              and i.availableQuantity <= case when p.reorderPoint < 0 then 0 else p.reorderPoint end
+              and (:supplierId is null or exists (
+                    select 1 from ProductSupplier ps join ps.supplier s
+                    where ps.product = p and s.active = true and s.id = :supplierId
+                      and not exists (
+                            select 1 from ProductSupplier better join better.supplier bs
+                            where better.product = p and bs.active = true
+                              and ((better.primarySupplier = true and ps.primarySupplier = false)
+                                or (better.primarySupplier = ps.primarySupplier and better.unitCost < ps.unitCost)
+                                or (better.primarySupplier = ps.primarySupplier and better.unitCost = ps.unitCost and better.id < ps.id))
+                      )
+              ))
+            """)
+    Page<Inventory> findReplenishmentCandidates(@Param("supplierId") Long supplierId, Pageable pageable);
 }
@@ -0,0 +1,15 @@
+package com.example.backend.inventory;
+
+import java.time.OffsetDateTime;
+
+/**
+ * 販売可能数が在庫不足しきい値以下へ下がったことを表すイベント。同じ商品の通知待ちイベントは最新の1件に集約する。
+ */
+public record LowStockEvent(
+        Long productId,
+        String sku,
+        String productName,
+        int availableQuantity,
+        OffsetDateTime detectedAt
+) {
+}
@@ -0,0 +1,130 @@
+package com.example.backend.inventory;
+
+import com.example.backend.product.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 在庫を更新した時点で販売可能数が在庫不足しきい値をまたいだかを判定し、不足へ転じた商品を通知待ちとして溜めるサービス。
+ * 判定結果はトランザクションのコミット後にだけ反映するため、ロールバックされた更新では通知しない。
+ * 通知待ちは商品単位で最新の1件に集約し、LowStockAlertJobが一定間隔でまとめて取り出す。
+ */
+@Service
+public class LowStockMonitor {
+
+    private final int threshold;
+    private final MeterRegistry meterRegistry;
+    private final Map<Long, LowStockEvent> pendingEvents = new ConcurrentHashMap<>();
+    // 不足状態と判定済みの商品ID。起動時にDBの不足商品で初期化し、夜間の突き合わせで実際の不足商品と置き換える。
+    private final Set<Long> knownLowStockProductIds = ConcurrentHashMap.newKeySet();
+
+    public LowStockMonitor(
+            @Value("${jobs.low-stock-threshold:10}") int threshold,
+            MeterRegistry meterRegistry
+    ) {
+        this.threshold = threshold;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * 販売可能数の変化を記録する。しきい値を下へまたいだ場合は通知待ちに加え、上へ戻った場合は通知待ちから外す。
+     */
+    public void recordAvailableChange(Product product, int availableBefore, int availableAfter) {
+        boolean becameLow = availableBefore > threshold && availableAfter <= threshold;
+        boolean recovered = availableBefore <= threshold && availableAfter > threshold;
+        if (!becameLow && !recovered) {
+            return;
+        }
+
+        Long productId = product.getId();
+        Runnable apply = becameLow
+                ? () -> {
+                    markLow(new LowStockEvent(productId, product.getSku(), product.getName(), availableAfter, OffsetDateTime.now()));
+                    meterRegistry.counter("app.inventory.low-stock.crossings").increment();
+                }
+                : () -> markRecovered(productId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    /**
+     * 通知待ちのイベントを販売可能数の少ない順に取り出す。取り出したイベントは通知待ちから消える。
+     */
+    public List<LowStockEvent> drainPendingEvents() {
+        List<LowStockEvent> drained = new ArrayList<>();
+        for (Long productId : pendingEvents.keySet()) {
+            LowStockEvent event = pendingEvents.remove(productId);
+            if (event != null) {
+                drained.add(event);
+            }
+        }
+        drained.sort(Comparator.comparingInt(LowStockEvent::availableQuantity).thenComparing(LowStockEvent::productId));
+        return drained;
+    }
+
+    /**
+     * 全件走査で得た不足在庫と突き合わせ、更新時の判定から漏れていた商品を通知待ちへ加えて、その件数を返す。
+     * CSV取込での在庫上書きや再起動をまたいだ更新など、イベントを経由しない変化をここで拾う。
+     */
+    public int reconcile(Collection<Inventory> lowStockInventories) {
+        Set<Long> currentLowStockProductIds = new HashSet<>();
+        int missed = 0;
+        OffsetDateTime now = OffsetDateTime.now();
+        for (Inventory inventory : lowStockInventories) {
+            Product product = inventory.getProduct();
+            currentLowStockProductIds.add(product.getId());
+            if (!knownLowStockProductIds.contains(product.getId())) {
+                markLow(new LowStockEvent(product.getId(), product.getSku(), product.getName(), inventory.getAvailableQuantity(), now));
+                missed++;
+            }
+        }
+        knownLowStockProductIds.retainAll(currentLowStockProductIds);
+        meterRegistry.counter("app.inventory.low-stock.reconciled").increment(missed);
+        return missed;
+    }
+
+    /**
+     * 起動時点で既に不足している商品を判定済みとして登録する。通知待ちには加えないため、再起動のたびに同じ商品を通知し直さない。
+     * 停止前に通知待ちのまま残っていた商品も通知済みと同じ扱いになる。
+     */
+    public void seedKnownLowStock(Collection<Inventory> lowStockInventories) {
+        for (Inventory inventory : lowStockInventories) {
+            knownLowStockProductIds.add(inventory.getProduct().getId());
+        }
+    }
+
+    private void markLow(LowStockEvent event) {
+        knownLowStockProductIds.add(event.productId());
+        pendingEvents.put(event.productId(), event);
+    }
+
+    private void markRecovered(Long productId) {
+        knownLowStockProductIds.remove(productId);
+        pendingEvents.remove(productId);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.backend.jobs;
+
+import com.example.backend.audit.AuditLogPartitionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 監査ログの月パーティションを先の月まで事前に作成するジョブ。
+ * 月初の書き込みが既定パーティションへ入ると削除時にパーティション単位で落とせないため、起動時と毎日作成を確認する。
+ */
+@Component
+public class AuditLogPartitionJob {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogPartitionJob.class);
+
+    private final AuditLogPartitionService auditLogPartitionService;
+    private final int monthsAhead;
+
+    public AuditLogPartitionJob(
+            AuditLogPartitionService auditLogPartitionService,
+            @Value("${jobs.audit-log-partition-months-ahead:3}") int monthsAhead
+    ) {
+        this.auditLogPartitionService = auditLogPartitionService;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        ensurePartitions();
+    }
+
+    @Scheduled(cron = "${jobs.audit-log-partition-cron:0 0 2 * * *}")
+    public void ensurePartitions() {
+        List<String> created = auditLogPartitionService.ensureMonthlyPartitions(monthsAhead);
+        if (!created.isEmpty()) {
+            log.info("Audit log partitions created: {}", created);
+        }
+    }
+}
@@ -42,10 +42,11 @@ public class AuditLogRetentionJob {
         );
 
         log.info(
-                "Audit log retention cleanup finished: deletedCount={}, retentionDays={}, cutoff={}",
+                "Audit log retention cleanup finished: deletedCount={}, retentionDays={}, cutoff={}, chunks={}",
                 result.deletedCount(),
                 result.retentionDays(),
-                result.cutoff()
+                result.cutoff(),
+                result.chunks().size()
         );
     }
 }
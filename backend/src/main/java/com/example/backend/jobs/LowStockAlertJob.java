@@ -0,0 +1,58 @@
+package com.example.backend.jobs;
+
+import com.example.backend.inventory.LowStockEvent;
+import com.example.backend.inventory.LowStockMonitor;
+import com.example.backend.ops.AlertNotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 在庫更新時に検知した在庫不足を一定間隔ごとにまとめ、1通のダイジェストとして通知するジョブ。
+ */
+@Component
+public class LowStockAlertJob {
+
+    private static final Logger log = LoggerFactory.getLogger(LowStockAlertJob.class);
+
+    private final LowStockMonitor lowStockMonitor;
+    private final AlertNotificationService alertNotificationService;
+    private final int maxListedItems;
+
+    public LowStockAlertJob(
+            LowStockMonitor lowStockMonitor,
+            AlertNotificationService alertNotificationService,
+            @Value("${jobs.low-stock-alert-max-items:50}") int maxListedItems
+    ) {
+        this.lowStockMonitor = lowStockMonitor;
+        this.alertNotificationService = alertNotificationService;
+        this.maxListedItems = Math.max(1, maxListedItems);
+    }
+
+    @Scheduled(fixedDelayString = "${jobs.low-stock-alert-window-ms:60000}")
+    public void runDigest() {
+        List<LowStockEvent> events = lowStockMonitor.drainPendingEvents();
+        if (events.isEmpty()) {
+            return;
+        }
+
+        String body = events.stream()
+                .limit(maxListedItems)
+                .map(event -> event.sku() + " " + event.productName() + " (available=" + event.availableQuantity() + ")")
+                .collect(Collectors.joining("\n"));
+        if (events.size() > maxListedItems) {
+            body += "\n... and " + (events.size() - maxListedItems) + " more";
+        }
+
+        log.warn("Low-stock digest: {} products at or below threshold={}", events.size(), lowStockMonitor.getThreshold());
+        alertNotificationService.notifyOperationalDigest(
+                "Low stock: " + events.size() + " products",
+                "Products at or below threshold=" + lowStockMonitor.getThreshold() + ":\n" + body
+        );
+    }
+}
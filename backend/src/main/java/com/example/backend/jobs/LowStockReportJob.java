@@ -2,15 +2,18 @@ package com.example.backend.jobs;
 
 import com.example.backend.inventory.Inventory;
 import com.example.backend.inventory.InventoryRepository;
+import com.example.backend.inventory.LowStockMonitor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
 /**
- * 定期的に在庫不足を監視してログ出力するジョブ。
+ * 在庫不足を全件走査し、在庫更新時の検知から漏れた商品を補う夜間の突き合わせジョブ。
+ * 通知そのものはLowStockAlertJobのダイジェストに任せる。
  */
 
 @Component
@@ -19,29 +22,31 @@ public class LowStockReportJob {
     private static final Logger log = LoggerFactory.getLogger(LowStockReportJob.class);
 
     private final InventoryRepository inventoryRepository;
-    private final Integer lowStockThreshold;
+    private final LowStockMonitor lowStockMonitor;
 
-    public LowStockReportJob(
-            InventoryRepository inventoryRepository,
-            @Value("${jobs.low-stock-threshold:10}") Integer lowStockThreshold
-    ) {
+    public LowStockReportJob(InventoryRepository inventoryRepository, LowStockMonitor lowStockMonitor) {
         this.inventoryRepository = inventoryRepository;
-        this.lowStockThreshold = lowStockThreshold;
+        this.lowStockMonitor = lowStockMonitor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedOnStartup() {
+        // 判定済みの不足商品はメモリにしか持たないため、再起動後の突き合わせで既存の不足商品を漏れとして通知し直さないよう初期化する。
+        List<Inventory> lowStocks = inventoryRepository.findLowStockInventories(lowStockMonitor.getThreshold());
+        lowStockMonitor.seedKnownLowStock(lowStocks);
+        log.info("Low-stock monitor seeded on startup: {} products under threshold={}", lowStocks.size(), lowStockMonitor.getThreshold());
     }
 
     @Scheduled(cron = "${jobs.low-stock-report-cron:0 0 1 * * *}")
     public void runLowStockReport() {
-        List<Inventory> lowStocks = inventoryRepository.findLowStockInventories(lowStockThreshold);
-        if (lowStocks.isEmpty()) {
-            log.info("Low-stock report: no products under threshold={}", lowStockThreshold);
+        int threshold = lowStockMonitor.getThreshold();
+        List<Inventory> lowStocks = inventoryRepository.findLowStockInventories(threshold);
+        int missed = lowStockMonitor.reconcile(lowStocks);
+        if (missed > 0) {
+            log.warn("Low-stock reconciliation: {} of {} products under threshold={} were not detected on update",
+                    missed, lowStocks.size(), threshold);
             return;
         }
-
-        String summary = lowStocks.stream()
-                .map(inventory -> inventory.getProduct().getSku() + "(available=" + inventory.getAvailableQuantity() + ")")
-                .reduce((left, right) -> left + ", " + right)
-                .orElse("-");
-
-        log.warn("Low-stock report: {} products under threshold={}. {}", lowStocks.size(), lowStockThreshold, summary);
+        log.info("Low-stock reconciliation: {} products under threshold={}, all detected on update", lowStocks.size(), threshold);
     }
 }
@@ -0,0 +1,48 @@
+package com.example.backend.jobs;
+
+import com.example.backend.sales.SalesRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * 直近の売上日次集計を明細から作り直し、手動修正などで生じたずれを解消するジョブ。
+ * 当日分は受注確定で加算中のため対象外とし、前日までを再集計する。
+ */
+@Component
+public class SalesRollupBackfillJob {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupBackfillJob.class);
+
+    private final SalesRollupService salesRollupService;
+    private final boolean enabled;
+    private final int backfillDays;
+
+    public SalesRollupBackfillJob(
+            SalesRollupService salesRollupService,
+            @Value("${jobs.sales-rollup-backfill-enabled:true}") boolean enabled,
+            @Value("${jobs.sales-rollup-backfill-days:7}") int backfillDays
+    ) {
+        this.salesRollupService = salesRollupService;
+        this.enabled = enabled;
+        this.backfillDays = backfillDays;
+    }
+
+    @Scheduled(cron = "${jobs.sales-rollup-backfill-cron:0 15 3 * * *}")
+    public void runBackfill() {
+        if (!enabled || backfillDays <= 0) {
+            return;
+        }
+
+        LocalDate to = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+        LocalDate from = to.minusDays(backfillDays - 1L);
+        int rebuiltDays = salesRollupService.rebuild(from, to, SalesRollupService.RebuildTrigger.SCHEDULED);
+
+        log.info("Sales rollup backfill finished: from={}, to={}, rebuiltDays={}", from, to, rebuiltDays);
+    }
+}
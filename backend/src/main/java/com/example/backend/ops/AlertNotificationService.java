@@ -73,6 +73,16 @@ public class AlertNotificationService {
         notify("RUNBOOK_" + key, "[Runbook] " + subject, body);
     }
 
+    /**
+     * 呼び出し側で一定期間分をまとめ済みの通知を送る。内容が毎回異なるため、キー単位の送信間隔制限はかけない。
+     */
+    public void notifyOperationalDigest(String subject, String body) {
+        if (!enabled) {
+            return;
+        }
+        send("[Ops] " + subject, body);
+    }
+
     private void notify(String key, String subject, String body) {
         if (!enabled) {
             return;
@@ -81,6 +91,10 @@ public class AlertNotificationService {
             return;
         }
 
+        send(subject, body);
+    }
+
+    private void send(String subject, String body) {
         sendToSlack(subject, body);
         sendToEmail(subject, body);
     }
@@ -3,13 +3,15 @@ package com.example.backend.order;
 import com.example.backend.idempotency.IdempotencyService;
 import com.example.backend.order.dto.CreateSalesOrderRequest;
 import com.example.backend.order.dto.SalesOrderResponse;
+import com.example.backend.order.dto.SalesOrderSummaryPageResponse;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.OffsetDateTime;
 /**
  * HTTPリクエストを受けてユースケースを公開するコントローラ。
  */
@@ -28,8 +30,15 @@ public class OrderController {
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN','OPERATOR','VIEWER')")
-    public List<SalesOrderResponse> getOrders() {
-        return orderService.getOrders();
+    public SalesOrderSummaryPageResponse getOrders(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            @RequestParam(required = false) String customer,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        return orderService.getOrders(status, from, to, customer, cursor, size);
     }
 
     @GetMapping("/{orderId}")
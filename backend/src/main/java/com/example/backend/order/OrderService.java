@@ -1,53 +1,124 @@
 package com.example.backend.order;
 
 import com.example.backend.audit.AuditLogService;
+import com.example.backend.common.BadRequestException;
 import com.example.backend.common.InsufficientStockException;
 import com.example.backend.common.InvalidOrderStateException;
+import com.example.backend.common.KeysetCursor;
+import com.example.backend.common.OrderNumberGenerator;
 import com.example.backend.common.ResourceNotFoundException;
 import com.example.backend.inventory.Inventory;
+import com.example.backend.inventory.InventoryCounts;
+import com.example.backend.inventory.InventoryLedger;
 import com.example.backend.inventory.InventoryRepository;
+import com.example.backend.inventory.LowStockMonitor;
 import com.example.backend.order.dto.CreateSalesOrderItemRequest;
 import com.example.backend.order.dto.CreateSalesOrderRequest;
 import com.example.backend.order.dto.SalesOrderItemResponse;
 import com.example.backend.order.dto.SalesOrderResponse;
+import com.example.backend.order.dto.SalesOrderSummaryPageResponse;
+import com.example.backend.order.dto.SalesOrderSummaryResponse;
 import com.example.backend.product.Product;
 import com.example.backend.product.ProductRepository;
+import com.example.backend.sales.SalesRollupService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
 
-    private static final DateTimeFormatter ORDER_NUMBER_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private static final int MAX_ORDER_PAGE_SIZE = 200;
+    // 期間・カーソル未指定の場合に使う、DBの時刻型で表現できる範囲内の下限・上限。
+    private static final OffsetDateTime MIN_TIME = OffsetDateTime.of(1970, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    private static final OffsetDateTime MAX_TIME = OffsetDateTime.of(9999, 12, 31, 23, 59, 59, 0, ZoneOffset.UTC);
 
     private final SalesOrderRepository salesOrderRepository;
     private final ProductRepository productRepository;
     private final InventoryRepository inventoryRepository;
+    private final InventoryLedger inventoryLedger;
+    private final LowStockMonitor lowStockMonitor;
     private final AuditLogService auditLogService;
+    private final SalesRollupService salesRollupService;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final boolean perLineLock;
 
     public OrderService(
             SalesOrderRepository salesOrderRepository,
             ProductRepository productRepository,
             InventoryRepository inventoryRepository,
-            AuditLogService auditLogService
+            InventoryLedger inventoryLedger,
+            LowStockMonitor lowStockMonitor,
+            AuditLogService auditLogService,
+            SalesRollupService salesRollupService,
+            OrderNumberGenerator orderNumberGenerator,
+            @Value("${app.order.reservation.per-line-lock:false}") boolean perLineLock
     ) {
         this.salesOrderRepository = salesOrderRepository;
         this.productRepository = productRepository;
         this.inventoryRepository = inventoryRepository;
+        this.inventoryLedger = inventoryLedger;
+        this.lowStockMonitor = lowStockMonitor;
         this.auditLogService = auditLogService;
+        this.salesRollupService = salesRollupService;
+        this.orderNumberGenerator = orderNumberGenerator;
+        this.perLineLock = perLineLock;
     }
 
+    /**
+     * 受注の要約を作成日時の新しい順にキーセットページングで返す。明細は詳細取得時にだけ読み込む。
+     */
     @Transactional(readOnly = true)
-    public List<SalesOrderResponse> getOrders() {
-        return salesOrderRepository.findAllDetailed().stream()
-                .map(this::toResponse)
-                .toList();
+    public SalesOrderSummaryPageResponse getOrders(
+            String status,
+            OffsetDateTime from,
+            OffsetDateTime to,
+            String customer,
+            String cursor,
+            int size
+    ) {
+        int safeSize = Math.max(1, Math.min(size, MAX_ORDER_PAGE_SIZE));
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BadRequestException("from must be less than or equal to to");
+        }
+        KeysetCursor keysetCursor = KeysetCursor.decode(cursor);
+        String normalizedCustomer = customer == null || customer.isBlank() ? null : customer.trim();
+
+        // 1件多く読み、次ページの有無を判定する。
+        List<SalesOrderSummaryRow> rows = salesOrderRepository.findSummaries(
+                resolveStatusFilter(status),
+                from == null ? MIN_TIME : from,
+                to == null ? MAX_TIME : to,
+                normalizedCustomer == null ? "%" : "%" + escapeLikePattern(normalizedCustomer.toLowerCase(Locale.ROOT)) + "%",
+                keysetCursor == null ? MAX_TIME : keysetCursor.timestamp(),
+                keysetCursor == null ? Long.MAX_VALUE : keysetCursor.id(),
+                PageRequest.of(0, safeSize + 1)
+        );
+        boolean hasNext = rows.size() > safeSize;
+        List<SalesOrderSummaryRow> pageRows = hasNext ? rows.subList(0, safeSize) : rows;
+        SalesOrderSummaryRow last = pageRows.isEmpty() ? null : pageRows.get(pageRows.size() - 1);
+        return new SalesOrderSummaryPageResponse(
+                pageRows.stream().map(this::toSummaryResponse).toList(),
+                safeSize,
+                hasNext,
+                hasNext ? KeysetCursor.of(last.createdAt(), last.id()).encode() : null
+        );
     }
 
     @Transactional(readOnly = true)
@@ -59,31 +130,57 @@ public class OrderService {
     public SalesOrderResponse createOrder(CreateSalesOrderRequest request) {
         // 新規受注はまずRESERVEDとし、在庫を引当済みに振り替える。
         SalesOrder order = new SalesOrder();
-        order.setOrderNumber(generateOrderNumber());
+        order.setOrderNumber(orderNumberGenerator.next("SO"));
         order.setCustomerName(request.customerName());
         order.setStatus(OrderStatus.RESERVED);
 
+        // 同一商品の複数明細は合算して判定する（TreeMapで商品ID昇順を保つ）。
+        Map<Long, Integer> requestedQuantities = new TreeMap<>();
         for (CreateSalesOrderItemRequest itemRequest : request.items()) {
-            Product product = productRepository.findById(itemRequest.productId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + itemRequest.productId()));
+            requestedQuantities.merge(itemRequest.productId(), itemRequest.quantity(), Integer::sum);
+        }
 
-            Inventory inventory = inventoryRepository.findByProductIdForUpdate(itemRequest.productId())
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                            "Inventory not found for product: " + itemRequest.productId()
-                    ));
+        Map<Long, Product> products = productRepository.findAllById(requestedQuantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        for (CreateSalesOrderItemRequest itemRequest : request.items()) {
+            if (!products.containsKey(itemRequest.productId())) {
+                throw new ResourceNotFoundException("Product not found: " + itemRequest.productId());
+            }
+        }
 
-            // 在庫の不変条件: availableを超える引当は許可しない。
-            if (inventory.getAvailableQuantity() < itemRequest.quantity()) {
-                throw new InsufficientStockException(
-                        "Insufficient stock for SKU " + product.getSku() + ": available="
-                                + inventory.getAvailableQuantity() + ", requested=" + itemRequest.quantity()
+        if (inventoryLedger.isEnabled()) {
+            // 在庫台帳有効時はDB行ロックを取らず、メモリ上のセルで引当する。
+            for (Map.Entry<Long, Integer> entry : requestedQuantities.entrySet()) {
+                int requestedQuantity = entry.getValue();
+                InventoryCounts before = inventoryLedger.apply(entry.getKey(), -requestedQuantity, requestedQuantity, "ORDER_RESERVE",
+                        current -> insufficientStock(products.get(entry.getKey()), current.available(), requestedQuantity));
+                lowStockMonitor.recordAvailableChange(
+                        products.get(entry.getKey()), before.available(), before.available() - requestedQuantity
                 );
             }
+        } else if (perLineLock) {
+            reservePerLine(request.items(), products);
+        } else {
+            Map<Long, Inventory> inventories = lockInventories(requestedQuantities.keySet());
+            for (Map.Entry<Long, Integer> entry : requestedQuantities.entrySet()) {
+                Inventory inventory = inventories.get(entry.getKey());
+                int requestedQuantity = entry.getValue();
+
+                // 在庫の不変条件: availableを超える引当は許可しない。
+                if (inventory.getAvailableQuantity() < requestedQuantity) {
+                    throw insufficientStock(products.get(entry.getKey()), inventory.getAvailableQuantity(), requestedQuantity);
+                }
+
+                // 引当処理: available -> reserved。
+                int availableBefore = inventory.getAvailableQuantity();
+                inventory.setAvailableQuantity(availableBefore - requestedQuantity);
+                inventory.setReservedQuantity(inventory.getReservedQuantity() + requestedQuantity);
+                lowStockMonitor.recordAvailableChange(products.get(entry.getKey()), availableBefore, inventory.getAvailableQuantity());
+            }
+        }
 
-            // 引当処理: available -> reserved。
-            inventory.setAvailableQuantity(inventory.getAvailableQuantity() - itemRequest.quantity());
-            inventory.setReservedQuantity(inventory.getReservedQuantity() + itemRequest.quantity());
-
+        for (CreateSalesOrderItemRequest itemRequest : request.items()) {
+            Product product = products.get(itemRequest.productId());
             SalesOrderItem orderItem = new SalesOrderItem();
             orderItem.setProduct(product);
             orderItem.setQuantity(itemRequest.quantity());
@@ -109,23 +206,29 @@ public class OrderService {
             throw new InvalidOrderStateException("Only RESERVED orders can be confirmed. Current status: " + order.getStatus());
         }
 
-        for (SalesOrderItem item : order.getItems()) {
-            Inventory inventory = inventoryRepository.findByProductIdForUpdate(item.getProduct().getId())
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                            "Inventory not found for product: " + item.getProduct().getId()
-                    ));
-
-            // 確定前にreserved数量の整合性を再確認する。
-            if (inventory.getReservedQuantity() < item.getQuantity()) {
-                throw new InsufficientStockException(
-                        "Reserved quantity is inconsistent for SKU " + item.getProduct().getSku()
-                );
+        if (inventoryLedger.isEnabled()) {
+            for (SalesOrderItem item : order.getItems()) {
+                inventoryLedger.apply(item.getProduct().getId(), 0, -item.getQuantity(), "ORDER_CONFIRM",
+                        current -> reservedInconsistent(item));
             }
+        } else {
+            Map<Long, Inventory> inventories = lockInventories(order.getItems());
+            for (SalesOrderItem item : order.getItems()) {
+                Inventory inventory = inventories.get(item.getProduct().getId());
+
+                // 確定前にreserved数量の整合性を再確認する。
+                if (inventory.getReservedQuantity() < item.getQuantity()) {
+                    throw reservedInconsistent(item);
+                }
 
-            inventory.setReservedQuantity(inventory.getReservedQuantity() - item.getQuantity());
+                inventory.setReservedQuantity(inventory.getReservedQuantity() - item.getQuantity());
+            }
         }
 
         order.setStatus(OrderStatus.CONFIRMED);
+        // 売上日時となるupdatedAtを確定させてから、同じ日付の売上集計へ加算する。
+        salesOrderRepository.flush();
+        salesRollupService.recordConfirmedOrder(order);
         auditLogService.log(
                 "ORDER_CONFIRM",
                 "ORDER",
@@ -143,21 +246,24 @@ public class OrderService {
             throw new InvalidOrderStateException("Only RESERVED orders can be cancelled. Current status: " + order.getStatus());
         }
 
-        for (SalesOrderItem item : order.getItems()) {
-            Inventory inventory = inventoryRepository.findByProductIdForUpdate(item.getProduct().getId())
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                            "Inventory not found for product: " + item.getProduct().getId()
-                    ));
-
-            if (inventory.getReservedQuantity() < item.getQuantity()) {
-                throw new InsufficientStockException(
-                        "Reserved quantity is inconsistent for SKU " + item.getProduct().getSku()
-                );
+        if (inventoryLedger.isEnabled()) {
+            for (SalesOrderItem item : order.getItems()) {
+                inventoryLedger.apply(item.getProduct().getId(), item.getQuantity(), -item.getQuantity(), "ORDER_CANCEL",
+                        current -> reservedInconsistent(item));
+            }
+        } else {
+            Map<Long, Inventory> inventories = lockInventories(order.getItems());
+            for (SalesOrderItem item : order.getItems()) {
+                Inventory inventory = inventories.get(item.getProduct().getId());
+
+                if (inventory.getReservedQuantity() < item.getQuantity()) {
+                    throw reservedInconsistent(item);
+                }
+
+                // キャンセル時はreserved -> availableに戻す。
+                inventory.setReservedQuantity(inventory.getReservedQuantity() - item.getQuantity());
+                inventory.setAvailableQuantity(inventory.getAvailableQuantity() + item.getQuantity());
             }
-
-            // キャンセル時はreserved -> availableに戻す。
-            inventory.setReservedQuantity(inventory.getReservedQuantity() - item.getQuantity());
-            inventory.setAvailableQuantity(inventory.getAvailableQuantity() + item.getQuantity());
         }
 
         order.setStatus(OrderStatus.CANCELLED);
@@ -170,20 +276,94 @@ public class OrderService {
         return toResponse(order);
     }
 
+    private InsufficientStockException insufficientStock(Product product, int availableQuantity, int requestedQuantity) {
+        return new InsufficientStockException(
+                "Insufficient stock for SKU " + product.getSku() + ": available="
+                        + availableQuantity + ", requested=" + requestedQuantity
+        );
+    }
+
+    private InsufficientStockException reservedInconsistent(SalesOrderItem item) {
+        return new InsufficientStockException(
+                "Reserved quantity is inconsistent for SKU " + item.getProduct().getSku()
+        );
+    }
+
+    /**
+     * 一括ロック導入前の引当方式。明細の順に1行ずつ在庫をロックして引き当てる。
+     * ロック順が明細順になりデッドロックし得るため、性能比較(ベースライン計測)以外では使わない。
+     */
+    private void reservePerLine(List<CreateSalesOrderItemRequest> items, Map<Long, Product> products) {
+        for (CreateSalesOrderItemRequest itemRequest : items) {
+            Inventory inventory = inventoryRepository.findByProductIdForUpdate(itemRequest.productId())
+                    .orElseThrow(() -> new ResourceNotFoundException(
+                            "Inventory not found for product: " + itemRequest.productId()
+                    ));
+            if (inventory.getAvailableQuantity() < itemRequest.quantity()) {
+                throw insufficientStock(products.get(itemRequest.productId()), inventory.getAvailableQuantity(), itemRequest.quantity());
+            }
+
+            int availableBefore = inventory.getAvailableQuantity();
+            inventory.setAvailableQuantity(availableBefore - itemRequest.quantity());
+            inventory.setReservedQuantity(inventory.getReservedQuantity() + itemRequest.quantity());
+            lowStockMonitor.recordAvailableChange(products.get(itemRequest.productId()), availableBefore, inventory.getAvailableQuantity());
+        }
+    }
+
+    private Map<Long, Inventory> lockInventories(List<SalesOrderItem> items) {
+        Set<Long> productIds = new TreeSet<>();
+        for (SalesOrderItem item : items) {
+            productIds.add(item.getProduct().getId());
+        }
+        return lockInventories(productIds);
+    }
+
+    private Map<Long, Inventory> lockInventories(Collection<Long> productIds) {
+        // 明細ごとに行ロックを取らず、商品ID昇順で1回のクエリにまとめてロックする。
+        Map<Long, Inventory> inventories = new HashMap<>();
+        for (Inventory inventory : inventoryRepository.findByProductIdInForUpdate(productIds)) {
+            inventories.put(inventory.getProduct().getId(), inventory);
+        }
+        for (Long productId : productIds) {
+            if (!inventories.containsKey(productId)) {
+                throw new ResourceNotFoundException("Inventory not found for product: " + productId);
+            }
+        }
+        return inventories;
+    }
+
     private SalesOrder findOrderDetailedById(Long orderId) {
         return salesOrderRepository.findDetailedById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found: " + orderId));
     }
 
-    private String generateOrderNumber() {
-        String orderNumber;
-        do {
-            String timestamp = LocalDateTime.now(ZoneOffset.UTC).format(ORDER_NUMBER_DATE_FORMATTER);
-            int random = ThreadLocalRandom.current().nextInt(1000, 10_000);
-            orderNumber = "SO-" + timestamp + "-" + random;
-        } while (salesOrderRepository.existsByOrderNumber(orderNumber));
+    private Set<OrderStatus> resolveStatusFilter(String status) {
+        if (status == null || status.isBlank()) {
+            return EnumSet.allOf(OrderStatus.class);
+        }
+        try {
+            return EnumSet.of(OrderStatus.valueOf(status.trim().toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("status must be one of: " + Arrays.toString(OrderStatus.values()));
+        }
+    }
 
-        return orderNumber;
+    // 利用者の入力をLIKEの部分一致に埋め込むため、ワイルドカードとエスケープ文字を文字として扱わせる。
+    private String escapeLikePattern(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private SalesOrderSummaryResponse toSummaryResponse(SalesOrderSummaryRow row) {
+        return new SalesOrderSummaryResponse(
+                row.id(),
+                row.orderNumber(),
+                row.customerName(),
+                row.status().name(),
+                row.createdAt(),
+                row.updatedAt(),
+                Math.toIntExact(row.lineCount()),
+                row.totalAmount()
+        );
     }
 
     private SalesOrderResponse toResponse(SalesOrder order) {
@@ -14,7 +14,8 @@ import java.util.List;
 public class SalesOrder {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_orders_id_seq")
+    @SequenceGenerator(name = "sales_orders_id_seq", sequenceName = "sales_orders_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "order_number", nullable = false, unique = true, length = 64)
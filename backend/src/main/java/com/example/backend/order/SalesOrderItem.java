@@ -13,7 +13,8 @@ import java.math.BigDecimal;
 public class SalesOrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_order_items_id_seq")
+    @SequenceGenerator(name = "sales_order_items_id_seq", sequenceName = "sales_order_items_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -1,76 +1,140 @@
 package com.example.backend.order;
 
+import com.example.backend.sales.dto.SalesDailyAggregate;
+import com.example.backend.sales.dto.SalesLineResponse;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import jakarta.persistence.QueryHint;
+
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 /**
  * JPA経由で永続化データへアクセスするリポジトリ。
  */
 
 public interface SalesOrderRepository extends JpaRepository<SalesOrder, Long> {
 
-    boolean existsByOrderNumber(String orderNumber);
-
     @EntityGraph(attributePaths = {"items", "items.product"})
     @Query("select distinct so from SalesOrder so where so.id = :id")
     Optional<SalesOrder> findDetailedById(@Param("id") Long id);
 
-    @EntityGraph(attributePaths = {"items", "items.product"})
-    @Query("select distinct so from SalesOrder so order by so.createdAt desc")
-    List<SalesOrder> findAllDetailed();
-
-    @EntityGraph(attributePaths = {"items", "items.product"})
+    // 一覧用の要約。確定・取消で変わらない(作成日時, id)の降順キーセットで、カーソルより後ろの行だけを明細件数・合計金額つきで返す。
+    // customerPatternは \ をエスケープ文字としたLIKEパターンで渡す。
     @Query("""
-            select distinct so
+            select new com.example.backend.order.SalesOrderSummaryRow(
+                so.id, so.orderNumber, so.customerName, so.status, so.createdAt, so.updatedAt,
+                count(i.id), coalesce(sum(i.unitPrice * i.quantity), 0)
+            )
             from SalesOrder so
+            left join so.items i
+            where so.status in :statuses
+              and so.updatedAt >= :from
+              and so.updatedAt <= :to
+              and lower(so.customerName) like :customerPattern escape '\\'
+              and (so.createdAt < :cursorCreatedAt or (so.createdAt = :cursorCreatedAt and so.id < :cursorId))
+            group by so.id, so.orderNumber, so.customerName, so.status, so.createdAt, so.updatedAt
+            order by so.createdAt desc, so.id desc
+            """)
+    List<SalesOrderSummaryRow> findSummaries(
+            @Param("statuses") Collection<OrderStatus> statuses,
+            @Param("from") OffsetDateTime from,
+            @Param("to") OffsetDateTime to,
+            @Param("customerPattern") String customerPattern,
+            @Param("cursorCreatedAt") OffsetDateTime cursorCreatedAt,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable
+    );
+
+    long countByCustomerNameStartingWith(String prefix);
+
+    // 売上集計用。明細をDB側で日(UTC)単位に集計し、日数分の行だけを返す。
+    @Query("""
+            select new com.example.backend.sales.dto.SalesDailyAggregate(
+                year(so.updatedAt), month(so.updatedAt), day(so.updatedAt),
+                sum(i.unitPrice * i.quantity), count(distinct so.id), sum(i.quantity), count(i)
+            )
+            from SalesOrderItem i
+            join i.order so
+            join i.product p
             where so.status = :status
-            order by so.updatedAt desc, so.id desc
+              and so.updatedAt >= :from
+              and so.updatedAt <= :to
+            group by year(so.updatedAt), month(so.updatedAt), day(so.updatedAt)
             """)
-    List<SalesOrder> findDetailedByStatus(
-            @Param("status") OrderStatus status
+    List<SalesDailyAggregate> aggregateDailySales(
+            @Param("status") OrderStatus status,
+            @Param("from") OffsetDateTime from,
+            @Param("to") OffsetDateTime to
     );
 
-    @EntityGraph(attributePaths = {"items", "items.product"})
+    // 集計テーブルで賄えない日の途中までの期間用。終端を含まない半開区間で日別に集計する。
     @Query("""
-            select distinct so
-            from SalesOrder so
+            select new com.example.backend.sales.dto.SalesDailyAggregate(
+                year(so.updatedAt), month(so.updatedAt), day(so.updatedAt),
+                sum(i.unitPrice * i.quantity), count(distinct so.id), sum(i.quantity), count(i)
+            )
+            from SalesOrderItem i
+            join i.order so
+            join i.product p
             where so.status = :status
               and so.updatedAt >= :from
-            order by so.updatedAt desc, so.id desc
+              and so.updatedAt < :toExclusive
+            group by year(so.updatedAt), month(so.updatedAt), day(so.updatedAt)
             """)
-    List<SalesOrder> findDetailedByStatusAndUpdatedAtFrom(
+    List<SalesDailyAggregate> aggregateDailySalesBefore(
             @Param("status") OrderStatus status,
-            @Param("from") OffsetDateTime from
+            @Param("from") OffsetDateTime from,
+            @Param("toExclusive") OffsetDateTime toExclusive
     );
 
-    @EntityGraph(attributePaths = {"items", "items.product"})
+    // 売上画面の明細表示用。並び順はCSV出力と同じで、Pageableの件数だけを取得する。
     @Query("""
-            select distinct so
-            from SalesOrder so
+            select new com.example.backend.sales.dto.SalesLineResponse(
+                so.id, so.orderNumber, so.customerName, so.updatedAt,
+                p.id, p.sku, p.name, i.quantity, i.unitPrice, i.unitPrice * i.quantity
+            )
+            from SalesOrderItem i
+            join i.order so
+            join i.product p
             where so.status = :status
+              and so.updatedAt >= :from
               and so.updatedAt <= :to
-            order by so.updatedAt desc, so.id desc
+            order by so.updatedAt desc, so.orderNumber asc, p.sku asc
             """)
-    List<SalesOrder> findDetailedByStatusAndUpdatedAtTo(
+    List<SalesLineResponse> findSalesLines(
             @Param("status") OrderStatus status,
-            @Param("to") OffsetDateTime to
+            @Param("from") OffsetDateTime from,
+            @Param("to") OffsetDateTime to,
+            Pageable pageable
     );
 
-    @EntityGraph(attributePaths = {"items", "items.product"})
+    // CSV出力用。明細行をDTOで直接返し、fetch sizeを指定してカーソルで少しずつ読み込む。
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
     @Query("""
-            select distinct so
-            from SalesOrder so
+            select new com.example.backend.sales.dto.SalesLineResponse(
+                so.id, so.orderNumber, so.customerName, so.updatedAt,
+                p.id, p.sku, p.name, i.quantity, i.unitPrice, i.unitPrice * i.quantity
+            )
+            from SalesOrderItem i
+            join i.order so
+            join i.product p
             where so.status = :status
               and so.updatedAt >= :from
               and so.updatedAt <= :to
-            order by so.updatedAt desc, so.id desc
+            order by so.updatedAt desc, so.orderNumber asc, p.sku asc
             """)
-    List<SalesOrder> findDetailedByStatusAndUpdatedAtBetween(
+    Stream<SalesLineResponse> streamSalesLines(
             @Param("status") OrderStatus status,
             @Param("from") OffsetDateTime from,
             @Param("to") OffsetDateTime to
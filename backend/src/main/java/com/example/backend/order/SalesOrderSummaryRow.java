@@ -0,0 +1,19 @@
+package com.example.backend.order;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * 受注一覧の集計行。明細は件数と合計金額だけを持つ。
+ */
+public record SalesOrderSummaryRow(
+        Long id,
+        String orderNumber,
+        String customerName,
+        OrderStatus status,
+        OffsetDateTime createdAt,
+        OffsetDateTime updatedAt,
+        Long lineCount,
+        BigDecimal totalAmount
+) {
+}
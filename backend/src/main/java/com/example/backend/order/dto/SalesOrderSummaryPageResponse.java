@@ -0,0 +1,14 @@
+package com.example.backend.order.dto;
+
+import java.util.List;
+
+/**
+ * 受注一覧のキーセットページング結果。続きはnextCursorを次回のcursorに渡して取得する。
+ */
+public record SalesOrderSummaryPageResponse(
+        List<SalesOrderSummaryResponse> items,
+        int size,
+        boolean hasNext,
+        String nextCursor
+) {
+}
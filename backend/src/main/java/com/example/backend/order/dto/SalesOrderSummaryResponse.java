@@ -0,0 +1,19 @@
+package com.example.backend.order.dto;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * 受注一覧の1件分。明細は含めず、明細数と合計金額だけを返す。
+ */
+public record SalesOrderSummaryResponse(
+        Long id,
+        String orderNumber,
+        String customerName,
+        String status,
+        OffsetDateTime createdAt,
+        OffsetDateTime updatedAt,
+        int lineCount,
+        BigDecimal totalAmount
+) {
+}
@@ -37,6 +37,10 @@ public class ProductCategory {
     @JoinColumn(name = "parent_id")
     private ProductCategory parent;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Column(name = "created_at", nullable = false)
     private OffsetDateTime createdAt;
 
@@ -111,6 +115,10 @@ public class ProductCategory {
         this.skuSequenceDigits = skuSequenceDigits;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public ProductCategory getParent() {
         return parent;
     }
@@ -5,8 +5,10 @@ import com.example.backend.product.dto.ProductCategoryResponse;
 import com.example.backend.product.dto.UpdateCategorySkuRuleRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -25,8 +27,10 @@ public class ProductCategoryController {
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN','OPERATOR','VIEWER')")
-    public List<ProductCategoryResponse> getCategories() {
-        return productCategoryService.getCategories();
+    public ResponseEntity<List<ProductCategoryResponse>> getCategories(WebRequest request) {
+        // 版を先に取得し、一覧は版以降の状態から組み立てる。
+        return productCategoryService.getCategoriesVersion()
+                .toResponse(request, productCategoryService::getCategories);
     }
 
     @PostMapping
@@ -2,8 +2,6 @@ package com.example.backend.product;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 
-import java.util.Collection;
-import java.util.List;
 import java.util.Optional;
 
 /**
@@ -16,6 +14,4 @@ public interface ProductCategoryRepository extends JpaRepository<ProductCategory
     Optional<ProductCategory> findByCode(String code);
 
     Optional<ProductCategory> findByCodeIgnoreCase(String code);
-
-    List<ProductCategory> findByParent_IdIn(Collection<Long> parentIds);
 }
@@ -3,22 +3,24 @@ package com.example.backend.product;
 import com.example.backend.audit.AuditLogService;
 import com.example.backend.common.BusinessRuleException;
 import com.example.backend.common.ResourceNotFoundException;
+import com.example.backend.common.ResourceVersion;
 import com.example.backend.product.dto.CreateProductCategoryRequest;
 import com.example.backend.product.dto.ProductCategoryResponse;
 import com.example.backend.product.dto.UpdateCategorySkuRuleRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
-
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Locale;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 商品カテゴリの業務処理をまとめるサービス。
@@ -33,21 +35,64 @@ public class ProductCategoryService {
 
     private final ProductCategoryRepository productCategoryRepository;
     private final AuditLogService auditLogService;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    // カテゴリ階層のスナップショット。更新のたびに作り直して差し替え、読み取りはDBを参照しない。
+    private final AtomicReference<ProductCategoryTree> tree = new AtomicReference<>();
+    // 作り直しを直列化し、後から始まった作り直しが常に最新のコミット済み状態を反映するようにする。
+    private final ReentrantLock rebuildLock = new ReentrantLock();
 
     public ProductCategoryService(
             ProductCategoryRepository productCategoryRepository,
-            AuditLogService auditLogService
+            AuditLogService auditLogService,
+            PlatformTransactionManager transactionManager
     ) {
         this.productCategoryRepository = productCategoryRepository;
         this.auditLogService = auditLogService;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
     }
 
-    @Transactional(readOnly = true)
     public List<ProductCategoryResponse> getCategories() {
-        List<ProductCategory> categories = productCategoryRepository.findAll(
-                Sort.by(Sort.Order.asc("sortOrder"), Sort.Order.asc("id"))
-        );
-        return buildHierarchyResponses(categories);
+        return currentTree().responses();
+    }
+
+    /**
+     * カテゴリ一覧の版。スナップショットは新しい方へしか差し替わらないため、版を先に取得してから一覧を返せば
+     * 古い一覧に新しい版が付くことはない。
+     */
+    public ResourceVersion getCategoriesVersion() {
+        return currentTree().version();
+    }
+
+    /**
+     * 指定カテゴリと配下の全カテゴリのIDを返す。商品検索のカテゴリ絞り込みに使う。
+     * スナップショットにないIDは主キーで存在だけを確かめ、他インスタンスで作成された直後のカテゴリなら作り直して返す。
+     * 存在しないIDでは全件読み込みを行わずに404とする。
+     */
+    public Set<Long> getDescendantIds(Long categoryId) {
+        Set<Long> ids = currentTree().descendantIds(categoryId);
+        if (ids != null) {
+            return ids;
+        }
+        if (!productCategoryRepository.existsById(categoryId)) {
+            throw new ResourceNotFoundException("Category not found: " + categoryId);
+        }
+        ids = rebuildTree().descendantIds(categoryId);
+        if (ids == null) {
+            throw new ResourceNotFoundException("Category not found: " + categoryId);
+        }
+        return ids;
+    }
+
+    /**
+     * 他インスタンスでの更新や直接のデータ修正を取り込むため、定期的にスナップショットを作り直す。
+     */
+    @Scheduled(
+            fixedDelayString = "${app.product-category.snapshot-refresh-ms:300000}",
+            initialDelayString = "${app.product-category.snapshot-refresh-ms:300000}"
+    )
+    public void refreshTree() {
+        rebuildTree();
     }
 
     @Transactional
@@ -56,10 +101,11 @@ public class ProductCategoryService {
             throw new BusinessRuleException("Category code already exists: " + request.code());
         }
 
+        ProductCategory parent = resolveParent(request.parentId());
         ProductCategory category = new ProductCategory();
         category.setCode(request.code().trim());
         category.setName(request.name().trim());
-        category.setParent(resolveParent(request.parentId()));
+        category.setParent(parent);
         category.setActive(request.active() == null ? Boolean.TRUE : request.active());
         category.setSortOrder(request.sortOrder() == null ? 0 : request.sortOrder());
         category.setSkuPrefix(normalizeSkuPrefix(request.skuPrefix()));
@@ -75,7 +121,15 @@ public class ProductCategoryService {
                         + ", skuPrefix=" + saved.getSkuPrefix()
                         + ", skuSequenceDigits=" + saved.getSkuSequenceDigits()
         );
-        return toResponseWithHierarchy(saved);
+        rebuildTreeAfterCommit();
+
+        ProductCategoryResponse parentResponse = parent == null ? null : currentTree().response(parent.getId());
+        return toResponse(
+                saved,
+                parentResponse,
+                parentResponse == null ? 0 : parentResponse.depth() + 1,
+                parentResponse == null ? saved.getName() : parentResponse.pathName() + " / " + saved.getName()
+        );
     }
 
     @Transactional
@@ -93,101 +147,75 @@ public class ProductCategoryService {
                 saved.getId().toString(),
                 "skuPrefix=" + saved.getSkuPrefix() + ", skuSequenceDigits=" + saved.getSkuSequenceDigits()
         );
-        return toResponseWithHierarchy(saved);
-    }
-
-    private List<ProductCategoryResponse> buildHierarchyResponses(List<ProductCategory> categories) {
-        if (categories.isEmpty()) {
-            return List.of();
-        }
-
-        Map<Long, ProductCategory> categoryById = new HashMap<>();
-        Map<Long, List<ProductCategory>> childrenByParentId = new HashMap<>();
-        List<ProductCategory> roots = new ArrayList<>();
+        rebuildTreeAfterCommit();
 
-        for (ProductCategory category : categories) {
-            categoryById.put(category.getId(), category);
+        // SKU採番ルールの変更では階層は変わらないため、深さとパス名は現在のスナップショットから返す。
+        ProductCategoryResponse current = currentTree().response(saved.getId());
+        if (current == null) {
+            current = rebuildTree().response(saved.getId());
         }
+        return new ProductCategoryResponse(
+                current.id(),
+                current.code(),
+                current.name(),
+                current.parentId(),
+                current.parentCode(),
+                current.parentName(),
+                current.depth(),
+                current.pathName(),
+                current.active(),
+                current.sortOrder(),
+                saved.getSkuPrefix(),
+                saved.getSkuSequenceDigits()
+        );
+    }
 
-        for (ProductCategory category : categories) {
-            Long parentId = category.getParent() == null ? null : category.getParent().getId();
-            if (parentId == null || !categoryById.containsKey(parentId)) {
-                roots.add(category);
-                continue;
-            }
-            childrenByParentId.computeIfAbsent(parentId, key -> new ArrayList<>()).add(category);
-        }
+    private ProductCategoryTree currentTree() {
+        ProductCategoryTree current = tree.get();
+        return current == null ? rebuildTree() : current;
+    }
 
-        Comparator<ProductCategory> comparator = Comparator
-                .comparing(ProductCategory::getSortOrder)
-                .thenComparing(ProductCategory::getId);
-        roots.sort(comparator);
-        for (List<ProductCategory> children : childrenByParentId.values()) {
-            children.sort(comparator);
+    private ProductCategoryTree rebuildTree() {
+        rebuildLock.lock();
+        try {
+            ProductCategoryTree rebuilt = readOnlyTransactionTemplate.execute(status -> ProductCategoryTree.build(
+                    productCategoryRepository.findAll(Sort.by(Sort.Order.asc("sortOrder"), Sort.Order.asc("id")))
+            ));
+            ProductCategoryTree next = rebuilt == null ? ProductCategoryTree.EMPTY : rebuilt;
+            tree.set(next);
+            return next;
+        } finally {
+            rebuildLock.unlock();
         }
+    }
 
-        List<ProductCategoryResponse> responses = new ArrayList<>(categories.size());
-        Set<Long> visited = new HashSet<>();
-        for (ProductCategory root : roots) {
-            appendCategoryHierarchy(root, 0, root.getName(), childrenByParentId, responses, visited);
+    // 未コミットの変更をスナップショットへ載せないよう、コミット後に作り直す。
+    private void rebuildTreeAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rebuildTree();
+            return;
         }
-
-        // 何らかの不整合で辿れなかったカテゴリもレスポンスに含める。
-        if (responses.size() < categories.size()) {
-            for (ProductCategory category : categories) {
-                if (visited.contains(category.getId())) {
-                    continue;
-                }
-                HierarchyMeta meta = resolveHierarchyMeta(category);
-                responses.add(toResponse(category, meta.depth(), meta.pathName()));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                rebuildTree();
             }
-        }
-        return responses;
+        });
     }
 
-    private void appendCategoryHierarchy(
+    private ProductCategoryResponse toResponse(
             ProductCategory category,
+            ProductCategoryResponse parent,
             int depth,
-            String pathName,
-            Map<Long, List<ProductCategory>> childrenByParentId,
-            List<ProductCategoryResponse> responses,
-            Set<Long> visited
+            String pathName
     ) {
-        if (!visited.add(category.getId())) {
-            return;
-        }
-        responses.add(toResponse(category, depth, pathName));
-
-        List<ProductCategory> children = childrenByParentId.get(category.getId());
-        if (children == null || children.isEmpty()) {
-            return;
-        }
-        for (ProductCategory child : children) {
-            appendCategoryHierarchy(
-                    child,
-                    depth + 1,
-                    pathName + " / " + child.getName(),
-                    childrenByParentId,
-                    responses,
-                    visited
-            );
-        }
-    }
-
-    private ProductCategoryResponse toResponseWithHierarchy(ProductCategory category) {
-        HierarchyMeta hierarchyMeta = resolveHierarchyMeta(category);
-        return toResponse(category, hierarchyMeta.depth(), hierarchyMeta.pathName());
-    }
-
-    private ProductCategoryResponse toResponse(ProductCategory category, int depth, String pathName) {
-        ProductCategory parent = category.getParent();
         return new ProductCategoryResponse(
                 category.getId(),
                 category.getCode(),
                 category.getName(),
-                parent == null ? null : parent.getId(),
-                parent == null ? null : parent.getCode(),
-                parent == null ? null : parent.getName(),
+                parent == null ? null : parent.id(),
+                parent == null ? null : parent.code(),
+                parent == null ? null : parent.name(),
                 depth,
                 pathName,
                 category.getActive(),
@@ -204,7 +232,11 @@ public class ProductCategoryService {
 
         ProductCategory parent = productCategoryRepository.findById(parentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found: " + parentId));
-        int parentDepth = resolveHierarchyMeta(parent).depth();
+        ProductCategoryResponse parentResponse = currentTree().response(parentId);
+        if (parentResponse == null) {
+            parentResponse = rebuildTree().response(parentId);
+        }
+        int parentDepth = parentResponse == null ? 0 : parentResponse.depth();
         int nextDepth = parentDepth + 1;
         if (nextDepth >= MAX_CATEGORY_DEPTH) {
             throw new BusinessRuleException("カテゴリ階層は最大" + MAX_CATEGORY_DEPTH + "階層までです。");
@@ -212,27 +244,6 @@ public class ProductCategoryService {
         return parent;
     }
 
-    private HierarchyMeta resolveHierarchyMeta(ProductCategory category) {
-        List<String> names = new ArrayList<>();
-        ProductCategory cursor = category;
-        int depth = 0;
-        int guard = 0;
-
-        while (cursor != null) {
-            guard++;
-            if (guard > 32) {
-                throw new BusinessRuleException("カテゴリ階層が不正です。");
-            }
-            names.add(0, cursor.getName());
-            ProductCategory parent = cursor.getParent();
-            if (parent != null) {
-                depth++;
-            }
-            cursor = parent;
-        }
-        return new HierarchyMeta(depth, String.join(" / ", names));
-    }
-
     private Integer normalizeSkuSequenceDigits(Integer value) {
         if (value == null) {
             return DEFAULT_SKU_SEQUENCE_DIGITS;
@@ -265,6 +276,4 @@ public class ProductCategoryService {
         return normalized;
     }
 
-    private record HierarchyMeta(int depth, String pathName) {
-    }
 }
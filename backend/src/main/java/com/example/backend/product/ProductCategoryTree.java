@@ -0,0 +1,216 @@
+package com.example.backend.product;
+
+import com.example.backend.common.ResourceVersion;
+import com.example.backend.common.VersionMarker;
+import com.example.backend.product.dto.ProductCategoryResponse;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 商品カテゴリ階層の不変スナップショット。
+ * 全カテゴリを1回の読み込みから組み立て、表示順のレスポンス・階層の深さ・パス名・配下カテゴリID(自身を含む)を保持する。
+ * 更新時は作り直したスナップショットへ丸ごと差し替えるため、読み取り側はロックなしで参照できる。
+ */
+final class ProductCategoryTree {
+
+    static final ProductCategoryTree EMPTY = new ProductCategoryTree(
+            List.of(), Map.of(), ResourceVersion.of(new VersionMarker(0L, null, 0L))
+    );
+
+    private static final int MAX_WALK_DEPTH = 32;
+    private static final String PATH_SEPARATOR = " / ";
+
+    private final List<ProductCategoryResponse> responses;
+    private final Map<Long, Node> nodesById;
+    private final ResourceVersion version;
+
+    private ProductCategoryTree(List<ProductCategoryResponse> responses, Map<Long, Node> nodesById, ResourceVersion version) {
+        this.responses = responses;
+        this.nodesById = nodesById;
+        this.version = version;
+    }
+
+    static ProductCategoryTree build(List<ProductCategory> categories) {
+        if (categories.isEmpty()) {
+            return EMPTY;
+        }
+
+        Map<Long, ProductCategory> categoryById = new HashMap<>();
+        for (ProductCategory category : categories) {
+            categoryById.put(category.getId(), category);
+        }
+
+        Map<Long, List<ProductCategory>> childrenByParentId = new HashMap<>();
+        List<ProductCategory> roots = new ArrayList<>();
+        for (ProductCategory category : categories) {
+            Long parentId = parentIdOf(category);
+            if (parentId == null || !categoryById.containsKey(parentId)) {
+                roots.add(category);
+                continue;
+            }
+            childrenByParentId.computeIfAbsent(parentId, key -> new ArrayList<>()).add(category);
+        }
+
+        Comparator<ProductCategory> comparator = Comparator
+                .comparing(ProductCategory::getSortOrder)
+                .thenComparing(ProductCategory::getId);
+        roots.sort(comparator);
+        for (List<ProductCategory> children : childrenByParentId.values()) {
+            children.sort(comparator);
+        }
+
+        Map<Long, HierarchyMeta> metaById = new LinkedHashMap<>();
+        for (ProductCategory root : roots) {
+            collectHierarchy(root, 0, root.getName(), childrenByParentId, metaById);
+        }
+        // 何らかの不整合で根から辿れなかったカテゴリも、親を遡って深さとパス名を求めて含める。
+        for (ProductCategory category : categories) {
+            if (!metaById.containsKey(category.getId())) {
+                metaById.put(category.getId(), walkToRoot(category, categoryById));
+            }
+        }
+
+        List<ProductCategoryResponse> responses = new ArrayList<>(metaById.size());
+        Map<Long, Node> nodesById = new HashMap<>();
+        for (Map.Entry<Long, HierarchyMeta> entry : metaById.entrySet()) {
+            ProductCategory category = categoryById.get(entry.getKey());
+            HierarchyMeta meta = entry.getValue();
+            ProductCategoryResponse response = toResponse(category, categoryById.get(parentIdOf(category)), meta);
+            responses.add(response);
+            nodesById.put(category.getId(), new Node(
+                    response,
+                    collectDescendantIds(category.getId(), childrenByParentId)
+            ));
+        }
+        return new ProductCategoryTree(
+                List.copyOf(responses),
+                Collections.unmodifiableMap(nodesById),
+                ResourceVersion.of(versionMarkerOf(categories))
+        );
+    }
+
+    /**
+     * 階層順に並んだ全カテゴリのレスポンス。
+     */
+    List<ProductCategoryResponse> responses() {
+        return responses;
+    }
+
+    /**
+     * このスナップショットの版。一覧と同じ読み込みから作る。
+     */
+    ResourceVersion version() {
+        return version;
+    }
+
+    ProductCategoryResponse response(Long categoryId) {
+        Node node = nodesById.get(categoryId);
+        return node == null ? null : node.response();
+    }
+
+    /**
+     * 指定カテゴリと配下の全カテゴリのID。未登録の場合はnullを返す。
+     */
+    Set<Long> descendantIds(Long categoryId) {
+        Node node = nodesById.get(categoryId);
+        return node == null ? null : node.descendantIds();
+    }
+
+    private static void collectHierarchy(
+            ProductCategory category,
+            int depth,
+            String pathName,
+            Map<Long, List<ProductCategory>> childrenByParentId,
+            Map<Long, HierarchyMeta> metaById
+    ) {
+        if (metaById.putIfAbsent(category.getId(), new HierarchyMeta(depth, pathName)) != null) {
+            return;
+        }
+        for (ProductCategory child : childrenByParentId.getOrDefault(category.getId(), List.of())) {
+            collectHierarchy(child, depth + 1, pathName + PATH_SEPARATOR + child.getName(), childrenByParentId, metaById);
+        }
+    }
+
+    private static HierarchyMeta walkToRoot(ProductCategory category, Map<Long, ProductCategory> categoryById) {
+        List<String> names = new ArrayList<>();
+        ProductCategory cursor = category;
+        int depth = 0;
+        while (cursor != null && names.size() < MAX_WALK_DEPTH) {
+            names.add(0, cursor.getName());
+            ProductCategory parent = categoryById.get(parentIdOf(cursor));
+            if (parent != null) {
+                depth++;
+            }
+            cursor = parent;
+        }
+        return new HierarchyMeta(depth, String.join(PATH_SEPARATOR, names));
+    }
+
+    private static Set<Long> collectDescendantIds(Long categoryId, Map<Long, List<ProductCategory>> childrenByParentId) {
+        Set<Long> ids = new LinkedHashSet<>();
+        List<Long> frontier = List.of(categoryId);
+        while (!frontier.isEmpty()) {
+            List<Long> next = new ArrayList<>();
+            for (Long id : frontier) {
+                if (!ids.add(id)) {
+                    continue;
+                }
+                for (ProductCategory child : childrenByParentId.getOrDefault(id, List.of())) {
+                    next.add(child.getId());
+                }
+            }
+            frontier = next;
+        }
+        return Collections.unmodifiableSet(ids);
+    }
+
+    private static ProductCategoryResponse toResponse(ProductCategory category, ProductCategory parent, HierarchyMeta meta) {
+        return new ProductCategoryResponse(
+                category.getId(),
+                category.getCode(),
+                category.getName(),
+                parent == null ? parentIdOf(category) : parent.getId(),
+                parent == null ? null : parent.getCode(),
+                parent == null ? null : parent.getName(),
+                meta.depth(),
+                meta.pathName(),
+                category.getActive(),
+                category.getSortOrder(),
+                category.getSkuPrefix(),
+                category.getSkuSequenceDigits()
+        );
+    }
+
+    // 商品・仕入先と同じく@Versionの合計を使う。更新日時の古い変更が後からコミットされても合計値は必ず変わる。
+    private static VersionMarker versionMarkerOf(List<ProductCategory> categories) {
+        OffsetDateTime lastModified = null;
+        long versionSum = 0;
+        for (ProductCategory category : categories) {
+            if (category.getUpdatedAt() != null && (lastModified == null || category.getUpdatedAt().isAfter(lastModified))) {
+                lastModified = category.getUpdatedAt();
+            }
+            versionSum += category.getVersion() == null ? 0 : category.getVersion();
+        }
+        return new VersionMarker((long) categories.size(), lastModified, versionSum);
+    }
+
+    // 親は遅延ロードのため、IDだけを参照して追加のクエリを発生させない。
+    private static Long parentIdOf(ProductCategory category) {
+        return category.getParent() == null ? null : category.getParent().getId();
+    }
+
+    private record Node(ProductCategoryResponse response, Set<Long> descendantIds) {
+    }
+
+    private record HierarchyMeta(int depth, String pathName) {
+    }
+}
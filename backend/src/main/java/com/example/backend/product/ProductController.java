@@ -2,6 +2,7 @@ package com.example.backend.product;
 
 import com.example.backend.product.dto.AdjustStockRequest;
 import com.example.backend.product.dto.CreateProductRequest;
+import com.example.backend.product.dto.ProductImportJobResponse;
 import com.example.backend.product.dto.ProductImportResultResponse;
 import com.example.backend.product.dto.ProductPageResponse;
 import com.example.backend.product.dto.ProductResponse;
@@ -9,9 +10,11 @@ import com.example.backend.product.dto.ProductSkuSuggestionResponse;
 import com.example.backend.product.dto.UpdateProductRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -24,15 +27,21 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportJobService productImportJobService;
 
-    public ProductController(ProductService productService) {
+    public ProductController(
+            ProductService productService,
+            ProductImportJobService productImportJobService
+    ) {
         this.productService = productService;
+        this.productImportJobService = productImportJobService;
     }
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN','OPERATOR','VIEWER')")
-    public List<ProductResponse> getProducts() {
-        return productService.getProducts();
+    public ResponseEntity<List<ProductResponse>> getProducts(WebRequest request) {
+        // 版を先に取得し、一覧は版以降の状態から組み立てる。変化がなければ一覧を読み込まずに304を返す。
+        return productService.getProductsVersion().toResponse(request, productService::getProducts);
     }
 
     @GetMapping("/page")
@@ -42,9 +51,12 @@ public class ProductController {
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) Boolean lowStockOnly,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean includeTotal,
+            @RequestParam(defaultValue = "updated") String sort
     ) {
-        return productService.getProductsPage(q, categoryId, lowStockOnly, page, size);
+        return productService.getProductsPage(q, categoryId, lowStockOnly, page, size, cursor, includeTotal, sort);
     }
 
     @GetMapping("/{productId}")
@@ -62,7 +74,23 @@ public class ProductController {
     @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @PreAuthorize("hasRole('ADMIN')")
     public ProductImportResultResponse importProducts(@RequestPart("file") MultipartFile file) {
-        return productService.importProductsCsv(file);
+        return productImportJobService.importNow(file);
+    }
+
+    /**
+     * async=trueの場合はジョブとして受け付けて202を返す。進捗は GET /api/products/import/{jobId} で確認する。
+     */
+    @PostMapping(value = "/import", params = "async=true", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ProductImportJobResponse submitImportJob(@RequestPart("file") MultipartFile file) {
+        return productImportJobService.submit(file);
+    }
+
+    @GetMapping("/import/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ProductImportJobResponse getImportJob(@PathVariable Long jobId) {
+        return productImportJobService.getJob(jobId);
     }
 
     @PostMapping
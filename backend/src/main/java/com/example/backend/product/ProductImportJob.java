@@ -0,0 +1,180 @@
+package com.example.backend.product;
+
+import jakarta.persistence.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * 商品CSVの非同期取込ジョブを保持する永続化エンティティ。件数はチャンクの反映ごとに更新する。
+ */
+@Entity
+@Table(name = "product_import_jobs")
+public class ProductImportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ProductImportJobStatus status;
+
+    @Column(name = "file_name", length = 255)
+    private String fileName;
+
+    @Column(name = "requested_by", nullable = false, length = 100)
+    private String requestedBy;
+
+    @Column(name = "requested_role", nullable = false, length = 30)
+    private String requestedRole;
+
+    @Column(name = "processed_rows", nullable = false)
+    private Integer processedRows = 0;
+
+    @Column(name = "created_rows", nullable = false)
+    private Integer createdRows = 0;
+
+    @Column(name = "updated_rows", nullable = false)
+    private Integer updatedRows = 0;
+
+    @Column(name = "failed_rows", nullable = false)
+    private Integer failedRows = 0;
+
+    @Column(name = "errors_json", columnDefinition = "TEXT")
+    private String errorsJson;
+
+    @Column(length = 500)
+    private String message;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    @Column(name = "started_at")
+    private OffsetDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private OffsetDateTime finishedAt;
+
+    @PrePersist
+    void onCreate() {
+        OffsetDateTime now = OffsetDateTime.now();
+        createdAt = now;
+        updatedAt = now;
+    }
+
+    @PreUpdate
+    void onUpdate() {
+        updatedAt = OffsetDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public ProductImportJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ProductImportJobStatus status) {
+        this.status = status;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getRequestedBy() {
+        return requestedBy;
+    }
+
+    public void setRequestedBy(String requestedBy) {
+        this.requestedBy = requestedBy;
+    }
+
+    public String getRequestedRole() {
+        return requestedRole;
+    }
+
+    public void setRequestedRole(String requestedRole) {
+        this.requestedRole = requestedRole;
+    }
+
+    public Integer getProcessedRows() {
+        return processedRows;
+    }
+
+    public void setProcessedRows(Integer processedRows) {
+        this.processedRows = processedRows;
+    }
+
+    public Integer getCreatedRows() {
+        return createdRows;
+    }
+
+    public void setCreatedRows(Integer createdRows) {
+        this.createdRows = createdRows;
+    }
+
+    public Integer getUpdatedRows() {
+        return updatedRows;
+    }
+
+    public void setUpdatedRows(Integer updatedRows) {
+        this.updatedRows = updatedRows;
+    }
+
+    public Integer getFailedRows() {
+        return failedRows;
+    }
+
+    public void setFailedRows(Integer failedRows) {
+        this.failedRows = failedRows;
+    }
+
+    public String getErrorsJson() {
+        return errorsJson;
+    }
+
+    public void setErrorsJson(String errorsJson) {
+        this.errorsJson = errorsJson;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public OffsetDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public OffsetDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(OffsetDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public OffsetDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(OffsetDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
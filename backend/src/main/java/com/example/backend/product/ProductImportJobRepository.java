@@ -0,0 +1,35 @@
+package com.example.backend.product;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+/**
+ * JPA経由で永続化データへアクセスするリポジトリ。
+ */
+
+public interface ProductImportJobRepository extends JpaRepository<ProductImportJob, Long> {
+
+    boolean existsByStatusIn(Collection<ProductImportJobStatus> statuses);
+
+    // 進捗の更新が途絶えた待機中・実行中ジョブ(ノード停止など)を失敗扱いにし、次の取込を受け付けられるようにする。
+    @Modifying
+    @Query("""
+            update ProductImportJob j
+            set j.status = com.example.backend.product.ProductImportJobStatus.FAILED,
+                j.message = :message,
+                j.finishedAt = :now,
+                j.updatedAt = :now
+            where j.status in :statuses
+              and j.updatedAt < :staleBefore
+            """)
+    int failStaleJobs(
+            @Param("statuses") Collection<ProductImportJobStatus> statuses,
+            @Param("staleBefore") OffsetDateTime staleBefore,
+            @Param("now") OffsetDateTime now,
+            @Param("message") String message
+    );
+}
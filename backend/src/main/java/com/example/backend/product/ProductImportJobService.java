@@ -0,0 +1,307 @@
+package com.example.backend.product;
+
+import com.example.backend.audit.AuditLogService;
+import com.example.backend.common.BusinessRuleException;
+import com.example.backend.common.ResourceNotFoundException;
+import com.example.backend.product.dto.ProductImportErrorResponse;
+import com.example.backend.product.dto.ProductImportJobResponse;
+import com.example.backend.product.dto.ProductImportResultResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 商品CSVの取込ジョブ。非同期取込はアップロードを一時ファイルへ退避してジョブを登録し、専用のワーカースレッドで取り込む。
+ * 同期取込も実行中のジョブを登録してから呼び出し元のスレッドで取り込み、複数ノード間でも実行中ジョブの一意インデックスで排他する。
+ * 進捗はチャンクの反映ごとにジョブへ書き戻し、行エラーは先頭から上限件数までを保持する。
+ */
+@Service
+public class ProductImportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportJobService.class);
+
+    private static final String SYSTEM_USER = "system";
+    private static final String SYSTEM_ROLE = "SYSTEM";
+    private static final int MAX_MESSAGE_LENGTH = 500;
+
+    private final ProductImportService productImportService;
+    private final ProductImportJobRepository productImportJobRepository;
+    private final AuditLogService auditLogService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+
+    public ProductImportJobService(
+            ProductImportService productImportService,
+            ProductImportJobRepository productImportJobRepository,
+            AuditLogService auditLogService,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this.productImportService = productImportService;
+        this.productImportJobRepository = productImportJobRepository;
+        this.auditLogService = auditLogService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // 取込は同時に1件だけのため、ワーカーは1本。前のジョブの完了を記録した直後、一時ファイルの削除を終える前に
+        // 次のジョブが登録されても断らないよう、待ち行列は1件だけ持つ。
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("product-import-worker").factory()
+                : Thread.ofPlatform().name("product-import-worker").daemon(true).factory();
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1), threadFactory);
+    }
+
+    /**
+     * アップロードを一時ファイルへ退避して取込ジョブを登録し、登録直後のジョブを返す。
+     */
+    public ProductImportJobResponse submit(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new BusinessRuleException("CSVファイルが空です。");
+        }
+        productImportService.ensureNoActiveJob();
+
+        Path spoolFile = spool(file);
+        ProductImportJob job;
+        try {
+            job = createJob(file.getOriginalFilename(), ProductImportJobStatus.QUEUED);
+        } catch (DataIntegrityViolationException ex) {
+            // 他ノードとの同時登録は、実行中ジョブの一意インデックスで弾かれる。
+            deleteQuietly(spoolFile);
+            throw new BusinessRuleException(ProductImportService.IMPORT_IN_PROGRESS_MESSAGE);
+        }
+
+        Long jobId = job.getId();
+        try {
+            executor.execute(() -> run(jobId, spoolFile));
+        } catch (RejectedExecutionException ex) {
+            deleteQuietly(spoolFile);
+            updateJob(jobId, rejected -> finish(rejected, ProductImportJobStatus.FAILED, ProductImportService.IMPORT_IN_PROGRESS_MESSAGE));
+            throw new BusinessRuleException(ProductImportService.IMPORT_IN_PROGRESS_MESSAGE);
+        }
+        return toResponse(job);
+    }
+
+    /**
+     * アップロードされたCSVを呼び出し元のスレッドで取り込み、結果を返す。実行中のジョブを登録してから取り込み、終了時に結果を記録する。
+     */
+    public ProductImportResultResponse importNow(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new BusinessRuleException("CSVファイルが空です。");
+        }
+        productImportService.ensureNoActiveJob();
+
+        ProductImportJob job;
+        try {
+            job = createJob(file.getOriginalFilename(), ProductImportJobStatus.RUNNING);
+        } catch (DataIntegrityViolationException ex) {
+            throw new BusinessRuleException(ProductImportService.IMPORT_IN_PROGRESS_MESSAGE);
+        }
+
+        Long jobId = job.getId();
+        ProductImportResultResponse result;
+        try (InputStream inputStream = file.getInputStream()) {
+            result = productImportService.importCsv(
+                    inputStream,
+                    progress -> updateJob(jobId, current -> applyProgress(current, progress))
+            );
+        } catch (IOException ex) {
+            updateJob(jobId, failed -> finish(failed, ProductImportJobStatus.FAILED, "CSVファイルの読み込みに失敗しました。"));
+            throw new BusinessRuleException("CSVファイルの読み込みに失敗しました。");
+        } catch (RuntimeException ex) {
+            String message = ex.getMessage() == null ? "CSVファイルの読み込みに失敗しました。" : ex.getMessage();
+            updateJob(jobId, failed -> finish(failed, ProductImportJobStatus.FAILED, message));
+            throw ex;
+        }
+        updateJob(jobId, completed -> {
+            applyProgress(completed, result);
+            finish(completed, ProductImportJobStatus.COMPLETED, null);
+        });
+        auditLogService.log(
+                ProductImportService.ACTION_PRODUCT_IMPORT,
+                "PRODUCT",
+                "BULK",
+                ProductImportService.auditDetail(result) + ", jobId=" + jobId
+        );
+        return result;
+    }
+
+    public ProductImportJobResponse getJob(Long jobId) {
+        return productImportJobRepository.findById(jobId)
+                .map(this::toResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("Product import job not found: " + jobId));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private void run(Long jobId, Path spoolFile) {
+        ProductImportJob job = updateJob(jobId, running -> {
+            running.setStatus(ProductImportJobStatus.RUNNING);
+            running.setStartedAt(OffsetDateTime.now());
+        });
+        try (InputStream inputStream = Files.newInputStream(spoolFile)) {
+            ProductImportResultResponse result = productImportService.importCsv(
+                    inputStream,
+                    progress -> updateJob(jobId, current -> applyProgress(current, progress))
+            );
+            updateJob(jobId, completed -> {
+                applyProgress(completed, result);
+                finish(completed, ProductImportJobStatus.COMPLETED, null);
+            });
+            auditLogService.logAs(
+                    job.getRequestedBy(),
+                    job.getRequestedRole(),
+                    ProductImportService.ACTION_PRODUCT_IMPORT,
+                    "PRODUCT",
+                    "BULK",
+                    ProductImportService.auditDetail(result) + ", jobId=" + jobId
+            );
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Product import job failed: jobId={}", jobId, ex);
+            String message = ex instanceof IOException || ex.getMessage() == null
+                    ? "CSVファイルの読み込みに失敗しました。"
+                    : ex.getMessage();
+            updateJob(jobId, failed -> finish(failed, ProductImportJobStatus.FAILED, message));
+        } finally {
+            deleteQuietly(spoolFile);
+        }
+    }
+
+    private ProductImportJob createJob(String fileName, ProductImportJobStatus status) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        ProductImportJob job = new ProductImportJob();
+        job.setStatus(status);
+        if (status == ProductImportJobStatus.RUNNING) {
+            job.setStartedAt(OffsetDateTime.now());
+        }
+        job.setFileName(fileName == null || fileName.isBlank() ? null : truncate(fileName, 255));
+        job.setRequestedBy(authentication == null ? SYSTEM_USER : authentication.getName());
+        job.setRequestedRole(authentication == null ? SYSTEM_ROLE : authentication.getAuthorities().stream()
+                .findFirst()
+                .map(GrantedAuthority::getAuthority)
+                .map(value -> value.replace("ROLE_", ""))
+                .orElse(SYSTEM_ROLE));
+        return transactionTemplate.execute(tx -> productImportJobRepository.saveAndFlush(job));
+    }
+
+    private ProductImportJob updateJob(Long jobId, Consumer<ProductImportJob> change) {
+        return transactionTemplate.execute(status -> {
+            ProductImportJob job = productImportJobRepository.findById(jobId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product import job not found: " + jobId));
+            change.accept(job);
+            return job;
+        });
+    }
+
+    // 行エラーは取込側で上限件数までに絞られている。失敗件数が変わらないチャンクでは書き直さない。
+    private void applyProgress(ProductImportJob job, ProductImportResultResponse progress) {
+        boolean failedRowsChanged = job.getFailedRows() == null || job.getFailedRows() != progress.failedRows();
+        job.setProcessedRows(progress.totalRows());
+        job.setCreatedRows(progress.createdRows());
+        job.setUpdatedRows(progress.updatedRows());
+        job.setFailedRows(progress.failedRows());
+        if (failedRowsChanged) {
+            List<ProductImportErrorResponse> errors = progress.errors();
+            job.setErrorsJson(errors.isEmpty() ? null : writeErrors(errors));
+        }
+    }
+
+    private void finish(ProductImportJob job, ProductImportJobStatus status, String message) {
+        job.setStatus(status);
+        job.setMessage(message == null ? null : truncate(message, MAX_MESSAGE_LENGTH));
+        job.setFinishedAt(OffsetDateTime.now());
+    }
+
+    private ProductImportJobResponse toResponse(ProductImportJob job) {
+        return new ProductImportJobResponse(
+                job.getId(),
+                job.getStatus().name(),
+                job.getFileName(),
+                job.getProcessedRows(),
+                job.getCreatedRows() + job.getUpdatedRows(),
+                job.getCreatedRows(),
+                job.getUpdatedRows(),
+                job.getFailedRows(),
+                readErrors(job.getErrorsJson()),
+                job.getMessage(),
+                job.getCreatedAt(),
+                job.getStartedAt(),
+                job.getFinishedAt()
+        );
+    }
+
+    private Path spool(MultipartFile file) {
+        Path spoolFile = null;
+        try {
+            spoolFile = Files.createTempFile("product-import-", ".csv");
+            file.transferTo(spoolFile);
+            return spoolFile;
+        } catch (IOException ex) {
+            deleteQuietly(spoolFile);
+            throw new BusinessRuleException("CSVファイルの読み込みに失敗しました。");
+        }
+    }
+
+    private String writeErrors(List<ProductImportErrorResponse> errors) {
+        try {
+            return objectMapper.writeValueAsString(errors);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize product import errors", ex);
+        }
+    }
+
+    private List<ProductImportErrorResponse> readErrors(String json) {
+        if (json == null || json.isBlank()) {
+            return List.of();
+        }
+        try {
+            return objectMapper.readValue(json, new TypeReference<List<ProductImportErrorResponse>>() {
+            });
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to deserialize product import errors", ex);
+        }
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            log.warn("Failed to delete product import spool file: path={}", path, ex);
+        }
+    }
+}
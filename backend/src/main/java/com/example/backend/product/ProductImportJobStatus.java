@@ -0,0 +1,11 @@
+package com.example.backend.product;
+
+/**
+ * 商品CSV取込ジョブの状態。
+ */
+public enum ProductImportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,534 @@
+package com.example.backend.product;
+
+import com.example.backend.common.BusinessRuleException;
+import com.example.backend.inventory.Inventory;
+import com.example.backend.inventory.InventoryLedger;
+import com.example.backend.inventory.InventoryRepository;
+import com.example.backend.product.dto.ProductImportErrorResponse;
+import com.example.backend.product.dto.ProductImportResultResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * 商品CSV一括取込。行を逐次読み込んで検証し、検証済みの行をチャンク単位のトランザクションでまとめて登録・更新する。
+ * チャンク内の既存商品と在庫は1回ずつの照会で読み込み、カテゴリコードは取込開始時に1回だけ解決する。
+ * チャンクの反映に失敗した場合はそのチャンクを1行ずつ反映し直し、失敗した行だけをエラーとして返す。
+ * 同期取込と非同期ジョブを合わせて、同時に実行できる取込は1件だけとする。
+ * 行エラーは行番号の小さい順に上限件数までを保持し、上限を超えた分は失敗件数にだけ数える。
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final int DEFAULT_IMPORT_REORDER_POINT = 5;
+    private static final int DEFAULT_IMPORT_REORDER_QUANTITY = 10;
+    static final String ACTION_PRODUCT_IMPORT = "PRODUCT_IMPORT";
+    static final Set<ProductImportJobStatus> ACTIVE_JOB_STATUSES = Set.of(ProductImportJobStatus.QUEUED, ProductImportJobStatus.RUNNING);
+    static final String IMPORT_IN_PROGRESS_MESSAGE = "別の商品CSV取込が実行中です。完了後に再実行してください。";
+
+    private final ProductService productService;
+    private final ProductRepository productRepository;
+    private final ProductCategoryRepository productCategoryRepository;
+    private final InventoryRepository inventoryRepository;
+    private final InventoryLedger inventoryLedger;
+    private final ProductImportJobRepository productImportJobRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxErrors;
+    private final Duration jobStaleAfter;
+    private final Counter createdCounter;
+    private final Counter updatedCounter;
+    private final Counter failedCounter;
+    private final AtomicReference<Double> lastRowsPerSecond = new AtomicReference<>(0.0);
+    private final ReentrantLock importLock = new ReentrantLock();
+
+    public ProductImportService(
+            ProductService productService,
+            ProductRepository productRepository,
+            ProductCategoryRepository productCategoryRepository,
+            InventoryRepository inventoryRepository,
+            InventoryLedger inventoryLedger,
+            ProductImportJobRepository productImportJobRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.product.import.chunk-size:500}") int chunkSize,
+            @Value("${app.product.import.job.max-errors:100}") int maxErrors,
+            @Value("${app.product.import.job.stale-after-ms:900000}") long jobStaleAfterMs
+    ) {
+        this.productService = productService;
+        this.productRepository = productRepository;
+        this.productCategoryRepository = productCategoryRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.inventoryLedger = inventoryLedger;
+        this.productImportJobRepository = productImportJobRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxErrors = Math.max(0, maxErrors);
+        this.jobStaleAfter = Duration.ofMillis(Math.max(1, jobStaleAfterMs));
+        this.createdCounter = meterRegistry.counter("app.product.import.rows", "result", "created");
+        this.updatedCounter = meterRegistry.counter("app.product.import.rows", "result", "updated");
+        this.failedCounter = meterRegistry.counter("app.product.import.rows", "result", "failed");
+        Gauge.builder("app.product.import.rows.per.second", lastRowsPerSecond, AtomicReference::get)
+                .description("直近に完了したCSV取込の1秒あたり処理行数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * CSVを取り込み、チャンクの反映ごとにその時点の件数をlistenerへ通知する。取込は同時に1件だけ実行できる。
+     */
+    ProductImportResultResponse importCsv(InputStream inputStream, ImportProgressListener listener) throws IOException {
+        if (!importLock.tryLock()) {
+            throw new BusinessRuleException(IMPORT_IN_PROGRESS_MESSAGE);
+        }
+        try {
+            return runImport(inputStream, listener);
+        } finally {
+            importLock.unlock();
+        }
+    }
+
+    /**
+     * 待機中・実行中の取込ジョブがあれば409で拒否する。進捗の更新が途絶えたジョブは先に失敗扱いにする。
+     */
+    void ensureNoActiveJob() {
+        OffsetDateTime now = OffsetDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> productImportJobRepository.failStaleJobs(
+                ACTIVE_JOB_STATUSES,
+                now.minus(jobStaleAfter),
+                now,
+                "進捗の更新が途絶えたため中断扱いにしました。"
+        ));
+        if (productImportJobRepository.existsByStatusIn(ACTIVE_JOB_STATUSES)) {
+            throw new BusinessRuleException(IMPORT_IN_PROGRESS_MESSAGE);
+        }
+    }
+
+    static String auditDetail(ProductImportResultResponse result) {
+        return "totalRows=" + result.totalRows() + ", successRows=" + result.successRows() + ", createdRows=" + result.createdRows()
+                + ", updatedRows=" + result.updatedRows() + ", failedRows=" + result.failedRows();
+    }
+
+    private ProductImportResultResponse runImport(InputStream inputStream, ImportProgressListener listener) throws IOException {
+        long startedAt = System.nanoTime();
+        ImportTally tally = new ImportTally(maxErrors);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        String headerLine = reader.readLine();
+        if (headerLine == null || headerLine.isBlank()) {
+            throw new BusinessRuleException("CSVヘッダ行が見つかりません。");
+        }
+
+        Map<String, Integer> headerIndexMap = buildHeaderIndex(headerLine);
+        validateImportHeaders(headerIndexMap);
+        Map<String, Long> categoryIdsByCode = loadCategoryIdsByCode();
+
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        String line;
+        int rowNumber = 1;
+        while ((line = reader.readLine()) != null) {
+            rowNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            tally.totalRows++;
+
+            try {
+                chunk.add(parseImportRow(line, rowNumber, headerIndexMap, categoryIdsByCode));
+            } catch (RuntimeException ex) {
+                tally.fail(rowNumber, ex);
+            }
+            if (chunk.size() >= chunkSize) {
+                importChunk(chunk, tally);
+                chunk.clear();
+                listener.onProgress(tally.toResponse());
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, tally);
+        }
+
+        recordMetrics(tally, System.nanoTime() - startedAt);
+        return tally.toResponse();
+    }
+
+    private void importChunk(List<ImportRow> chunk, ImportTally tally) {
+        List<ImportRow> rows = assignSkus(chunk, tally);
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            ChunkResult result = transactionTemplate.execute(status -> upsertChunk(rows));
+            tally.add(result);
+        } catch (RuntimeException chunkFailure) {
+            log.debug("Product import chunk failed. Retrying row by row: firstRow={}", rows.get(0).rowNumber(), chunkFailure);
+            for (ImportRow row : rows) {
+                try {
+                    ChunkResult result = transactionTemplate.execute(status -> upsertChunk(List.of(row)));
+                    tally.add(result);
+                } catch (RuntimeException ex) {
+                    tally.fail(row.rowNumber(), ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * SKU未指定の行へカテゴリのSKUルールで採番したSKUを割り当てる。
+     * 採番はカウンタを別トランザクションで更新するため、チャンクのトランザクションを開く前に行う。
+     */
+    private List<ImportRow> assignSkus(List<ImportRow> rows, ImportTally tally) {
+        Map<Long, ProductCategory> categoriesById = new HashMap<>();
+        List<ImportRow> assigned = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            if (row.sku() != null) {
+                assigned.add(row);
+                continue;
+            }
+            try {
+                ProductCategory category = row.categoryId() == null
+                        ? null
+                        : categoriesById.computeIfAbsent(row.categoryId(), id -> productCategoryRepository.findById(id)
+                                .orElseThrow(() -> new BusinessRuleException("カテゴリが見つかりません: " + id)));
+                assigned.add(row.withSku(productService.allocateSku(category)));
+            } catch (RuntimeException ex) {
+                tally.fail(row.rowNumber(), ex);
+            }
+        }
+        return assigned;
+    }
+
+    private ChunkResult upsertChunk(List<ImportRow> rows) {
+        Set<String> lowerSkus = rows.stream()
+                .map(ImportRow::sku)
+                .filter(sku -> sku != null)
+                .map(sku -> sku.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+        Map<String, Product> productsBySku = new HashMap<>();
+        if (!lowerSkus.isEmpty()) {
+            for (Product product : productRepository.findBySkuLowerIn(lowerSkus)) {
+                productsBySku.put(product.getSku().toUpperCase(Locale.ROOT), product);
+            }
+        }
+        Map<Long, Inventory> inventoriesByProductId = new HashMap<>();
+        if (!productsBySku.isEmpty()) {
+            List<Long> productIds = productsBySku.values().stream().map(Product::getId).toList();
+            for (Inventory inventory : inventoryRepository.findByProductIdIn(productIds)) {
+                inventoriesByProductId.put(inventory.getProduct().getId(), inventory);
+            }
+        }
+
+        int created = 0;
+        int updated = 0;
+        for (ImportRow row : rows) {
+            ProductCategory category = row.categoryId() == null
+                    ? null
+                    : productCategoryRepository.getReferenceById(row.categoryId());
+            Product product = productsBySku.get(row.sku());
+            boolean isNew = product == null;
+            if (isNew) {
+                product = new Product();
+                product.setSku(row.sku());
+                product.setReorderPoint(DEFAULT_IMPORT_REORDER_POINT);
+                product.setReorderQuantity(DEFAULT_IMPORT_REORDER_QUANTITY);
+            }
+            product.setName(row.name());
+            product.setDescription(row.description());
+            product.setUnitPrice(row.unitPrice());
+            product.setCategory(category);
+
+            if (isNew) {
+                Product savedProduct = productRepository.save(product);
+                Inventory inventory = new Inventory();
+                inventory.setProduct(savedProduct);
+                inventory.setReservedQuantity(0);
+                inventory.setAvailableQuantity(row.availableQuantity());
+                inventoriesByProductId.put(savedProduct.getId(), inventoryRepository.save(inventory));
+                // 同じチャンク内で同じSKUが再び現れた場合は、この商品の更新として扱う。
+                productsBySku.put(savedProduct.getSku(), savedProduct);
+                created++;
+            } else {
+                applyAvailableQuantity(product, inventoriesByProductId, row.availableQuantity());
+                updated++;
+            }
+        }
+        return new ChunkResult(created, updated);
+    }
+
+    private void applyAvailableQuantity(Product product, Map<Long, Inventory> inventoriesByProductId, int availableQuantity) {
+        Inventory inventory = inventoriesByProductId.get(product.getId());
+        if (inventory == null) {
+            inventory = new Inventory();
+            inventory.setProduct(product);
+            inventory.setReservedQuantity(0);
+            inventory.setAvailableQuantity(availableQuantity);
+            inventoriesByProductId.put(product.getId(), inventoryRepository.save(inventory));
+            return;
+        }
+        if (inventoryLedger.isEnabled()) {
+            // 既存在庫は台帳経由で上書きし、引当中のセルとDB値がずれないようにする。
+            inventoryLedger.setAvailable(product.getId(), availableQuantity, ACTION_PRODUCT_IMPORT,
+                    current -> new BusinessRuleException("在庫数が不正です: " + product.getSku()));
+            return;
+        }
+        inventory.setAvailableQuantity(availableQuantity);
+        if (inventory.getReservedQuantity() == null) {
+            inventory.setReservedQuantity(0);
+        }
+    }
+
+    private Map<String, Long> loadCategoryIdsByCode() {
+        Map<String, Long> categoryIdsByCode = new HashMap<>();
+        for (ProductCategory category : productCategoryRepository.findAll()) {
+            categoryIdsByCode.put(category.getCode().toUpperCase(Locale.ROOT), category.getId());
+        }
+        return categoryIdsByCode;
+    }
+
+    private void recordMetrics(ImportTally tally, long elapsedNanos) {
+        createdCounter.increment(tally.createdRows);
+        updatedCounter.increment(tally.updatedRows);
+        failedCounter.increment(tally.failedRows);
+        double elapsedSeconds = Math.max(elapsedNanos, 1) / 1_000_000_000.0;
+        double rowsPerSecond = tally.totalRows / elapsedSeconds;
+        lastRowsPerSecond.set(rowsPerSecond);
+        log.info("Product CSV import finished: totalRows={}, createdRows={}, updatedRows={}, failedRows={}, rowsPerSecond={}",
+                tally.totalRows, tally.createdRows, tally.updatedRows, tally.failedRows, Math.round(rowsPerSecond));
+    }
+
+    private Map<String, Integer> buildHeaderIndex(String headerLine) {
+        List<String> headers = parseCsvLine(headerLine);
+        Map<String, Integer> headerIndexMap = new HashMap<>();
+        for (int i = 0; i < headers.size(); i++) {
+            headerIndexMap.put(normalizeHeader(headers.get(i)), i);
+        }
+        return headerIndexMap;
+    }
+
+    private void validateImportHeaders(Map<String, Integer> headerIndexMap) {
+        List<String> requiredHeaders = List.of("name", "unitprice", "availablequantity");
+        List<String> missing = requiredHeaders.stream()
+                .filter(header -> !headerIndexMap.containsKey(header))
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new BusinessRuleException("CSVヘッダ不足: " + String.join(", ", missing));
+        }
+    }
+
+    private ImportRow parseImportRow(
+            String line,
+            int rowNumber,
+            Map<String, Integer> headerIndexMap,
+            Map<String, Long> categoryIdsByCode
+    ) {
+        List<String> cells = parseCsvLine(line);
+        String sku = readCell(cells, headerIndexMap, "sku");
+        String name = readCell(cells, headerIndexMap, "name");
+        String unitPriceValue = readCell(cells, headerIndexMap, "unitprice");
+        String availableQuantityValue = readCell(cells, headerIndexMap, "availablequantity");
+        String categoryCode = readCell(cells, headerIndexMap, "categorycode");
+        String description = readCell(cells, headerIndexMap, "description");
+        String normalizedSku = sku.isBlank() ? null : productService.requireValidSku(sku, "row " + rowNumber + ": sku");
+        if (name.isBlank()) {
+            throw new BusinessRuleException("row " + rowNumber + ": name が空です。");
+        }
+
+        BigDecimal unitPrice;
+        try {
+            unitPrice = new BigDecimal(unitPriceValue);
+        } catch (NumberFormatException ex) {
+            throw new BusinessRuleException("row " + rowNumber + ": unitPrice が不正です。");
+        }
+        if (unitPrice.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new BusinessRuleException("row " + rowNumber + ": unitPrice は0より大きい値を指定してください。");
+        }
+
+        int availableQuantity;
+        try {
+            availableQuantity = Integer.parseInt(availableQuantityValue);
+        } catch (NumberFormatException ex) {
+            throw new BusinessRuleException("row " + rowNumber + ": availableQuantity が不正です。");
+        }
+        if (availableQuantity < 0) {
+            throw new BusinessRuleException("row " + rowNumber + ": availableQuantity は0以上を指定してください。");
+        }
+
+        Long categoryId = null;
+        if (!categoryCode.isBlank()) {
+            categoryId = categoryIdsByCode.get(categoryCode.toUpperCase(Locale.ROOT));
+            if (categoryId == null) {
+                throw new BusinessRuleException("row " + rowNumber + ": カテゴリコードが存在しません: " + categoryCode);
+            }
+        }
+
+        return new ImportRow(
+                rowNumber,
+                normalizedSku,
+                name,
+                description.isBlank() ? null : description,
+                unitPrice,
+                availableQuantity,
+                categoryId
+        );
+    }
+
+    private String normalizeHeader(String header) {
+        return header.replace("\uFEFF", "").trim().toLowerCase();
+    }
+
+    private String readCell(List<String> cells, Map<String, Integer> headerIndexMap, String headerName) {
+        Integer index = headerIndexMap.get(headerName);
+        if (index == null || index < 0 || index >= cells.size()) {
+            return "";
+        }
+        return cells.get(index).trim();
+    }
+
+    private List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder currentValue = new StringBuilder();
+        boolean inQuotes = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+
+            if (ch == '"') {
+                if (inQuotes && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    currentValue.append('"');
+                    i++;
+                } else {
+                    inQuotes = !inQuotes;
+                }
+                continue;
+            }
+
+            if (ch == ',' && !inQuotes) {
+                values.add(currentValue.toString());
+                currentValue.setLength(0);
+                continue;
+            }
+            currentValue.append(ch);
+        }
+        values.add(currentValue.toString());
+        return values;
+    }
+
+    private record ImportRow(
+            int rowNumber,
+            String sku,
+            String name,
+            String description,
+            BigDecimal unitPrice,
+            Integer availableQuantity,
+            Long categoryId
+    ) {
+
+        ImportRow withSku(String assignedSku) {
+            return new ImportRow(rowNumber, assignedSku, name, description, unitPrice, availableQuantity, categoryId);
+        }
+    }
+
+    private record ChunkResult(int createdRows, int updatedRows) {
+    }
+
+    private static final class ImportTally {
+        private static final Comparator<ProductImportErrorResponse> BY_ROW_NUMBER =
+                Comparator.comparingInt(ProductImportErrorResponse::rowNumber);
+
+        private final int maxErrors;
+        // チャンクの反映は検証より後に行うため、エラーは行番号順には届かない。保持中で最も後ろの行を先頭に置き、
+        // 上限に達した後はそれより前の行のエラーと入れ替える。
+        private final PriorityQueue<ProductImportErrorResponse> errors = new PriorityQueue<>(BY_ROW_NUMBER.reversed());
+        private List<ProductImportErrorResponse> sortedErrors = List.of();
+        private boolean errorsChanged;
+        private int totalRows;
+        private int createdRows;
+        private int updatedRows;
+        private int failedRows;
+
+        private ImportTally(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        private void add(ChunkResult result) {
+            if (result != null) {
+                createdRows += result.createdRows();
+                updatedRows += result.updatedRows();
+            }
+        }
+
+        private void fail(int rowNumber, RuntimeException ex) {
+            failedRows++;
+            if (errors.size() >= maxErrors) {
+                if (errors.isEmpty() || errors.peek().rowNumber() < rowNumber) {
+                    return;
+                }
+                errors.poll();
+            }
+            String message = ex.getMessage() == null ? "不明なエラー" : ex.getMessage();
+            if (!message.startsWith("row ")) {
+                message = "row " + rowNumber + ": " + message;
+            }
+            errors.add(new ProductImportErrorResponse(rowNumber, message));
+            errorsChanged = true;
+        }
+
+        private int successRows() {
+            return createdRows + updatedRows;
+        }
+
+        // 進捗の通知はチャンクごとに行うため、保持中のエラーが変わったときだけ並べ直す。
+        private ProductImportResultResponse toResponse() {
+            if (errorsChanged) {
+                sortedErrors = errors.stream().sorted(BY_ROW_NUMBER).toList();
+                errorsChanged = false;
+            }
+            return new ProductImportResultResponse(
+                    totalRows,
+                    successRows(),
+                    createdRows,
+                    updatedRows,
+                    failedRows,
+                    sortedErrors
+            );
+        }
+    }
+
+    /**
+     * 取込の途中経過を受け取る。
+     */
+    @FunctionalInterface
+    interface ImportProgressListener {
+
+        ImportProgressListener NONE = progress -> {
+        };
+
+        void onProgress(ProductImportResultResponse progress);
+    }
+}
@@ -1,9 +1,14 @@
 package com.example.backend.product;
 
+import com.example.backend.common.VersionMarker;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 /**
  * JPA経由で永続化データへアクセスするリポジトリ。
@@ -20,4 +25,13 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     Optional<Product> findWithCategoryBySku(String sku);
 
     Optional<Product> findTopBySkuStartingWithOrderBySkuDesc(String skuPrefix);
+
+    // LOWER(sku)の関数インデックスを使って、CSV取込のチャンク内の既存商品をまとめて引く。
+    @Query("select p from Product p where lower(p.sku) in :lowerSkus")
+    List<Product> findBySkuLowerIn(@Param("lowerSkus") Collection<String> lowerSkus);
+
+    // 商品一覧の条件付きGET用。商品の変更(カテゴリ変更を含む)は@Versionを1ずつ進めるため、
+    // 更新日時の古い変更が後からコミットされても版の合計値で検知できる。
+    @Query("select new com.example.backend.common.VersionMarker(count(p), max(p.updatedAt), coalesce(sum(p.version), 0)) from Product p")
+    VersionMarker findVersionMarker();
 }
@@ -1,79 +1,105 @@
 package com.example.backend.product;
 
 import com.example.backend.audit.AuditLogService;
+import com.example.backend.common.BadRequestException;
 import com.example.backend.common.BusinessRuleException;
+import com.example.backend.common.KeysetCursor;
 import com.example.backend.common.ResourceNotFoundException;
+import com.example.backend.common.ResourceVersion;
 import com.example.backend.inventory.Inventory;
+import com.example.backend.inventory.InventoryCounts;
+import com.example.backend.inventory.InventoryJournalRepository;
+import com.example.backend.inventory.InventoryLedger;
 import com.example.backend.inventory.InventoryRepository;
+import com.example.backend.inventory.LowStockMonitor;
 import com.example.backend.product.dto.CreateProductRequest;
-import com.example.backend.product.dto.ProductImportErrorResponse;
-import com.example.backend.product.dto.ProductImportResultResponse;
 import com.example.backend.product.dto.ProductPageResponse;
 import com.example.backend.product.dto.ProductResponse;
 import com.example.backend.product.dto.UpdateProductRequest;
 import jakarta.persistence.criteria.JoinType;
 import jakarta.persistence.criteria.Expression;
-import org.springframework.web.multipart.MultipartFile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.math.BigDecimal;
-import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.LinkedHashSet;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
 
-    private static final int DEFAULT_IMPORT_REORDER_POINT = 5;
-    private static final int DEFAULT_IMPORT_REORDER_QUANTITY = 10;
-    private static final String ACTION_PRODUCT_IMPORT = "PRODUCT_IMPORT";
     private static final String DEFAULT_SKU_PREFIX = "PRD";
     private static final int SKU_PREFIX_MAX_LENGTH = 20;
     private static final DateTimeFormatter SKU_DATE_FORMAT = DateTimeFormatter.ofPattern("yyMMdd");
     private static final Pattern SKU_PATTERN = Pattern.compile("^[A-Z0-9][A-Z0-9-]{1,63}$");
     private static final int DEFAULT_SKU_SEQUENCE_DIGITS = 4;
+    private static final int MAX_SKU_ALLOCATION_ATTEMPTS = 100;
 
     private final ProductRepository productRepository;
     private final ProductCategoryRepository productCategoryRepository;
+    private final ProductCategoryService productCategoryService;
     private final InventoryRepository inventoryRepository;
+    private final InventoryJournalRepository inventoryJournalRepository;
+    private final InventoryLedger inventoryLedger;
+    private final LowStockMonitor lowStockMonitor;
     private final AuditLogService auditLogService;
+    private final SkuSequenceAllocator skuSequenceAllocator;
+    private final TransactionTemplate transactionTemplate;
 
     public ProductService(
             ProductRepository productRepository,
             ProductCategoryRepository productCategoryRepository,
+            ProductCategoryService productCategoryService,
             InventoryRepository inventoryRepository,
-            AuditLogService auditLogService
+            InventoryJournalRepository inventoryJournalRepository,
+            InventoryLedger inventoryLedger,
+            LowStockMonitor lowStockMonitor,
+            AuditLogService auditLogService,
+            SkuSequenceAllocator skuSequenceAllocator,
+            PlatformTransactionManager transactionManager
     ) {
         this.productRepository = productRepository;
         this.productCategoryRepository = productCategoryRepository;
+        this.productCategoryService = productCategoryService;
         this.inventoryRepository = inventoryRepository;
+        this.inventoryJournalRepository = inventoryJournalRepository;
+        this.inventoryLedger = inventoryLedger;
+        this.lowStockMonitor = lowStockMonitor;
         this.auditLogService = auditLogService;
+        this.skuSequenceAllocator = skuSequenceAllocator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    @Transactional
     public ProductResponse createProduct(CreateProductRequest request) {
-        String normalizedSku = requireValidSku(request.sku(), "SKU");
-        if (productRepository.existsBySkuIgnoreCase(normalizedSku)) {
-            throw new BusinessRuleException("SKU already exists: " + normalizedSku);
+        // SKU採番は別トランザクションでカウンタを更新するため、登録トランザクションを開く前に済ませる。
+        String allocatedSku = request.sku() == null || request.sku().isBlank()
+                ? allocateSku(resolveCategory(request.categoryId()))
+                : null;
+        return transactionTemplate.execute(status -> insertProduct(request, allocatedSku));
+    }
+
+    private ProductResponse insertProduct(CreateProductRequest request, String allocatedSku) {
+        ProductCategory category = resolveCategory(request.categoryId());
+        String normalizedSku;
+        if (allocatedSku != null) {
+            normalizedSku = allocatedSku;
+        } else {
+            normalizedSku = requireValidSku(request.sku(), "SKU");
+            if (productRepository.existsBySkuIgnoreCase(normalizedSku)) {
+                throw new BusinessRuleException("SKU already exists: " + normalizedSku);
+            }
         }
 
         Product product = new Product();
@@ -83,7 +109,7 @@ public class ProductService {
         product.setUnitPrice(request.unitPrice());
         product.setReorderPoint(normalizeReorderValue(request.reorderPoint()));
         product.setReorderQuantity(normalizeReorderValue(request.reorderQuantity()));
-        product.setCategory(resolveCategory(request.categoryId()));
+        product.setCategory(category);
         Product savedProduct = productRepository.save(product);
 
         // 商品作成時に在庫レコードを1件同時作成し、1商品1在庫を保証する。
@@ -108,34 +134,78 @@ public class ProductService {
         return toResponses(products);
     }
 
+    /**
+     * 商品一覧(在庫数を含む)の版。商品・在庫・未反映の在庫差分の集計値から作り、一覧を読み込まずに条件付きGETの判定に使う。
+     * GET /api/products のたびに products・inventories・inventory_journal の3テーブルを count/max/sum で全件走査する。
+     * 行数に比例するコストは残るが、エンティティの読み込みと一覧の組み立てを伴わないため一覧本体より軽く、
+     * inventory_journal は反映処理で随時空になるため実質的な対象は商品と在庫の件数に限られる。
+     * 商品数が多い環境では全件一覧ではなく、集計を伴わないページ取得(/api/products/page)を使う。
+     */
+    @Transactional(readOnly = true)
+    public ResourceVersion getProductsVersion() {
+        return ResourceVersion.of(
+                productRepository.findVersionMarker(),
+                inventoryRepository.findVersionMarker(),
+                inventoryJournalRepository.findVersionMarker()
+        );
+    }
+
     @Transactional(readOnly = true)
     public ProductPageResponse getProductsPage(
             String q,
             Long categoryId,
             Boolean lowStockOnly,
             int page,
-            int size
+            int size,
+            String cursor,
+            boolean includeTotal,
+            String sortKey
     ) {
         int safePage = Math.max(page, 0);
         int safeSize = Math.max(1, Math.min(size, 200));
-        Pageable pageable = PageRequest.of(
-                safePage,
-                safeSize,
-                Sort.by(Sort.Order.desc("updatedAt"), Sort.Order.desc("id"))
-        );
+        Sort sort = Sort.by(Sort.Order.desc("updatedAt"), Sort.Order.desc("id"));
+        KeysetCursor keysetCursor = KeysetCursor.decode(cursor);
         List<Long> categoryIds = resolveCategoryIdsForSearch(categoryId);
         Specification<Product> specification = buildSearchSpecification(q, categoryIds, lowStockOnly);
-        Page<Product> resultPage = productRepository.findAll(specification, pageable);
 
-        List<ProductResponse> items = toResponses(resultPage.getContent());
+        if (isRelevanceSort(sortKey) && q != null && !q.isBlank()) {
+            if (keysetCursor != null) {
+                throw new BadRequestException("cursor cannot be combined with sort=relevance");
+            }
+            return getProductsPageByRelevance(q, specification, safePage, safeSize, includeTotal);
+        }
+
+        if (keysetCursor == null && includeTotal) {
+            Page<Product> resultPage = productRepository.findAll(specification, PageRequest.of(safePage, safeSize, sort));
+            return new ProductPageResponse(
+                    toResponses(resultPage.getContent()),
+                    resultPage.getNumber(),
+                    resultPage.getSize(),
+                    resultPage.getTotalElements(),
+                    resultPage.getTotalPages(),
+                    resultPage.hasNext(),
+                    resultPage.hasPrevious(),
+                    nextCursor(resultPage)
+            );
+        }
+
+        // カーソル指定時はOFFSETを使わず (updatedAt, id) の続きから読む。件数は必要な場合のみ別途数える。
+        Slice<Product> resultSlice = keysetCursor == null
+                ? productRepository.findBy(specification, query -> query.slice(PageRequest.of(safePage, safeSize, sort)))
+                : productRepository.findBy(
+                        specification.and(keysetCursor.after("updatedAt")),
+                        query -> query.slice(PageRequest.of(0, safeSize, sort))
+                );
+        long totalElements = includeTotal ? productRepository.count(specification) : -1;
         return new ProductPageResponse(
-                items,
-                resultPage.getNumber(),
-                resultPage.getSize(),
-                resultPage.getTotalElements(),
-                resultPage.getTotalPages(),
-                resultPage.hasNext(),
-                resultPage.hasPrevious()
+                toResponses(resultSlice.getContent()),
+                keysetCursor == null ? safePage : 0,
+                safeSize,
+                totalElements,
+                totalElements < 0 ? -1 : (int) Math.ceil((double) totalElements / safeSize),
+                resultSlice.hasNext(),
+                keysetCursor != null || resultSlice.hasPrevious(),
+                nextCursor(resultSlice)
         );
     }
 
@@ -178,6 +248,21 @@ public class ProductService {
     @Transactional
     public ProductResponse addStock(Long productId, Integer quantity) {
         Product product = findProductById(productId);
+        if (inventoryLedger.isEnabled()) {
+            InventoryCounts before = inventoryLedger.apply(productId, quantity, 0, "STOCK_ADD",
+                    current -> new BusinessRuleException("Stock quantity cannot be negative for product: " + productId));
+            auditLogService.log(
+                    "STOCK_ADD",
+                    "PRODUCT",
+                    productId.toString(),
+                    "quantity=" + quantity + ", availableBefore=" + before.available()
+                            + ", availableAfter=" + (before.available() + quantity)
+            );
+            lowStockMonitor.recordAvailableChange(product, before.available(), before.available() + quantity);
+            // 加算はコミット後にセルへ反映されるため、応答には適用後の数量を直接渡す。
+            return toResponse(product, before.plus(quantity, 0));
+        }
+
         // 複数オペレータの同時入庫で更新が競合しないよう悲観ロックで更新する。
         Inventory inventory = inventoryRepository.findByProductIdForUpdate(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Inventory not found for product: " + productId));
@@ -185,6 +270,7 @@ public class ProductService {
         int before = inventory.getAvailableQuantity();
         inventory.setAvailableQuantity(inventory.getAvailableQuantity() + quantity);
         Inventory updatedInventory = inventoryRepository.save(inventory);
+        lowStockMonitor.recordAvailableChange(product, before, updatedInventory.getAvailableQuantity());
         auditLogService.log(
                 "STOCK_ADD",
                 "PRODUCT",
@@ -195,108 +281,28 @@ public class ProductService {
         return toResponse(product, updatedInventory);
     }
 
+    /**
+     * カテゴリのSKUルールで次に採番される見込みのSKUを返す。番号は予約しないため、同時に登録された場合は別の番号になる。
+     */
     @Transactional(readOnly = true)
     public String suggestNextSku(Long categoryId) {
         ProductCategory category = resolveCategory(categoryId);
         String prefix = buildSkuPrefix(category);
         int sequenceDigits = resolveSkuSequenceDigits(category);
         String datePart = LocalDate.now().format(SKU_DATE_FORMAT);
-        String base = prefix + "-" + datePart;
-        String skuPrefix = base + "-";
-        int sequenceLimit = (int) Math.pow(10, sequenceDigits) - 1;
-
-        int sequence = 1;
-        Optional<Product> latest = productRepository.findTopBySkuStartingWithOrderBySkuDesc(skuPrefix);
-        if (latest.isPresent()) {
-            String latestSku = latest.get().getSku();
-            if (latestSku.length() > skuPrefix.length()) {
-                String suffix = latestSku.substring(skuPrefix.length());
-                if (suffix.matches("\\d{" + sequenceDigits + "}")) {
-                    sequence = Integer.parseInt(suffix) + 1;
-                }
-            }
-        }
+        long sequenceLimit = (long) Math.pow(10, sequenceDigits) - 1;
 
-        while (sequence <= sequenceLimit) {
-            String candidate = skuPrefix + String.format("%0" + sequenceDigits + "d", sequence);
+        long sequence = skuSequenceAllocator.peek(prefix, datePart);
+        for (int attempt = 0; attempt < MAX_SKU_ALLOCATION_ATTEMPTS && sequence <= sequenceLimit; attempt++, sequence++) {
+            String candidate = formatSku(prefix, datePart, sequenceDigits, sequence);
             if (!productRepository.existsBySkuIgnoreCase(candidate)) {
                 return candidate;
             }
-            sequence++;
         }
 
         throw new BusinessRuleException("SKU候補を採番できませんでした。カテゴリを見直してください。");
     }
 
-    @Transactional
-    public ProductImportResultResponse importProductsCsv(MultipartFile file) {
-        if (file == null || file.isEmpty()) {
-            throw new BusinessRuleException("CSVファイルが空です。");
-        }
-
-        List<ProductImportErrorResponse> errors = new ArrayList<>();
-        int totalRows = 0;
-        int successRows = 0;
-        int createdRows = 0;
-        int updatedRows = 0;
-
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
-            String headerLine = reader.readLine();
-            if (headerLine == null || headerLine.isBlank()) {
-                throw new BusinessRuleException("CSVヘッダ行が見つかりません。");
-            }
-
-            Map<String, Integer> headerIndexMap = buildHeaderIndex(headerLine);
-            validateImportHeaders(headerIndexMap);
-
-            String line;
-            int rowNumber = 1;
-            while ((line = reader.readLine()) != null) {
-                rowNumber++;
-                if (line.isBlank()) {
-                    continue;
-                }
-                totalRows++;
-
-                try {
-                    ImportRow row = parseImportRow(line, rowNumber, headerIndexMap);
-                    boolean created = upsertFromImportRow(row);
-                    successRows++;
-                    if (created) {
-                        createdRows++;
-                    } else {
-                        updatedRows++;
-                    }
-                } catch (RuntimeException ex) {
-                    String message = ex.getMessage() == null ? "不明なエラー" : ex.getMessage();
-                    if (!message.startsWith("row ")) {
-                        message = "row " + rowNumber + ": " + message;
-                    }
-                    errors.add(new ProductImportErrorResponse(rowNumber, message));
-                }
-            }
-        } catch (IOException ex) {
-            throw new BusinessRuleException("CSVファイルの読み込みに失敗しました。");
-        }
-
-        auditLogService.log(
-                ACTION_PRODUCT_IMPORT,
-                "PRODUCT",
-                "BULK",
-                "totalRows=" + totalRows + ", successRows=" + successRows + ", createdRows=" + createdRows
-                        + ", updatedRows=" + updatedRows + ", failedRows=" + errors.size()
-        );
-
-        return new ProductImportResultResponse(
-                totalRows,
-                successRows,
-                createdRows,
-                updatedRows,
-                errors.size(),
-                List.copyOf(errors)
-        );
-    }
-
     private Product findProductById(Long productId) {
         return productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + productId));
@@ -327,6 +333,17 @@ public class ProductService {
     }
 
     private ProductResponse toResponse(Product product, Inventory inventory) {
+        // 在庫台帳有効時はinventoriesへの反映前でも最新値を返すため、読み込み済みセルを優先する。
+        InventoryCounts counts = inventoryLedger.isEnabled()
+                ? inventoryLedger.peek(product.getId()).orElse(null)
+                : null;
+        if (counts == null && inventory != null) {
+            counts = new InventoryCounts(inventory.getAvailableQuantity(), inventory.getReservedQuantity());
+        }
+        return toResponse(product, counts);
+    }
+
+    private ProductResponse toResponse(Product product, InventoryCounts counts) {
         ProductCategory category = product.getCategory();
         return new ProductResponse(
                 product.getId(),
@@ -339,11 +356,87 @@ public class ProductService {
                 category == null ? null : category.getId(),
                 category == null ? null : category.getCode(),
                 category == null ? null : category.getName(),
-                inventory == null ? 0 : inventory.getAvailableQuantity(),
-                inventory == null ? 0 : inventory.getReservedQuantity()
+                counts == null ? 0 : counts.available(),
+                counts == null ? 0 : counts.reserved()
         );
     }
 
+    /**
+     * キーワードとの一致度順に返す。SKU完全一致、SKU前方一致、商品名前方一致、部分一致の順で、同順位は更新日時の新しい順。
+     * 絞り込みは部分一致のままのため、PostgreSQLではpg_trgmのGINインデックスで候補を絞ってから並べ替える。
+     */
+    private ProductPageResponse getProductsPageByRelevance(
+            String q,
+            Specification<Product> specification,
+            int page,
+            int size,
+            boolean includeTotal
+    ) {
+        String keyword = q.trim().toLowerCase();
+        Specification<Product> ranked = specification.and((root, query, criteriaBuilder) -> {
+            // 件数取得のクエリには並び順を付けない。
+            if (Product.class.equals(query.getResultType())) {
+                Expression<String> lowerSku = criteriaBuilder.lower(root.get("sku"));
+                Expression<String> lowerName = criteriaBuilder.lower(root.get("name"));
+                Expression<Integer> rank = criteriaBuilder.<Integer>selectCase()
+                        .when(criteriaBuilder.equal(lowerSku, keyword), 0)
+                        .when(criteriaBuilder.like(lowerSku, keyword + "%"), 1)
+                        .when(criteriaBuilder.like(lowerName, keyword + "%"), 2)
+                        .otherwise(3);
+                query.orderBy(
+                        criteriaBuilder.asc(rank),
+                        criteriaBuilder.desc(root.get("updatedAt")),
+                        criteriaBuilder.desc(root.get("id"))
+                );
+            }
+            return null;
+        });
+
+        if (includeTotal) {
+            Page<Product> resultPage = productRepository.findAll(ranked, PageRequest.of(page, size));
+            return new ProductPageResponse(
+                    toResponses(resultPage.getContent()),
+                    resultPage.getNumber(),
+                    resultPage.getSize(),
+                    resultPage.getTotalElements(),
+                    resultPage.getTotalPages(),
+                    resultPage.hasNext(),
+                    resultPage.hasPrevious(),
+                    null
+            );
+        }
+
+        Slice<Product> resultSlice = productRepository.findBy(ranked, query -> query.slice(PageRequest.of(page, size)));
+        return new ProductPageResponse(
+                toResponses(resultSlice.getContent()),
+                page,
+                size,
+                -1,
+                -1,
+                resultSlice.hasNext(),
+                resultSlice.hasPrevious(),
+                null
+        );
+    }
+
+    private boolean isRelevanceSort(String sortKey) {
+        if (sortKey == null || sortKey.isBlank() || "updated".equalsIgnoreCase(sortKey.trim())) {
+            return false;
+        }
+        if ("relevance".equalsIgnoreCase(sortKey.trim())) {
+            return true;
+        }
+        throw new BadRequestException("sort must be one of: updated, relevance");
+    }
+
+    private String nextCursor(Slice<Product> slice) {
+        if (!slice.hasNext() || slice.getContent().isEmpty()) {
+            return null;
+        }
+        Product last = slice.getContent().get(slice.getContent().size() - 1);
+        return KeysetCursor.of(last.getUpdatedAt(), last.getId()).encode();
+    }
+
     private Specification<Product> buildSearchSpecification(String q, List<Long> categoryIds, Boolean lowStockOnly) {
         return (root, query, criteriaBuilder) -> {
             List<jakarta.persistence.criteria.Predicate> predicates = new ArrayList<>();
@@ -377,24 +470,8 @@ public class ProductService {
         if (categoryId == null) {
             return List.of();
         }
-
-        ProductCategory rootCategory = productCategoryRepository.findById(categoryId)
-                .orElseThrow(() -> new ResourceNotFoundException("Category not found: " + categoryId));
-
-        Set<Long> resolvedIds = new LinkedHashSet<>();
-        List<Long> frontier = List.of(rootCategory.getId());
-        while (!frontier.isEmpty()) {
-            for (Long id : frontier) {
-                resolvedIds.add(id);
-            }
-            List<ProductCategory> children = productCategoryRepository.findByParent_IdIn(frontier);
-            frontier = children.stream()
-                    .map(ProductCategory::getId)
-                    .filter(id -> !resolvedIds.contains(id))
-                    .toList();
-        }
-
-        return List.copyOf(resolvedIds);
+        // 配下カテゴリはカテゴリ階層のスナップショットから引き、検索のたびに階層を辿るクエリを発行しない。
+        return List.copyOf(productCategoryService.getDescendantIds(categoryId));
     }
 
     private Integer normalizeReorderValue(Integer value) {
@@ -404,151 +481,36 @@ public class ProductService {
         return value;
     }
 
-    private boolean upsertFromImportRow(ImportRow row) {
-        ProductCategory category = resolveCategoryByCode(row.categoryCode());
-        Optional<Product> existing = productRepository.findBySkuIgnoreCase(row.sku());
-        boolean created = existing.isEmpty();
-
-        Product product = existing.orElseGet(Product::new);
-        if (created) {
-            product.setSku(row.sku());
-            product.setReorderPoint(DEFAULT_IMPORT_REORDER_POINT);
-            product.setReorderQuantity(DEFAULT_IMPORT_REORDER_QUANTITY);
-        }
-        product.setName(row.name());
-        product.setDescription(row.description());
-        product.setUnitPrice(row.unitPrice());
-        product.setCategory(category);
-
-        Product savedProduct = productRepository.save(product);
-        Inventory inventory = inventoryRepository.findByProductId(savedProduct.getId())
-                .orElseGet(() -> {
-                    Inventory newInventory = new Inventory();
-                    newInventory.setProduct(savedProduct);
-                    newInventory.setReservedQuantity(0);
-                    newInventory.setAvailableQuantity(0);
-                    return newInventory;
-                });
-        inventory.setAvailableQuantity(row.availableQuantity());
-        if (inventory.getReservedQuantity() == null) {
-            inventory.setReservedQuantity(0);
-        }
-        inventoryRepository.save(inventory);
-        return created;
-    }
-
-    private ProductCategory resolveCategoryByCode(String categoryCode) {
-        if (categoryCode == null || categoryCode.isBlank()) {
-            return null;
-        }
-        return productCategoryRepository.findByCodeIgnoreCase(categoryCode)
-                .orElseThrow(() -> new BusinessRuleException("カテゴリコードが存在しません: " + categoryCode));
-    }
-
-    private Map<String, Integer> buildHeaderIndex(String headerLine) {
-        List<String> headers = parseCsvLine(headerLine);
-        Map<String, Integer> headerIndexMap = new HashMap<>();
-        for (int i = 0; i < headers.size(); i++) {
-            headerIndexMap.put(normalizeHeader(headers.get(i)), i);
-        }
-        return headerIndexMap;
-    }
-
-    private void validateImportHeaders(Map<String, Integer> headerIndexMap) {
-        List<String> requiredHeaders = List.of("sku", "name", "unitprice", "availablequantity");
-        List<String> missing = requiredHeaders.stream()
-                .filter(header -> !headerIndexMap.containsKey(header))
-                .toList();
-        if (!missing.isEmpty()) {
-            throw new BusinessRuleException("CSVヘッダ不足: " + String.join(", ", missing));
-        }
-    }
-
-    private ImportRow parseImportRow(String line, int rowNumber, Map<String, Integer> headerIndexMap) {
-        List<String> cells = parseCsvLine(line);
-        String sku = readCell(cells, headerIndexMap, "sku");
-        String name = readCell(cells, headerIndexMap, "name");
-        String unitPriceValue = readCell(cells, headerIndexMap, "unitprice");
-        String availableQuantityValue = readCell(cells, headerIndexMap, "availablequantity");
-        String categoryCode = readCell(cells, headerIndexMap, "categorycode");
-        String description = readCell(cells, headerIndexMap, "description");
-        String normalizedSku = requireValidSku(sku, "row " + rowNumber + ": sku");
-        if (name.isBlank()) {
-            throw new BusinessRuleException("row " + rowNumber + ": name が空です。");
-        }
-
-        BigDecimal unitPrice;
-        try {
-            unitPrice = new BigDecimal(unitPriceValue);
-        } catch (NumberFormatException ex) {
-            throw new BusinessRuleException("row " + rowNumber + ": unitPrice が不正です。");
-        }
-        if (unitPrice.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new BusinessRuleException("row " + rowNumber + ": unitPrice は0より大きい値を指定してください。");
-        }
+    /**
+     * カテゴリのSKUルールで未使用のSKUを採番する。カウンタを別トランザクションで更新するため、トランザクションの外で呼ぶこと。
+     */
+    String allocateSku(ProductCategory category) {
+        String prefix = buildSkuPrefix(category);
+        int sequenceDigits = resolveSkuSequenceDigits(category);
+        String datePart = LocalDate.now().format(SKU_DATE_FORMAT);
+        long sequenceLimit = (long) Math.pow(10, sequenceDigits) - 1;
 
-        int availableQuantity;
-        try {
-            availableQuantity = Integer.parseInt(availableQuantityValue);
-        } catch (NumberFormatException ex) {
-            throw new BusinessRuleException("row " + rowNumber + ": availableQuantity が不正です。");
-        }
-        if (availableQuantity < 0) {
-            throw new BusinessRuleException("row " + rowNumber + ": availableQuantity は0以上を指定してください。");
+        for (int attempt = 0; attempt < MAX_SKU_ALLOCATION_ATTEMPTS; attempt++) {
+            long sequence = skuSequenceAllocator.next(prefix, datePart);
+            if (sequence > sequenceLimit) {
+                break;
+            }
+            String candidate = formatSku(prefix, datePart, sequenceDigits, sequence);
+            // 同じ形式のSKUが手入力で先に登録されている場合だけ、次の番号へ進める。
+            if (!productRepository.existsBySkuIgnoreCase(candidate)) {
+                return candidate;
+            }
         }
 
-        return new ImportRow(
-                normalizedSku,
-                name,
-                description.isBlank() ? null : description,
-                unitPrice,
-                availableQuantity,
-                categoryCode.isBlank() ? null : categoryCode
-        );
-    }
-
-    private String normalizeHeader(String header) {
-        return header.replace("\uFEFF", "").trim().toLowerCase();
-    }
-
-    private String readCell(List<String> cells, Map<String, Integer> headerIndexMap, String headerName) {
-        Integer index = headerIndexMap.get(headerName);
-        if (index == null || index < 0 || index >= cells.size()) {
-            return "";
-        }
-        return cells.get(index).trim();
+        throw new BusinessRuleException("SKU候補を採番できませんでした。カテゴリを見直してください。");
     }
 
-    private List<String> parseCsvLine(String line) {
-        List<String> values = new ArrayList<>();
-        StringBuilder currentValue = new StringBuilder();
-        boolean inQuotes = false;
-
-        for (int i = 0; i < line.length(); i++) {
-            char ch = line.charAt(i);
-
-            if (ch == '"') {
-                if (inQuotes && i + 1 < line.length() && line.charAt(i + 1) == '"') {
-                    currentValue.append('"');
-                    i++;
-                } else {
-                    inQuotes = !inQuotes;
-                }
-                continue;
-            }
-
-            if (ch == ',' && !inQuotes) {
-                values.add(currentValue.toString());
-                currentValue.setLength(0);
-                continue;
-            }
-            currentValue.append(ch);
-        }
-        values.add(currentValue.toString());
-        return values;
+    private String formatSku(String prefix, String datePart, int sequenceDigits, long sequence) {
+        String digits = Long.toString(sequence);
+        return prefix + "-" + datePart + "-" + "0".repeat(sequenceDigits - digits.length()) + digits;
     }
 
-    private String requireValidSku(String rawSku, String fieldName) {
+    String requireValidSku(String rawSku, String fieldName) {
         String normalized = normalizeSku(rawSku);
         if (normalized.isBlank()) {
             throw new BusinessRuleException(fieldName + " が空です。");
@@ -600,13 +562,4 @@ public class ProductService {
         return value;
     }
 
-    private record ImportRow(
-            String sku,
-            String name,
-            String description,
-            BigDecimal unitPrice,
-            Integer availableQuantity,
-            String categoryCode
-    ) {
-    }
 }
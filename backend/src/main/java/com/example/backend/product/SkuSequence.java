@@ -0,0 +1,50 @@
+package com.example.backend.product;
+
+import jakarta.persistence.*;
+/**
+ * SKU自動採番の連番を(接頭辞, 日付)単位で保持する永続化エンティティ。nextValueは次に払い出す番号。
+ */
+
+@Entity
+@Table(
+        name = "sku_sequences",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_sku_sequences_prefix_date",
+                columnNames = {"prefix", "date_part"}
+        )
+)
+public class SkuSequence {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 40)
+    private String prefix;
+
+    @Column(name = "date_part", nullable = false, length = 8)
+    private String datePart;
+
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public String getDatePart() {
+        return datePart;
+    }
+
+    public Long getNextValue() {
+        return nextValue;
+    }
+
+    public void setNextValue(Long nextValue) {
+        this.nextValue = nextValue;
+    }
+}
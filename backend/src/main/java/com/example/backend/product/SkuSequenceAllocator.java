@@ -0,0 +1,140 @@
+package com.example.backend.product;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * SKUの連番を(接頭辞, 日付)単位のカウンタ行から払い出すコンポーネント。
+ * カウンタの更新は呼び出し元とは別トランザクションで即時コミットするため、同時に採番しても同じ番号は返らない。
+ * ブロックサイズを2以上にすると、その件数分をまとめて予約してノード内のメモリから払い出す。
+ * 払い出した番号が使われなかった場合やノード停止時に予約の残りがあった場合、その番号は欠番になる。
+ * 予約のたびにコネクションを1本使うため、呼び出し元のトランザクションの外で呼ぶこと(内側で呼ぶと1リクエストで2本を同時に使う)。
+ */
+@Component
+public class SkuSequenceAllocator {
+
+    private static final Pattern NUMERIC_SUFFIX = Pattern.compile("\\d{1,18}");
+
+    private final SkuSequenceRepository skuSequenceRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int blockSize;
+    private final Map<SequenceKey, ReservedBlock> reservedBlocks = new ConcurrentHashMap<>();
+    private volatile String currentDatePart = "";
+
+    public SkuSequenceAllocator(
+            SkuSequenceRepository skuSequenceRepository,
+            ProductRepository productRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.sku.block-size:1}") int blockSize
+    ) {
+        this.skuSequenceRepository = skuSequenceRepository;
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    /**
+     * 指定した接頭辞・日付の次の連番を払い出す。
+     */
+    public long next(String prefix, String datePart) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("SKU sequence must be allocated outside of a transaction");
+        }
+        evictStaleBlocks(datePart);
+        SequenceKey key = new SequenceKey(prefix, datePart);
+        ReservedBlock block = reservedBlocks.computeIfAbsent(key, ignored -> new ReservedBlock());
+        // 予約はJDBC呼び出しを伴うため、仮想スレッドがキャリアスレッドを占有しないようsynchronizedではなくロックで守る。
+        block.lock.lock();
+        try {
+            if (block.next >= block.end) {
+                long start = reserve(key);
+                block.next = start;
+                block.end = start + blockSize;
+            }
+            return block.next++;
+        } finally {
+            block.lock.unlock();
+        }
+    }
+
+    /**
+     * 次に払い出される見込みの連番を、予約せずに返す。
+     */
+    public long peek(String prefix, String datePart) {
+        SequenceKey key = new SequenceKey(prefix, datePart);
+        ReservedBlock block = reservedBlocks.get(key);
+        if (block != null) {
+            block.lock.lock();
+            try {
+                if (block.next < block.end) {
+                    return block.next;
+                }
+            } finally {
+                block.lock.unlock();
+            }
+        }
+        long counterValue = skuSequenceRepository.findByPrefixAndDatePart(prefix, datePart)
+                .map(SkuSequence::getNextValue)
+                .orElse(1L);
+        return Math.max(counterValue, initialValue(key));
+    }
+
+    // 日付が変わったら前日までの予約は使われないため破棄する。computeIfAbsentの中では同じマップを更新できないため別に行う。
+    private void evictStaleBlocks(String datePart) {
+        if (datePart.compareTo(currentDatePart) <= 0) {
+            return;
+        }
+        currentDatePart = datePart;
+        reservedBlocks.keySet().removeIf(existing -> existing.datePart().compareTo(datePart) < 0);
+    }
+
+    private long reserve(SequenceKey key) {
+        Long start = transactionTemplate.execute(status -> {
+            if (skuSequenceRepository.findForUpdate(key.prefix(), key.datePart()).isEmpty()) {
+                skuSequenceRepository.insertIfAbsent(key.prefix(), key.datePart(), initialValue(key));
+            }
+            SkuSequence sequence = skuSequenceRepository.findForUpdate(key.prefix(), key.datePart())
+                    .orElseThrow(() -> new IllegalStateException("SKU sequence row was not created: " + key));
+            // 候補表示から手入力で登録されたSKUを飛ばせるよう、既存の最大連番より後ろから予約する。
+            long value = Math.max(sequence.getNextValue(), initialValue(key));
+            sequence.setNextValue(value + blockSize);
+            return value;
+        });
+        if (start == null) {
+            throw new IllegalStateException("SKU sequence reservation returned no value: " + key);
+        }
+        return start;
+    }
+
+    // 登録済みのSKUと重ならないよう、既存の最大連番の次の値を返す。
+    private long initialValue(SequenceKey key) {
+        String skuPrefix = key.prefix() + "-" + key.datePart() + "-";
+        return productRepository.findTopBySkuStartingWithOrderBySkuDesc(skuPrefix)
+                .map(Product::getSku)
+                .filter(sku -> sku.length() > skuPrefix.length())
+                .map(sku -> sku.substring(skuPrefix.length()))
+                .filter(suffix -> NUMERIC_SUFFIX.matcher(suffix).matches())
+                .map(suffix -> Long.parseLong(suffix) + 1)
+                .orElse(1L);
+    }
+
+    private record SequenceKey(String prefix, String datePart) {
+    }
+
+    private static final class ReservedBlock {
+        private final ReentrantLock lock = new ReentrantLock();
+        private long next;
+        private long end;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.backend.product;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+/**
+ * JPA経由で永続化データへアクセスするリポジトリ。
+ */
+
+public interface SkuSequenceRepository extends JpaRepository<SkuSequence, Long> {
+
+    // 同じ接頭辞・日付の初回採番が同時に来ても一意制約違反でトランザクションを壊さないよう、行がなければ作成する。
+    @Modifying
+    @Query("""
+            insert into SkuSequence (prefix, datePart, nextValue)
+            values (:prefix, :datePart, :nextValue)
+            on conflict do nothing
+            """)
+    int insertIfAbsent(
+            @Param("prefix") String prefix,
+            @Param("datePart") String datePart,
+            @Param("nextValue") long nextValue
+    );
+
+    Optional<SkuSequence> findByPrefixAndDatePart(String prefix, String datePart);
+
+    // 払い出し中は行をロックし、同じ接頭辞・日付の採番を直列化する。
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from SkuSequence s where s.prefix = :prefix and s.datePart = :datePart")
+    Optional<SkuSequence> findForUpdate(@Param("prefix") String prefix, @Param("datePart") String datePart);
+}
@@ -12,7 +12,7 @@ import java.math.BigDecimal;
  */
 
 public record CreateProductRequest(
-        @NotBlank @Size(max = 64) String sku,
+        @Size(max = 64) String sku,
         @NotBlank @Size(max = 200) String name,
         @Size(max = 500) String description,
         @NotNull @DecimalMin(value = "0.01") BigDecimal unitPrice,
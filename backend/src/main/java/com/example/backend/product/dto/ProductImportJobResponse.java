@@ -0,0 +1,24 @@
+package com.example.backend.product.dto;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * 商品CSV取込ジョブの状態と進捗。errorsは先頭から上限件数までの行エラー。
+ */
+public record ProductImportJobResponse(
+        Long jobId,
+        String status,
+        String fileName,
+        int processedRows,
+        int successRows,
+        int createdRows,
+        int updatedRows,
+        int failedRows,
+        List<ProductImportErrorResponse> errors,
+        String message,
+        OffsetDateTime createdAt,
+        OffsetDateTime startedAt,
+        OffsetDateTime finishedAt
+) {
+}
@@ -4,6 +4,7 @@ import java.util.List;
 
 /**
  * 商品一覧のページング結果。
+ * totalElements/totalPagesは件数取得を省略した場合-1、nextCursorは次ページがない場合nullとなる。
  */
 public record ProductPageResponse(
         List<ProductResponse> items,
@@ -12,7 +13,8 @@ public record ProductPageResponse(
         long totalElements,
         int totalPages,
         boolean hasNext,
-        boolean hasPrevious
+        boolean hasPrevious,
+        String nextCursor
 ) {
 }
 
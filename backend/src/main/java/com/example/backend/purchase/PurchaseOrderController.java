@@ -1,22 +1,23 @@
 package com.example.backend.purchase;
 
+import com.example.backend.common.CsvStreamWriter;
 import com.example.backend.idempotency.IdempotencyService;
 import com.example.backend.purchase.dto.CreatePurchaseOrderRequest;
 import com.example.backend.purchase.dto.PurchaseOrderResponse;
+import com.example.backend.purchase.dto.PurchaseOrderSummaryPageResponse;
 import com.example.backend.purchase.dto.PurchaseOrderReceiptResponse;
 import com.example.backend.purchase.dto.ReceivePurchaseOrderRequest;
+import com.example.backend.purchase.dto.ReplenishmentSuggestionPageResponse;
 import com.example.backend.purchase.dto.ReplenishmentSuggestionResponse;
 import jakarta.validation.Valid;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -45,6 +46,19 @@ public class PurchaseOrderController {
         return purchaseOrderService.getPurchaseOrders();
     }
 
+    @GetMapping("/page")
+    @PreAuthorize("hasAnyRole('ADMIN','OPERATOR','VIEWER')")
+    public PurchaseOrderSummaryPageResponse getPurchaseOrderSummaries(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long supplierId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        return purchaseOrderService.getPurchaseOrderSummaries(status, supplierId, from, to, page, size);
+    }
+
     @GetMapping("/{purchaseOrderId}")
     @PreAuthorize("hasAnyRole('ADMIN','OPERATOR','VIEWER')")
     public PurchaseOrderResponse getPurchaseOrder(@PathVariable Long purchaseOrderId) {
@@ -63,30 +77,33 @@ public class PurchaseOrderController {
         return purchaseOrderService.getPurchaseOrderReceipts(purchaseOrderId, receivedBy, from, to, limit);
     }
 
-    @GetMapping(value = "/{purchaseOrderId}/receipts/export.csv", produces = "text/csv")
+    @GetMapping(value = "/{purchaseOrderId}/receipts/export.csv", produces = {"text/csv", "application/gzip"})
     @PreAuthorize("hasAnyRole('ADMIN','OPERATOR','VIEWER')")
-    public ResponseEntity<String> exportReceiptHistoryCsv(
+    public ResponseEntity<StreamingResponseBody> exportReceiptHistoryCsv(
             @PathVariable Long purchaseOrderId,
             @RequestParam(required = false) String receivedBy,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
-            @RequestParam(defaultValue = "2000") Integer limit
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean gzip
     ) {
-        PurchaseOrderResponse purchaseOrder = purchaseOrderService.getPurchaseOrder(purchaseOrderId);
-        List<PurchaseOrderReceiptResponse> receipts = purchaseOrderService.getPurchaseOrderReceipts(
-                purchaseOrderId,
-                receivedBy,
-                from,
-                to,
-                limit
-        );
-        String csv = toReceiptCsv(purchaseOrder.orderNumber(), receipts);
-        String filename = "purchase-order-" + sanitizeFilename(purchaseOrder.orderNumber()) + "-receipts.csv";
-
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
-                .body(csv);
+        String orderNumber = purchaseOrderService.prepareReceiptExport(purchaseOrderId, from, to);
+        String filename = "purchase-order-" + sanitizeFilename(orderNumber) + "-receipts.csv";
+
+        return CsvStreamWriter.response(filename, gzip, outputStream -> {
+            try (CsvStreamWriter writer = CsvStreamWriter.open(outputStream, gzip)) {
+                writer.writeHeader("purchaseOrderNumber,receiptId,receivedAt,receivedBy,sku,productName,quantity");
+                purchaseOrderService.streamReceiptRowsForExport(purchaseOrderId, receivedBy, from, to, limit, row -> writer.writeRow(
+                        orderNumber,
+                        row.receiptId() == null ? "" : row.receiptId().toString(),
+                        row.receivedAt() == null ? "" : row.receivedAt().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME),
+                        row.receivedBy(),
+                        row.sku(),
+                        row.productName(),
+                        row.quantity() == null ? "" : row.quantity().toString()
+                ));
+            }
+        });
     }
 
     @GetMapping("/suggestions")
@@ -95,6 +112,16 @@ public class PurchaseOrderController {
         return purchaseOrderService.getReplenishmentSuggestions();
     }
 
+    @GetMapping("/suggestions/page")
+    @PreAuthorize("hasAnyRole('ADMIN','OPERATOR','VIEWER')")
+    public ReplenishmentSuggestionPageResponse getReplenishmentSuggestionsPage(
+            @RequestParam(required = false) Long supplierId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        return purchaseOrderService.getReplenishmentSuggestionsPage(supplierId, page, size);
+    }
+
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     @PreAuthorize("hasAnyRole('ADMIN','OPERATOR')")
@@ -145,43 +172,6 @@ public class PurchaseOrderController {
         );
     }
 
-    private String toReceiptCsv(String purchaseOrderNumber, List<PurchaseOrderReceiptResponse> receipts) {
-        StringBuilder builder = new StringBuilder();
-        builder.append("purchaseOrderNumber,receiptId,receivedAt,receivedBy,sku,productName,quantity\n");
-
-        for (PurchaseOrderReceiptResponse receipt : receipts) {
-            for (var item : receipt.items()) {
-                builder.append(escapeCsv(purchaseOrderNumber))
-                        .append(',')
-                        .append(escapeCsv(receipt.id() == null ? "" : receipt.id().toString()))
-                        .append(',')
-                        .append(escapeCsv(
-                                receipt.receivedAt() == null
-                                        ? ""
-                                        : receipt.receivedAt().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)
-                        ))
-                        .append(',')
-                        .append(escapeCsv(receipt.receivedBy()))
-                        .append(',')
-                        .append(escapeCsv(item.sku()))
-                        .append(',')
-                        .append(escapeCsv(item.productName()))
-                        .append(',')
-                        .append(escapeCsv(item.quantity() == null ? "" : item.quantity().toString()))
-                        .append('\n');
-            }
-        }
-
-        return builder.toString();
-    }
-
-    private String escapeCsv(String value) {
-        if (value == null) {
-            return "\"\"";
-        }
-        return "\"" + value.replace("\"", "\"\"") + "\"";
-    }
-
     private String sanitizeFilename(String value) {
         if (value == null || value.isBlank()) {
             return "unknown";
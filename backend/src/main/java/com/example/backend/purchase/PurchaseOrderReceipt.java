@@ -14,7 +14,8 @@ import java.util.Set;
 public class PurchaseOrderReceipt {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "purchase_order_receipts_id_seq")
+    @SequenceGenerator(name = "purchase_order_receipts_id_seq", sequenceName = "purchase_order_receipts_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -11,7 +11,8 @@ import jakarta.persistence.*;
 public class PurchaseOrderReceiptItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "purchase_order_receipt_items_id_seq")
+    @SequenceGenerator(name = "purchase_order_receipt_items_id_seq", sequenceName = "purchase_order_receipt_items_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
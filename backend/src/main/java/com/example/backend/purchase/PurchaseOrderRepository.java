@@ -1,39 +1,106 @@
 package com.example.backend.purchase;
 
+import com.example.backend.purchase.dto.PurchaseOrderReceiptExportRow;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import jakarta.persistence.QueryHint;
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 /**
  * JPA経由で永続化データへアクセスするリポジトリ。
  */
 
 public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, Long> {
 
-    boolean existsByOrderNumber(String orderNumber);
+    @EntityGraph(attributePaths = {"supplier", "items", "items.product"})
+    @Query("select po from PurchaseOrder po where po.id = :id")
+    Optional<PurchaseOrder> findWithItemsById(@Param("id") Long id);
 
-    @EntityGraph(attributePaths = {
-            "supplier",
-            "items",
-            "items.product",
-            "receipts",
-            "receipts.items",
-            "receipts.items.product"
-    })
-    @Query("select distinct po from PurchaseOrder po where po.id = :id")
-    Optional<PurchaseOrder> findDetailedById(@Param("id") Long id);
-
-    @EntityGraph(attributePaths = {
-            "supplier",
-            "items",
-            "items.product",
-            "receipts",
-            "receipts.items",
-            "receipts.items.product"
-    })
+    @EntityGraph(attributePaths = {"supplier", "items", "items.product"})
     @Query("select distinct po from PurchaseOrder po order by po.createdAt desc")
-    List<PurchaseOrder> findAllDetailed();
+    List<PurchaseOrder> findAllWithItems();
+
+    // 入荷と入荷明細は発注明細とは別のクエリで読み込み、発注明細×入荷明細の直積を避ける。
+    // 同じ永続化コンテキストで読み込み済みの発注へ入荷コレクションが結び付けられる。
+    @Query("""
+            select distinct po
+            from PurchaseOrder po
+            left join fetch po.receipts r
+            left join fetch r.items ri
+            left join fetch ri.product
+            where po.id in :ids
+            """)
+    List<PurchaseOrder> fetchReceiptsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // 一覧用の要約。明細は件数と数量の合計だけを集計し、入荷履歴は件数だけを数える。
+    @Query(value = """
+            select new com.example.backend.purchase.PurchaseOrderSummaryRow(
+                po.id, po.orderNumber, s.id, s.code, po.supplierName, po.status, po.createdAt, po.receivedAt,
+                count(i.id),
+                coalesce(sum(i.quantity), 0L),
+                coalesce(sum(i.receivedQuantity), 0L),
+                coalesce(sum(case when i.quantity > i.receivedQuantity then i.quantity - i.receivedQuantity else 0 end), 0L),
+                (select count(r.id) from PurchaseOrderReceipt r where r.purchaseOrder.id = po.id)
+            )
+            from PurchaseOrder po
+            left join po.supplier s
+            left join po.items i
+            where po.status in :statuses
+              and (:supplierId is null or s.id = :supplierId)
+              and po.createdAt >= :from
+              and po.createdAt <= :to
+            group by po.id, po.orderNumber, s.id, s.code, po.supplierName, po.status, po.createdAt, po.receivedAt
+            order by po.createdAt desc, po.id desc
+            """,
+            countQuery = """
+            select count(po)
+            from PurchaseOrder po
+            where po.status in :statuses
+              and (:supplierId is null or po.supplier.id = :supplierId)
+              and po.createdAt >= :from
+              and po.createdAt <= :to
+            """)
+    Page<PurchaseOrderSummaryRow> findSummaries(
+            @Param("statuses") Collection<PurchaseOrderStatus> statuses,
+            @Param("supplierId") Long supplierId,
+            @Param("from") OffsetDateTime from,
+            @Param("to") OffsetDateTime to,
+            Pageable pageable
+    );
+
+    long countByNoteStartingWith(String prefix);
+
+    // 入荷履歴CSV用。入荷明細をDTOで直接返し、fetch sizeを指定してカーソルで少しずつ読み込む。
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("""
+            select new com.example.backend.purchase.dto.PurchaseOrderReceiptExportRow(
+                r.id, r.receivedAt, r.receivedBy, p.sku, p.name, ri.quantity
+            )
+            from PurchaseOrderReceiptItem ri
+            join ri.receipt r
+            join ri.product p
+            where r.purchaseOrder.id = :purchaseOrderId
+              and lower(r.receivedBy) like :receivedByPattern
+              and r.receivedAt >= :from
+              and r.receivedAt <= :to
+            order by r.receivedAt desc, r.id desc, ri.id asc
+            """)
+    Stream<PurchaseOrderReceiptExportRow> streamReceiptRows(
+            @Param("purchaseOrderId") Long purchaseOrderId,
+            @Param("receivedByPattern") String receivedByPattern,
+            @Param("from") OffsetDateTime from,
+            @Param("to") OffsetDateTime to
+    );
 }
@@ -1,10 +1,15 @@
 package com.example.backend.purchase;
 
 import com.example.backend.audit.AuditLogService;
+import com.example.backend.common.BadRequestException;
 import com.example.backend.common.BusinessRuleException;
+import com.example.backend.common.OrderNumberGenerator;
 import com.example.backend.common.ResourceNotFoundException;
 import com.example.backend.inventory.Inventory;
+import com.example.backend.inventory.InventoryCounts;
+import com.example.backend.inventory.InventoryLedger;
 import com.example.backend.inventory.InventoryRepository;
+import com.example.backend.inventory.LowStockMonitor;
 import com.example.backend.product.Product;
 import com.example.backend.product.ProductRepository;
 import com.example.backend.supplier.ProductSupplier;
@@ -14,68 +19,133 @@ import com.example.backend.supplier.SupplierRepository;
 import com.example.backend.purchase.dto.CreatePurchaseOrderItemRequest;
 import com.example.backend.purchase.dto.CreatePurchaseOrderRequest;
 import com.example.backend.purchase.dto.PurchaseOrderItemResponse;
+import com.example.backend.purchase.dto.PurchaseOrderReceiptExportRow;
 import com.example.backend.purchase.dto.PurchaseOrderReceiptItemResponse;
 import com.example.backend.purchase.dto.PurchaseOrderReceiptResponse;
 import com.example.backend.purchase.dto.PurchaseOrderResponse;
+import com.example.backend.purchase.dto.PurchaseOrderSummaryPageResponse;
+import com.example.backend.purchase.dto.PurchaseOrderSummaryResponse;
 import com.example.backend.purchase.dto.ReceivePurchaseOrderItemRequest;
 import com.example.backend.purchase.dto.ReceivePurchaseOrderRequest;
+import com.example.backend.purchase.dto.ReplenishmentSuggestionPageResponse;
 import com.example.backend.purchase.dto.ReplenishmentSuggestionResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class PurchaseOrderService {
 
-    private static final DateTimeFormatter ORDER_NUMBER_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private static final int MAX_SUGGESTION_PAGE_SIZE = 200;
+    private static final int MAX_PURCHASE_ORDER_PAGE_SIZE = 200;
+    // ストリーミング出力で期間未指定の場合に使う、DBの時刻型で表現できる範囲内の下限・上限。
+    private static final OffsetDateTime EXPORT_MIN_TIME = OffsetDateTime.of(1970, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    private static final OffsetDateTime EXPORT_MAX_TIME = OffsetDateTime.of(9999, 12, 31, 23, 59, 59, 0, ZoneOffset.UTC);
 
     private final PurchaseOrderRepository purchaseOrderRepository;
     private final ProductRepository productRepository;
     private final InventoryRepository inventoryRepository;
+    private final InventoryLedger inventoryLedger;
+    private final LowStockMonitor lowStockMonitor;
     private final SupplierRepository supplierRepository;
     private final ProductSupplierRepository productSupplierRepository;
     private final AuditLogService auditLogService;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final int maxExportRows;
 
     public PurchaseOrderService(
             PurchaseOrderRepository purchaseOrderRepository,
             ProductRepository productRepository,
             InventoryRepository inventoryRepository,
+            InventoryLedger inventoryLedger,
+            LowStockMonitor lowStockMonitor,
             SupplierRepository supplierRepository,
             ProductSupplierRepository productSupplierRepository,
-            AuditLogService auditLogService
+            AuditLogService auditLogService,
+            OrderNumberGenerator orderNumberGenerator,
+            @Value("${app.export.max-rows:1000000}") int maxExportRows
     ) {
         this.purchaseOrderRepository = purchaseOrderRepository;
         this.productRepository = productRepository;
         this.inventoryRepository = inventoryRepository;
+        this.inventoryLedger = inventoryLedger;
+        this.lowStockMonitor = lowStockMonitor;
         this.supplierRepository = supplierRepository;
         this.productSupplierRepository = productSupplierRepository;
         this.auditLogService = auditLogService;
+        this.orderNumberGenerator = orderNumberGenerator;
+        this.maxExportRows = Math.max(1, maxExportRows);
     }
 
     @Transactional(readOnly = true)
     public List<PurchaseOrderResponse> getPurchaseOrders() {
-        return purchaseOrderRepository.findAllDetailed().stream()
+        List<PurchaseOrder> orders = purchaseOrderRepository.findAllWithItems();
+        fetchReceipts(orders);
+        return orders.stream()
                 .map(this::toResponse)
                 .toList();
     }
 
+    /**
+     * 仕入発注の要約を作成日時の新しい順にページ単位で返す。明細と入荷履歴は読み込まない。
+     */
+    @Transactional(readOnly = true)
+    public PurchaseOrderSummaryPageResponse getPurchaseOrderSummaries(
+            String status,
+            Long supplierId,
+            OffsetDateTime from,
+            OffsetDateTime to,
+            int page,
+            int size
+    ) {
+        int safePage = Math.max(page, 0);
+        int safeSize = Math.max(1, Math.min(size, MAX_PURCHASE_ORDER_PAGE_SIZE));
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BadRequestException("from must be less than or equal to to");
+        }
+
+        Page<PurchaseOrderSummaryRow> resultPage = purchaseOrderRepository.findSummaries(
+                resolveStatusFilter(status),
+                supplierId,
+                from == null ? EXPORT_MIN_TIME : from,
+                to == null ? EXPORT_MAX_TIME : to,
+                PageRequest.of(safePage, safeSize)
+        );
+        return new PurchaseOrderSummaryPageResponse(
+                resultPage.getContent().stream().map(this::toSummaryResponse).toList(),
+                safePage,
+                safeSize,
+                resultPage.getTotalElements(),
+                resultPage.getTotalPages(),
+                resultPage.hasNext(),
+                resultPage.hasPrevious()
+        );
+    }
+
     @Transactional(readOnly = true)
     public PurchaseOrderResponse getPurchaseOrder(Long purchaseOrderId) {
         return toResponse(findPurchaseOrderDetailedById(purchaseOrderId));
@@ -97,23 +167,89 @@ public class PurchaseOrderService {
         return toReceiptResponses(order, receivedBy, from, to, safeLimit);
     }
 
+    /**
+     * 入荷履歴CSVの出力前チェックを行い、ファイル名に使う発注番号を返す。
+     * ストリーミング開始後はエラーレスポンスを返せないため、存在確認と期間チェックを先に済ませる。
+     */
+    @Transactional(readOnly = true)
+    public String prepareReceiptExport(Long purchaseOrderId, OffsetDateTime from, OffsetDateTime to) {
+        PurchaseOrder order = purchaseOrderRepository.findById(purchaseOrderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Purchase order not found: " + purchaseOrderId));
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BusinessRuleException("from must be less than or equal to to");
+        }
+        return order.getOrderNumber();
+    }
+
+    /**
+     * 入荷履歴を入荷日時の降順で明細単位にconsumerへ渡し、出力した入荷件数を返す。
+     * limitは従来どおり入荷（レシート）件数に対して適用する。
+     */
+    @Transactional(readOnly = true)
+    public int streamReceiptRowsForExport(
+            Long purchaseOrderId,
+            String receivedBy,
+            OffsetDateTime from,
+            OffsetDateTime to,
+            Integer limit,
+            Consumer<PurchaseOrderReceiptExportRow> consumer
+    ) {
+        int safeLimit = limit == null || limit <= 0 ? maxExportRows : Math.min(limit, maxExportRows);
+        String normalizedReceivedBy = normalizeFilterValue(receivedBy);
+        String receivedByPattern = normalizedReceivedBy == null
+                ? "%"
+                : "%" + normalizedReceivedBy.toLowerCase(Locale.ROOT) + "%";
+
+        try (Stream<PurchaseOrderReceiptExportRow> rows = purchaseOrderRepository.streamReceiptRows(
+                purchaseOrderId,
+                receivedByPattern,
+                from == null ? EXPORT_MIN_TIME : from,
+                to == null ? EXPORT_MAX_TIME : to
+        )) {
+            int receiptCount = 0;
+            Long currentReceiptId = null;
+            Iterator<PurchaseOrderReceiptExportRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                PurchaseOrderReceiptExportRow row = iterator.next();
+                if (!row.receiptId().equals(currentReceiptId)) {
+                    if (receiptCount >= safeLimit) {
+                        break;
+                    }
+                    currentReceiptId = row.receiptId();
+                    receiptCount++;
+                }
+                consumer.accept(row);
+            }
+            return receiptCount;
+        }
+    }
+
     @Transactional(readOnly = true)
     public List<ReplenishmentSuggestionResponse> getReplenishmentSuggestions() {
-        List<Inventory> inventories = inventoryRepository.findAllWithProduct();
-        List<Long> productIds = inventories.stream()
-                .map(inventory -> inventory.getProduct().getId())
-                .toList();
-        Map<Long, List<ProductSupplier>> contractMap = loadContractMap(productIds);
+        return toSuggestions(inventoryRepository.findReplenishmentCandidates(null, Pageable.unpaged()).getContent());
+    }
 
-        // 再発注条件に一致した商品のみを補充提案として返す。
-        return inventories.stream()
-                .map(inventory -> toSuggestion(inventory, contractMap.getOrDefault(inventory.getProduct().getId(), List.of())))
-                .filter(Objects::nonNull)
-                .sorted(
-                        Comparator.comparingInt(ReplenishmentSuggestionResponse::shortageQuantity).reversed()
-                                .thenComparingInt(ReplenishmentSuggestionResponse::availableQuantity)
-                )
-                .toList();
+    /**
+     * 補充提案をページ単位で返す。supplierId指定時は、提案される仕入先がその仕入先の商品だけを返す。
+     */
+    @Transactional(readOnly = true)
+    public ReplenishmentSuggestionPageResponse getReplenishmentSuggestionsPage(Long supplierId, int page, int size) {
+        int safePage = Math.max(page, 0);
+        int safeSize = Math.max(1, Math.min(size, MAX_SUGGESTION_PAGE_SIZE));
+        if (supplierId != null && !supplierRepository.existsById(supplierId)) {
+            throw new ResourceNotFoundException("Supplier not found: " + supplierId);
+        }
+
+        Page<Inventory> resultPage = inventoryRepository.findReplenishmentCandidates(supplierId, PageRequest.of(safePage, safeSize));
+        return new ReplenishmentSuggestionPageResponse(
+                toSuggestions(resultPage.getContent()),
+                safePage,
+                safeSize,
+                resultPage.getTotalElements(),
+                resultPage.getTotalPages(),
+                resultPage.hasNext(),
+                resultPage.hasPrevious()
+        );
     }
 
     @Transactional
@@ -122,7 +258,7 @@ public class PurchaseOrderService {
         String supplierName = resolveSupplierName(supplier, request.supplierName());
 
         PurchaseOrder order = new PurchaseOrder();
-        order.setOrderNumber(generateOrderNumber());
+        order.setOrderNumber(orderNumberGenerator.next("PO"));
         order.setSupplier(supplier);
         order.setSupplierName(supplierName);
         order.setNote(normalizeNote(request.note()));
@@ -201,13 +337,21 @@ public class PurchaseOrderService {
                 );
             }
 
-            Inventory inventory = inventoryRepository.findByProductIdForUpdate(productId)
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                            "Inventory not found for product: " + productId
-                    ));
-
             // 入荷時は販売可能在庫へ直接加算する。
-            inventory.setAvailableQuantity(inventory.getAvailableQuantity() + receiveQuantity);
+            if (inventoryLedger.isEnabled()) {
+                InventoryCounts before = inventoryLedger.apply(productId, receiveQuantity, 0, "PURCHASE_ORDER_RECEIVE",
+                        current -> new BusinessRuleException("Receive quantity must be positive for SKU "
+                                + item.getProduct().getSku()));
+                lowStockMonitor.recordAvailableChange(item.getProduct(), before.available(), before.available() + receiveQuantity);
+            } else {
+                Inventory inventory = inventoryRepository.findByProductIdForUpdate(productId)
+                        .orElseThrow(() -> new ResourceNotFoundException(
+                                "Inventory not found for product: " + productId
+                        ));
+                int availableBefore = inventory.getAvailableQuantity();
+                inventory.setAvailableQuantity(availableBefore + receiveQuantity);
+                lowStockMonitor.recordAvailableChange(item.getProduct(), availableBefore, inventory.getAvailableQuantity());
+            }
             item.setReceivedQuantity(normalizeNonNegative(item.getReceivedQuantity(), 0) + receiveQuantity);
 
             PurchaseOrderReceiptItem receiptItem = new PurchaseOrderReceiptItem();
@@ -264,20 +408,49 @@ public class PurchaseOrderService {
         return toResponse(order);
     }
 
+    // 明細と入荷履歴を別々のクエリで読み込み、1回の結合で行数が掛け算で増えないようにする。
     private PurchaseOrder findPurchaseOrderDetailedById(Long purchaseOrderId) {
-        return purchaseOrderRepository.findDetailedById(purchaseOrderId)
+        PurchaseOrder order = purchaseOrderRepository.findWithItemsById(purchaseOrderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Purchase order not found: " + purchaseOrderId));
+        fetchReceipts(List.of(order));
+        return order;
     }
 
-    private String generateOrderNumber() {
-        String orderNumber;
-        do {
-            String timestamp = LocalDateTime.now(ZoneOffset.UTC).format(ORDER_NUMBER_DATE_FORMATTER);
-            int random = ThreadLocalRandom.current().nextInt(1000, 10_000);
-            orderNumber = "PO-" + timestamp + "-" + random;
-        } while (purchaseOrderRepository.existsByOrderNumber(orderNumber));
+    private void fetchReceipts(List<PurchaseOrder> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        purchaseOrderRepository.fetchReceiptsByIdIn(orders.stream().map(PurchaseOrder::getId).toList());
+    }
+
+    private Set<PurchaseOrderStatus> resolveStatusFilter(String status) {
+        String normalized = normalizeFilterValue(status);
+        if (normalized == null) {
+            return EnumSet.allOf(PurchaseOrderStatus.class);
+        }
+        try {
+            return EnumSet.of(PurchaseOrderStatus.valueOf(normalized.toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("status must be one of: " + Arrays.toString(PurchaseOrderStatus.values()));
+        }
+    }
 
-        return orderNumber;
+    private PurchaseOrderSummaryResponse toSummaryResponse(PurchaseOrderSummaryRow row) {
+        return new PurchaseOrderSummaryResponse(
+                row.id(),
+                row.orderNumber(),
+                row.supplierId(),
+                row.supplierCode(),
+                row.supplierName(),
+                row.status().name(),
+                row.createdAt(),
+                row.receivedAt(),
+                Math.toIntExact(row.itemCount()),
+                Math.toIntExact(row.totalQuantity()),
+                Math.toIntExact(row.totalReceivedQuantity()),
+                Math.toIntExact(row.totalRemainingQuantity()),
+                Math.toIntExact(row.receiptCount())
+        );
     }
 
     private String normalizeNote(String note) {
@@ -331,6 +504,18 @@ public class PurchaseOrderService {
         );
     }
 
+    // 再発注条件はDB側で絞り込み済み。契約は対象商品の分だけ読み込み、DBの並び順(不足数の多い順)を保つ。
+    private List<ReplenishmentSuggestionResponse> toSuggestions(List<Inventory> inventories) {
+        List<Long> productIds = inventories.stream()
+                .map(inventory -> inventory.getProduct().getId())
+                .toList();
+        Map<Long, List<ProductSupplier>> contractMap = loadContractMap(productIds);
+        return inventories.stream()
+                .map(inventory -> toSuggestion(inventory, contractMap.getOrDefault(inventory.getProduct().getId(), List.of())))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
     private Map<Long, List<ProductSupplier>> loadContractMap(List<Long> productIds) {
         if (productIds.isEmpty()) {
             return Map.of();
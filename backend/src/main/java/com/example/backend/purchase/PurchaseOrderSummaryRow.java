@@ -0,0 +1,23 @@
+package com.example.backend.purchase;
+
+import java.time.OffsetDateTime;
+
+/**
+ * 仕入発注一覧の集計行。明細は件数と数量の合計、入荷履歴は件数だけを持つ。
+ */
+public record PurchaseOrderSummaryRow(
+        Long id,
+        String orderNumber,
+        Long supplierId,
+        String supplierCode,
+        String supplierName,
+        PurchaseOrderStatus status,
+        OffsetDateTime createdAt,
+        OffsetDateTime receivedAt,
+        Long itemCount,
+        Long totalQuantity,
+        Long totalReceivedQuantity,
+        Long totalRemainingQuantity,
+        Long receiptCount
+) {
+}
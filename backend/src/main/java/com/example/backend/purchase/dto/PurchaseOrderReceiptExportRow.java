@@ -0,0 +1,16 @@
+package com.example.backend.purchase.dto;
+
+import java.time.OffsetDateTime;
+
+/**
+ * 入荷履歴CSVの1行（入荷1回 × 商品1件）を表す読み取り専用モデル。
+ */
+public record PurchaseOrderReceiptExportRow(
+        Long receiptId,
+        OffsetDateTime receivedAt,
+        String receivedBy,
+        String sku,
+        String productName,
+        Integer quantity
+) {
+}
@@ -0,0 +1,17 @@
+package com.example.backend.purchase.dto;
+
+import java.util.List;
+
+/**
+ * 仕入発注一覧のページング結果。
+ */
+public record PurchaseOrderSummaryPageResponse(
+        List<PurchaseOrderSummaryResponse> items,
+        int page,
+        int size,
+        long totalElements,
+        int totalPages,
+        boolean hasNext,
+        boolean hasPrevious
+) {
+}
@@ -0,0 +1,23 @@
+package com.example.backend.purchase.dto;
+
+import java.time.OffsetDateTime;
+
+/**
+ * 仕入発注一覧の1件分。明細・入荷履歴は含めず、件数と数量の合計だけを返す。
+ */
+public record PurchaseOrderSummaryResponse(
+        Long id,
+        String orderNumber,
+        Long supplierId,
+        String supplierCode,
+        String supplierName,
+        String status,
+        OffsetDateTime createdAt,
+        OffsetDateTime receivedAt,
+        int itemCount,
+        int totalQuantity,
+        int totalReceivedQuantity,
+        int totalRemainingQuantity,
+        int receiptCount
+) {
+}
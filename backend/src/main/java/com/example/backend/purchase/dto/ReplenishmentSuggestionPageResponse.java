@@ -0,0 +1,17 @@
+package com.example.backend.purchase.dto;
+
+import java.util.List;
+
+/**
+ * 補充提案のページング結果。
+ */
+public record ReplenishmentSuggestionPageResponse(
+        List<ReplenishmentSuggestionResponse> items,
+        int page,
+        int size,
+        long totalElements,
+        int totalPages,
+        boolean hasNext,
+        boolean hasPrevious
+) {
+}
@@ -0,0 +1,49 @@
+package com.example.backend.sales;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+/**
+ * 確定済み受注の件数を日(UTC)単位で数える永続化エンティティ。
+ * 同じ日の受注確定が1行の更新に集中しないよう、受注IDから決まるシャードごとに行を分け、読み取り時に合算する。
+ */
+
+@Entity
+@Table(
+        name = "sales_daily_order_counts",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_sales_daily_order_counts_date_shard",
+                columnNames = {"bucket_date", "shard"}
+        )
+)
+public class SalesDailyOrderCount {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+
+    @Column(nullable = false)
+    private Integer shard;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount;
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDate getBucketDate() {
+        return bucketDate;
+    }
+
+    public Integer getShard() {
+        return shard;
+    }
+
+    public Long getOrderCount() {
+        return orderCount;
+    }
+}
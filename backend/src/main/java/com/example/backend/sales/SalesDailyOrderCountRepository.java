@@ -0,0 +1,58 @@
+package com.example.backend.sales;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.LockModeType;
+import java.time.LocalDate;
+import java.util.List;
+/**
+ * JPA経由で永続化データへアクセスするリポジトリ。
+ */
+
+public interface SalesDailyOrderCountRepository extends JpaRepository<SalesDailyOrderCount, Long> {
+
+    List<SalesDailyOrderCount> findByBucketDateBetween(LocalDate from, LocalDate to);
+
+    // 同じ日・シャードの初回確定が同時に来ても一意制約違反でトランザクションを壊さないよう、行がなければ0件で作成する。
+    @Modifying
+    @Query("""
+            insert into SalesDailyOrderCount (bucketDate, shard, orderCount)
+            values (:bucketDate, :shard, 0)
+            on conflict do nothing
+            """)
+    int insertIfAbsent(@Param("bucketDate") LocalDate bucketDate, @Param("shard") int shard);
+
+    @Modifying
+    @Query("""
+            update SalesDailyOrderCount c
+            set c.orderCount = c.orderCount + :orderCount
+            where c.bucketDate = :bucketDate
+              and c.shard = :shard
+            """)
+    int addOrders(
+            @Param("bucketDate") LocalDate bucketDate,
+            @Param("shard") int shard,
+            @Param("orderCount") long orderCount
+    );
+
+    @Modifying
+    @Query("""
+            update SalesDailyOrderCount c
+            set c.orderCount = case when c.shard = :shard then :orderCount else 0 end
+            where c.bucketDate = :bucketDate
+            """)
+    int replaceOrders(
+            @Param("bucketDate") LocalDate bucketDate,
+            @Param("shard") int shard,
+            @Param("orderCount") long orderCount
+    );
+
+    // 再集計中はその日の全シャードをロックし、同じ日の受注確定による加算を再集計のコミット後まで待たせる。
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from SalesDailyOrderCount c where c.bucketDate = :bucketDate order by c.shard")
+    List<SalesDailyOrderCount> findForUpdate(@Param("bucketDate") LocalDate bucketDate);
+}
@@ -0,0 +1,70 @@
+package com.example.backend.sales;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+/**
+ * 確定済み売上を日(UTC)・商品単位で集計した永続化エンティティ。受注確定時に加算で更新する。
+ */
+
+@Entity
+@Table(
+        name = "sales_daily_rollup",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_sales_daily_rollup_date_product",
+                columnNames = {"bucket_date", "product_id"}
+        )
+)
+public class SalesDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "total_sales_amount", nullable = false, precision = 16, scale = 2)
+    private BigDecimal totalSalesAmount;
+
+    @Column(name = "total_item_quantity", nullable = false)
+    private Long totalItemQuantity;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount;
+
+    @Column(name = "line_count", nullable = false)
+    private Long lineCount;
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDate getBucketDate() {
+        return bucketDate;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public BigDecimal getTotalSalesAmount() {
+        return totalSalesAmount;
+    }
+
+    public Long getTotalItemQuantity() {
+        return totalItemQuantity;
+    }
+
+    public Long getOrderCount() {
+        return orderCount;
+    }
+
+    public Long getLineCount() {
+        return lineCount;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.backend.sales;
+
+import com.example.backend.order.OrderStatus;
+import com.example.backend.sales.dto.SalesDailyAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+/**
+ * JPA経由で永続化データへアクセスするリポジトリ。
+ */
+
+public interface SalesDailyRollupRepository extends JpaRepository<SalesDailyRollup, Long> {
+
+    // 売上推移用。商品別の集計行を日単位に合算する。受注件数は商品をまたいで重複するため、ここでは0を返し日別件数で補う。
+    @Query("""
+            select new com.example.backend.sales.dto.SalesDailyAggregate(
+                year(r.bucketDate), month(r.bucketDate), day(r.bucketDate),
+                sum(r.totalSalesAmount), cast(0 as Long), sum(r.totalItemQuantity), sum(r.lineCount)
+            )
+            from SalesDailyRollup r
+            where r.bucketDate between :from and :to
+            group by r.bucketDate
+            having sum(r.lineCount) > 0
+            order by r.bucketDate
+            """)
+    List<SalesDailyAggregate> sumByDay(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("""
+            insert into SalesDailyRollup (bucketDate, productId, totalSalesAmount, totalItemQuantity, orderCount, lineCount)
+            values (:bucketDate, :productId, 0, 0, 0, 0)
+            on conflict do nothing
+            """)
+    int insertIfAbsent(@Param("bucketDate") LocalDate bucketDate, @Param("productId") Long productId);
+
+    @Modifying
+    @Query("""
+            update SalesDailyRollup r
+            set r.totalSalesAmount = r.totalSalesAmount + :amount,
+                r.totalItemQuantity = r.totalItemQuantity + :itemQuantity,
+                r.orderCount = r.orderCount + 1,
+                r.lineCount = r.lineCount + :lineCount
+            where r.bucketDate = :bucketDate
+              and r.productId = :productId
+            """)
+    int addSales(
+            @Param("bucketDate") LocalDate bucketDate,
+            @Param("productId") Long productId,
+            @Param("amount") BigDecimal amount,
+            @Param("itemQuantity") long itemQuantity,
+            @Param("lineCount") long lineCount
+    );
+
+    @Modifying
+    @Query("delete from SalesDailyRollup r where r.bucketDate = :bucketDate")
+    int deleteByBucketDate(@Param("bucketDate") LocalDate bucketDate);
+
+    // 指定日の確定済み明細から商品別の集計行を作り直す。
+    @Modifying
+    @Query("""
+            insert into SalesDailyRollup (bucketDate, productId, totalSalesAmount, totalItemQuantity, orderCount, lineCount)
+            select cast(:bucketDate as LocalDate), i.product.id, sum(i.unitPrice * i.quantity), sum(i.quantity),
+                   count(distinct so.id), count(i)
+            from SalesOrderItem i
+            join i.order so
+            where so.status = :status
+              and so.updatedAt >= :from
+              and so.updatedAt < :toExclusive
+            group by i.product.id
+            """)
+    int insertAggregatedDay(
+            @Param("bucketDate") LocalDate bucketDate,
+            @Param("status") OrderStatus status,
+            @Param("from") OffsetDateTime from,
+            @Param("toExclusive") OffsetDateTime toExclusive
+    );
+}
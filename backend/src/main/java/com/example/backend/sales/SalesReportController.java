@@ -1,21 +1,21 @@
 package com.example.backend.sales;
 
-import com.example.backend.sales.dto.SalesLineResponse;
+import com.example.backend.common.CsvStreamWriter;
 import com.example.backend.sales.dto.SalesReportResponse;
+import com.example.backend.sales.dto.SalesRollupRebuildResponse;
 import org.springframework.format.annotation.DateTimeFormat;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 
 /**
  * 売上レポート用のAPIを公開するコントローラ。
@@ -25,9 +25,11 @@ import java.util.List;
 public class SalesReportController {
 
     private final SalesReportService salesReportService;
+    private final SalesRollupService salesRollupService;
 
-    public SalesReportController(SalesReportService salesReportService) {
+    public SalesReportController(SalesReportService salesReportService, SalesRollupService salesRollupService) {
         this.salesReportService = salesReportService;
+        this.salesRollupService = salesRollupService;
     }
 
     @GetMapping
@@ -41,57 +43,42 @@ public class SalesReportController {
         return salesReportService.getSalesReport(from, to, groupBy, lineLimit);
     }
 
-    @GetMapping(value = "/export.csv", produces = "text/csv")
+    @GetMapping(value = "/export.csv", produces = {"text/csv", "application/gzip"})
     @PreAuthorize("hasAnyRole('ADMIN','OPERATOR','VIEWER')")
-    public ResponseEntity<String> exportSalesCsv(
+    public ResponseEntity<StreamingResponseBody> exportSalesCsv(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
-            @RequestParam(defaultValue = "2000") int limit
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean gzip
     ) {
-        List<SalesLineResponse> lines = salesReportService.getSalesLinesForExport(from, to, limit);
-        String csv = toCsv(lines);
+        // ストリーミング開始後はエラーレスポンスを返せないため、入力チェックは先に行う。
+        salesReportService.validatePeriod(from, to);
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"sales-report.csv\"")
-                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
-                .body(csv);
+        return CsvStreamWriter.response("sales-report.csv", gzip, outputStream -> {
+            try (CsvStreamWriter writer = CsvStreamWriter.open(outputStream, gzip)) {
+                writer.writeHeader("soldAt,orderNumber,customerName,sku,productName,quantity,unitPrice,lineAmount");
+                salesReportService.streamSalesLinesForExport(from, to, limit, line -> writer.writeRow(
+                        line.soldAt() == null ? "" : line.soldAt().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME),
+                        line.orderNumber(),
+                        line.customerName(),
+                        line.sku(),
+                        line.productName(),
+                        line.quantity() == null ? "" : line.quantity().toString(),
+                        line.unitPrice() == null ? "" : line.unitPrice().toPlainString(),
+                        line.lineAmount() == null ? "" : line.lineAmount().toPlainString()
+                ));
+            }
+        });
     }
 
-    private String toCsv(List<SalesLineResponse> lines) {
-        StringBuilder builder = new StringBuilder();
-        builder.append("soldAt,orderNumber,customerName,sku,productName,quantity,unitPrice,lineAmount\n");
-
-        for (SalesLineResponse line : lines) {
-            builder.append(escapeCsv(
-                            line.soldAt() == null
-                                    ? ""
-                                    : line.soldAt().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)
-                    ))
-                    .append(',')
-                    .append(escapeCsv(line.orderNumber()))
-                    .append(',')
-                    .append(escapeCsv(line.customerName()))
-                    .append(',')
-                    .append(escapeCsv(line.sku()))
-                    .append(',')
-                    .append(escapeCsv(line.productName()))
-                    .append(',')
-                    .append(escapeCsv(line.quantity() == null ? "" : line.quantity().toString()))
-                    .append(',')
-                    .append(escapeCsv(line.unitPrice() == null ? "" : line.unitPrice().toPlainString()))
-                    .append(',')
-                    .append(escapeCsv(line.lineAmount() == null ? "" : line.lineAmount().toPlainString()))
-                    .append('\n');
-        }
-
-        return builder.toString();
-    }
-
-    private String escapeCsv(String value) {
-        if (value == null) {
-            return "\"\"";
-        }
-        return "\"" + value.replace("\"", "\"\"") + "\"";
+    @PostMapping("/rollup/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public SalesRollupRebuildResponse rebuildSalesRollup(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        // 日付はUTC基準の売上日。過去分の取り込みや集計ずれの修正時に使う。
+        int rebuiltDays = salesRollupService.rebuild(from, to, SalesRollupService.RebuildTrigger.MANUAL);
+        return new SalesRollupRebuildResponse(from, to, rebuiltDays, OffsetDateTime.now());
     }
 }
-
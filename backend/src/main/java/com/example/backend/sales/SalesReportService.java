@@ -2,15 +2,14 @@ package com.example.backend.sales;
 
 import com.example.backend.common.BadRequestException;
 import com.example.backend.order.OrderStatus;
-import com.example.backend.order.SalesOrder;
-import com.example.backend.order.SalesOrderItem;
 import com.example.backend.order.SalesOrderRepository;
+import com.example.backend.sales.dto.SalesDailyAggregate;
 import com.example.backend.sales.dto.SalesLineResponse;
 import com.example.backend.sales.dto.SalesReportResponse;
 import com.example.backend.sales.dto.SalesSummaryResponse;
 import com.example.backend.sales.dto.SalesTrendPointResponse;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,10 +21,11 @@ import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * 売上集計の業務処理をまとめるサービス。
@@ -33,21 +33,33 @@ import java.util.TreeMap;
 @Service
 public class SalesReportService {
 
-    private static final Logger log = LoggerFactory.getLogger(SalesReportService.class);
-
     private static final String METRIC_BASIS = "CONFIRMED_UPDATED_AT";
     private static final ZoneOffset REPORT_ZONE = ZoneOffset.UTC;
     private static final int DEFAULT_LINE_LIMIT = 200;
     private static final int MAX_LINE_LIMIT = 2_000;
-    private static final int DEFAULT_EXPORT_LIMIT = 2_000;
-    private static final int MAX_EXPORT_LIMIT = 5_000;
+    // 期間未指定の場合に使う、DBの時刻型で表現できる範囲内の下限・上限。
+    private static final OffsetDateTime EXPORT_MIN_TIME = OffsetDateTime.of(1970, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    private static final OffsetDateTime EXPORT_MAX_TIME = OffsetDateTime.of(9999, 12, 31, 23, 59, 59, 0, ZoneOffset.UTC);
 
     private final SalesOrderRepository salesOrderRepository;
+    private final SalesRollupService salesRollupService;
+    private final int maxExportRows;
 
-    public SalesReportService(SalesOrderRepository salesOrderRepository) {
+    public SalesReportService(
+            SalesOrderRepository salesOrderRepository,
+            SalesRollupService salesRollupService,
+            @Value("${app.export.max-rows:1000000}") int maxExportRows
+    ) {
         this.salesOrderRepository = salesOrderRepository;
+        this.salesRollupService = salesRollupService;
+        this.maxExportRows = Math.max(1, maxExportRows);
     }
 
+    /**
+     * 売上サマリー・推移・明細上位N件を返す。
+     * 丸1日分の期間は日次集計テーブルから読み、期間端の日の途中部分だけを明細から集計する。
+     * 明細は表示件数分だけを取得する。
+     */
     @Transactional(readOnly = true)
     public SalesReportResponse getSalesReport(
             OffsetDateTime from,
@@ -55,82 +67,47 @@ public class SalesReportService {
             SalesGroupBy groupBy,
             int lineLimit
     ) {
+        validatePeriod(from, to);
         SalesGroupBy resolvedGroupBy = groupBy == null ? SalesGroupBy.DAY : groupBy;
         int safeLineLimit = normalizeLimit(lineLimit, DEFAULT_LINE_LIMIT, MAX_LINE_LIMIT);
-        List<SalesOrder> confirmedOrders = findConfirmedOrders(from, to);
+        OffsetDateTime resolvedFrom = from == null ? EXPORT_MIN_TIME : from;
+        OffsetDateTime resolvedTo = to == null ? EXPORT_MAX_TIME : to;
+
+        List<SalesDailyAggregate> dailyAggregates = aggregateDailySales(resolvedFrom, resolvedTo);
 
         BigDecimal totalSalesAmount = BigDecimal.ZERO;
         long totalItemQuantity = 0;
+        long orderCount = 0;
+        long totalLineCount = 0;
         Map<OffsetDateTime, TrendAggregation> trendMap = new TreeMap<>();
-        List<SalesLineResponse> allLines = new ArrayList<>();
-
-        for (SalesOrder order : confirmedOrders) {
-            OffsetDateTime soldAt = order.getUpdatedAt();
-            if (soldAt == null) {
-                log.warn("Skip sales aggregation for orderId={} because updatedAt is null", order.getId());
-                continue;
-            }
-            BigDecimal orderAmount = BigDecimal.ZERO;
-            long orderItemQuantity = 0;
-            boolean hasValidLine = false;
-
-            for (SalesOrderItem item : order.getItems()) {
-                if (item.getProduct() == null || item.getQuantity() == null || item.getUnitPrice() == null) {
-                    log.warn(
-                            "Skip broken sales line. orderId={}, itemId={}, productNull={}, quantityNull={}, unitPriceNull={}",
-                            order.getId(),
-                            item.getId(),
-                            item.getProduct() == null,
-                            item.getQuantity() == null,
-                            item.getUnitPrice() == null
-                    );
-                    continue;
-                }
-
-                BigDecimal lineAmount = item.getUnitPrice()
-                        .multiply(BigDecimal.valueOf(item.getQuantity()));
-                orderAmount = orderAmount.add(lineAmount);
-                orderItemQuantity += item.getQuantity();
-                hasValidLine = true;
-
-                allLines.add(new SalesLineResponse(
-                        order.getId(),
-                        order.getOrderNumber(),
-                        order.getCustomerName(),
-                        soldAt,
-                        item.getProduct().getId(),
-                        item.getProduct().getSku(),
-                        item.getProduct().getName(),
-                        item.getQuantity(),
-                        item.getUnitPrice(),
-                        lineAmount
-                ));
-            }
-            if (!hasValidLine) {
-                continue;
-            }
-
-            totalSalesAmount = totalSalesAmount.add(orderAmount);
-            totalItemQuantity += orderItemQuantity;
-
-            OffsetDateTime bucketStart = toBucketStart(soldAt, resolvedGroupBy);
+
+        for (SalesDailyAggregate daily : dailyAggregates) {
+            BigDecimal dailyAmount = daily.totalSalesAmount() == null ? BigDecimal.ZERO : daily.totalSalesAmount();
+            long dailyItemQuantity = daily.totalItemQuantity() == null ? 0 : daily.totalItemQuantity();
+
+            totalSalesAmount = totalSalesAmount.add(dailyAmount);
+            totalItemQuantity += dailyItemQuantity;
+            orderCount += daily.orderCount();
+            totalLineCount += daily.lineCount();
+
+            // 日別の集計結果を週・月の開始日へ寄せて合算する。受注は1日にのみ属するため件数も単純合算でよい。
+            OffsetDateTime dayStart = OffsetDateTime.of(daily.year(), daily.month(), daily.day(), 0, 0, 0, 0, REPORT_ZONE);
+            OffsetDateTime bucketStart = toBucketStart(dayStart, resolvedGroupBy);
             TrendAggregation aggregation = trendMap.computeIfAbsent(bucketStart, key -> new TrendAggregation());
-            aggregation.totalSalesAmount = aggregation.totalSalesAmount.add(orderAmount);
-            aggregation.orderCount += 1;
-            aggregation.totalItemQuantity += orderItemQuantity;
+            aggregation.totalSalesAmount = aggregation.totalSalesAmount.add(dailyAmount);
+            aggregation.orderCount += daily.orderCount();
+            aggregation.totalItemQuantity += dailyItemQuantity;
         }
 
-        allLines.sort(Comparator
-                .comparing(SalesLineResponse::soldAt).reversed()
-                .thenComparing(SalesLineResponse::orderNumber)
-                .thenComparing(SalesLineResponse::sku)
-        );
+        List<SalesLineResponse> limitedLines = totalLineCount == 0
+                ? List.of()
+                : salesOrderRepository.findSalesLines(
+                        OrderStatus.CONFIRMED,
+                        resolvedFrom,
+                        resolvedTo,
+                        PageRequest.of(0, safeLineLimit)
+                );
 
-        List<SalesLineResponse> limitedLines = allLines.stream()
-                .limit(safeLineLimit)
-                .toList();
-
-        long orderCount = confirmedOrders.size();
         BigDecimal averageOrderAmount = orderCount == 0
                 ? BigDecimal.ZERO
                 : totalSalesAmount.divide(BigDecimal.valueOf(orderCount), 2, RoundingMode.HALF_UP);
@@ -160,35 +137,74 @@ public class SalesReportService {
                 trends,
                 limitedLines,
                 safeLineLimit,
-                allLines.size()
+                totalLineCount
         );
     }
 
+    /**
+     * 確定済み売上明細を売上日時の降順で1行ずつconsumerへ渡し、出力件数を返す。
+     * 明細は全件をメモリへ載せず、DBカーソルから順に読み込む。
+     */
     @Transactional(readOnly = true)
-    public List<SalesLineResponse> getSalesLinesForExport(
+    public long streamSalesLinesForExport(
             OffsetDateTime from,
             OffsetDateTime to,
-            Integer limit
+            Integer limit,
+            Consumer<SalesLineResponse> consumer
     ) {
-        int safeLimit = normalizeLimit(limit == null ? DEFAULT_EXPORT_LIMIT : limit, DEFAULT_EXPORT_LIMIT, MAX_EXPORT_LIMIT);
-        SalesReportResponse report = getSalesReport(from, to, SalesGroupBy.DAY, safeLimit);
-        return report.lines();
+        validatePeriod(from, to);
+        int safeLimit = normalizeLimit(limit == null ? maxExportRows : limit, maxExportRows, maxExportRows);
+        try (Stream<SalesLineResponse> lines = salesOrderRepository.streamSalesLines(
+                OrderStatus.CONFIRMED,
+                from == null ? EXPORT_MIN_TIME : from,
+                to == null ? EXPORT_MAX_TIME : to
+        )) {
+            long[] count = {0};
+            lines.limit(safeLimit).forEach(line -> {
+                consumer.accept(line);
+                count[0]++;
+            });
+            return count[0];
+        }
     }
 
-    private List<SalesOrder> findConfirmedOrders(OffsetDateTime from, OffsetDateTime to) {
+    public void validatePeriod(OffsetDateTime from, OffsetDateTime to) {
         if (from != null && to != null && from.isAfter(to)) {
             throw new BadRequestException("from must be less than or equal to to");
         }
-        if (from != null && to != null) {
-            return salesOrderRepository.findDetailedByStatusAndUpdatedAtBetween(OrderStatus.CONFIRMED, from, to);
+    }
+
+    /**
+     * 期間内の確定済み売上を日別に集計する。
+     * 期間に完全に含まれる日は集計テーブル、期間の始端・終端を含む日は明細から集計する。
+     */
+    private List<SalesDailyAggregate> aggregateDailySales(OffsetDateTime from, OffsetDateTime to) {
+        OffsetDateTime fromUtc = from.withOffsetSameInstant(REPORT_ZONE);
+        OffsetDateTime firstFullDayStart = fromUtc.truncatedTo(ChronoUnit.DAYS);
+        if (firstFullDayStart.isBefore(fromUtc)) {
+            firstFullDayStart = firstFullDayStart.plusDays(1);
         }
-        if (from != null) {
-            return salesOrderRepository.findDetailedByStatusAndUpdatedAtFrom(OrderStatus.CONFIRMED, from);
+        // 時刻はマイクロ秒精度で保存されるため、toの1マイクロ秒後が日付の境界なら終端の日も丸1日含まれる。
+        OffsetDateTime fullDaysEnd = to.withOffsetSameInstant(REPORT_ZONE)
+                .plus(1, ChronoUnit.MICROS)
+                .truncatedTo(ChronoUnit.DAYS);
+
+        if (!firstFullDayStart.isBefore(fullDaysEnd)) {
+            return salesOrderRepository.aggregateDailySales(OrderStatus.CONFIRMED, from, to);
+        }
+
+        List<SalesDailyAggregate> aggregates = new ArrayList<>();
+        if (fromUtc.isBefore(firstFullDayStart)) {
+            aggregates.addAll(salesOrderRepository.aggregateDailySalesBefore(OrderStatus.CONFIRMED, from, firstFullDayStart));
         }
-        if (to != null) {
-            return salesOrderRepository.findDetailedByStatusAndUpdatedAtTo(OrderStatus.CONFIRMED, to);
+        aggregates.addAll(salesRollupService.findDailyTotals(
+                firstFullDayStart.toLocalDate(),
+                fullDaysEnd.toLocalDate().minusDays(1)
+        ));
+        if (!fullDaysEnd.isAfter(to)) {
+            aggregates.addAll(salesOrderRepository.aggregateDailySales(OrderStatus.CONFIRMED, fullDaysEnd, to));
         }
-        return salesOrderRepository.findDetailedByStatus(OrderStatus.CONFIRMED);
+        return aggregates;
     }
 
     private OffsetDateTime toBucketStart(OffsetDateTime value, SalesGroupBy groupBy) {
@@ -0,0 +1,194 @@
+package com.example.backend.sales;
+
+import com.example.backend.audit.AuditLogService;
+import com.example.backend.common.BadRequestException;
+import com.example.backend.order.OrderStatus;
+import com.example.backend.order.SalesOrder;
+import com.example.backend.order.SalesOrderItem;
+import com.example.backend.order.SalesOrderRepository;
+import com.example.backend.sales.dto.SalesDailyAggregate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 売上の日次集計テーブル(sales_daily_rollup / sales_daily_order_counts)を維持するサービス。
+ * 受注確定と同じトランザクションで加算し、履歴や不整合は日単位の再集計で作り直す。
+ * 金額・数量・明細数は日・商品単位、受注件数は商品をまたいで重複しないよう日・シャード単位で持ち、読み取り時に日別へ合算する。
+ */
+@Service
+public class SalesRollupService {
+
+    static final ZoneOffset ROLLUP_ZONE = ZoneOffset.UTC;
+    // 受注件数の行を受注IDで分ける数。同じ日の受注確定が1行のロック待ちに並ばないようにする。
+    static final int ORDER_COUNT_SHARDS = 16;
+    private static final int MAX_REBUILD_DAYS = 3_660;
+
+    private final SalesDailyRollupRepository salesDailyRollupRepository;
+    private final SalesDailyOrderCountRepository salesDailyOrderCountRepository;
+    private final SalesOrderRepository salesOrderRepository;
+    private final AuditLogService auditLogService;
+    private final TransactionTemplate transactionTemplate;
+
+    public SalesRollupService(
+            SalesDailyRollupRepository salesDailyRollupRepository,
+            SalesDailyOrderCountRepository salesDailyOrderCountRepository,
+            SalesOrderRepository salesOrderRepository,
+            AuditLogService auditLogService,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.salesDailyRollupRepository = salesDailyRollupRepository;
+        this.salesDailyOrderCountRepository = salesDailyOrderCountRepository;
+        this.salesOrderRepository = salesOrderRepository;
+        this.auditLogService = auditLogService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 確定した受注の明細を、確定日時(updatedAt)の日付の集計行へ加算する。
+     * 呼び出し前にupdatedAtが確定日時へ更新(flush)されていること。
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordConfirmedOrder(SalesOrder order) {
+        if (order.getItems().isEmpty()) {
+            return;
+        }
+        LocalDate bucketDate = toBucketDate(order.getUpdatedAt());
+
+        // 商品ID昇順に集約し、同じ日・商品の行を更新する受注同士でロック順を揃える。
+        Map<Long, ProductSales> productSales = new TreeMap<>();
+        for (SalesOrderItem item : order.getItems()) {
+            BigDecimal lineAmount = item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+            productSales.computeIfAbsent(item.getProduct().getId(), key -> new ProductSales())
+                    .add(lineAmount, item.getQuantity());
+        }
+
+        // 再集計とのデッドロックを避けるため、受注件数のシャード行を必ず商品別の行より先に更新する。
+        int shard = shardOf(order.getId());
+        salesDailyOrderCountRepository.insertIfAbsent(bucketDate, shard);
+        salesDailyOrderCountRepository.addOrders(bucketDate, shard, 1);
+
+        for (Map.Entry<Long, ProductSales> entry : productSales.entrySet()) {
+            ProductSales sales = entry.getValue();
+            salesDailyRollupRepository.insertIfAbsent(bucketDate, entry.getKey());
+            salesDailyRollupRepository.addSales(bucketDate, entry.getKey(), sales.amount, sales.itemQuantity, sales.lineCount);
+        }
+    }
+
+    /**
+     * 指定期間(両端含む)の日次集計を返す。商品別の集計行と受注件数のシャード行を日単位に合算する。
+     */
+    @Transactional(readOnly = true)
+    public List<SalesDailyAggregate> findDailyTotals(LocalDate from, LocalDate to) {
+        Map<LocalDate, Long> orderCounts = new HashMap<>();
+        for (SalesDailyOrderCount count : salesDailyOrderCountRepository.findByBucketDateBetween(from, to)) {
+            orderCounts.merge(count.getBucketDate(), count.getOrderCount(), Long::sum);
+        }
+        return salesDailyRollupRepository.sumByDay(from, to).stream()
+                .map(daily -> new SalesDailyAggregate(
+                        daily.year(),
+                        daily.month(),
+                        daily.day(),
+                        daily.totalSalesAmount(),
+                        orderCounts.getOrDefault(LocalDate.of(daily.year(), daily.month(), daily.day()), 0L),
+                        daily.totalItemQuantity(),
+                        daily.lineCount()
+                ))
+                .toList();
+    }
+
+    /**
+     * 指定期間(両端含む)の集計行を確定済み受注から日単位で作り直し、再集計した日数を返す。
+     * 1日ごとに別トランザクションで処理し、長時間のロック保持を避ける。
+     */
+    public int rebuild(LocalDate from, LocalDate to, RebuildTrigger trigger) {
+        if (from == null || to == null) {
+            throw new BadRequestException("from and to are required");
+        }
+        if (from.isAfter(to)) {
+            throw new BadRequestException("from must be less than or equal to to");
+        }
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days > MAX_REBUILD_DAYS) {
+            throw new BadRequestException("rebuild period must be " + MAX_REBUILD_DAYS + " days or less");
+        }
+
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            LocalDate bucketDate = day;
+            transactionTemplate.executeWithoutResult(status -> rebuildDay(bucketDate));
+        }
+        int rebuiltDays = (int) days;
+
+        if (trigger == RebuildTrigger.MANUAL) {
+            transactionTemplate.executeWithoutResult(status -> auditLogService.log(
+                    "SALES_ROLLUP_REBUILD",
+                    "SALES_ROLLUP",
+                    null,
+                    "from=" + from + ", to=" + to + ", rebuiltDays=" + rebuiltDays
+            ));
+        }
+        return rebuiltDays;
+    }
+
+    static LocalDate toBucketDate(OffsetDateTime value) {
+        return value.withOffsetSameInstant(ROLLUP_ZONE).toLocalDate();
+    }
+
+    static int shardOf(Long orderId) {
+        return (int) Math.floorMod(orderId, (long) ORDER_COUNT_SHARDS);
+    }
+
+    private void rebuildDay(LocalDate bucketDate) {
+        // その日の全シャード行を先にロックし、同じ日の受注確定の加算と再集計が交差しないようにする。
+        for (int shard = 0; shard < ORDER_COUNT_SHARDS; shard++) {
+            salesDailyOrderCountRepository.insertIfAbsent(bucketDate, shard);
+        }
+        salesDailyOrderCountRepository.findForUpdate(bucketDate);
+
+        OffsetDateTime dayStart = bucketDate.atStartOfDay().atOffset(ROLLUP_ZONE);
+        OffsetDateTime nextDayStart = dayStart.plusDays(1);
+
+        salesDailyRollupRepository.deleteByBucketDate(bucketDate);
+        salesDailyRollupRepository.insertAggregatedDay(bucketDate, OrderStatus.CONFIRMED, dayStart, nextDayStart);
+
+        long orderCount = 0;
+        for (SalesDailyAggregate aggregate : salesOrderRepository.aggregateDailySalesBefore(
+                OrderStatus.CONFIRMED,
+                dayStart,
+                nextDayStart
+        )) {
+            orderCount += aggregate.orderCount();
+        }
+        // 再集計後の件数はシャード0にまとめ、他のシャードは0に戻す。読み取りは日単位で合算するため分け方は問わない。
+        salesDailyOrderCountRepository.replaceOrders(bucketDate, 0, orderCount);
+    }
+
+    public enum RebuildTrigger {
+        MANUAL,
+        SCHEDULED
+    }
+
+    private static final class ProductSales {
+        private BigDecimal amount = BigDecimal.ZERO;
+        private long itemQuantity = 0;
+        private long lineCount = 0;
+
+        private void add(BigDecimal lineAmount, int quantity) {
+            amount = amount.add(lineAmount);
+            itemQuantity += quantity;
+            lineCount++;
+        }
+    }
+}
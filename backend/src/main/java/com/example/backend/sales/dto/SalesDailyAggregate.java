@@ -0,0 +1,17 @@
+package com.example.backend.sales.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * 確定済み売上を日(UTC)単位で集計した1行分。
+ */
+public record SalesDailyAggregate(
+        Integer year,
+        Integer month,
+        Integer day,
+        BigDecimal totalSalesAmount,
+        Long orderCount,
+        Long totalItemQuantity,
+        Long lineCount
+) {
+}
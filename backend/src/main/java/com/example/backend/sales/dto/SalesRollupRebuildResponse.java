@@ -0,0 +1,15 @@
+package com.example.backend.sales.dto;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/**
+ * 売上日次集計の再集計結果。
+ */
+public record SalesRollupRebuildResponse(
+        LocalDate from,
+        LocalDate to,
+        int rebuiltDays,
+        OffsetDateTime executedAt
+) {
+}
@@ -0,0 +1,175 @@
+package com.example.backend.security;
+
+import com.example.backend.common.ApiError;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * API処理の同時実行数をセマフォで制限し、コネクションプールを超えるリクエストを待たせる・断るフィルタ。
+ * 仮想スレッドではTomcatのスレッド数が上限にならないため、プールの待ち行列に無制限に積まれないようここで絞る。
+ * 許可はレスポンスの完了まで保持し、CSVストリーミングのような非同期応答では非同期処理の終了時に返す。
+ * <p>
+ * 許可を取るのはAPIリクエストだけで、{@code @Scheduled}ジョブ・商品CSV取込のワーカー・監査ログの書き込みスレッドは
+ * セマフォを通らずにプールから接続を借りる。また、SKU採番や監査ログの呼び出し元スレッドでの書き込みは
+ * REQUIRES_NEWで2本目の接続を借りるため、1リクエストが同時に2本を使うことがある。
+ * そのため上限を明示しない場合はプールの最大接続数から予備の接続数を引いた値を上限にし、
+ * バックグラウンド処理用の接続と、許可を持つリクエストの2本目用に少なくとも1本を空けておく。
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class DatabaseBulkheadFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseBulkheadFilter.class);
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int maxConcurrent;
+    private final long acquireTimeoutMs;
+    private final Semaphore permits;
+    private final Counter rejectedCounter;
+
+    public DatabaseBulkheadFilter(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${app.db.bulkhead.enabled:false}") boolean enabled,
+            @Value("${app.db.bulkhead.max-concurrent:0}") int maxConcurrent,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${app.db.bulkhead.reserved-connections:4}") int reservedConnections,
+            @Value("${app.db.bulkhead.acquire-timeout-ms:1000}") long acquireTimeoutMs
+    ) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        // 0以下は未指定として扱い、プールの最大接続数から予備を引いた値にする。
+        int limit = maxConcurrent > 0 ? maxConcurrent : poolSize - Math.max(0, reservedConnections);
+        this.maxConcurrent = Math.max(1, limit);
+        this.acquireTimeoutMs = Math.max(0, acquireTimeoutMs);
+        this.permits = new Semaphore(this.maxConcurrent, true);
+        this.rejectedCounter = meterRegistry.counter("app.db.bulkhead.rejected");
+        Gauge.builder("app.db.bulkhead.in.use", permits, semaphore -> this.maxConcurrent - semaphore.availablePermits())
+                .description("API処理の同時実行許可のうち使用中の数")
+                .register(meterRegistry);
+        if (enabled && this.maxConcurrent > poolSize - 1) {
+            log.warn(
+                    "API bulkhead leaves no spare connection for background work: maxConcurrent={}, poolSize={}",
+                    this.maxConcurrent, poolSize
+            );
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled) {
+            return true;
+        }
+        String uri = request.getRequestURI();
+        return uri == null || !uri.startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        if (!acquire()) {
+            rejectedCounter.increment();
+            log.warn("API bulkhead rejected request: path={}, maxConcurrent={}", request.getRequestURI(), maxConcurrent);
+            writeUnavailable(request, response);
+            return;
+        }
+
+        Permit permit = new Permit();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(permit);
+            } else {
+                permit.release();
+            }
+        }
+    }
+
+    private boolean acquire() {
+        try {
+            return permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void writeUnavailable(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ApiError body = new ApiError(
+                OffsetDateTime.now(),
+                HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                "Service Unavailable",
+                "Server is busy. Please retry later",
+                request.getRequestURI()
+        );
+
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(objectMapper.writeValueAsString(body));
+    }
+
+    /**
+     * 1リクエスト分の許可。非同期応答の完了・タイムアウト・エラーのどれが先に来ても1回だけ返却する。
+     */
+    private final class Permit implements AsyncListener {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // 同じリクエストで非同期処理が再開された場合も、リスナーを引き継いで完了時に返却する。
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -1,13 +1,19 @@
 package com.example.backend.security;
 
+import com.example.backend.common.BoundedTtlCache;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -15,18 +21,41 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.List;
 /**
  * JWTを検証してSecurityContextへ認証情報を設定するフィルタ。
+ * 同じトークンが繰り返し送られるため、検証済みトークンの利用者・権限をトークンのダイジェストをキーに
+ * exp到来までキャッシュし、署名検証を省略する。
  */
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
+    private final boolean cacheEnabled;
+    private final BoundedTtlCache<String, VerifiedToken> verifiedTokens;
 
-    public JwtAuthenticationFilter(JwtService jwtService) {
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public JwtAuthenticationFilter(
+            JwtService jwtService,
+            MeterRegistry meterRegistry,
+            @Value("${app.jwt.cache.enabled:true}") boolean cacheEnabled,
+            @Value("${app.jwt.cache.max-entries:10000}") int cacheMaxEntries
+    ) {
         this.jwtService = jwtService;
+        this.cacheEnabled = cacheEnabled;
+        this.verifiedTokens = new BoundedTtlCache<>(cacheMaxEntries);
+
+        this.hitCounter = meterRegistry.counter("app.jwt.cache", "result", "hit");
+        this.missCounter = meterRegistry.counter("app.jwt.cache", "result", "miss");
+        Gauge.builder("app.jwt.cache.size", verifiedTokens, BoundedTtlCache::size).register(meterRegistry);
+        Gauge.builder("app.jwt.cache.hit.ratio", this, JwtAuthenticationFilter::hitRatio).register(meterRegistry);
     }
 
     @Override
@@ -48,17 +77,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         try {
-            Claims claims = jwtService.parseClaims(token);
-            String username = claims.getSubject();
-            String role = claims.get("role", String.class);
-
-            if (username != null
-                    && role != null
-                    && SecurityContextHolder.getContext().getAuthentication() == null) {
+            VerifiedToken verified = verify(token);
+            if (verified != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        username,
+                        verified.username(),
                         null,
-                        List.of(new SimpleGrantedAuthority("ROLE_" + role))
+                        verified.authorities()
                 );
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -69,4 +93,57 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private VerifiedToken verify(String token) {
+        if (!cacheEnabled) {
+            return toVerifiedToken(jwtService.parseClaims(token));
+        }
+
+        // 生のトークンをメモリに残さないよう、キーにはダイジェストを使う。
+        String cacheKey = digest(token);
+        VerifiedToken cached = verifiedTokens.get(cacheKey);
+        if (cached != null) {
+            hitCounter.increment();
+            return cached;
+        }
+        missCounter.increment();
+
+        Claims claims = jwtService.parseClaims(token);
+        VerifiedToken verified = toVerifiedToken(claims);
+        if (verified != null && claims.getExpiration() != null) {
+            // 有効期限はexpまで。期限切れ後はキャッシュから返さず、再検証で失効させる。
+            verifiedTokens.put(cacheKey, verified, claims.getExpiration().toInstant());
+        }
+        return verified;
+    }
+
+    private static VerifiedToken toVerifiedToken(Claims claims) {
+        String username = claims.getSubject();
+        String role = claims.get("role", String.class);
+        if (username == null || role == null) {
+            return null;
+        }
+        return new VerifiedToken(username, List.of(new SimpleGrantedAuthority("ROLE_" + role)));
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private double hitRatio() {
+        double hits = hitCounter.count();
+        double total = hits + missCounter.count();
+        return total == 0 ? 0 : hits / total;
+    }
+
+    /**
+     * 検証済みトークンから取り出した利用者名と権限。
+     */
+    private record VerifiedToken(String username, List<GrantedAuthority> authorities) {
+    }
 }
@@ -1,8 +1,12 @@
 package com.example.backend.security;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.Keys;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,12 +14,20 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 /**
  * ドメインルールと業務処理をまとめるサービス。
  */
@@ -24,9 +36,15 @@ import java.util.List;
 public class JwtService {
 
     private static final Logger log = LoggerFactory.getLogger(JwtService.class);
+    private static final ObjectMapper HEADER_MAPPER = new ObjectMapper();
+    private static final Base64.Decoder HEADER_DECODER = Base64.getUrlDecoder();
 
     private final SecretKey signingKey;
-    private final List<SecretKey> verificationKeys;
+    private final String signingKeyId;
+    // kidごとに構築済みのパーサ。JwtParserはスレッドセーフなため、全リクエストで共有する。
+    private final Map<String, JwtParser> parsersByKeyId;
+    // kidを持たない旧形式トークン向け。署名鍵を先頭に、設定順で試行する。
+    private final List<JwtParser> legacyParsers;
     private final long expirationSeconds;
 
     public JwtService(
@@ -35,7 +53,14 @@ public class JwtService {
             @Value("${app.jwt.expiration-seconds:3600}") long expirationSeconds
     ) {
         this.signingKey = toSecretKey(secret, "app.jwt.secret");
-        this.verificationKeys = buildVerificationKeys(secret, verifySecrets);
+        this.signingKeyId = keyIdOf(signingKey);
+
+        Map<String, JwtParser> parsers = new LinkedHashMap<>();
+        for (SecretKey key : buildVerificationKeys(secret, verifySecrets)) {
+            parsers.putIfAbsent(keyIdOf(key), Jwts.parser().verifyWith(key).build());
+        }
+        this.parsersByKeyId = Collections.unmodifiableMap(parsers);
+        this.legacyParsers = List.copyOf(parsers.values());
         this.expirationSeconds = expirationSeconds;
     }
 
@@ -44,6 +69,7 @@ public class JwtService {
         Instant expiresAt = now.plusSeconds(expirationSeconds);
 
         return Jwts.builder()
+                .header().keyId(signingKeyId).and()
                 .subject(username)
                 .claim("role", role)
                 .issuedAt(Date.from(now))
@@ -52,15 +78,24 @@ public class JwtService {
                 .compact();
     }
 
+    /**
+     * トークンを検証してクレームを返す。
+     * ヘッダのkidに対応する鍵だけで検証し、kidがない旧形式トークンに限り全鍵を順に試す。
+     */
     public Claims parseClaims(String token) throws JwtException {
+        String keyId = readKeyId(token);
+        if (keyId != null) {
+            JwtParser parser = parsersByKeyId.get(keyId);
+            if (parser == null) {
+                throw new JwtException("Unknown JWT key id: " + keyId);
+            }
+            return parser.parseSignedClaims(token).getPayload();
+        }
+
         JwtException lastException = null;
-        for (SecretKey key : verificationKeys) {
+        for (JwtParser parser : legacyParsers) {
             try {
-                return Jwts.parser()
-                        .verifyWith(key)
-                        .build()
-                        .parseSignedClaims(token)
-                        .getPayload();
+                return parser.parseSignedClaims(token).getPayload();
             } catch (JwtException ex) {
                 lastException = ex;
             }
@@ -75,6 +110,20 @@ public class JwtService {
         return expirationSeconds;
     }
 
+    private String readKeyId(String token) {
+        int headerEnd = token.indexOf('.');
+        if (headerEnd <= 0) {
+            throw new MalformedJwtException("JWT header is missing");
+        }
+        try {
+            JsonNode header = HEADER_MAPPER.readTree(HEADER_DECODER.decode(token.substring(0, headerEnd)));
+            JsonNode keyId = header.get("kid");
+            return keyId == null || !keyId.isTextual() ? null : keyId.asText();
+        } catch (IOException | IllegalArgumentException ex) {
+            throw new MalformedJwtException("JWT header is invalid", ex);
+        }
+    }
+
     private List<SecretKey> buildVerificationKeys(String signingSecret, String verifySecrets) {
         List<SecretKey> keys = new ArrayList<>();
         keys.add(toSecretKey(signingSecret, "app.jwt.secret"));
@@ -99,4 +148,14 @@ public class JwtService {
         }
         return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
     }
+
+    // 鍵そのものを推測できないよう、鍵バイト列のSHA-256先頭8バイトをkidとして使う。
+    private static String keyIdOf(SecretKey key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getEncoded());
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
 }
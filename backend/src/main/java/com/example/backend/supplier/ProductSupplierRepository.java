@@ -29,7 +29,7 @@ public interface ProductSupplierRepository extends JpaRepository<ProductSupplier
             from ProductSupplier ps
             join fetch ps.supplier s
             where ps.product.id in :productIds and s.active = true
-            order by ps.primarySupplier desc, ps.unitCost asc
+            order by ps.primarySupplier desc, ps.unitCost asc, ps.id asc
             """)
     List<ProductSupplier> findActiveByProductIds(@Param("productIds") Collection<Long> productIds);
 }
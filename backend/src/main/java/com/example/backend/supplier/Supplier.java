@@ -36,6 +36,10 @@ public class Supplier {
     @Column(nullable = false)
     private Boolean active;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Column(name = "created_at", nullable = false)
     private OffsetDateTime createdAt;
 
@@ -5,8 +5,10 @@ import com.example.backend.supplier.dto.SupplierResponse;
 import com.example.backend.supplier.dto.UpdateSupplierRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 /**
@@ -25,8 +27,9 @@ public class SupplierController {
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN','OPERATOR','VIEWER')")
-    public List<SupplierResponse> getSuppliers() {
-        return supplierService.getSuppliers();
+    public ResponseEntity<List<SupplierResponse>> getSuppliers(WebRequest request) {
+        // 版を先に取得し、一覧は版以降の状態から組み立てる。変化がなければ一覧を読み込まずに304を返す。
+        return supplierService.getSuppliersVersion().toResponse(request, supplierService::getSuppliers);
     }
 
     @GetMapping("/{supplierId}")
@@ -1,6 +1,8 @@
 package com.example.backend.supplier;
 
+import com.example.backend.common.VersionMarker;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,4 +15,9 @@ public interface SupplierRepository extends JpaRepository<Supplier, Long> {
     boolean existsByCodeAndIdNot(String code, Long id);
     List<Supplier> findAllByOrderByActiveDescNameAsc();
     Optional<Supplier> findByCodeIgnoreCase(String code);
+
+    // 仕入先一覧の条件付きGET用。件数・最終更新日時・版の合計の組で変更を検知する。
+    // 版の合計はコミット順が更新日時と前後しても必ず変わる。
+    @Query("select new com.example.backend.common.VersionMarker(count(s), max(s.updatedAt), coalesce(sum(s.version), 0)) from Supplier s")
+    VersionMarker findVersionMarker();
 }
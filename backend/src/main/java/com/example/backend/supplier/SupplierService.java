@@ -3,6 +3,7 @@ package com.example.backend.supplier;
 import com.example.backend.audit.AuditLogService;
 import com.example.backend.common.BusinessRuleException;
 import com.example.backend.common.ResourceNotFoundException;
+import com.example.backend.common.ResourceVersion;
 import com.example.backend.supplier.dto.CreateSupplierRequest;
 import com.example.backend.supplier.dto.SupplierResponse;
 import com.example.backend.supplier.dto.UpdateSupplierRequest;
@@ -32,6 +33,14 @@ public class SupplierService {
                 .toList();
     }
 
+    /**
+     * 仕入先一覧の版。一覧を読み込まずに条件付きGETの判定に使う。
+     */
+    @Transactional(readOnly = true)
+    public ResourceVersion getSuppliersVersion() {
+        return ResourceVersion.of(supplierRepository.findVersionMarker());
+    }
+
     @Transactional(readOnly = true)
     public SupplierResponse getSupplier(Long supplierId) {
         return toResponse(findSupplierById(supplierId));
@@ -0,0 +1,10 @@
+CREATE TABLE inventory_journal (
+    id BIGSERIAL PRIMARY KEY,
+    product_id BIGINT NOT NULL REFERENCES products(id) ON DELETE CASCADE,
+    available_delta INTEGER NOT NULL,
+    reserved_delta INTEGER NOT NULL,
+    reason VARCHAR(40) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_inventory_journal_product_id ON inventory_journal(product_id);
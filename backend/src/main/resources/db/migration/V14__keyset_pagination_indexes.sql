@@ -0,0 +1,8 @@
+-- キーセットページング (時刻 DESC, id DESC) をインデックスのみで辿れるよう複合インデックスへ置き換える。
+DROP INDEX IF EXISTS idx_products_updated_at;
+CREATE INDEX idx_products_updated_at_id
+    ON products(updated_at DESC, id DESC);
+
+DROP INDEX IF EXISTS idx_audit_logs_created_at;
+CREATE INDEX idx_audit_logs_created_at_id
+    ON audit_logs(created_at DESC, id DESC);
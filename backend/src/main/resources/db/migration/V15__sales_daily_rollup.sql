@@ -0,0 +1,40 @@
+CREATE TABLE sales_daily_rollup (
+    id BIGSERIAL PRIMARY KEY,
+    bucket_date DATE NOT NULL,
+    product_id BIGINT NOT NULL REFERENCES products(id),
+    total_sales_amount NUMERIC(16, 2) NOT NULL,
+    total_item_quantity BIGINT NOT NULL,
+    order_count BIGINT NOT NULL,
+    line_count BIGINT NOT NULL,
+    CONSTRAINT uk_sales_daily_rollup_date_product UNIQUE (bucket_date, product_id)
+);
+
+-- 日別の受注件数。同じ日の受注確定が1行の更新に集中しないよう、受注IDの剰余(16)で行を分ける。
+CREATE TABLE sales_daily_order_counts (
+    id BIGSERIAL PRIMARY KEY,
+    bucket_date DATE NOT NULL,
+    shard INTEGER NOT NULL,
+    order_count BIGINT NOT NULL,
+    CONSTRAINT uk_sales_daily_order_counts_date_shard UNIQUE (bucket_date, shard)
+);
+
+-- 既存の確定済み受注から初期データを作成する（updated_atはUTCで保存されている）。
+INSERT INTO sales_daily_rollup (bucket_date, product_id, total_sales_amount, total_item_quantity, order_count, line_count)
+SELECT CAST(so.updated_at AS DATE),
+       i.product_id,
+       SUM(i.unit_price * i.quantity),
+       SUM(i.quantity),
+       COUNT(DISTINCT so.id),
+       COUNT(*)
+FROM sales_order_items i
+JOIN sales_orders so ON so.id = i.order_id
+WHERE so.status = 'CONFIRMED'
+GROUP BY CAST(so.updated_at AS DATE), i.product_id;
+
+INSERT INTO sales_daily_order_counts (bucket_date, shard, order_count)
+SELECT CAST(so.updated_at AS DATE),
+       MOD(so.id, 16),
+       COUNT(*)
+FROM sales_orders so
+WHERE so.status = 'CONFIRMED'
+GROUP BY CAST(so.updated_at AS DATE), MOD(so.id, 16);
@@ -0,0 +1,9 @@
+ALTER TABLE api_idempotency_keys
+    ADD COLUMN response_format VARCHAR(20) NOT NULL DEFAULT 'JSON';
+
+ALTER TABLE api_idempotency_keys
+    ADD COLUMN response_payload BYTEA;
+
+-- 圧縮形式の行はresponse_payloadのみを持つため、response_bodyは任意にする。
+ALTER TABLE api_idempotency_keys
+    ALTER COLUMN response_body DROP NOT NULL;
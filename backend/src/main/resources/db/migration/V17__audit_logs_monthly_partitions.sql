@@ -0,0 +1,56 @@
+-- audit_logsをcreated_atの月単位でレンジパーティション化し、保持期限の適用をパーティション削除で行えるようにする。
+-- パーティションキーを含める必要があるため、主キーは (id, created_at) とする。
+ALTER TABLE audit_logs RENAME TO audit_logs_unpartitioned;
+ALTER INDEX IF EXISTS audit_logs_pkey RENAME TO audit_logs_unpartitioned_pkey;
+DROP INDEX IF EXISTS idx_audit_logs_created_at_id;
+DROP INDEX IF EXISTS idx_audit_logs_actor_username;
+DROP INDEX IF EXISTS idx_audit_logs_action;
+
+CREATE TABLE audit_logs (
+    id BIGINT NOT NULL DEFAULT nextval('audit_logs_id_seq'),
+    actor_username VARCHAR(100) NOT NULL,
+    actor_role VARCHAR(30) NOT NULL,
+    action VARCHAR(100) NOT NULL,
+    target_type VARCHAR(50),
+    target_id VARCHAR(100),
+    detail VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- 旧テーブル削除時にシーケンスが消えないよう、所有者を新テーブルへ移す。
+ALTER SEQUENCE audit_logs_id_seq OWNED BY audit_logs.id;
+
+-- 月パーティションが未作成の期間の行を受け止める。
+CREATE TABLE audit_logs_default PARTITION OF audit_logs DEFAULT;
+
+-- 既存データの最古月から3か月先まで、月パーティションを作成する。
+DO $$
+DECLARE
+    month_start DATE;
+    last_month DATE := (date_trunc('month', CURRENT_DATE) + INTERVAL '3 months')::date;
+BEGIN
+    SELECT COALESCE(date_trunc('month', MIN(created_at))::date, date_trunc('month', CURRENT_DATE)::date)
+    INTO month_start
+    FROM audit_logs_unpartitioned;
+
+    WHILE month_start <= last_month LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF audit_logs FOR VALUES FROM (%L) TO (%L)',
+            'audit_logs_p' || to_char(month_start, 'YYYYMM'),
+            month_start,
+            (month_start + INTERVAL '1 month')::date
+        );
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO audit_logs (id, actor_username, actor_role, action, target_type, target_id, detail, created_at)
+SELECT id, actor_username, actor_role, action, target_type, target_id, detail, created_at
+FROM audit_logs_unpartitioned;
+
+DROP TABLE audit_logs_unpartitioned;
+
+CREATE INDEX idx_audit_logs_created_at_id ON audit_logs(created_at DESC, id DESC);
+CREATE INDEX idx_audit_logs_actor_username ON audit_logs(actor_username);
+CREATE INDEX idx_audit_logs_action ON audit_logs(action);
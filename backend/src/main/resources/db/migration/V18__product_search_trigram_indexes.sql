@@ -0,0 +1,16 @@
+-- 商品検索の部分一致(LOWER(sku|name) LIKE '%q%')をインデックスで処理できるよう、pg_trgmのGINインデックスを作成する。
+-- 拡張を作成する権限がない環境でもマイグレーションを失敗させず、従来のシーケンシャルスキャンで動作させる。
+DO $$
+BEGIN
+    BEGIN
+        CREATE EXTENSION IF NOT EXISTS pg_trgm;
+    EXCEPTION
+        WHEN insufficient_privilege OR undefined_file THEN
+            RAISE NOTICE 'pg_trgm is not available. Product substring search stays unindexed.';
+    END;
+
+    IF EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'pg_trgm') THEN
+        EXECUTE 'CREATE INDEX IF NOT EXISTS idx_products_lower_name_trgm ON products USING gin ((LOWER(name)) gin_trgm_ops)';
+        EXECUTE 'CREATE INDEX IF NOT EXISTS idx_products_lower_sku_trgm ON products USING gin ((LOWER(sku)) gin_trgm_ops)';
+    END IF;
+END $$;
@@ -0,0 +1,3 @@
+-- 商品一覧の条件付きGET(Last-Modified)で在庫数の変更も検知できるよう、在庫の最終更新日時を持たせる。
+ALTER TABLE inventories
+    ADD COLUMN updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
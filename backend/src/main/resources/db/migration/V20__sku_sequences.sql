@@ -0,0 +1,8 @@
+-- SKU自動採番の連番を(接頭辞, 日付)単位で払い出すカウンタ。next_valueは次に払い出す番号。
+CREATE TABLE sku_sequences (
+    id BIGSERIAL PRIMARY KEY,
+    prefix VARCHAR(40) NOT NULL,
+    date_part VARCHAR(8) NOT NULL,
+    next_value BIGINT NOT NULL,
+    CONSTRAINT uk_sku_sequences_prefix_date UNIQUE (prefix, date_part)
+);
@@ -0,0 +1,26 @@
+-- 商品CSVの非同期取込ジョブ。進捗(件数)と先頭N件の行エラーを保持する。
+CREATE TABLE product_import_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    status VARCHAR(20) NOT NULL,
+    file_name VARCHAR(255),
+    requested_by VARCHAR(100) NOT NULL,
+    requested_role VARCHAR(30) NOT NULL,
+    processed_rows INTEGER NOT NULL DEFAULT 0,
+    created_rows INTEGER NOT NULL DEFAULT 0,
+    updated_rows INTEGER NOT NULL DEFAULT 0,
+    failed_rows INTEGER NOT NULL DEFAULT 0,
+    errors_json TEXT,
+    message VARCHAR(500),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP,
+    finished_at TIMESTAMP
+);
+
+CREATE INDEX idx_product_import_jobs_created_at
+    ON product_import_jobs(created_at DESC);
+
+-- 取込は同時に1件だけ。待機中・実行中のジョブが2件以上にならないよう、複数ノードからの同時登録もDBで弾く。
+CREATE UNIQUE INDEX uk_product_import_jobs_active
+    ON product_import_jobs((status IN ('QUEUED', 'RUNNING')))
+    WHERE status IN ('QUEUED', 'RUNNING');
@@ -0,0 +1,9 @@
+-- 補充提案の候補抽出(販売可能数 <= 再発注点)用のインデックス。
+-- 再発注点は商品側、販売可能数は在庫側にあり1つの式インデックスにはできないため、
+-- 再発注が有効な商品だけを載せた部分インデックスと、在庫の販売可能数順インデックスを組み合わせて結合させる。
+CREATE INDEX idx_products_reorder_enabled
+    ON products(id, reorder_point)
+    WHERE reorder_quantity > 0;
+
+CREATE INDEX idx_inventories_available_product
+    ON inventories(available_quantity, product_id);
@@ -0,0 +1,4 @@
+-- 受注一覧(ステータス絞り込み + 更新日時の降順キーセットページング)と売上集計の期間検索用。
+-- 同時刻の受注の並びを決めるidも末尾に含め、カーソル条件までインデックスで評価できるようにする。
+CREATE INDEX idx_sales_orders_status_updated_at
+    ON sales_orders(status, updated_at DESC, id DESC);
@@ -0,0 +1,33 @@
+-- 大量に追加される表の主キー採番をHibernateのpooledオプティマイザ(allocationSize=50)に合わせる。
+-- IDENTITY採番ではINSERTごとに生成キーを受け取る必要があり、JDBCバッチが無効になるため。
+-- シーケンス1回の採番で50件分のIDを確保するので、増分を50にし、次の払い出し範囲が既存の最大IDより後ろから始まるようにする。
+-- 列のDEFAULT nextval(...)はそのまま残すため、SQLで直接INSERTする行とも衝突しない。
+ALTER SEQUENCE products_id_seq INCREMENT BY 50;
+SELECT setval('products_id_seq', (SELECT COALESCE(MAX(id), 0) FROM products) + 50, false);
+
+ALTER SEQUENCE inventories_id_seq INCREMENT BY 50;
+SELECT setval('inventories_id_seq', (SELECT COALESCE(MAX(id), 0) FROM inventories) + 50, false);
+
+ALTER SEQUENCE inventory_journal_id_seq INCREMENT BY 50;
+SELECT setval('inventory_journal_id_seq', (SELECT COALESCE(MAX(id), 0) FROM inventory_journal) + 50, false);
+
+ALTER SEQUENCE sales_orders_id_seq INCREMENT BY 50;
+SELECT setval('sales_orders_id_seq', (SELECT COALESCE(MAX(id), 0) FROM sales_orders) + 50, false);
+
+ALTER SEQUENCE sales_order_items_id_seq INCREMENT BY 50;
+SELECT setval('sales_order_items_id_seq', (SELECT COALESCE(MAX(id), 0) FROM sales_order_items) + 50, false);
+
+ALTER SEQUENCE purchase_orders_id_seq INCREMENT BY 50;
+SELECT setval('purchase_orders_id_seq', (SELECT COALESCE(MAX(id), 0) FROM purchase_orders) + 50, false);
+
+ALTER SEQUENCE purchase_order_items_id_seq INCREMENT BY 50;
+SELECT setval('purchase_order_items_id_seq', (SELECT COALESCE(MAX(id), 0) FROM purchase_order_items) + 50, false);
+
+ALTER SEQUENCE purchase_order_receipts_id_seq INCREMENT BY 50;
+SELECT setval('purchase_order_receipts_id_seq', (SELECT COALESCE(MAX(id), 0) FROM purchase_order_receipts) + 50, false);
+
+ALTER SEQUENCE purchase_order_receipt_items_id_seq INCREMENT BY 50;
+SELECT setval('purchase_order_receipt_items_id_seq', (SELECT COALESCE(MAX(id), 0) FROM purchase_order_receipt_items) + 50, false);
+
+ALTER SEQUENCE audit_logs_id_seq INCREMENT BY 50;
+SELECT setval('audit_logs_id_seq', (SELECT COALESCE(MAX(id), 0) FROM audit_logs) + 50, false);
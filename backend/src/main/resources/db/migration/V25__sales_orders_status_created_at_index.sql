@@ -0,0 +1,4 @@
+-- 受注一覧のキーセットページング用。確定・取消で変わらない作成日時で並べるため、並び順と同じ(作成日時, id)の降順で持つ。
+-- 更新日時のインデックス(V23)は売上集計の期間検索で引き続き使う。
+CREATE INDEX idx_sales_orders_status_created_at
+    ON sales_orders(status, created_at DESC, id DESC);
@@ -0,0 +1,6 @@
+-- 商品・仕入先に楽観ロック用の版を追加する。一覧の条件付きGETでは版の合計を変更検知に使う。
+ALTER TABLE products
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE suppliers
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
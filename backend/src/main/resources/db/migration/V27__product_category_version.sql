@@ -0,0 +1,3 @@
+-- 商品カテゴリにも楽観ロック用の版を追加する。カテゴリ一覧の条件付きGETでは版の合計を変更検知に使う。
+ALTER TABLE product_categories
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -6,7 +6,9 @@ import org.springframework.boot.test.context.SpringBootTest;
  * 主要ユースケースの回帰を守る統合テスト。
  */
 
-@SpringBootTest
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:application-context;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH"
+})
 class BackendApplicationTests {
 
 	@Test
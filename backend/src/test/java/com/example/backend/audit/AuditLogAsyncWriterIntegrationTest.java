@@ -0,0 +1,70 @@
+package com.example.backend.audit;
+
+import com.example.backend.audit.dto.AuditLogPageResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 監査ログの非同期書き込みモードで、コミット後の書き込み・ロールバック時の破棄・件数計測を守る統合テスト。
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:audit-async;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "app.seed.enabled=false",
+        "app.audit.async.enabled=true",
+        "app.audit.async.batch-size=3"
+})
+class AuditLogAsyncWriterIntegrationTest {
+
+    @Autowired
+    private AuditLogService auditLogService;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void committedLogsAreWrittenInBatchesWithOriginalTimestamp() {
+        OffsetDateTime from = OffsetDateTime.now().minusSeconds(1);
+        double writtenBefore = meterRegistry.counter("app.audit.log.written").count();
+
+        for (int i = 0; i < 7; i++) {
+            auditLogService.logAs("async-writer", "ADMIN", "ASYNC_BATCH", "TEST", String.valueOf(i), "index=" + i);
+        }
+        auditLogWriter.flush();
+
+        AuditLogPageResponse logs = auditLogService.getLogs(
+                0, 50, "ASYNC_BATCH", "async-writer", from, OffsetDateTime.now().plusSeconds(1), null, true
+        );
+        assertEquals(7, logs.totalElements());
+        assertEquals(7, meterRegistry.counter("app.audit.log.written").count() - writtenBefore);
+    }
+
+    @Test
+    void rolledBackTransactionDoesNotWriteLogs() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            auditLogService.logAs("async-writer", "ADMIN", "ASYNC_ROLLBACK", "TEST", "1", null);
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status ->
+                auditLogService.logAs("async-writer", "ADMIN", "ASYNC_COMMIT", "TEST", "1", null));
+        auditLogWriter.flush();
+
+        assertEquals(0, auditLogService.getLogs(0, 10, "ASYNC_ROLLBACK", null, null, null, null, true).totalElements());
+        assertEquals(1, auditLogService.getLogs(0, 10, "ASYNC_COMMIT", null, null, null, null, true).totalElements());
+        assertEquals(0, meterRegistry.counter("app.audit.log.dropped").count());
+    }
+}
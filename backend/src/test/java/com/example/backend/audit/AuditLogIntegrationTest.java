@@ -12,14 +12,19 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 /**
  * 主要ユースケースの回帰を守る統合テスト。
  */
@@ -110,6 +115,55 @@ class AuditLogIntegrationTest {
         }
     }
 
+    @Test
+    void adminCanPageAuditLogsByCursor() throws Exception {
+        String adminToken = login("admin", "admin123");
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(
+                            post("/api/products")
+                                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(objectMapper.writeValueAsString(Map.of(
+                                            "sku", "AUDIT-CURSOR-" + i + "-" + System.currentTimeMillis(),
+                                            "name", "Audit Cursor Product",
+                                            "unitPrice", 1700
+                                    )))
+                    )
+                    .andExpect(status().isCreated());
+        }
+
+        MvcResult firstResult = mockMvc.perform(
+                        get("/api/audit-logs")
+                                .param("action", "PRODUCT_CREATE")
+                                .param("size", "2")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                )
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode firstPage = objectMapper.readTree(firstResult.getResponse().getContentAsString());
+        assertTrue(firstPage.path("hasNext").asBoolean(), "first page should have next page");
+        long lastIdOfFirstPage = firstPage.path("items").get(1).path("id").asLong();
+
+        MvcResult secondResult = mockMvc.perform(
+                        get("/api/audit-logs")
+                                .param("action", "PRODUCT_CREATE")
+                                .param("size", "2")
+                                .param("cursor", firstPage.path("nextCursor").asText())
+                                .param("includeTotal", "false")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                )
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode secondPage = objectMapper.readTree(secondResult.getResponse().getContentAsString());
+
+        assertEquals(-1, secondPage.path("totalElements").asLong());
+        assertTrue(secondPage.path("items").size() > 0, "second page should not be empty");
+        for (JsonNode item : secondPage.path("items")) {
+            assertEquals("PRODUCT_CREATE", item.path("action").asText());
+            assertTrue(item.path("id").asLong() < lastIdOfFirstPage, "cursor page should continue after first page");
+        }
+    }
+
     @Test
     void nonAdminCannotReadAuditLogs() throws Exception {
         String operatorToken = login("operator", "operator123");
@@ -143,12 +197,15 @@ class AuditLogIntegrationTest {
                 )
                 .andExpect(status().isCreated());
 
-        MvcResult csvResult = mockMvc.perform(
+        MvcResult started = mockMvc.perform(
                         get("/api/audit-logs/export.csv")
                                 .param("action", "PRODUCT_CREATE")
                                 .param("limit", "100")
                                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
                 )
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult csvResult = mockMvc.perform(asyncDispatch(started))
                 .andExpect(status().isOk())
                 .andReturn();
 
@@ -160,6 +217,27 @@ class AuditLogIntegrationTest {
         assertTrue(disposition != null && disposition.contains("audit-logs.csv"), "filename should be set");
         assertTrue(csvBody.startsWith("createdAt,actorUsername,actorRole,action,targetType,targetId,detail"));
         assertTrue(csvBody.contains("\"PRODUCT_CREATE\""), "csv should contain PRODUCT_CREATE action");
+
+        MvcResult gzipStarted = mockMvc.perform(
+                        get("/api/audit-logs/export.csv")
+                                .param("action", "PRODUCT_CREATE")
+                                .param("gzip", "true")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                )
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult gzipResult = mockMvc.perform(asyncDispatch(gzipStarted))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String gzipDisposition = gzipResult.getResponse().getHeader(HttpHeaders.CONTENT_DISPOSITION);
+        assertTrue(gzipDisposition != null && gzipDisposition.contains("audit-logs.csv.gz"), "gzip filename should be set");
+        try (GZIPInputStream gzipBody = new GZIPInputStream(
+                new ByteArrayInputStream(gzipResult.getResponse().getContentAsByteArray()))) {
+            String decompressed = new String(gzipBody.readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(decompressed.startsWith("createdAt,actorUsername,actorRole,action,targetType,targetId,detail"));
+            assertTrue(decompressed.contains("\"PRODUCT_CREATE\""), "gzip csv should contain PRODUCT_CREATE action");
+        }
     }
 
     @Test
@@ -0,0 +1,63 @@
+package com.example.backend.audit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 監査ログの保持期限適用が件数上限付きのチャンクに分かれ、期限内のログを残すことを守る統合テスト。
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:audit-retention;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "app.seed.enabled=false",
+        "jobs.audit-log-retention-batch-size=3"
+})
+class AuditLogRetentionChunkIntegrationTest {
+
+    @Autowired
+    private AuditLogService auditLogService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void expiredLogsAreDeletedInBoundedChunks() {
+        for (int i = 0; i < 7; i++) {
+            auditLogService.logAs("retention", "ADMIN", "RETENTION_OLD", "TEST", String.valueOf(i), null);
+        }
+        auditLogService.logAs("retention", "ADMIN", "RETENTION_RECENT", "TEST", "recent", null);
+        jdbcTemplate.update(
+                "UPDATE audit_logs SET created_at = ? WHERE action = ?",
+                OffsetDateTime.now().minusDays(120),
+                "RETENTION_OLD"
+        );
+
+        AuditLogService.AuditLogCleanupResult result = auditLogService.cleanupExpiredLogs(
+                30,
+                AuditLogService.CleanupTrigger.SCHEDULED
+        );
+
+        assertEquals(7, result.deletedCount());
+        assertEquals(3, result.chunks().size());
+        assertEquals(
+                List.of(3L, 3L, 1L),
+                result.chunks().stream().map(AuditLogService.AuditLogCleanupChunk::deletedCount).toList()
+        );
+        assertTrue(result.chunks().stream()
+                .allMatch(chunk -> chunk.type() == AuditLogService.CleanupChunkType.DELETE && chunk.durationMs() >= 0));
+        assertEquals(0, count("RETENTION_OLD"));
+        assertEquals(1, count("RETENTION_RECENT"));
+    }
+
+    private int count(String action) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM audit_logs WHERE action = ?", Integer.class, action);
+        return count == null ? 0 : count;
+    }
+}
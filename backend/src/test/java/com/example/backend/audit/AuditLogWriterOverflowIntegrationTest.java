@@ -0,0 +1,64 @@
+package com.example.backend.audit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 監査ログの書き込み待ちキューがあふれ、コミット後のコールバックから呼び出し元スレッドで直接書き込んだ場合も、
+ * 監査ログが欠落せずにコミットされることを守る統合テスト。
+ * 自動コミットが有効なプールでは、完了済みトランザクションのコネクションに相乗りした書き込みも返却時に暗黙にコミットされて
+ * 欠落が見えないため、プールの自動コミットを無効にして確認する。
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:audit-overflow;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "app.seed.enabled=false",
+        "spring.datasource.hikari.auto-commit=false",
+        "spring.jpa.properties.hibernate.connection.provider_disables_autocommit=true",
+        "app.audit.async.enabled=true",
+        "app.audit.async.queue-capacity=1",
+        "app.audit.async.enqueue-timeout-ms=0",
+        "app.audit.async.overflow-policy=CALLER_RUNS"
+})
+class AuditLogWriterOverflowIntegrationTest {
+
+    private static final int LOG_COUNT = 200;
+
+    @Autowired
+    private AuditLogService auditLogService;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void overflowedLogsWrittenByCallerAreCommitted() {
+        double overflowBefore = meterRegistry.counter("app.audit.log.overflow").count();
+
+        // 1トランザクションで大量に記録し、コミット後に容量1のキューへ一気に積んであふれさせる。
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i < LOG_COUNT; i++) {
+                auditLogService.logAs("overflow-writer", "ADMIN", "ASYNC_OVERFLOW", "TEST", String.valueOf(i), null);
+            }
+        });
+        auditLogWriter.flush();
+
+        assertTrue(meterRegistry.counter("app.audit.log.overflow").count() > overflowBefore);
+        assertEquals(
+                LOG_COUNT,
+                auditLogService.getLogs(0, 10, "ASYNC_OVERFLOW", null, null, null, null, true).totalElements()
+        );
+        assertEquals(0, meterRegistry.counter("app.audit.log.failed").count());
+    }
+}
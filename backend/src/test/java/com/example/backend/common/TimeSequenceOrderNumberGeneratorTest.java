@@ -0,0 +1,122 @@
+package com.example.backend.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 伝票番号の形式・ノードIDの埋め込み・秒内連番の繰り上がり・時計の巻き戻りへの耐性を守るテスト。
+ */
+class TimeSequenceOrderNumberGeneratorTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-17T01:02:03Z");
+
+    @Test
+    void numberCarriesUtcTimestampNodeIdAndSequence() {
+        TimeSequenceOrderNumberGenerator generator = new TimeSequenceOrderNumberGenerator(7, fixedClock(NOW));
+
+        assertEquals("SO-20261017010203-070000", generator.next("SO"));
+        assertEquals("PO-20261017010203-070001", generator.next("PO"));
+    }
+
+    @Test
+    void exhaustedSequenceMovesToNextSecondAndStaysOrdered() {
+        TimeSequenceOrderNumberGenerator generator = new TimeSequenceOrderNumberGenerator(1, fixedClock(NOW));
+
+        String previous = generator.next("SO");
+        for (int i = 1; i < 10_000; i++) {
+            String current = generator.next("SO");
+            assertTrue(current.compareTo(previous) > 0, current + " should sort after " + previous);
+            previous = current;
+        }
+
+        assertEquals("SO-20261017010203-019999", previous);
+        assertEquals("SO-20261017010204-010000", generator.next("SO"));
+    }
+
+    @Test
+    void clockGoingBackwardsDoesNotReuseNumbers() {
+        MutableClock clock = new MutableClock(NOW);
+        TimeSequenceOrderNumberGenerator generator = new TimeSequenceOrderNumberGenerator(0, clock);
+
+        assertEquals("SO-20261017010203-000000", generator.next("SO"));
+        clock.instant = NOW.minusSeconds(5);
+        assertEquals("SO-20261017010203-000001", generator.next("SO"));
+        clock.instant = NOW.plusSeconds(1);
+        assertEquals("SO-20261017010204-000000", generator.next("SO"));
+    }
+
+    @Test
+    void concurrentCallersGetDistinctNumbers() throws Exception {
+        TimeSequenceOrderNumberGenerator generator = new TimeSequenceOrderNumberGenerator(3, Clock.systemUTC());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    List<String> numbers = new ArrayList<>();
+                    for (int j = 0; j < 2_000; j++) {
+                        numbers.add(generator.next("SO"));
+                    }
+                    return numbers;
+                }));
+            }
+            Set<String> unique = new HashSet<>();
+            for (Future<List<String>> result : results) {
+                unique.addAll(result.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(16_000, unique.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void nodeIdOutOfRangeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new TimeSequenceOrderNumberGenerator(100, Clock.systemUTC()));
+        assertThrows(IllegalArgumentException.class, () -> new TimeSequenceOrderNumberGenerator(-1, Clock.systemUTC()));
+    }
+
+    private static Clock fixedClock(Instant instant) {
+        return Clock.fixed(instant, ZoneOffset.UTC);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
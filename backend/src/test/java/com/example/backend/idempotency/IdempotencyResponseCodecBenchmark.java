@@ -0,0 +1,117 @@
+package com.example.backend.idempotency;
+
+import com.example.backend.order.dto.SalesOrderItemResponse;
+import com.example.backend.order.dto.SalesOrderResponse;
+import com.example.backend.purchase.dto.PurchaseOrderItemResponse;
+import com.example.backend.purchase.dto.PurchaseOrderReceiptItemResponse;
+import com.example.backend.purchase.dto.PurchaseOrderReceiptResponse;
+import com.example.backend.purchase.dto.PurchaseOrderResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 冪等キー1件あたりの保存バイト数と、応答の保存・復元にかかる時間を格納形式別に計測するベンチマーク。
+ * 通常のテスト実行には含めず、{@code mvn test -Dtest=IdempotencyResponseCodecBenchmark} で明示的に実行する。
+ */
+class IdempotencyResponseCodecBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 2_000;
+    private static final int MEASURED_ITERATIONS = 20_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void measureBytesAndTimePerKey() throws Exception {
+        measure("salesOrder(lines=5)", salesOrder(5));
+        measure("salesOrder(lines=50)", salesOrder(50));
+        measure("purchaseOrder(lines=20,receipts=5)", purchaseOrder(20, 5));
+        measure("purchaseOrder(lines=100,receipts=20)", purchaseOrder(100, 20));
+    }
+
+    private void measure(String label, Object response) throws Exception {
+        for (IdempotencyResponseFormat format : IdempotencyResponseFormat.values()) {
+            ApiIdempotencyKey key = new ApiIdempotencyKey();
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                roundTrip(key, response, format);
+            }
+
+            long writeNanos = 0;
+            long readNanos = 0;
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                long started = System.nanoTime();
+                IdempotencyResponseCodec.write(key, objectMapper.writeValueAsString(response), format);
+                long written = System.nanoTime();
+                objectMapper.readValue(IdempotencyResponseCodec.read(key), response.getClass());
+                long read = System.nanoTime();
+                writeNanos += written - started;
+                readNanos += read - written;
+            }
+
+            System.out.printf(
+                    "[IdempotencyResponseCodecBenchmark] %s format=%s bytes=%d serialize=%.1fus deserialize=%.1fus%n",
+                    label,
+                    format,
+                    storedBytes(key),
+                    writeNanos / 1_000.0 / MEASURED_ITERATIONS,
+                    readNanos / 1_000.0 / MEASURED_ITERATIONS
+            );
+        }
+    }
+
+    private void roundTrip(ApiIdempotencyKey key, Object response, IdempotencyResponseFormat format) throws Exception {
+        IdempotencyResponseCodec.write(key, objectMapper.writeValueAsString(response), format);
+        objectMapper.readValue(IdempotencyResponseCodec.read(key), response.getClass());
+    }
+
+    private int storedBytes(ApiIdempotencyKey key) {
+        if (key.getResponsePayload() != null) {
+            return key.getResponsePayload().length;
+        }
+        return key.getResponseBody().getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private SalesOrderResponse salesOrder(int lineCount) {
+        List<SalesOrderItemResponse> items = new ArrayList<>();
+        for (int i = 0; i < lineCount; i++) {
+            items.add(new SalesOrderItemResponse(
+                    1_000L + i, "SKU-" + (10_000 + i), "ベンチマーク商品 " + i, 1 + i % 7, new BigDecimal("1280.00")
+            ));
+        }
+        return new SalesOrderResponse(
+                42L, "SO-20260101120000-1234", "ベンチマーク顧客", "RESERVED", OffsetDateTime.now(), items
+        );
+    }
+
+    private PurchaseOrderResponse purchaseOrder(int lineCount, int receiptCount) {
+        List<PurchaseOrderItemResponse> items = new ArrayList<>();
+        for (int i = 0; i < lineCount; i++) {
+            items.add(new PurchaseOrderItemResponse(
+                    2_000L + i, "SKU-" + (20_000 + i), "発注商品 " + i, 50, 30, 20, new BigDecimal("640.00")
+            ));
+        }
+        List<PurchaseOrderReceiptResponse> receipts = new ArrayList<>();
+        for (int r = 0; r < receiptCount; r++) {
+            List<PurchaseOrderReceiptItemResponse> receiptItems = new ArrayList<>();
+            for (int i = 0; i < lineCount; i++) {
+                receiptItems.add(new PurchaseOrderReceiptItemResponse(2_000L + i, "SKU-" + (20_000 + i), "発注商品 " + i, 1));
+            }
+            receipts.add(new PurchaseOrderReceiptResponse(
+                    100L + r, "operator", OffsetDateTime.now().minusDays(r), lineCount, receiptItems
+            ));
+        }
+        return new PurchaseOrderResponse(
+                7L, "PO-20260101120000-5678", 3L, "SUP-001", "ベンチマーク仕入先", "定期発注", "PARTIALLY_RECEIVED",
+                OffsetDateTime.now().minusDays(30), null,
+                lineCount * 50, lineCount * 30, lineCount * 20, items, receipts
+        );
+    }
+}
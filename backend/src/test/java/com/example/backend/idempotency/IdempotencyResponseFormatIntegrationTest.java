@@ -0,0 +1,63 @@
+package com.example.backend.idempotency;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 圧縮形式で保存した冪等応答の復元と、従来形式の行の読み出しを守る統合テスト。
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotency-format;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "app.seed.enabled=false",
+        "app.idempotency.response-format=JSON_DEFLATE"
+})
+class IdempotencyResponseFormatIntegrationTest {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ApiIdempotencyKeyRepository repository;
+
+    @Test
+    void responsesAreStoredCompressedAndRestored() {
+        String key = "deflate-" + System.nanoTime();
+        String response = "{\"items\":[" + "\"line\",".repeat(200) + "\"last\"]}";
+
+        idempotencyService.execute("tester", "test.deflate", key, String.class, () -> response);
+
+        ApiIdempotencyKey stored = repository.findByActorUsernameAndEndpointKeyAndIdempotencyKey(
+                "tester", "test.deflate", key
+        ).orElseThrow();
+        assertEquals(IdempotencyResponseFormat.JSON_DEFLATE, stored.getResponseFormat());
+        assertNull(stored.getResponseBody());
+        assertNotNull(stored.getResponsePayload());
+        assertEquals("\"" + response.replace("\"", "\\\"") + "\"", IdempotencyResponseCodec.read(stored));
+    }
+
+    @Test
+    void legacyJsonRowsStayReadable() {
+        String key = "legacy-" + System.nanoTime();
+        ApiIdempotencyKey legacy = new ApiIdempotencyKey();
+        legacy.setActorUsername("tester");
+        legacy.setEndpointKey("test.legacy");
+        legacy.setIdempotencyKey(key);
+        legacy.setResponseBody("{\"status\":\"stored\"}");
+        legacy.setExpiresAt(OffsetDateTime.now().plusHours(1));
+        repository.save(legacy);
+
+        @SuppressWarnings("unchecked")
+        Map<String, String> response = idempotencyService.execute("tester", "test.legacy", key, Map.class,
+                () -> Map.of("status", "executed-again"));
+
+        assertEquals("stored", response.get("status"));
+    }
+}
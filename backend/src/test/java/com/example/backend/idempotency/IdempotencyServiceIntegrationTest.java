@@ -0,0 +1,108 @@
+package com.example.backend.idempotency;
+
+import com.example.backend.common.BusinessRuleException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 冪等処理のローカルキャッシュと同一キーの同時実行の集約を守る統合テスト。
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotency-service;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH"
+})
+class IdempotencyServiceIntegrationTest {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void retryIsServedFromCacheWithoutRunningActionAgain() {
+        String key = "cache-" + System.nanoTime();
+        AtomicInteger invocations = new AtomicInteger();
+        double hitsBefore = meterRegistry.counter("app.idempotency.cache", "result", "hit").count();
+
+        String first = idempotencyService.execute("tester", "test.cache", key, String.class,
+                () -> "result-" + invocations.incrementAndGet());
+        String second = idempotencyService.execute("tester", "test.cache", key, String.class,
+                () -> "result-" + invocations.incrementAndGet());
+
+        assertEquals("result-1", first);
+        assertEquals("result-1", second);
+        assertEquals(1, invocations.get());
+        assertEquals(1, meterRegistry.counter("app.idempotency.cache", "result", "hit").count() - hitsBefore);
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForFirstExecution() throws Exception {
+        String key = "coalesce-" + System.nanoTime();
+        AtomicInteger invocations = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        double coalescedBefore = meterRegistry.counter("app.idempotency.coalesced").count();
+
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> idempotencyService.execute("tester", "test.coalesce", key, String.class, () -> {
+                started.countDown();
+                sleep(300);
+                return "result-" + invocations.incrementAndGet();
+            })));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> idempotencyService.execute("tester", "test.coalesce", key, String.class,
+                        () -> "result-" + invocations.incrementAndGet())));
+            }
+
+            for (Future<String> result : results) {
+                assertEquals("result-1", result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, invocations.get());
+        assertEquals(4, meterRegistry.counter("app.idempotency.coalesced").count() - coalescedBefore);
+    }
+
+    @Test
+    void failedExecutionCanBeRetriedWithSameKey() {
+        String key = "retry-" + System.nanoTime();
+        double negativeHitsBefore = meterRegistry.counter("app.idempotency.cache", "result", "negative_hit").count();
+
+        assertThrows(BusinessRuleException.class, () -> idempotencyService.execute("tester", "test.retry", key, String.class,
+                () -> {
+                    throw new BusinessRuleException("temporary failure");
+                }));
+        String retried = idempotencyService.execute("tester", "test.retry", key, String.class, () -> "recovered");
+
+        assertEquals("recovered", retried);
+        // 失敗時点で未登録を確認済みのため、再試行ではDB照会を省略する。
+        assertEquals(1, meterRegistry.counter("app.idempotency.cache", "result", "negative_hit").count() - negativeHitsBefore);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
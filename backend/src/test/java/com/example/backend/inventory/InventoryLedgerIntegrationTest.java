@@ -0,0 +1,191 @@
+package com.example.backend.inventory;
+
+import com.example.backend.common.InsufficientStockException;
+import com.example.backend.order.OrderService;
+import com.example.backend.order.dto.CreateSalesOrderItemRequest;
+import com.example.backend.order.dto.CreateSalesOrderRequest;
+import com.example.backend.order.dto.SalesOrderResponse;
+import com.example.backend.product.ProductService;
+import com.example.backend.product.dto.CreateProductRequest;
+import com.example.backend.product.dto.ProductResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 在庫台帳有効時の引当・ロールバック補償・ジャーナル反映を守る統合テスト。
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:inventory-ledger;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "app.seed.enabled=false",
+        "app.inventory.ledger.enabled=true",
+        "jobs.inventory-journal-flush-interval-ms=3600000"
+})
+class InventoryLedgerIntegrationTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventoryJournalRepository inventoryJournalRepository;
+
+    @Autowired
+    private InventoryJournalFlusher inventoryJournalFlusher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void reservationsAreServedFromLedgerAndFlushedToInventories() {
+        long productId = createProduct("LEDGER-FLUSH");
+        productService.addStock(productId, 10);
+
+        SalesOrderResponse order = orderService.createOrder(orderOf(productId, 3));
+        orderService.confirmOrder(order.id());
+        SalesOrderResponse cancelled = orderService.createOrder(orderOf(productId, 2));
+        orderService.cancelOrder(cancelled.id());
+
+        // 反映前でもAPIの在庫表示は台帳の最新値になる。
+        ProductResponse product = productService.getProduct(productId);
+        assertEquals(7, product.availableQuantity());
+        assertEquals(0, product.reservedQuantity());
+
+        Inventory before = inventoryRepository.findByProductId(productId).orElseThrow();
+        assertEquals(0, before.getAvailableQuantity());
+
+        flushAll();
+
+        Inventory after = inventoryRepository.findByProductId(productId).orElseThrow();
+        assertEquals(7, after.getAvailableQuantity());
+        assertEquals(0, after.getReservedQuantity());
+        assertEquals(0, inventoryJournalRepository.count());
+    }
+
+    @Test
+    void failedOrderRestoresLedgerCells() {
+        long firstProductId = createProduct("LEDGER-ROLLBACK-A");
+        long secondProductId = createProduct("LEDGER-ROLLBACK-B");
+        productService.addStock(firstProductId, 5);
+        productService.addStock(secondProductId, 1);
+
+        // 1明細目の引当後に2明細目で在庫不足となり、1明細目のセルもロールバックで戻ること。
+        CreateSalesOrderRequest request = new CreateSalesOrderRequest("台帳ロールバック", List.of(
+                new CreateSalesOrderItemRequest(firstProductId, 2),
+                new CreateSalesOrderItemRequest(secondProductId, 3)
+        ));
+        assertThrows(InsufficientStockException.class, () -> orderService.createOrder(request));
+
+        assertEquals(5, productService.getProduct(firstProductId).availableQuantity());
+        assertEquals(0, productService.getProduct(firstProductId).reservedQuantity());
+        assertEquals(1, productService.getProduct(secondProductId).availableQuantity());
+    }
+
+    @Test
+    void uncommittedStockIncreaseIsNotReservable() throws Exception {
+        long productId = createProduct("LEDGER-UNCOMMITTED");
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // 入庫トランザクションのコミット前に、別トランザクションから同じ数量を引き当てようとする。
+            assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+                productService.addStock(productId, 10);
+                Future<Boolean> reservation = executor.submit(() -> {
+                    try {
+                        orderService.createOrder(orderOf(productId, 10));
+                        return true;
+                    } catch (InsufficientStockException ex) {
+                        return false;
+                    }
+                });
+                try {
+                    assertFalse(reservation.get());
+                } catch (Exception ex) {
+                    throw new AssertionError(ex);
+                }
+                throw new IllegalStateException("rollback stock increase");
+            }));
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(0, productService.getProduct(productId).availableQuantity());
+        assertEquals(0, productService.getProduct(productId).reservedQuantity());
+
+        // コミットされた加算はその後の引当に使える。
+        productService.addStock(productId, 10);
+        orderService.createOrder(orderOf(productId, 10));
+        assertEquals(0, productService.getProduct(productId).availableQuantity());
+        assertEquals(10, productService.getProduct(productId).reservedQuantity());
+    }
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        long productId = createProduct("LEDGER-CONCURRENT");
+        productService.addStock(productId, 20);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                results.add(executor.submit(() -> {
+                    try {
+                        orderService.createOrder(orderOf(productId, 1));
+                        return true;
+                    } catch (InsufficientStockException ex) {
+                        return false;
+                    }
+                }));
+            }
+
+            int succeeded = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    succeeded++;
+                }
+            }
+            assertEquals(20, succeeded);
+        } finally {
+            executor.shutdown();
+        }
+
+        flushAll();
+        Inventory inventory = inventoryRepository.findByProductId(productId).orElseThrow();
+        assertEquals(0, inventory.getAvailableQuantity());
+        assertEquals(20, inventory.getReservedQuantity());
+    }
+
+    private void flushAll() {
+        while (inventoryJournalFlusher.flushBatch() > 0) {
+            // 未反映ジャーナルがなくなるまで反映する。
+        }
+    }
+
+    private CreateSalesOrderRequest orderOf(long productId, int quantity) {
+        return new CreateSalesOrderRequest("台帳テスト", List.of(new CreateSalesOrderItemRequest(productId, quantity)));
+    }
+
+    private long createProduct(String skuPrefix) {
+        return productService.createProduct(new CreateProductRequest(
+                skuPrefix + "-" + System.nanoTime(), "Ledger Product", null, new BigDecimal("500"), null, null, null
+        )).id();
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.backend.inventory;
+
+import com.example.backend.common.InsufficientStockException;
+import com.example.backend.jobs.LowStockReportJob;
+import com.example.backend.order.OrderService;
+import com.example.backend.order.dto.CreateSalesOrderItemRequest;
+import com.example.backend.order.dto.CreateSalesOrderRequest;
+import com.example.backend.product.ProductService;
+import com.example.backend.product.dto.CreateProductRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 在庫更新時の在庫不足検知(しきい値の交差判定・集約・夜間突き合わせ)を守る統合テスト。
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:low-stock-monitor;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "app.seed.enabled=false",
+        "jobs.low-stock-threshold=10",
+        "jobs.low-stock-alert-window-ms=3600000"
+})
+class LowStockMonitorIntegrationTest {
+
+    @Autowired
+    private LowStockMonitor lowStockMonitor;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void clearPendingEvents() {
+        lowStockMonitor.drainPendingEvents();
+    }
+
+    @Test
+    void crossingOnOrderIsCoalescedPerProduct() {
+        long productId = createProduct("LOW-CROSS");
+        productService.addStock(productId, 15);
+
+        orderService.createOrder(orderOf(productId, 6));
+        // しきい値以下のままの引当や、在庫不足で失敗した引当では新たなイベントを作らない。
+        orderService.createOrder(orderOf(productId, 2));
+        assertThrows(InsufficientStockException.class, () -> orderService.createOrder(orderOf(productId, 100)));
+
+        List<LowStockEvent> events = lowStockMonitor.drainPendingEvents();
+        assertEquals(1, events.size());
+        assertEquals(productId, events.get(0).productId());
+        assertEquals(9, events.get(0).availableQuantity());
+        assertTrue(lowStockMonitor.drainPendingEvents().isEmpty());
+    }
+
+    @Test
+    void recoveryBeforeDigestDropsPendingEvent() {
+        long productId = createProduct("LOW-RECOVER");
+        productService.addStock(productId, 12);
+
+        orderService.createOrder(orderOf(productId, 5));
+        productService.addStock(productId, 10);
+
+        assertTrue(lowStockMonitor.drainPendingEvents().isEmpty());
+    }
+
+    @Test
+    void reconciliationReportsOnlyUndetectedLowStock() {
+        long productId = createProduct("LOW-RECONCILE");
+
+        int missed = lowStockMonitor.reconcile(inventoryRepository.findLowStockInventories(lowStockMonitor.getThreshold()));
+        assertTrue(missed >= 1);
+        assertTrue(lowStockMonitor.drainPendingEvents().stream().anyMatch(event -> event.productId() == productId));
+
+        assertEquals(0, lowStockMonitor.reconcile(inventoryRepository.findLowStockInventories(lowStockMonitor.getThreshold())));
+    }
+
+    @Test
+    void restartDoesNotReportExistingLowStockAgain() {
+        long productId = createProduct("LOW-RESTART");
+
+        // 再起動後と同じく、判定済みの商品を持たない監視へ起動時の初期化だけを行う。
+        LowStockMonitor restarted = new LowStockMonitor(lowStockMonitor.getThreshold(), meterRegistry);
+        new LowStockReportJob(inventoryRepository, restarted).seedOnStartup();
+
+        assertTrue(restarted.drainPendingEvents().isEmpty());
+        assertEquals(0, restarted.reconcile(inventoryRepository.findLowStockInventories(restarted.getThreshold())));
+        assertTrue(restarted.drainPendingEvents().stream().noneMatch(event -> event.productId() == productId));
+    }
+
+    private CreateSalesOrderRequest orderOf(long productId, int quantity) {
+        return new CreateSalesOrderRequest("在庫不足検知テスト", List.of(new CreateSalesOrderItemRequest(productId, quantity)));
+    }
+
+    private long createProduct(String skuPrefix) {
+        return productService.createProduct(new CreateProductRequest(
+                skuPrefix + "-" + System.nanoTime(), "Low Stock Product", null, new BigDecimal("500"), null, null, null
+        )).id();
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.backend.order;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 受注一覧(要約・絞り込み・キーセットページング)の挙動を守る統合テスト。
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderListIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void orderListReturnsSummariesWithFiltersAndKeysetPaging() throws Exception {
+        String adminToken = login("admin", "admin123");
+        String operatorToken = login("operator", "operator123");
+        long firstProductId = createProduct(adminToken, "LIST-A-" + System.currentTimeMillis());
+        long secondProductId = createProduct(adminToken, "LIST-B-" + System.currentTimeMillis());
+        addStock(adminToken, firstProductId, 20);
+        addStock(adminToken, secondProductId, 20);
+
+        String customerName = "一覧テスト-" + System.nanoTime();
+        Set<Long> createdIds = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            createdIds.add(createOrder(operatorToken, customerName, firstProductId, secondProductId));
+        }
+
+        JsonNode firstPage = getOrders(operatorToken, Map.of("customer", customerName.toUpperCase(), "size", "2"));
+        assertEquals(2, firstPage.path("items").size());
+        assertTrue(firstPage.path("hasNext").asBoolean());
+        JsonNode summary = firstPage.path("items").get(0);
+        assertEquals(2, summary.path("lineCount").asInt());
+        assertEquals(0, new BigDecimal("3000").compareTo(summary.path("totalAmount").decimalValue()));
+        assertTrue(summary.path("items").isMissingNode());
+
+        // ページ送りの途中で未取得の受注を取消して更新日時が変わっても、次のページから漏れないこと。
+        Set<Long> remainingIds = new HashSet<>(createdIds);
+        for (JsonNode item : firstPage.path("items")) {
+            remainingIds.remove(item.path("id").asLong());
+        }
+        long cancelledId = remainingIds.iterator().next();
+        mockMvc.perform(
+                        post("/api/orders/{orderId}/cancel", cancelledId)
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + operatorToken)
+                )
+                .andExpect(status().isOk());
+
+        JsonNode secondPage = getOrders(operatorToken, Map.of(
+                "customer", customerName,
+                "size", "2",
+                "cursor", firstPage.path("nextCursor").asText()
+        ));
+        assertEquals(1, secondPage.path("items").size());
+        assertFalse(secondPage.path("hasNext").asBoolean());
+
+        Set<Long> listedIds = new HashSet<>();
+        for (JsonNode page : List.of(firstPage, secondPage)) {
+            for (JsonNode item : page.path("items")) {
+                listedIds.add(item.path("id").asLong());
+            }
+        }
+        assertEquals(createdIds, listedIds);
+
+        // 顧客名の %・_ はワイルドカードではなく文字として扱うこと。
+        assertEquals(0, getOrders(operatorToken, Map.of("customer", customerName + "%")).path("items").size());
+        assertEquals(0, getOrders(operatorToken, Map.of("customer", "一覧_スト")).path("items").size());
+
+        JsonNode cancelled = getOrders(operatorToken, Map.of("customer", customerName, "status", "cancelled"));
+        assertEquals(1, cancelled.path("items").size());
+        assertEquals(cancelledId, cancelled.path("items").get(0).path("id").asLong());
+
+        mockMvc.perform(
+                        get("/api/orders")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + operatorToken)
+                                .param("cursor", "not-a-cursor")
+                )
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(
+                        get("/api/orders/{orderId}", cancelledId)
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + operatorToken)
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2));
+    }
+
+    private JsonNode getOrders(String token, Map<String, String> params) throws Exception {
+        var request = get("/api/orders").header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        params.forEach(request::param);
+        MvcResult result = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    private long createOrder(String token, String customerName, long firstProductId, long secondProductId) throws Exception {
+        MvcResult created = mockMvc.perform(
+                        post("/api/orders")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of(
+                                        "customerName", customerName,
+                                        "items", List.of(
+                                                Map.of("productId", firstProductId, "quantity", 2),
+                                                Map.of("productId", secondProductId, "quantity", 1)
+                                        )
+                                )))
+                )
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        return objectMapper.readTree(created.getResponse().getContentAsString()).path("id").asLong();
+    }
+
+    private long createProduct(String token, String sku) throws Exception {
+        MvcResult created = mockMvc.perform(
+                        post("/api/products")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of(
+                                        "sku", sku,
+                                        "name", "List Product",
+                                        "unitPrice", 1000
+                                )))
+                )
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        return objectMapper.readTree(created.getResponse().getContentAsString()).path("id").asLong();
+    }
+
+    private void addStock(String token, long productId, int quantity) throws Exception {
+        mockMvc.perform(
+                        post("/api/products/{productId}/stock", productId)
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of("quantity", quantity)))
+                )
+                .andExpect(status().isOk());
+    }
+
+    private String login(String username, String password) throws Exception {
+        MvcResult result = mockMvc.perform(
+                        post("/api/auth/login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of(
+                                        "username", username,
+                                        "password", password
+                                )))
+                )
+                .andExpect(status().isOk())
+                .andReturn();
+
+        JsonNode json = objectMapper.readTree(result.getResponse().getContentAsString());
+        return json.path("accessToken").asText();
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.backend.order;
+
+import com.example.backend.BackendApplication;
+import com.example.backend.order.dto.CreateSalesOrderItemRequest;
+import com.example.backend.order.dto.CreateSalesOrderRequest;
+import com.example.backend.product.ProductService;
+import com.example.backend.product.dto.CreateProductRequest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 受注作成(OrderService.createOrder)のスループット（orders/sec）と1受注あたりのJDBC文の発行数を明細数別に計測するベンチマーク。
+ * 引当部分だけを切り出した再実装ではなく、受注番号採番・保存・監査ログまで含めた実際の処理を計測する。
+ * before は app.order.reservation.per-line-lock=true で明細ごとに在庫行をロックする旧方式、after は商品ID順の一括ロックで計測する。
+ * 通常のテスト実行には含めず、{@code mvn test -Dtest=OrderReservationBenchmark} で明示的に実行する。
+ */
+class OrderReservationBenchmark {
+
+    private static final int[] LINE_COUNTS = {1, 10, 100};
+    private static final int WARMUP_ORDERS = 200;
+    private static final int MEASURED_ORDERS = 200;
+
+    @Test
+    void measureOrdersPerSecond() {
+        // 起動順やJITの暖まり具合で差が出ないよう、両方式のコンテキストを同時に起動し、明細数ごとに両方を続けて計測する。
+        try (ConfigurableApplicationContext before = start(true);
+             ConfigurableApplicationContext after = start(false)) {
+            Mode[] modes = {new Mode("before(per-line)", before), new Mode("after(batch)", after)};
+            for (int lineCount : LINE_COUNTS) {
+                for (Mode mode : modes) {
+                    CreateSalesOrderRequest request = buildRequest(mode.productIds(), lineCount);
+                    for (int i = 0; i < WARMUP_ORDERS; i++) {
+                        mode.orderService().createOrder(request);
+                    }
+                }
+                for (Mode mode : modes) {
+                    CreateSalesOrderRequest request = buildRequest(mode.productIds(), lineCount);
+                    mode.statistics().clear();
+                    long startedAt = System.nanoTime();
+                    for (int i = 0; i < MEASURED_ORDERS; i++) {
+                        mode.orderService().createOrder(request);
+                    }
+                    double elapsedSeconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+                    double statementsPerOrder = (double) mode.statistics().getPrepareStatementCount() / MEASURED_ORDERS;
+
+                    System.out.printf(
+                            "[OrderReservationBenchmark] mode=%s lines=%d createOrder=%.1f (orders/sec) statements=%.1f (per order)%n",
+                            mode.name(), lineCount, MEASURED_ORDERS / elapsedSeconds, statementsPerOrder
+                    );
+                    assertTrue(statementsPerOrder > 0);
+                }
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext start(boolean perLineLock) {
+        String mode = perLineLock ? "per-line" : "batch";
+        // properties()は既定値の扱いでテスト用のapplication.propertiesに負けるため、コマンドライン引数で渡す。
+        return new SpringApplicationBuilder(BackendApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:order-benchmark-" + mode
+                        + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                "--app.seed.enabled=false",
+                "--spring.jpa.properties.hibernate.generate_statistics=true",
+                "--app.order.reservation.per-line-lock=" + perLineLock
+        );
+    }
+
+    private CreateSalesOrderRequest buildRequest(List<Long> productIds, int lineCount) {
+        List<CreateSalesOrderItemRequest> items = new ArrayList<>();
+        // 明細順を商品ID降順にして、ロック順の並べ替えも含めて計測する。
+        for (int i = lineCount - 1; i >= 0; i--) {
+            items.add(new CreateSalesOrderItemRequest(productIds.get(i), 1));
+        }
+        return new CreateSalesOrderRequest("ベンチマーク", items);
+    }
+
+    private List<Long> createProducts(ProductService productService, int count) {
+        List<Long> productIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Long productId = productService.createProduct(new CreateProductRequest(
+                    "BENCH-" + i, "Benchmark Product " + i, null, new BigDecimal("100"), null, null, null
+            )).id();
+            productService.addStock(productId, 1_000_000);
+            productIds.add(productId);
+        }
+        return productIds;
+    }
+
+    private final class Mode {
+        private final String name;
+        private final OrderService orderService;
+        private final Statistics statistics;
+        private final List<Long> productIds;
+
+        private Mode(String name, ConfigurableApplicationContext context) {
+            this.name = name;
+            this.orderService = context.getBean(OrderService.class);
+            this.statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+            this.productIds = createProducts(context.getBean(ProductService.class), 100);
+        }
+
+        String name() {
+            return name;
+        }
+
+        OrderService orderService() {
+            return orderService;
+        }
+
+        Statistics statistics() {
+            return statistics;
+        }
+
+        List<Long> productIds() {
+            return productIds;
+        }
+    }
+}
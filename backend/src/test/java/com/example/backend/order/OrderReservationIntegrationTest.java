@@ -0,0 +1,164 @@
+package com.example.backend.order;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 複数明細受注の一括引当（ロック順固定・明細合算）の挙動を守る統合テスト。
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderReservationIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void multiLineOrderReservesAndReleasesAllProducts() throws Exception {
+        String adminToken = login("admin", "admin123");
+        String operatorToken = login("operator", "operator123");
+        long firstProductId = createProduct(adminToken, "RSV-A-" + System.currentTimeMillis());
+        long secondProductId = createProduct(adminToken, "RSV-B-" + System.currentTimeMillis());
+        addStock(adminToken, firstProductId, 10);
+        addStock(adminToken, secondProductId, 10);
+
+        // 明細順をID降順にし、同一商品を複数行含めても合算して引当されることを確認する。
+        MvcResult created = mockMvc.perform(
+                        post("/api/orders")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + operatorToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of(
+                                        "customerName", "一括引当テスト",
+                                        "items", List.of(
+                                                Map.of("productId", secondProductId, "quantity", 2),
+                                                Map.of("productId", firstProductId, "quantity", 3),
+                                                Map.of("productId", secondProductId, "quantity", 4)
+                                        )
+                                )))
+                )
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.status").value("RESERVED"))
+                .andExpect(jsonPath("$.items.length()").value(3))
+                .andExpect(jsonPath("$.items[0].productId").value(secondProductId))
+                .andReturn();
+        long orderId = objectMapper.readTree(created.getResponse().getContentAsString()).path("id").asLong();
+
+        assertStock(operatorToken, firstProductId, 7, 3);
+        assertStock(operatorToken, secondProductId, 4, 6);
+
+        mockMvc.perform(
+                        post("/api/orders/{orderId}/cancel", orderId)
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + operatorToken)
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CANCELLED"));
+
+        assertStock(operatorToken, firstProductId, 10, 0);
+        assertStock(operatorToken, secondProductId, 10, 0);
+    }
+
+    @Test
+    void duplicateLinesAreCheckedAgainstAvailableStockAsAWhole() throws Exception {
+        String adminToken = login("admin", "admin123");
+        String operatorToken = login("operator", "operator123");
+        String firstSku = "RSV-SHORT-A-" + System.currentTimeMillis();
+        long firstProductId = createProduct(adminToken, firstSku);
+        long secondProductId = createProduct(adminToken, "RSV-SHORT-B-" + System.currentTimeMillis());
+        addStock(adminToken, firstProductId, 5);
+        addStock(adminToken, secondProductId, 5);
+
+        mockMvc.perform(
+                        post("/api/orders")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + operatorToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of(
+                                        "customerName", "在庫不足テスト",
+                                        "items", List.of(
+                                                Map.of("productId", secondProductId, "quantity", 1),
+                                                Map.of("productId", firstProductId, "quantity", 3),
+                                                Map.of("productId", firstProductId, "quantity", 3)
+                                        )
+                                )))
+                )
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value(containsString(firstSku)))
+                .andExpect(jsonPath("$.message").value(containsString("requested=6")));
+
+        // 失敗した受注の引当はロールバックされ、他の明細の在庫も変化しない。
+        assertStock(operatorToken, firstProductId, 5, 0);
+        assertStock(operatorToken, secondProductId, 5, 0);
+    }
+
+    private void assertStock(String token, long productId, int available, int reserved) throws Exception {
+        mockMvc.perform(
+                        get("/api/products/{productId}", productId)
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availableQuantity").value(available))
+                .andExpect(jsonPath("$.reservedQuantity").value(reserved));
+    }
+
+    private long createProduct(String token, String sku) throws Exception {
+        MvcResult created = mockMvc.perform(
+                        post("/api/products")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of(
+                                        "sku", sku,
+                                        "name", "Reservation Product",
+                                        "unitPrice", 1000
+                                )))
+                )
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        return objectMapper.readTree(created.getResponse().getContentAsString()).path("id").asLong();
+    }
+
+    private void addStock(String token, long productId, int quantity) throws Exception {
+        mockMvc.perform(
+                        post("/api/products/{productId}/stock", productId)
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of("quantity", quantity)))
+                )
+                .andExpect(status().isOk());
+    }
+
+    private String login(String username, String password) throws Exception {
+        MvcResult result = mockMvc.perform(
+                        post("/api/auth/login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of(
+                                        "username", username,
+                                        "password", password
+                                )))
+                )
+                .andExpect(status().isOk())
+                .andReturn();
+
+        JsonNode json = objectMapper.readTree(result.getResponse().getContentAsString());
+        return json.path("accessToken").asText();
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.backend.order;
+
+import com.example.backend.BackendApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 受注・商品一覧の参照と受注作成を混ぜた負荷を、プラットフォームスレッドと仮想スレッドの各モードで
+ * HTTP越しにかけ、スループット(req/s)とp99レイテンシを比較するベンチマーク。
+ * 仮想スレッドモードではAPIの同時実行数をコネクションプールと同じ数に制限するバルクヘッドも有効にする。
+ * 通常のテスト実行には含めず、{@code mvn test -Dtest=VirtualThreadModeBenchmark} で明示的に実行する。
+ */
+class VirtualThreadModeBenchmark {
+
+    private static final int CLIENTS = 400;
+    private static final int PRODUCT_COUNT = 20;
+    private static final int POOL_SIZE = 10;
+    private static final long WARMUP_MS = 3_000;
+    private static final long MEASURED_MS = 10_000;
+    // 10リクエストに1回を受注作成(書き込み)にする。
+    private static final int WRITE_EVERY = 10;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void compareThroughputAndP99ByThreadMode() throws Exception {
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = start(virtualThreads)) {
+                String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+                WorkloadResult result = runWorkload(baseUrl);
+                System.out.printf(
+                        "[VirtualThreadModeBenchmark] mode=%s clients=%d throughput=%.0f req/s p50=%.1fms p99=%.1fms errors=%d%n",
+                        virtualThreads ? "virtual" : "platform",
+                        CLIENTS,
+                        result.requests() * 1_000.0 / MEASURED_MS,
+                        result.percentileMillis(0.50),
+                        result.percentileMillis(0.99),
+                        result.errors()
+                );
+                assertTrue(result.requests() > 0);
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext start(boolean virtualThreads) {
+        String mode = virtualThreads ? "virtual" : "platform";
+        return new SpringApplicationBuilder(BackendApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:thread-mode-benchmark-" + mode
+                                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                        "spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "app.db.bulkhead.enabled=" + virtualThreads,
+                        "app.db.bulkhead.max-concurrent=" + POOL_SIZE,
+                        "app.db.bulkhead.acquire-timeout-ms=5000",
+                        "logging.level.com.example.backend.security.ApiRequestLoggingFilter=WARN"
+                )
+                .run();
+    }
+
+    private WorkloadResult runWorkload(String baseUrl) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        String adminToken = login(client, baseUrl, "admin", "admin123");
+        String operatorToken = login(client, baseUrl, "operator", "operator123");
+        List<Long> productIds = new ArrayList<>();
+        for (int i = 0; i < PRODUCT_COUNT; i++) {
+            long productId = createProduct(client, baseUrl, adminToken, i);
+            send(client, post(baseUrl + "/api/products/" + productId + "/stock", adminToken, Map.of("quantity", 10_000_000)));
+            productIds.add(productId);
+        }
+
+        long startedAt = System.nanoTime();
+        long measureFrom = startedAt + WARMUP_MS * 1_000_000;
+        long measureUntil = measureFrom + MEASURED_MS * 1_000_000;
+        List<Future<ClientResult>> futures = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CLIENTS; i++) {
+                futures.add(clients.submit(() -> runClient(client, baseUrl, operatorToken, productIds, measureFrom, measureUntil)));
+            }
+        }
+
+        List<Long> latencies = new ArrayList<>();
+        int errors = 0;
+        for (Future<ClientResult> future : futures) {
+            ClientResult clientResult = future.get();
+            latencies.addAll(clientResult.latencies());
+            errors += clientResult.errors();
+        }
+        Collections.sort(latencies);
+        return new WorkloadResult(latencies, errors);
+    }
+
+    private ClientResult runClient(
+            HttpClient client,
+            String baseUrl,
+            String token,
+            List<Long> productIds,
+            long measureFrom,
+            long measureUntil
+    ) {
+        List<Long> latencies = new ArrayList<>();
+        int errors = 0;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; System.nanoTime() < measureUntil; i++) {
+            HttpRequest request;
+            if (i % WRITE_EVERY == 0) {
+                request = post(baseUrl + "/api/orders", token, Map.of(
+                        "customerName", "ベンチマーク",
+                        "items", List.of(
+                                Map.of("productId", productIds.get(random.nextInt(productIds.size())), "quantity", 1),
+                                Map.of("productId", productIds.get(random.nextInt(productIds.size())), "quantity", 1)
+                        )
+                ));
+            } else if (i % 2 == 0) {
+                request = get(baseUrl + "/api/products/page?size=20", token);
+            } else {
+                request = get(baseUrl + "/api/orders?size=20", token);
+            }
+
+            long sentAt = System.nanoTime();
+            int status;
+            try {
+                status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (Exception ex) {
+                status = -1;
+            }
+            long finishedAt = System.nanoTime();
+            if (sentAt < measureFrom || finishedAt > measureUntil) {
+                continue;
+            }
+            if (status < 200 || status >= 300) {
+                errors++;
+                continue;
+            }
+            latencies.add(finishedAt - sentAt);
+        }
+        return new ClientResult(latencies, errors);
+    }
+
+    private String login(HttpClient client, String baseUrl, String username, String password) throws Exception {
+        HttpRequest request = post(baseUrl + "/api/auth/login", null, Map.of("username", username, "password", password));
+        return send(client, request).path("accessToken").asText();
+    }
+
+    private long createProduct(HttpClient client, String baseUrl, String token, int index) throws Exception {
+        HttpRequest request = post(baseUrl + "/api/products", token, Map.of(
+                "sku", "VT-BENCH-" + index,
+                "name", "Thread Mode Product " + index,
+                "unitPrice", 100
+        ));
+        return send(client, request).path("id").asLong();
+    }
+
+    private JsonNode send(HttpClient client, HttpRequest request) throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("Setup request failed: " + request.uri() + " status=" + response.statusCode());
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    private HttpRequest get(String url, String token) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String url, String token, Object body) {
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+            if (token != null) {
+                builder.header("Authorization", "Bearer " + token);
+            }
+            return builder.build();
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private record ClientResult(List<Long> latencies, int errors) {
+    }
+
+    private record WorkloadResult(List<Long> sortedLatencies, int errors) {
+
+        int requests() {
+            return sortedLatencies.size();
+        }
+
+        double percentileMillis(double percentile) {
+            if (sortedLatencies.isEmpty()) {
+                return 0;
+            }
+            int index = (int) Math.min(sortedLatencies.size() - 1, Math.ceil(percentile * sortedLatencies.size()) - 1);
+            return sortedLatencies.get(Math.max(0, index)) / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.backend.product;
+
+import com.example.backend.audit.AuditLogService;
+import com.example.backend.order.OrderService;
+import com.example.backend.order.dto.CreateSalesOrderItemRequest;
+import com.example.backend.order.dto.CreateSalesOrderRequest;
+import com.example.backend.product.dto.CreateProductRequest;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * シーケンス採番(pooled)によるINSERTバッチ化の効果を、50明細の受注作成・CSV取込1チャンク・監査ログの連続記録
+ * それぞれのJDBC文の発行数で比較するベンチマーク。受注作成の件数には、同じトランザクションで書き込む監査ログも含む。
+ * before はセッションのバッチサイズを1にして、IDENTITY採番時と同じ1行1文の書き込みを再現する。
+ * 通常のテスト実行には含めず、{@code mvn test -Dtest=InsertBatchingBenchmark} で明示的に実行する。
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:insert-batching-benchmark;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "app.seed.enabled=false",
+        "app.product.import.chunk-size=500",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class InsertBatchingBenchmark {
+
+    private static final int ORDER_LINES = 50;
+    private static final int IMPORT_CHUNK_ROWS = 500;
+    private static final int AUDIT_ROWS = 500;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private AuditLogService auditLogService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void measureStatementsPerOrderAndImportChunk() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        CreateSalesOrderRequest order = buildOrder(createProducts(ORDER_LINES));
+
+        long orderBefore = countStatements(statistics, 1, () -> orderService.createOrder(order));
+        long orderAfter = countStatements(statistics, null, () -> orderService.createOrder(order));
+        long importBefore = countStatements(statistics, 1, () -> importChunk("BATCH-OFF"));
+        long importAfter = countStatements(statistics, null, () -> importChunk("BATCH-ON"));
+        long auditBefore = countStatements(statistics, 1, () -> logAuditRows("BATCH-OFF"));
+        long auditAfter = countStatements(statistics, null, () -> logAuditRows("BATCH-ON"));
+
+        System.out.printf(
+                "[InsertBatchingBenchmark] order(lines=%d) before=%d after=%d (statements)%n",
+                ORDER_LINES, orderBefore, orderAfter
+        );
+        System.out.printf(
+                "[InsertBatchingBenchmark] import(chunk=%d rows) before=%d after=%d (statements)%n",
+                IMPORT_CHUNK_ROWS, importBefore, importAfter
+        );
+        System.out.printf(
+                "[InsertBatchingBenchmark] audit(rows=%d) before=%d after=%d (statements)%n",
+                AUDIT_ROWS, auditBefore, auditAfter
+        );
+        assertTrue(orderAfter < orderBefore);
+        assertTrue(importAfter < importBefore);
+        assertTrue(auditAfter < auditBefore);
+    }
+
+    /**
+     * 1トランザクション内で処理を実行し、発行されたJDBC文の数を返す。batchSizeがnullなら設定値のバッチサイズを使う。
+     */
+    private long countStatements(Statistics statistics, Integer batchSize, Runnable work) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        statistics.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            work.run();
+        });
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void importChunk(String skuPrefix) {
+        StringBuilder csv = new StringBuilder("sku,name,unitPrice,availableQuantity\n");
+        for (int i = 0; i < IMPORT_CHUNK_ROWS; i++) {
+            csv.append(skuPrefix).append('-').append(i).append(",Batch Product ").append(i).append(",100,10\n");
+        }
+        try {
+            productImportService.importCsv(
+                    new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)),
+                    ProductImportService.ImportProgressListener.NONE
+            );
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void logAuditRows(String targetPrefix) {
+        for (int i = 0; i < AUDIT_ROWS; i++) {
+            auditLogService.log("BENCHMARK", "PRODUCT", targetPrefix + "-" + i, null);
+        }
+    }
+
+    private CreateSalesOrderRequest buildOrder(List<Long> productIds) {
+        List<CreateSalesOrderItemRequest> items = new ArrayList<>();
+        for (Long productId : productIds) {
+            items.add(new CreateSalesOrderItemRequest(productId, 1));
+        }
+        return new CreateSalesOrderRequest("ベンチマーク", items);
+    }
+
+    private List<Long> createProducts(int count) {
+        List<Long> productIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Long productId = productService.createProduct(new CreateProductRequest(
+                    "BATCH-ORDER-" + i, "Batch Order Product " + i, null, new BigDecimal("100"), null, null, null
+            )).id();
+            productService.addStock(productId, 1_000);
+            productIds.add(productId);
+        }
+        return productIds;
+    }
+}
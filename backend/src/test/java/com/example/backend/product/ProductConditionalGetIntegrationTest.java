@@ -0,0 +1,246 @@
+package com.example.backend.product;
+
+import com.example.backend.product.dto.UpdateCategorySkuRuleRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 商品一覧・カテゴリ一覧の条件付きGET(ETag / If-None-Match)で、変化がなければ304、変化すれば200を返すことを守る統合テスト。
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductConditionalGetIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCategoryRepository productCategoryRepository;
+
+    @Autowired
+    private ProductCategoryService productCategoryService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void productListAnswersNotModifiedUntilProductOrStockChanges() throws Exception {
+        String adminToken = login("admin", "admin123");
+        long productId = createProduct(adminToken, "ETAG-" + System.currentTimeMillis());
+
+        String eTag = fetchETag(adminToken, "/api/products");
+        mockMvc.perform(
+                        get("/api/products")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                )
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+
+        // 在庫数だけの変更でも一覧の内容が変わるため、版が変わることを確認する。
+        mockMvc.perform(
+                        post("/api/products/{productId}/stock", productId)
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of("quantity", 5)))
+                )
+                .andExpect(status().isOk());
+
+        MvcResult changed = mockMvc.perform(
+                        get("/api/products")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                )
+                .andExpect(status().isOk())
+                .andReturn();
+        assertNotEquals(eTag, changed.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void productListDetectsChangeCommittedAfterNewerUpdate() throws Exception {
+        String adminToken = login("admin", "admin123");
+        long suffix = System.currentTimeMillis();
+        long olderProductId = createProduct(adminToken, "ETAG-OLD-" + suffix);
+        long newerProductId = createProduct(adminToken, "ETAG-NEW-" + suffix);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // 先に更新日時を確定させた変更が、後から始まった変更よりも遅れてコミットされる状況を作る。
+            String eTagBeforeLateCommit = transactionTemplate.execute(status -> {
+                renameProduct(olderProductId, "ETag Product (older)");
+                Future<String> newerUpdate = executor.submit(() -> {
+                    transactionTemplate.executeWithoutResult(inner -> renameProduct(newerProductId, "ETag Product (newer)"));
+                    return fetchETag(adminToken, "/api/products");
+                });
+                try {
+                    return newerUpdate.get();
+                } catch (Exception ex) {
+                    throw new AssertionError(ex);
+                }
+            });
+
+            mockMvc.perform(
+                            get("/api/products")
+                                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                                    .header(HttpHeaders.IF_NONE_MATCH, eTagBeforeLateCommit)
+                    )
+                    .andExpect(status().isOk());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void categoryListAnswersNotModifiedUntilCategoryIsCreated() throws Exception {
+        String adminToken = login("admin", "admin123");
+        // 単独実行でもカテゴリが1件以上あり、Last-Modifiedが付く状態から始める。
+        createCategory(adminToken, "ETAG-BASE-" + System.currentTimeMillis());
+        String eTag = fetchETag(adminToken, "/api/product-categories");
+
+        mockMvc.perform(
+                        get("/api/product-categories")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                )
+                .andExpect(status().isNotModified());
+
+        createCategory(adminToken, "ETAG-" + System.currentTimeMillis());
+
+        mockMvc.perform(
+                        get("/api/product-categories")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                )
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void categoryListDetectsChangeCommittedAfterNewerUpdate() throws Exception {
+        String adminToken = login("admin", "admin123");
+        long suffix = System.currentTimeMillis();
+        long olderCategoryId = createCategory(adminToken, "ETAG-C-OLD-" + suffix);
+        long newerCategoryId = createCategory(adminToken, "ETAG-C-NEW-" + suffix);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // 先に更新日時を確定させたカテゴリの変更が、後から始まった変更よりも遅れてコミットされる状況を作る。
+            String eTagBeforeLateCommit = transactionTemplate.execute(status -> {
+                productCategoryService.updateCategorySkuRule(olderCategoryId, new UpdateCategorySkuRuleRequest("OLD", 5));
+                productCategoryRepository.flush();
+                Future<String> newerUpdate = executor.submit(() -> {
+                    productCategoryService.updateCategorySkuRule(newerCategoryId, new UpdateCategorySkuRuleRequest("NEW", 5));
+                    return fetchETag(adminToken, "/api/product-categories");
+                });
+                try {
+                    return newerUpdate.get();
+                } catch (Exception ex) {
+                    throw new AssertionError(ex);
+                }
+            });
+
+            mockMvc.perform(
+                            get("/api/product-categories")
+                                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                                    .header(HttpHeaders.IF_NONE_MATCH, eTagBeforeLateCommit)
+                    )
+                    .andExpect(status().isOk());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private String fetchETag(String token, String path) throws Exception {
+        MvcResult result = mockMvc.perform(
+                        get(path).header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                )
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn();
+        String eTag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+        return eTag;
+    }
+
+    private long createCategory(String token, String code) throws Exception {
+        MvcResult result = mockMvc.perform(
+                        post("/api/product-categories")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of(
+                                        "code", code,
+                                        "name", "版確認カテゴリ"
+                                )))
+                )
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).path("id").asLong();
+    }
+
+    private void renameProduct(long productId, String name) {
+        Product product = productRepository.findById(productId).orElseThrow();
+        product.setName(name);
+        productRepository.saveAndFlush(product);
+    }
+
+    private long createProduct(String token, String sku) throws Exception {
+        MvcResult result = mockMvc.perform(
+                        post("/api/products")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of(
+                                        "sku", sku,
+                                        "name", "ETag Product",
+                                        "unitPrice", 900
+                                )))
+                )
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        return objectMapper.readTree(result.getResponse().getContentAsString()).path("id").asLong();
+    }
+
+    private String login(String username, String password) throws Exception {
+        MvcResult result = mockMvc.perform(
+                        post("/api/auth/login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of(
+                                        "username", username,
+                                        "password", password
+                                )))
+                )
+                .andExpect(status().isOk())
+                .andReturn();
+
+        return objectMapper.readTree(result.getResponse().getContentAsString()).path("accessToken").asText();
+    }
+}
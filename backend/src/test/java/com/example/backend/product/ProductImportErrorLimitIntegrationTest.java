@@ -0,0 +1,65 @@
+package com.example.backend.product;
+
+import com.example.backend.product.dto.ProductImportErrorResponse;
+import com.example.backend.product.dto.ProductImportResultResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 商品CSV取込の行エラーを行番号の小さい順に上限件数までだけ保持し、失敗件数は全件数えることと、
+ * 同期取込も取込ジョブを記録することを守る統合テスト。
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:product-import-error-limit;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "app.seed.enabled=false",
+        "app.product.import.job.max-errors=2"
+})
+class ProductImportErrorLimitIntegrationTest {
+
+    @Autowired
+    private ProductImportJobService productImportJobService;
+
+    @Autowired
+    private ProductImportJobRepository productImportJobRepository;
+
+    @Test
+    void synchronousImportKeepsFirstErrorsWithinLimitAndRecordsJob() {
+        String suffix = String.valueOf(System.currentTimeMillis());
+        // 2行目はチャンクの反映時に初めて失敗するため、検証で失敗する3〜5行目より後に届く。
+        String csv = String.join("\n",
+                "sku,name,unitPrice,availableQuantity",
+                "LIMIT-A-" + suffix + "," + "長".repeat(250) + ",1000,1",
+                "LIMIT-B-" + suffix + ",上限商品B,abc,1",
+                "LIMIT-C-" + suffix + ",上限商品C,abc,1",
+                "LIMIT-D-" + suffix + ",上限商品D,abc,1",
+                "LIMIT-E-" + suffix + ",上限商品E,1000,1"
+        );
+
+        ProductImportResultResponse result = productImportJobService.importNow(
+                new MockMultipartFile("file", "products.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8))
+        );
+
+        assertThat(result.totalRows()).isEqualTo(5);
+        assertThat(result.createdRows()).isEqualTo(1);
+        assertThat(result.failedRows()).isEqualTo(4);
+        assertThat(result.errors()).extracting(ProductImportErrorResponse::rowNumber).containsExactly(2, 3);
+
+        List<ProductImportJob> jobs = productImportJobRepository.findAll();
+        assertThat(jobs).hasSize(1);
+        ProductImportJob job = jobs.get(0);
+        assertThat(job.getStatus()).isEqualTo(ProductImportJobStatus.COMPLETED);
+        assertThat(job.getStartedAt()).isNotNull();
+        assertThat(job.getFinishedAt()).isNotNull();
+        assertThat(job.getFailedRows()).isEqualTo(4);
+        assertThat(productImportJobService.getJob(job.getId()).errors())
+                .extracting(ProductImportErrorResponse::rowNumber)
+                .containsExactly(2, 3);
+    }
+}
@@ -95,6 +95,39 @@ class ProductImportIntegrationTest {
         assertThat(createdInventory.getAvailableQuantity()).isEqualTo(7);
     }
 
+    @Test
+    void rowsWithoutSkuAreCreatedWithAllocatedSku() throws Exception {
+        String adminToken = login("admin", "admin123");
+        String categoryCode = "IMPAUTO" + (System.currentTimeMillis() % 100000);
+        createCategory(adminToken, categoryCode, "取込採番カテゴリ");
+
+        String csv = String.join("\n",
+                "sku,name,categoryCode,unitPrice,availableQuantity",
+                ",採番商品1," + categoryCode + ",1000,1",
+                ",採番商品2," + categoryCode + ",1100,2"
+        );
+        MockMultipartFile file = new MockMultipartFile(
+                "file",
+                "products.csv",
+                "text/csv",
+                csv.getBytes(StandardCharsets.UTF_8)
+        );
+
+        mockMvc.perform(
+                        multipart("/api/products/import")
+                                .file(file)
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.successRows").value(2))
+                .andExpect(jsonPath("$.createdRows").value(2))
+                .andExpect(jsonPath("$.failedRows").value(0));
+
+        Product latest = productRepository.findTopBySkuStartingWithOrderBySkuDesc(categoryCode + "-").orElseThrow();
+        assertThat(latest.getSku()).matches(categoryCode + "-\\d{6}-0002");
+        assertThat(latest.getName()).isEqualTo("採番商品2");
+    }
+
     @Test
     void importReturnsRowErrorsAndContinues() throws Exception {
         String adminToken = login("admin", "admin123");
@@ -132,6 +165,44 @@ class ProductImportIntegrationTest {
         assertThat(productRepository.findBySku(okSku)).isPresent();
     }
 
+    @Test
+    void rowRejectedByDatabaseFailsAloneWhileRestOfChunkIsImported() throws Exception {
+        String adminToken = login("admin", "admin123");
+        String suffix = String.valueOf(System.currentTimeMillis());
+
+        // name列の長さ上限(200)はCSV検証では見ないため、チャンクの反映時に初めて失敗する。
+        String csv = String.join("\n",
+                "sku,name,unitPrice,availableQuantity",
+                "IMP-CHUNK-A-" + suffix + ",チャンク商品A,1000,1",
+                "IMP-CHUNK-B-" + suffix + "," + "長".repeat(250) + ",1000,1",
+                "IMP-CHUNK-C-" + suffix + ",チャンク商品C,1000,1"
+        );
+        MockMultipartFile file = new MockMultipartFile(
+                "file",
+                "products.csv",
+                "text/csv",
+                csv.getBytes(StandardCharsets.UTF_8)
+        );
+
+        MvcResult result = mockMvc.perform(
+                        multipart("/api/products/import")
+                                .file(file)
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalRows").value(3))
+                .andExpect(jsonPath("$.createdRows").value(2))
+                .andExpect(jsonPath("$.failedRows").value(1))
+                .andReturn();
+
+        JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertThat(body.path("errors").get(0).path("rowNumber").asInt()).isEqualTo(3);
+        assertThat(body.path("errors").get(0).path("message").asText()).startsWith("row 3: ");
+        assertThat(productRepository.findBySku("IMP-CHUNK-A-" + suffix)).isPresent();
+        assertThat(productRepository.findBySku("IMP-CHUNK-B-" + suffix)).isEmpty();
+        assertThat(productRepository.findBySku("IMP-CHUNK-C-" + suffix)).isPresent();
+    }
+
     private String login(String username, String password) throws Exception {
         MvcResult result = mockMvc.perform(
                         post("/api/auth/login")
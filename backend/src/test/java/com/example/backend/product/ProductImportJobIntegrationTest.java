@@ -0,0 +1,156 @@
+package com.example.backend.product;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 商品CSVの非同期取込ジョブの受付・進捗取得・同時実行の制限を守る統合テスト。
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductImportJobIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductImportJobRepository productImportJobRepository;
+
+    @Test
+    void asyncImportIsAcceptedAndReportsProgressUntilCompleted() throws Exception {
+        String adminToken = login("admin", "admin123");
+        String suffix = String.valueOf(System.currentTimeMillis());
+        String csv = String.join("\n",
+                "sku,name,unitPrice,availableQuantity",
+                "JOB-A-" + suffix + ",ジョブ商品A,1000,3",
+                "JOB-B-" + suffix + ",ジョブ商品B,abc,3",
+                "JOB-C-" + suffix + ",ジョブ商品C,1200,4"
+        );
+
+        MvcResult accepted = mockMvc.perform(
+                        multipart("/api/products/import")
+                                .file(csvFile(csv))
+                                .queryParam("async", "true")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                )
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value("QUEUED"))
+                .andExpect(jsonPath("$.fileName").value("products.csv"))
+                .andReturn();
+        long jobId = objectMapper.readTree(accepted.getResponse().getContentAsString()).path("jobId").asLong();
+
+        JsonNode job = awaitFinished(adminToken, jobId);
+        assertThat(job.path("status").asText()).isEqualTo("COMPLETED");
+        assertThat(job.path("processedRows").asInt()).isEqualTo(3);
+        assertThat(job.path("createdRows").asInt()).isEqualTo(2);
+        assertThat(job.path("failedRows").asInt()).isEqualTo(1);
+        assertThat(job.path("errors").get(0).path("rowNumber").asInt()).isEqualTo(3);
+        assertThat(job.path("finishedAt").isNull()).isFalse();
+        assertThat(productRepository.findBySku("JOB-A-" + suffix)).isPresent();
+        assertThat(productRepository.findBySku("JOB-C-" + suffix)).isPresent();
+    }
+
+    @Test
+    void importIsRejectedWhileAnotherJobIsActive() throws Exception {
+        String adminToken = login("admin", "admin123");
+        ProductImportJob running = new ProductImportJob();
+        running.setStatus(ProductImportJobStatus.RUNNING);
+        running.setRequestedBy("admin");
+        running.setRequestedRole("ADMIN");
+        running = productImportJobRepository.saveAndFlush(running);
+        String csv = "sku,name,unitPrice,availableQuantity\nJOB-BUSY-" + System.currentTimeMillis() + ",待機商品,1000,1";
+
+        try {
+            mockMvc.perform(
+                            multipart("/api/products/import")
+                                    .file(csvFile(csv))
+                                    .queryParam("async", "true")
+                                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                    )
+                    .andExpect(status().isConflict());
+            mockMvc.perform(
+                            multipart("/api/products/import")
+                                    .file(csvFile(csv))
+                                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                    )
+                    .andExpect(status().isConflict());
+        } finally {
+            productImportJobRepository.deleteById(running.getId());
+        }
+    }
+
+    @Test
+    void unknownJobReturnsNotFound() throws Exception {
+        String adminToken = login("admin", "admin123");
+
+        mockMvc.perform(
+                        get("/api/products/import/{jobId}", 999_999)
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                )
+                .andExpect(status().isNotFound());
+    }
+
+    private JsonNode awaitFinished(String token, long jobId) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            MvcResult result = mockMvc.perform(
+                            get("/api/products/import/{jobId}", jobId)
+                                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                    )
+                    .andExpect(status().isOk())
+                    .andReturn();
+            JsonNode job = objectMapper.readTree(result.getResponse().getContentAsString());
+            String status = job.path("status").asText();
+            if ("COMPLETED".equals(status) || "FAILED".equals(status) || System.currentTimeMillis() > deadline) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private MockMultipartFile csvFile(String csv) {
+        return new MockMultipartFile("file", "products.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String login(String username, String password) throws Exception {
+        MvcResult result = mockMvc.perform(
+                        post("/api/auth/login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of(
+                                        "username", username,
+                                        "password", password
+                                )))
+                )
+                .andExpect(status().isOk())
+                .andReturn();
+
+        return objectMapper.readTree(result.getResponse().getContentAsString())
+                .path("accessToken")
+                .asText();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.backend.product;
+
+import com.example.backend.common.ApiError;
+import com.example.backend.common.GlobalExceptionHandler;
+import com.example.backend.product.dto.CreateProductRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 商品の@Versionにより、読み込み後に他の更新がコミットされた商品への書き込みが失敗し、409として返ることを守る統合テスト。
+ * CSV取込のチャンク・在庫や商品編集のエンドポイントが同じ商品を同時に更新した場合の挙動にあたる。
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:product-optimistic-lock;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "app.seed.enabled=false"
+})
+class ProductOptimisticLockIntegrationTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private GlobalExceptionHandler globalExceptionHandler;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void staleProductWriteIsRejectedAsConflict() throws Exception {
+        long productId = productService.createProduct(new CreateProductRequest(
+                "LOCK-" + System.currentTimeMillis(), "Lock Product", null, new BigDecimal("100"), null, null, null
+        )).id();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ObjectOptimisticLockingFailureException conflict = assertThrows(
+                    ObjectOptimisticLockingFailureException.class,
+                    () -> transactionTemplate.executeWithoutResult(status -> {
+                        Product stale = productRepository.findById(productId).orElseThrow();
+                        // 読み込んだ後に、別のトランザクションの更新が先にコミットされる状況を作る。
+                        try {
+                            executor.submit(() -> transactionTemplate.executeWithoutResult(inner -> {
+                                Product latest = productRepository.findById(productId).orElseThrow();
+                                latest.setName("Lock Product (other)");
+                                productRepository.saveAndFlush(latest);
+                            })).get();
+                        } catch (Exception ex) {
+                            throw new AssertionError(ex);
+                        }
+                        stale.setName("Lock Product (stale)");
+                        productRepository.saveAndFlush(stale);
+                    })
+            );
+
+            ResponseEntity<ApiError> response = globalExceptionHandler.handleOptimisticLock(
+                    conflict, new MockHttpServletRequest("PUT", "/api/products/" + productId)
+            );
+            assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+            assertNotNull(response.getBody());
+            assertEquals(409, response.getBody().status());
+            assertEquals("Lock Product (other)", productRepository.findById(productId).orElseThrow().getName());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.HashMap;
 import java.util.Map;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -31,6 +32,9 @@ class ProductPageIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ProductCategoryRepository productCategoryRepository;
+
     @Test
     void productPageSupportsKeywordCategoryAndLowStockFilters() throws Exception {
         String adminToken = login("admin", "admin123");
@@ -67,6 +71,163 @@ class ProductPageIntegrationTest {
                 .andExpect(jsonPath("$.items[0].availableQuantity").value(0));
     }
 
+    @Test
+    void productPageFollowsCursorWithoutCount() throws Exception {
+        String adminToken = login("admin", "admin123");
+        String prefix = "CURSOR-" + System.currentTimeMillis();
+        long categoryId = createCategory(adminToken, "CUR-" + System.currentTimeMillis(), "カーソルカテゴリ");
+        createProduct(adminToken, prefix + "-1", categoryId, 3);
+        createProduct(adminToken, prefix + "-2", categoryId, 3);
+        createProduct(adminToken, prefix + "-3", categoryId, 3);
+
+        MvcResult firstPage = mockMvc.perform(
+                        get("/api/products/page")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                                .queryParam("q", prefix)
+                                .queryParam("size", "2")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].sku").value(prefix + "-3"))
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andReturn();
+        String nextCursor = objectMapper.readTree(firstPage.getResponse().getContentAsString())
+                .path("nextCursor")
+                .asText();
+
+        mockMvc.perform(
+                        get("/api/products/page")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                                .queryParam("q", prefix)
+                                .queryParam("size", "2")
+                                .queryParam("cursor", nextCursor)
+                                .queryParam("includeTotal", "false")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].sku").value(prefix + "-1"))
+                .andExpect(jsonPath("$.totalElements").value(-1))
+                .andExpect(jsonPath("$.totalPages").value(-1))
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.hasPrevious").value(true))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        mockMvc.perform(
+                        get("/api/products/page")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                                .queryParam("cursor", "not-a-cursor")
+                )
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void relevanceSortRanksExactAndPrefixSkuMatchesFirst() throws Exception {
+        String adminToken = login("admin", "admin123");
+        String keyword = "REL" + System.currentTimeMillis();
+        long categoryId = createCategory(adminToken, "REL-" + System.currentTimeMillis(), "関連度カテゴリ");
+        // 作成順が新しいほど更新日時順では先頭に来るため、一致度の高い商品から先に作る。
+        createProduct(adminToken, keyword, categoryId, 3);
+        createProduct(adminToken, keyword + "-A", categoryId, 3);
+        createProduct(adminToken, "Z" + keyword, categoryId, 3);
+
+        mockMvc.perform(
+                        get("/api/products/page")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                                .queryParam("q", keyword.toLowerCase())
+                                .queryParam("sort", "relevance")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(3))
+                .andExpect(jsonPath("$.items[0].sku").value(keyword))
+                .andExpect(jsonPath("$.items[1].sku").value(keyword + "-A"))
+                .andExpect(jsonPath("$.items[2].sku").value("Z" + keyword))
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        mockMvc.perform(
+                        get("/api/products/page")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                                .queryParam("q", keyword)
+                                .queryParam("sort", "relevance")
+                                .queryParam("size", "1")
+                                .queryParam("page", "1")
+                                .queryParam("includeTotal", "false")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].sku").value(keyword + "-A"))
+                .andExpect(jsonPath("$.hasNext").value(true));
+
+        mockMvc.perform(
+                        get("/api/products/page")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                                .queryParam("q", keyword)
+                                .queryParam("sort", "popularity")
+                )
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void categoryFilterIncludesDescendantsAndHierarchyIsReflectedImmediately() throws Exception {
+        String adminToken = login("admin", "admin123");
+        String suffix = String.valueOf(System.currentTimeMillis());
+        long parentId = createCategory(adminToken, "TREE-P-" + suffix, "親カテゴリ");
+        long childId = createCategory(adminToken, "TREE-C-" + suffix, "子カテゴリ", parentId);
+        String sku = "TREE-" + suffix;
+        createProduct(adminToken, sku, childId, 3);
+
+        mockMvc.perform(
+                        get("/api/product-categories")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == " + childId + ")].depth").value(1))
+                .andExpect(jsonPath("$[?(@.id == " + childId + ")].pathName").value("親カテゴリ / 子カテゴリ"))
+                .andExpect(jsonPath("$[?(@.id == " + childId + ")].parentCode").value("TREE-P-" + suffix));
+
+        mockMvc.perform(
+                        get("/api/products/page")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                                .queryParam("categoryId", String.valueOf(parentId))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].sku").value(sku));
+
+        mockMvc.perform(
+                        get("/api/products/page")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                                .queryParam("categoryId", "999999999")
+                )
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void categoryMissingFromSnapshotIsResolvedWhenItExists() throws Exception {
+        String adminToken = login("admin", "admin123");
+        String suffix = String.valueOf(System.currentTimeMillis());
+        long parentId = createCategory(adminToken, "SNAP-P-" + suffix, "スナップショット親");
+
+        // 他ノードで追加された場合と同じく、このノードのカテゴリツリーのスナップショットを更新せずに子カテゴリを保存する。
+        ProductCategory child = new ProductCategory();
+        child.setCode("SNAP-C-" + suffix);
+        child.setName("スナップショット子");
+        child.setParent(productCategoryRepository.findById(parentId).orElseThrow());
+        long childId = productCategoryRepository.save(child).getId();
+        String sku = "SNAP-" + suffix;
+        createProduct(adminToken, sku, childId, 3);
+
+        mockMvc.perform(
+                        get("/api/products/page")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                                .queryParam("categoryId", String.valueOf(childId))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].sku").value(sku));
+    }
+
     private String login(String username, String password) throws Exception {
         MvcResult result = mockMvc.perform(
                         post("/api/auth/login")
@@ -85,14 +246,19 @@ class ProductPageIntegrationTest {
     }
 
     private long createCategory(String token, String code, String name) throws Exception {
+        return createCategory(token, code, name, null);
+    }
+
+    private long createCategory(String token, String code, String name, Long parentId) throws Exception {
+        Map<String, Object> request = new HashMap<>();
+        request.put("code", code);
+        request.put("name", name);
+        request.put("parentId", parentId);
         MvcResult result = mockMvc.perform(
                         post("/api/product-categories")
                                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
                                 .contentType(MediaType.APPLICATION_JSON)
-                                .content(objectMapper.writeValueAsString(Map.of(
-                                        "code", code,
-                                        "name", name
-                                )))
+                                .content(objectMapper.writeValueAsString(request))
                 )
                 .andExpect(status().isCreated())
                 .andReturn();
@@ -11,7 +11,15 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -114,6 +122,54 @@ class ProductSkuIntegrationTest {
         assertThat(firstSku).matches("FIG-PRO-\\d{6}-00001");
     }
 
+    @Test
+    void suggestionDoesNotConsumeSequence() throws Exception {
+        String adminToken = login("admin", "admin123");
+        String categoryCode = "PEEK" + (System.currentTimeMillis() % 100000);
+        long categoryId = createCategory(adminToken, categoryCode, "候補表示カテゴリ");
+
+        String firstSku = requestNextSku(adminToken, categoryId);
+        assertThat(requestNextSku(adminToken, categoryId)).isEqualTo(firstSku);
+        assertThat(createProductWithoutSku(adminToken, categoryId, "候補後の自動採番商品")).isEqualTo(firstSku);
+    }
+
+    @Test
+    void concurrentCreatesWithoutSkuNeverReceiveSameSequence() throws Exception {
+        String adminToken = login("admin", "admin123");
+        String categoryCode = "CONC" + (System.currentTimeMillis() % 100000);
+        long categoryId = createCategory(adminToken, categoryCode, "同時採番カテゴリ");
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                int index = i;
+                results.add(executor.submit(() -> createProductWithoutSku(adminToken, categoryId, "同時採番商品" + index)));
+            }
+            Set<String> skus = new HashSet<>();
+            for (Future<String> result : results) {
+                skus.add(result.get(30, TimeUnit.SECONDS));
+            }
+            assertThat(skus).hasSize(40);
+            assertThat(skus).allMatch(sku -> sku.matches(Pattern.quote(categoryCode) + "-\\d{6}-00(0[1-9]|[1-3]\\d|40)"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void createProductWithoutSkuAllocatesFromCategoryRule() throws Exception {
+        String adminToken = login("admin", "admin123");
+        String categoryCode = "AUTO" + (System.currentTimeMillis() % 100000);
+        long categoryId = createCategory(adminToken, categoryCode, "自動採番カテゴリ");
+
+        String manualSku = requestNextSku(adminToken, categoryId);
+        createProduct(adminToken, manualSku, categoryId, "手動SKU商品");
+
+        String allocatedSku = createProductWithoutSku(adminToken, categoryId, "自動SKU商品");
+        assertThat(allocatedSku).matches(Pattern.quote(categoryCode) + "-\\d{6}-0002");
+    }
+
     private String login(String username, String password) throws Exception {
         MvcResult result = mockMvc.perform(
                         post("/api/auth/login")
@@ -161,6 +217,23 @@ class ProductSkuIntegrationTest {
         return body.path("sku").asText();
     }
 
+    private String createProductWithoutSku(String token, long categoryId, String name) throws Exception {
+        MvcResult created = mockMvc.perform(
+                        post("/api/products")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of(
+                                        "name", name,
+                                        "unitPrice", 1800,
+                                        "categoryId", categoryId
+                                )))
+                )
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        return objectMapper.readTree(created.getResponse().getContentAsString()).path("sku").asText();
+    }
+
     private void createProduct(String token, String sku, long categoryId, String name) throws Exception {
         mockMvc.perform(
                         post("/api/products")
@@ -24,6 +24,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 /**
  * 主要ユースケースの回帰を守る統合テスト。
  */
@@ -103,10 +105,13 @@ class PurchaseOrderIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.availableQuantity").value(15));
 
-        mockMvc.perform(
+        MvcResult started = mockMvc.perform(
                         get("/api/purchase-orders/{purchaseOrderId}/receipts/export.csv", purchaseOrderId)
                                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + operatorToken)
                 )
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
                 .andExpect(status().isOk())
                 .andExpect(content().contentTypeCompatibleWith("text/csv"))
                 .andExpect(content().string(containsString("\"operator\"")))
@@ -187,6 +192,91 @@ class PurchaseOrderIntegrationTest {
                 .andExpect(jsonPath("$.availableQuantity").value(20));
     }
 
+    @Test
+    void summaryPageAndDetailKeepItemsAndReceiptsSeparate() throws Exception {
+        String adminToken = login("admin", "admin123");
+        String operatorToken = login("operator", "operator123");
+        long firstProductId = createProduct(adminToken, "PO-SUMMARY-A-" + System.currentTimeMillis());
+        long secondProductId = createProduct(adminToken, "PO-SUMMARY-B-" + System.currentTimeMillis());
+
+        MvcResult createdResult = mockMvc.perform(
+                        post("/api/purchase-orders")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + operatorToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of(
+                                        "supplierName", "Summary Supplier",
+                                        "items", List.of(
+                                                Map.of("productId", firstProductId, "quantity", 10, "unitCost", 500),
+                                                Map.of("productId", secondProductId, "quantity", 6, "unitCost", 300)
+                                        )
+                                )))
+                )
+                .andExpect(status().isCreated())
+                .andReturn();
+        long purchaseOrderId = objectMapper.readTree(createdResult.getResponse().getContentAsString()).path("id").asLong();
+
+        for (Map<String, Object> receiveItem : List.<Map<String, Object>>of(
+                Map.of("productId", firstProductId, "quantity", 5),
+                Map.of("productId", secondProductId, "quantity", 6)
+        )) {
+            mockMvc.perform(
+                            post("/api/purchase-orders/{purchaseOrderId}/receive", purchaseOrderId)
+                                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + operatorToken)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(objectMapper.writeValueAsString(Map.of("items", List.of(receiveItem))))
+                    )
+                    .andExpect(status().isOk());
+        }
+
+        // 明細2件×入荷2件でも重複せずに返ること。
+        mockMvc.perform(
+                        get("/api/purchase-orders/{purchaseOrderId}", purchaseOrderId)
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + operatorToken)
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.receipts.length()").value(2))
+                .andExpect(jsonPath("$.totalRemainingQuantity").value(5));
+
+        MvcResult pageResult = mockMvc.perform(
+                        get("/api/purchase-orders/page")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + operatorToken)
+                                .param("status", "partially_received")
+                                .param("size", "200")
+                )
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode summary = null;
+        for (JsonNode item : objectMapper.readTree(pageResult.getResponse().getContentAsString()).path("items")) {
+            assertEquals("PARTIALLY_RECEIVED", item.path("status").asText());
+            if (item.path("id").asLong() == purchaseOrderId) {
+                summary = item;
+            }
+        }
+        assertTrue(summary != null, "summary page should include the purchase order");
+        assertEquals(2, summary.path("itemCount").asInt());
+        assertEquals(16, summary.path("totalQuantity").asInt());
+        assertEquals(11, summary.path("totalReceivedQuantity").asInt());
+        assertEquals(5, summary.path("totalRemainingQuantity").asInt());
+        assertEquals(2, summary.path("receiptCount").asInt());
+        assertTrue(summary.path("items").isMissingNode());
+
+        mockMvc.perform(
+                        get("/api/purchase-orders/page")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + operatorToken)
+                                .param("from", OffsetDateTime.now().plusDays(1).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(0));
+
+        mockMvc.perform(
+                        get("/api/purchase-orders/page")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + operatorToken)
+                                .param("status", "UNKNOWN")
+                )
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void receiptHistoryCanBeFilteredByActorAndDateRange() throws Exception {
         String adminToken = login("admin", "admin123");
@@ -8,21 +8,29 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 
 /**
  * 売上集計APIの回帰を守る統合テスト。
@@ -37,6 +45,9 @@ class SalesReportIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     void confirmedOrdersAreCountedAndReservedOrdersAreExcluded() throws Exception {
         String adminToken = login("admin", "admin123");
@@ -99,13 +110,16 @@ class SalesReportIntegrationTest {
                 .andExpect(jsonPath("$.summary.orderCount").value(1))
                 .andExpect(jsonPath("$.lines[0].orderNumber").value(confirmedOrder.orderNumber()));
 
-        MvcResult csvResult = mockMvc.perform(
+        MvcResult started = mockMvc.perform(
                         get("/api/sales/export.csv")
                                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + viewerToken)
                                 .queryParam("from", from.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME))
                                 .queryParam("to", to.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME))
                                 .queryParam("limit", "100")
                 )
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult csvResult = mockMvc.perform(asyncDispatch(started))
                 .andExpect(status().isOk())
                 .andExpect(content().contentTypeCompatibleWith("text/csv"))
                 .andExpect(content().string(containsString("soldAt,orderNumber,customerName")))
@@ -116,6 +130,162 @@ class SalesReportIntegrationTest {
         assertTrue(body.contains(sku), "csv should include product sku");
     }
 
+    @Test
+    void trendsAreBucketedByWeekAndMonthAndLinesAreLimited() throws Exception {
+        String adminToken = login("admin", "admin123");
+        String operatorToken = login("operator", "operator123");
+
+        String sku = "SALES-TREND-" + System.currentTimeMillis();
+        long productId = createProduct(adminToken, sku);
+        addStock(adminToken, productId, 30);
+
+        // 他テストのデータと重ならない過去日付へ確定日時を寄せ、週・月の境界をまたがせる。
+        OrderInfo monday = confirmAt(operatorToken, productId, 1, OffsetDateTime.parse("2001-01-29T12:00:00Z"));
+        OrderInfo wednesday = confirmAt(operatorToken, productId, 2, OffsetDateTime.parse("2001-01-31T12:00:00Z"));
+        OrderInfo friday = confirmAt(operatorToken, productId, 3, OffsetDateTime.parse("2001-02-02T12:00:00Z"));
+        // 確定日時を直接書き換えたため、移動元(当日)と移動先の日次集計を作り直す。
+        rebuildRollup(adminToken, LocalDate.parse("2001-01-29"), LocalDate.parse("2001-02-02"));
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        rebuildRollup(adminToken, today, today);
+
+        mockMvc.perform(
+                        get("/api/sales")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + operatorToken)
+                                .queryParam("from", "2001-01-01T00:00:00Z")
+                                .queryParam("to", "2001-02-28T00:00:00Z")
+                                .queryParam("groupBy", "WEEK")
+                                .queryParam("lineLimit", "2")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.summary.orderCount").value(3))
+                .andExpect(jsonPath("$.summary.totalItemQuantity").value(6))
+                .andExpect(jsonPath("$.summary.totalSalesAmount").value(12000))
+                .andExpect(jsonPath("$.summary.averageOrderAmount").value(4000))
+                .andExpect(jsonPath("$.trends.length()").value(1))
+                .andExpect(jsonPath("$.trends[0].orderCount").value(3))
+                .andExpect(jsonPath("$.trends[0].totalSalesAmount").value(12000))
+                .andExpect(jsonPath("$.lineLimit").value(2))
+                .andExpect(jsonPath("$.totalLineCount").value(3))
+                .andExpect(jsonPath("$.lines.length()").value(2))
+                .andExpect(jsonPath("$.lines[0].orderNumber").value(friday.orderNumber()))
+                .andExpect(jsonPath("$.lines[1].orderNumber").value(wednesday.orderNumber()));
+
+        mockMvc.perform(
+                        get("/api/sales")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + operatorToken)
+                                .queryParam("from", "2001-01-01T00:00:00Z")
+                                .queryParam("to", "2001-02-28T00:00:00Z")
+                                .queryParam("groupBy", "MONTH")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.trends.length()").value(2))
+                .andExpect(jsonPath("$.trends[0].orderCount").value(2))
+                .andExpect(jsonPath("$.trends[0].totalItemQuantity").value(3))
+                .andExpect(jsonPath("$.trends[0].totalSalesAmount").value(6000))
+                .andExpect(jsonPath("$.trends[1].orderCount").value(1))
+                .andExpect(jsonPath("$.trends[1].totalSalesAmount").value(6000))
+                .andExpect(jsonPath("$.lines[2].orderNumber").value(monday.orderNumber()));
+    }
+
+    @Test
+    void confirmedOrdersAreAddedToDailyRollup() throws Exception {
+        String adminToken = login("admin", "admin123");
+        String operatorToken = login("operator", "operator123");
+
+        String sku = "SALES-ROLLUP-" + System.currentTimeMillis();
+        long productId = createProduct(adminToken, sku);
+        long otherProductId = createProduct(adminToken, sku + "-B");
+        addStock(adminToken, productId, 30);
+        addStock(adminToken, otherProductId, 30);
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        rebuildRollup(adminToken, today, today);
+        JsonNode before = getFullDaySummary(operatorToken, today);
+
+        // 2商品にまたがる受注でも、受注件数は1件として数えること。
+        OrderInfo confirmedOrder = createOrder(
+                operatorToken,
+                List.of(Map.of("productId", productId, "quantity", 4), Map.of("productId", otherProductId, "quantity", 1)),
+                "集計テーブルテスト"
+        );
+        confirmOrder(operatorToken, confirmedOrder.id());
+        createOrder(operatorToken, productId, 1, "未確定チーム");
+
+        // 丸1日の期間は日次集計テーブルから返るため、確定した受注だけが加算されていること。
+        JsonNode after = getFullDaySummary(operatorToken, today);
+        assertEquals(before.path("orderCount").asLong() + 1, after.path("orderCount").asLong());
+        assertEquals(before.path("totalItemQuantity").asLong() + 5, after.path("totalItemQuantity").asLong());
+        assertEquals(
+                before.path("totalSalesAmount").decimalValue().add(new BigDecimal("10000")).compareTo(
+                        after.path("totalSalesAmount").decimalValue()),
+                0
+        );
+
+        // 明細からの再集計結果と、確定時の加算結果が一致すること。
+        rebuildRollup(adminToken, today, today);
+        JsonNode rebuilt = getFullDaySummary(operatorToken, today);
+        assertEquals(after.path("orderCount").asLong(), rebuilt.path("orderCount").asLong());
+        assertEquals(after.path("totalItemQuantity").asLong(), rebuilt.path("totalItemQuantity").asLong());
+        assertEquals(0, after.path("totalSalesAmount").decimalValue().compareTo(rebuilt.path("totalSalesAmount").decimalValue()));
+    }
+
+    @Test
+    void rollupRebuildRequiresAdminAndValidPeriod() throws Exception {
+        String adminToken = login("admin", "admin123");
+        String operatorToken = login("operator", "operator123");
+
+        mockMvc.perform(
+                        post("/api/sales/rollup/rebuild")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + operatorToken)
+                                .queryParam("from", "2001-01-01")
+                                .queryParam("to", "2001-01-02")
+                )
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(
+                        post("/api/sales/rollup/rebuild")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                                .queryParam("from", "2001-01-03")
+                                .queryParam("to", "2001-01-02")
+                )
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode getFullDaySummary(String accessToken, LocalDate day) throws Exception {
+        MvcResult result = mockMvc.perform(
+                        get("/api/sales")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                                .queryParam("from", day.atStartOfDay().atOffset(ZoneOffset.UTC).toString())
+                                .queryParam("to", day.plusDays(1).atStartOfDay().atOffset(ZoneOffset.UTC).minusNanos(1000).toString())
+                                .queryParam("lineLimit", "1")
+                )
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).path("summary");
+    }
+
+    private void rebuildRollup(String adminToken, LocalDate from, LocalDate to) throws Exception {
+        mockMvc.perform(
+                        post("/api/sales/rollup/rebuild")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                                .queryParam("from", from.toString())
+                                .queryParam("to", to.toString())
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rebuiltDays").value(from.until(to).getDays() + 1));
+    }
+
+    private OrderInfo confirmAt(String accessToken, long productId, int quantity, OffsetDateTime soldAt) throws Exception {
+        OrderInfo order = createOrder(accessToken, productId, quantity, "推移テストチーム");
+        confirmOrder(accessToken, order.id());
+        jdbcTemplate.update(
+                "update sales_orders set updated_at = ? where id = ?",
+                Timestamp.from(soldAt.toInstant()),
+                order.id()
+        );
+        return order;
+    }
+
     private long createProduct(String accessToken, String sku) throws Exception {
         MvcResult created = mockMvc.perform(
                         post("/api/products")
@@ -146,16 +316,17 @@ class SalesReportIntegrationTest {
     }
 
     private OrderInfo createOrder(String accessToken, long productId, int quantity, String customerName) throws Exception {
+        return createOrder(accessToken, List.of(Map.of("productId", productId, "quantity", quantity)), customerName);
+    }
+
+    private OrderInfo createOrder(String accessToken, List<Map<String, Object>> items, String customerName) throws Exception {
         MvcResult created = mockMvc.perform(
                         post("/api/orders")
                                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(objectMapper.writeValueAsString(Map.of(
                                         "customerName", customerName,
-                                        "items", List.of(Map.of(
-                                                "productId", productId,
-                                                "quantity", quantity
-                                        ))
+                                        "items", items
                                 )))
                 )
                 .andExpect(status().isCreated())
@@ -0,0 +1,132 @@
+package com.example.backend.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 同時実行数の上限を超えたAPIリクエストを503で断り、非同期応答では完了またはタイムアウトまで許可を保持することを守るテスト。
+ */
+class DatabaseBulkheadFilterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void permitIsReturnedAfterSynchronousRequest() throws Exception {
+        DatabaseBulkheadFilter filter = new DatabaseBulkheadFilter(objectMapper, new SimpleMeterRegistry(), true, 1, 10, 4, 0);
+
+        assertEquals(HttpServletResponse.SC_OK, perform(filter, "/api/products").getStatus());
+        assertEquals(HttpServletResponse.SC_OK, perform(filter, "/api/products").getStatus());
+    }
+
+    @Test
+    void asyncResponseHoldsPermitUntilCompleted() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DatabaseBulkheadFilter filter = new DatabaseBulkheadFilter(objectMapper, meterRegistry, true, 1, 10, 4, 0);
+
+        MockHttpServletRequest streaming = new MockHttpServletRequest("GET", "/api/audit-logs/export");
+        streaming.setAsyncSupported(true);
+        MockFilterChain asyncChain = new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                request.startAsync();
+            }
+        };
+        filter.doFilter(streaming, new MockHttpServletResponse(), asyncChain);
+        AsyncContext asyncContext = streaming.getAsyncContext();
+
+        MockHttpServletResponse rejected = perform(filter, "/api/orders");
+        assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, rejected.getStatus());
+        assertEquals("1", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, meterRegistry.counter("app.db.bulkhead.rejected").count());
+        assertEquals(1, meterRegistry.get("app.db.bulkhead.in.use").gauge().value());
+        // 上限に達していても、API以外のパスは制限しない。
+        assertEquals(HttpServletResponse.SC_OK, perform(filter, "/actuator/health").getStatus());
+
+        asyncContext.complete();
+
+        assertEquals(HttpServletResponse.SC_OK, perform(filter, "/api/orders").getStatus());
+        assertEquals(0, meterRegistry.get("app.db.bulkhead.in.use").gauge().value());
+    }
+
+    @Test
+    void asyncResponseReleasesPermitOnTimeout() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DatabaseBulkheadFilter filter = new DatabaseBulkheadFilter(objectMapper, meterRegistry, true, 1, 10, 4, 0);
+
+        MockAsyncContext asyncContext = holdPermit(filter);
+        assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, perform(filter, "/api/orders").getStatus());
+
+        // エクスポートが終わらないままコンテナが非同期処理のタイムアウトを通知した場合も許可を返す。
+        AsyncEvent timeout = new AsyncEvent(asyncContext, asyncContext.getRequest(), asyncContext.getResponse());
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(timeout);
+        }
+
+        assertEquals(HttpServletResponse.SC_OK, perform(filter, "/api/orders").getStatus());
+        assertEquals(0, meterRegistry.get("app.db.bulkhead.in.use").gauge().value());
+
+        // タイムアウト後にコンテナが完了も通知するが、許可を二重に返して上限を増やさない。
+        asyncContext.complete();
+        holdPermit(filter);
+        assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, perform(filter, "/api/orders").getStatus());
+    }
+
+    @Test
+    void maxConcurrentDefaultsToPoolSizeMinusReservedConnections() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DatabaseBulkheadFilter filter = new DatabaseBulkheadFilter(objectMapper, meterRegistry, true, 0, 3, 1, 0);
+
+        holdPermit(filter);
+        holdPermit(filter);
+
+        assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, perform(filter, "/api/orders").getStatus());
+        assertEquals(2, meterRegistry.get("app.db.bulkhead.in.use").gauge().value());
+    }
+
+    @Test
+    void disabledFilterDoesNotLimit() throws Exception {
+        DatabaseBulkheadFilter filter = new DatabaseBulkheadFilter(objectMapper, new SimpleMeterRegistry(), false, 1, 10, 4, 0);
+
+        MockHttpServletRequest streaming = new MockHttpServletRequest("GET", "/api/audit-logs/export");
+        streaming.setAsyncSupported(true);
+        streaming.startAsync();
+        filter.doFilter(streaming, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals(HttpServletResponse.SC_OK, perform(filter, "/api/orders").getStatus());
+    }
+
+    private MockAsyncContext holdPermit(DatabaseBulkheadFilter filter) throws Exception {
+        MockHttpServletRequest streaming = new MockHttpServletRequest("GET", "/api/audit-logs/export");
+        streaming.setAsyncSupported(true);
+        MockFilterChain asyncChain = new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                request.startAsync();
+            }
+        };
+        filter.doFilter(streaming, new MockHttpServletResponse(), asyncChain);
+        return (MockAsyncContext) streaming.getAsyncContext();
+    }
+
+    private MockHttpServletResponse perform(DatabaseBulkheadFilter filter, String uri) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", uri), response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.backend.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * 有効な検証鍵が1本・3本のときのJwtAuthenticationFilterのスループットを、kid付きトークンと
+ * kidのない旧形式トークン(最後に設定された鍵で署名)で、検証済みトークンキャッシュの有無別に計測するベンチマーク。
+ * 通常のテスト実行には含めず、{@code mvn test -Dtest=JwtAuthenticationFilterBenchmark} で明示的に実行する。
+ */
+class JwtAuthenticationFilterBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 5_000;
+    private static final int MEASURED_ITERATIONS = 50_000;
+
+    private static final String SIGNING_SECRET = "benchmark-signing-secret-at-least-32-chars";
+    private static final String ROTATED_SECRET_1 = "benchmark-rotated-secret-1-at-least-32-chars";
+    private static final String ROTATED_SECRET_2 = "benchmark-rotated-secret-2-at-least-32-chars";
+
+    @Test
+    void measureFilterThroughputByActiveKeyCount() throws Exception {
+        JwtService singleKey = new JwtService(SIGNING_SECRET, "", 3600);
+        JwtService threeKeys = new JwtService(SIGNING_SECRET, ROTATED_SECRET_1 + "," + ROTATED_SECRET_2, 3600);
+
+        for (boolean cacheEnabled : new boolean[]{false, true}) {
+            measure("keys=1 token=kid", singleKey, singleKey.generateToken("bench", "OPERATOR"), cacheEnabled);
+            measure("keys=1 token=legacy", singleKey, JwtServiceTest.legacyToken(SIGNING_SECRET, "bench"), cacheEnabled);
+            measure("keys=3 token=kid", threeKeys, threeKeys.generateToken("bench", "OPERATOR"), cacheEnabled);
+            measure("keys=3 token=legacy(last key)", threeKeys, JwtServiceTest.legacyToken(ROTATED_SECRET_2, "bench"), cacheEnabled);
+        }
+    }
+
+    private void measure(String label, JwtService jwtService, String token, boolean cacheEnabled) throws Exception {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, new SimpleMeterRegistry(), cacheEnabled, 10_000);
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            authenticate(filter, token);
+        }
+
+        long started = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            authenticate(filter, token);
+        }
+        long elapsedNanos = System.nanoTime() - started;
+
+        System.out.printf(
+                "[JwtAuthenticationFilterBenchmark] %s cache=%s throughput=%.0f req/s avg=%.1fus%n",
+                label,
+                cacheEnabled,
+                MEASURED_ITERATIONS * 1_000_000_000.0 / elapsedNanos,
+                elapsedNanos / 1_000.0 / MEASURED_ITERATIONS
+        );
+    }
+
+    private void authenticate(JwtAuthenticationFilter filter, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.backend.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 検証済みトークンキャッシュのヒット計測と、exp経過後にキャッシュから認証しないことを守るテスト。
+ */
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "filter-test-secret-key-at-least-32-characters";
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void repeatedTokenIsServedFromCache() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtService jwtService = new JwtService(SECRET, "", 3600);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, meterRegistry, true, 100);
+        String token = jwtService.generateToken("operator", "OPERATOR");
+
+        for (int i = 0; i < 3; i++) {
+            Authentication authentication = authenticate(filter, token);
+            assertNotNull(authentication);
+            assertEquals("operator", authentication.getName());
+            assertEquals("ROLE_OPERATOR", authentication.getAuthorities().iterator().next().getAuthority());
+        }
+
+        assertEquals(1, meterRegistry.counter("app.jwt.cache", "result", "miss").count());
+        assertEquals(2, meterRegistry.counter("app.jwt.cache", "result", "hit").count());
+        assertEquals(2.0 / 3, meterRegistry.get("app.jwt.cache.hit.ratio").gauge().value(), 0.0001);
+    }
+
+    @Test
+    void cachedEntryIsNotServedAfterTokenExpires() throws Exception {
+        JwtService jwtService = new JwtService(SECRET, "", 1);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, new SimpleMeterRegistry(), true, 100);
+        String token = jwtService.generateToken("viewer", "VIEWER");
+
+        assertNotNull(authenticate(filter, token));
+        Thread.sleep(1_100);
+
+        assertNull(authenticate(filter, token));
+    }
+
+    @Test
+    void disabledCacheVerifiesEveryRequest() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtService jwtService = new JwtService(SECRET, "", 3600);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, meterRegistry, false, 100);
+        String token = jwtService.generateToken("admin", "ADMIN");
+
+        assertNotNull(authenticate(filter, token));
+        assertNotNull(authenticate(filter, token));
+        assertEquals(0, meterRegistry.counter("app.jwt.cache", "result", "hit").count());
+    }
+
+    private Authentication authenticate(JwtAuthenticationFilter filter, String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
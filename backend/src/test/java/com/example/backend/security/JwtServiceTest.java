@@ -0,0 +1,74 @@
+package com.example.backend.security;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * kid付きトークンの検証、kidのない旧形式トークンの互換検証、鍵ローテーション時の挙動を守るテスト。
+ */
+class JwtServiceTest {
+
+    private static final String CURRENT_SECRET = "current-secret-key-must-be-at-least-32-chars";
+    private static final String PREVIOUS_SECRET = "previous-secret-key-must-be-at-least-32-chars";
+    private static final String RETIRED_SECRET = "retired-secret-key-must-be-at-least-32-chars!";
+
+    @Test
+    void generatedTokenCarriesKeyIdAndIsVerified() {
+        JwtService jwtService = new JwtService(CURRENT_SECRET, PREVIOUS_SECRET, 3600);
+
+        String token = jwtService.generateToken("operator", "OPERATOR");
+
+        assertNotNull(Jwts.parser().verifyWith(key(CURRENT_SECRET)).build().parseSignedClaims(token).getHeader().getKeyId());
+        assertEquals("operator", jwtService.parseClaims(token).getSubject());
+        assertEquals("OPERATOR", jwtService.parseClaims(token).get("role", String.class));
+    }
+
+    @Test
+    void tokenSignedByPreviousKeyIsVerifiedAfterRotation() {
+        String issuedBeforeRotation = new JwtService(PREVIOUS_SECRET, "", 3600).generateToken("admin", "ADMIN");
+        JwtService rotated = new JwtService(CURRENT_SECRET, PREVIOUS_SECRET, 3600);
+
+        assertEquals("admin", rotated.parseClaims(issuedBeforeRotation).getSubject());
+        assertThrows(JwtException.class, () -> new JwtService(CURRENT_SECRET, "", 3600).parseClaims(issuedBeforeRotation));
+    }
+
+    @Test
+    void legacyTokenWithoutKeyIdFallsBackToConfiguredKeys() {
+        JwtService jwtService = new JwtService(CURRENT_SECRET, PREVIOUS_SECRET, 3600);
+
+        assertEquals("viewer", jwtService.parseClaims(legacyToken(PREVIOUS_SECRET, "viewer")).getSubject());
+        assertThrows(JwtException.class, () -> jwtService.parseClaims(legacyToken(RETIRED_SECRET, "viewer")));
+    }
+
+    @Test
+    void malformedTokenIsRejected() {
+        JwtService jwtService = new JwtService(CURRENT_SECRET, "", 3600);
+
+        assertThrows(JwtException.class, () -> jwtService.parseClaims("not-a-jwt"));
+        assertThrows(JwtException.class, () -> jwtService.parseClaims("%%%.e30.sig"));
+    }
+
+    static String legacyToken(String secret, String username) {
+        return Jwts.builder()
+                .subject(username)
+                .claim("role", "VIEWER")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .signWith(key(secret), Jwts.SIG.HS256)
+                .compact();
+    }
+
+    private static SecretKey key(String secret) {
+        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    }
+}
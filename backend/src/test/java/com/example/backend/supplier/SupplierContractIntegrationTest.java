@@ -16,6 +16,7 @@ import java.util.Map;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 /**
@@ -79,6 +80,36 @@ class SupplierContractIntegrationTest {
         assertTrue(matched.path("suggestedQuantity").asInt() == 20);
     }
 
+    @Test
+    void suggestionPageFiltersBySuggestedSupplierWithSameQuantity() throws Exception {
+        String adminToken = login("admin", "admin123");
+        long suffix = System.currentTimeMillis();
+        long primarySupplierId = createSupplier(adminToken, "S-PAGE-P-" + suffix);
+        long secondarySupplierId = createSupplier(adminToken, "S-PAGE-S-" + suffix);
+        long productId = createProduct(adminToken, "SUP-PAGE-" + suffix, 10, 7);
+        createContract(adminToken, productId, primarySupplierId, 550, 12, 10, true);
+        // 非主契約は単価が安くても提案先にならない。
+        createContract(adminToken, productId, secondarySupplierId, 400, 1, 1, false);
+
+        JsonNode primaryPage = getSuggestionPage(adminToken, primarySupplierId);
+        JsonNode matched = findByProductId(primaryPage.path("items"), productId);
+        assertTrue(matched != null, "suggestion for product should exist under primary supplier");
+        assertTrue(matched.path("suggestedSupplierId").asLong() == primarySupplierId);
+        assertTrue(matched.path("suggestedQuantity").asInt() == 20);
+        assertTrue(primaryPage.path("totalElements").asLong() == 1);
+
+        JsonNode secondaryPage = getSuggestionPage(adminToken, secondarySupplierId);
+        assertTrue(findByProductId(secondaryPage.path("items"), productId) == null);
+        assertTrue(secondaryPage.path("totalElements").asLong() == 0);
+
+        mockMvc.perform(
+                        get("/api/purchase-orders/suggestions/page")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                                .param("supplierId", "999999999")
+                )
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void viewerCannotCreateSupplierOrContract() throws Exception {
         String adminToken = login("admin", "admin123");
@@ -113,6 +144,74 @@ class SupplierContractIntegrationTest {
                 .andExpect(status().isForbidden());
     }
 
+    @Test
+    void supplierListAnswersNotModifiedUntilSupplierChanges() throws Exception {
+        String adminToken = login("admin", "admin123");
+        MvcResult first = mockMvc.perform(
+                        get("/api/suppliers").header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                )
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn();
+        String eTag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(
+                        get("/api/suppliers")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                )
+                .andExpect(status().isNotModified());
+
+        createSupplier(adminToken, "S-ETAG-" + System.currentTimeMillis());
+
+        mockMvc.perform(
+                        get("/api/suppliers")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                )
+                .andExpect(status().isOk());
+    }
+
+    private void createContract(
+            String token, long productId, long supplierId, int unitCost, int moq, int lotSize, boolean primary
+    ) throws Exception {
+        mockMvc.perform(
+                        post("/api/products/{productId}/suppliers", productId)
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of(
+                                        "supplierId", supplierId,
+                                        "unitCost", unitCost,
+                                        "leadTimeDays", 5,
+                                        "moq", moq,
+                                        "lotSize", lotSize,
+                                        "primary", primary
+                                )))
+                )
+                .andExpect(status().isOk());
+    }
+
+    private JsonNode getSuggestionPage(String token, long supplierId) throws Exception {
+        MvcResult result = mockMvc.perform(
+                        get("/api/purchase-orders/suggestions/page")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                                .param("supplierId", String.valueOf(supplierId))
+                                .param("size", "200")
+                )
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    private JsonNode findByProductId(JsonNode suggestions, long productId) {
+        for (JsonNode suggestion : suggestions) {
+            if (suggestion.path("productId").asLong() == productId) {
+                return suggestion;
+            }
+        }
+        return null;
+    }
+
     private long createSupplier(String token, String code) throws Exception {
         MvcResult result = mockMvc.perform(
                         post("/api/suppliers")
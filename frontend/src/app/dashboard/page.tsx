@@ -1,9 +1,9 @@
 "use client";
 
 import { useAuth } from "@/features/auth";
-import { getOrders, getProducts, getPurchaseOrders } from "@/lib/api";
+import { getOrders, getProducts, getPurchaseOrdersPage } from "@/lib/api";
 import { formatDateTime, formatSalesOrderStatus } from "@/lib/format";
-import type { PurchaseOrder, SalesOrder } from "@/types/api";
+import type { SalesOrderSummary } from "@/types/api";
 import Link from "next/link";
 import { useEffect, useMemo, useState } from "react";
 
@@ -16,8 +16,8 @@ export default function DashboardPage() {
   const role = state?.user.role;
   const canOperate = role === "ADMIN" || role === "OPERATOR";
 
-  const [orders, setOrders] = useState<SalesOrder[]>([]);
-  const [purchaseOrders, setPurchaseOrders] = useState<PurchaseOrder[]>([]);
+  const [orders, setOrders] = useState<SalesOrderSummary[]>([]);
+  const [orderedPurchaseCount, setOrderedPurchaseCount] = useState(0);
   const [productCount, setProductCount] = useState(0);
   const [lowStockCount, setLowStockCount] = useState(0);
   const [loading, setLoading] = useState(true);
@@ -36,10 +36,12 @@ export default function DashboardPage() {
 
       try {
         // ダッシュボードの指標をまとめて取得し、待ち時間を短縮する。
-        const [products, allOrders, allPurchaseOrders] = await Promise.all([
+        // 未完了の仕入発注は件数だけが必要なため、ステータス別に1件ずつ取得して総件数を使う。
+        const [products, recentOrders, orderedPage, partiallyReceivedPage] = await Promise.all([
           getProducts(currentCredentials!),
-          getOrders(currentCredentials!),
-          getPurchaseOrders(currentCredentials!),
+          getOrders(currentCredentials!, { size: 5 }),
+          getPurchaseOrdersPage(currentCredentials!, { status: "ORDERED", size: 1 }),
+          getPurchaseOrdersPage(currentCredentials!, { status: "PARTIALLY_RECEIVED", size: 1 }),
         ]);
 
         if (!mounted) {
@@ -48,8 +50,8 @@ export default function DashboardPage() {
 
         setProductCount(products.length);
         setLowStockCount(products.filter((item) => item.availableQuantity <= LOW_STOCK_THRESHOLD).length);
-        setOrders(allOrders.slice(0, 5));
-        setPurchaseOrders(allPurchaseOrders);
+        setOrders(recentOrders.items);
+        setOrderedPurchaseCount(orderedPage.totalElements + partiallyReceivedPage.totalElements);
       } catch (err) {
         if (!mounted) {
           return;
@@ -76,13 +78,6 @@ export default function DashboardPage() {
     () => orders.filter((order) => order.status === "RESERVED").length,
     [orders],
   );
-  const orderedPurchaseCount = useMemo(
-    () =>
-      purchaseOrders.filter(
-        (order) => order.status === "ORDERED" || order.status === "PARTIALLY_RECEIVED",
-      ).length,
-    [purchaseOrders],
-  );
 
   if (!state || !credentials) {
     return null;
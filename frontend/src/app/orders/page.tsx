@@ -2,16 +2,28 @@
 
 import { useAuth } from "@/features/auth";
 import { getOrders } from "@/lib/api";
-import { formatDateTime, formatSalesOrderStatus } from "@/lib/format";
-import type { SalesOrder } from "@/types/api";
+import { formatCurrency, formatDateTime, formatSalesOrderStatus } from "@/lib/format";
+import type { SalesOrderStatus, SalesOrderSummary } from "@/types/api";
 import Link from "next/link";
-import { useEffect, useState } from "react";
+import { type FormEvent, useEffect, useState } from "react";
+
+const PAGE_SIZE = 50;
+
+type OrderFilters = {
+  customer: string;
+  status: "" | SalesOrderStatus;
+};
+
+const EMPTY_FILTERS: OrderFilters = { customer: "", status: "" };
 
 export default function OrdersPage() {
   const { state } = useAuth();
   const credentials = state?.credentials;
 
-  const [orders, setOrders] = useState<SalesOrder[]>([]);
+  const [orders, setOrders] = useState<SalesOrderSummary[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [filters, setFilters] = useState<OrderFilters>(EMPTY_FILTERS);
+  const [draftFilters, setDraftFilters] = useState<OrderFilters>(EMPTY_FILTERS);
   const [error, setError] = useState("");
   const [loading, setLoading] = useState(true);
 
@@ -27,10 +39,15 @@ export default function OrdersPage() {
       setError("");
 
       try {
-        // 一覧表示用に受注データをまとめて取得する。
-        const data = await getOrders(currentCredentials!);
+        // 一覧は要約の先頭ページだけを取得し、続きは「さらに表示」で読み足す。
+        const data = await getOrders(currentCredentials!, {
+          size: PAGE_SIZE,
+          customer: filters.customer.trim() || undefined,
+          status: filters.status || undefined,
+        });
         if (mounted) {
-          setOrders(data);
+          setOrders(data.items);
+          setNextCursor(data.nextCursor);
         }
       } catch (err) {
         if (!mounted) {
@@ -50,7 +67,34 @@ export default function OrdersPage() {
     return () => {
       mounted = false;
     };
-  }, [credentials]);
+  }, [credentials, filters]);
+
+  async function handleLoadMore() {
+    if (!credentials || !nextCursor) {
+      return;
+    }
+    setLoading(true);
+    setError("");
+    try {
+      const data = await getOrders(credentials, {
+        size: PAGE_SIZE,
+        customer: filters.customer.trim() || undefined,
+        status: filters.status || undefined,
+        cursor: nextCursor,
+      });
+      setOrders((prev) => [...prev, ...data.items]);
+      setNextCursor(data.nextCursor);
+    } catch (err) {
+      setError(err instanceof Error ? err.message : "受注の取得に失敗しました。");
+    } finally {
+      setLoading(false);
+    }
+  }
+
+  function handleSearch(event: FormEvent<HTMLFormElement>) {
+    event.preventDefault();
+    setFilters(draftFilters);
+  }
 
   if (!state || !credentials) {
     return null;
@@ -74,6 +118,32 @@ export default function OrdersPage() {
           受注番号を押すと詳細画面に移動し、ステータス変更ができます。
         </p>
 
+        <form className="button-row" style={{ marginBottom: 12 }} onSubmit={handleSearch}>
+          <input
+            className="input"
+            value={draftFilters.customer}
+            onChange={(event) => setDraftFilters((prev) => ({ ...prev, customer: event.target.value }))}
+            placeholder="顧客名（部分一致）"
+            aria-label="顧客名"
+          />
+          <select
+            className="select"
+            value={draftFilters.status}
+            onChange={(event) =>
+              setDraftFilters((prev) => ({ ...prev, status: event.target.value as OrderFilters["status"] }))
+            }
+            aria-label="ステータス"
+          >
+            <option value="">すべてのステータス</option>
+            <option value="RESERVED">{formatSalesOrderStatus("RESERVED")}</option>
+            <option value="CONFIRMED">{formatSalesOrderStatus("CONFIRMED")}</option>
+            <option value="CANCELLED">{formatSalesOrderStatus("CANCELLED")}</option>
+          </select>
+          <button className="button secondary" type="submit" disabled={loading}>
+            検索
+          </button>
+        </form>
+
         {error && <p className="inline-error">{error}</p>}
 
         <div className="table-wrap">
@@ -85,6 +155,7 @@ export default function OrdersPage() {
                 <th>ステータス</th>
                 <th>作成日時</th>
                 <th>明細数</th>
+                <th>合計金額</th>
               </tr>
             </thead>
             <tbody>
@@ -100,12 +171,13 @@ export default function OrdersPage() {
                     <span className={`badge ${order.status}`}>{formatSalesOrderStatus(order.status)}</span>
                   </td>
                   <td>{formatDateTime(order.createdAt)}</td>
-                  <td>{order.items.length}</td>
+                  <td>{order.lineCount}</td>
+                  <td>{formatCurrency(order.totalAmount)}</td>
                 </tr>
               ))}
               {!loading && orders.length === 0 && (
                 <tr>
-                  <td colSpan={5}>
+                  <td colSpan={6}>
                     受注データがありません。{canOperate ? "右上の「新規受注」から最初の受注を登録してください。" : ""}
                   </td>
                 </tr>
@@ -113,6 +185,14 @@ export default function OrdersPage() {
             </tbody>
           </table>
         </div>
+
+        {nextCursor && (
+          <div className="button-row" style={{ marginTop: 12 }}>
+            <button className="button secondary" type="button" onClick={() => void handleLoadMore()} disabled={loading}>
+              さらに表示
+            </button>
+          </div>
+        )}
       </section>
     </div>
   );
@@ -190,6 +190,7 @@ export default function ProductsPage() {
           q: filters.q.trim() || undefined,
           categoryId: filters.categoryId ? Number(filters.categoryId) : undefined,
           lowStockOnly: filters.lowStockOnly ? true : undefined,
+          sort: filters.q.trim() ? "relevance" : undefined,
         });
         if (!mounted) {
           return;
@@ -1,9 +1,9 @@
 "use client";
 
 import { useAuth } from "@/features/auth";
-import { getPurchaseOrders, getReplenishmentSuggestions } from "@/lib/api";
+import { getPurchaseOrdersPage, getReplenishmentSuggestions } from "@/lib/api";
 import { formatCurrency, formatDateTime, formatPurchaseOrderStatus } from "@/lib/format";
-import type { PurchaseOrder, ReplenishmentSuggestion } from "@/types/api";
+import type { PurchaseOrderSummary, ReplenishmentSuggestion } from "@/types/api";
 import Link from "next/link";
 import { useEffect, useState } from "react";
 
@@ -13,7 +13,7 @@ export default function PurchaseOrdersPage() {
   const role = state?.user.role;
   const canOperate = role === "ADMIN" || role === "OPERATOR";
 
-  const [orders, setOrders] = useState<PurchaseOrder[]>([]);
+  const [orders, setOrders] = useState<PurchaseOrderSummary[]>([]);
   const [suggestions, setSuggestions] = useState<ReplenishmentSuggestion[]>([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState("");
@@ -29,9 +29,9 @@ export default function PurchaseOrdersPage() {
       setLoading(true);
       setError("");
       try {
-        // 一覧表示に必要な発注データと補充提案を並列で取得する。
-        const [orderData, suggestionData] = await Promise.all([
-          getPurchaseOrders(currentCredentials!),
+        // 一覧表示に必要な発注データ(新しい順の1ページ分)と補充提案を並列で取得する。
+        const [orderPage, suggestionData] = await Promise.all([
+          getPurchaseOrdersPage(currentCredentials!, { size: 100 }),
           getReplenishmentSuggestions(currentCredentials!),
         ]);
 
@@ -39,7 +39,7 @@ export default function PurchaseOrdersPage() {
           return;
         }
 
-        setOrders(orderData);
+        setOrders(orderPage.items);
         setSuggestions(suggestionData);
       } catch (err) {
         if (!mounted) {
@@ -110,11 +110,11 @@ export default function PurchaseOrdersPage() {
                   </td>
                   <td>{formatDateTime(order.createdAt)}</td>
                   <td>{order.receivedAt ? formatDateTime(order.receivedAt) : "-"}</td>
-                  <td>{order.items.length}</td>
+                  <td>{order.itemCount}</td>
                   <td>
                     {order.totalReceivedQuantity}/{order.totalQuantity}
                   </td>
-                  <td>{order.receipts?.length ?? 0}</td>
+                  <td>{order.receiptCount}</td>
                 </tr>
               ))}
               {!loading && orders.length === 0 && (
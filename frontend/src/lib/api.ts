@@ -10,6 +10,7 @@ import type {
   PasswordResetRequestResponse,
   Product,
   ProductCategory,
+  ProductImportJob,
   ProductImportResult,
   ProductPageResponse,
   ProductQuery,
@@ -18,8 +19,13 @@ import type {
   PurchaseOrder,
   PurchaseOrderReceipt,
   PurchaseOrderReceiptQuery,
+  PurchaseOrderSummaryPageResponse,
+  PurchaseOrderSummaryQuery,
   ReplenishmentSuggestion,
+  ReplenishmentSuggestionPageResponse,
   SalesOrder,
+  SalesOrderQuery,
+  SalesOrderSummaryPageResponse,
   SalesQuery,
   SalesReport,
   Supplier,
@@ -51,6 +57,8 @@ type RequestOptions = {
   credentials?: Credentials;
   idempotencyKey?: string;
   disableIdempotency?: boolean;
+  // ETagで再検証できる一覧APIはブラウザキャッシュを保持し、変化がなければ304で再利用する。
+  revalidate?: boolean;
 };
 
 function generateIdempotencyKey(): string {
@@ -78,7 +86,8 @@ async function request<T>(path: string, options?: RequestOptions): Promise<T> {
     headers,
     body: options?.body ? JSON.stringify(options.body) : undefined,
     // ダッシュボードや入力フォームで古い値を避けるため、常に最新レスポンスを取得する。
-    cache: "no-store",
+    // 再検証指定時もサーバへ毎回問い合わせるため、古い値は返らない。
+    cache: options?.revalidate ? "no-cache" : "no-store",
   });
 
   if (!response.ok) {
@@ -181,7 +190,7 @@ export async function disableMfa(credentials: Credentials, code: string): Promis
 }
 
 export async function getProducts(credentials: Credentials): Promise<Product[]> {
-  return request<Product[]>("/api/products", { credentials });
+  return request<Product[]>("/api/products", { credentials, revalidate: true });
 }
 
 export async function getProductsPage(
@@ -201,12 +210,21 @@ export async function getProductsPage(
   if (query.lowStockOnly !== undefined) {
     searchParams.set("lowStockOnly", String(query.lowStockOnly));
   }
+  if (query.cursor) {
+    searchParams.set("cursor", query.cursor);
+  }
+  if (query.includeTotal !== undefined) {
+    searchParams.set("includeTotal", String(query.includeTotal));
+  }
+  if (query.sort) {
+    searchParams.set("sort", query.sort);
+  }
 
   return request<ProductPageResponse>(`/api/products/page?${searchParams.toString()}`, { credentials });
 }
 
 export async function getProductCategories(credentials: Credentials): Promise<ProductCategory[]> {
-  return request<ProductCategory[]>("/api/product-categories", { credentials });
+  return request<ProductCategory[]>("/api/product-categories", { credentials, revalidate: true });
 }
 
 export async function createProductCategory(
@@ -239,14 +257,11 @@ export async function updateProductCategorySkuRule(
   });
 }
 
-export async function importProductsCsv(
-  credentials: Credentials,
-  file: File,
-): Promise<ProductImportResult> {
+async function uploadProductCsv<T>(credentials: Credentials, path: string, file: File): Promise<T> {
   const formData = new FormData();
   formData.append("file", file);
 
-  const response = await fetch(`${API_BASE_URL}/api/products/import`, {
+  const response = await fetch(`${API_BASE_URL}${path}`, {
     method: "POST",
     headers: {
       Authorization: toBearerAuthHeader(credentials.accessToken),
@@ -268,7 +283,29 @@ export async function importProductsCsv(
     throw new ApiClientError(message, response.status);
   }
 
-  return (await response.json()) as ProductImportResult;
+  return (await response.json()) as T;
+}
+
+export async function importProductsCsv(
+  credentials: Credentials,
+  file: File,
+): Promise<ProductImportResult> {
+  return uploadProductCsv<ProductImportResult>(credentials, "/api/products/import", file);
+}
+
+// 大きなCSVはジョブとして受け付け、getProductImportJobで進捗を確認する。
+export async function startProductImportJob(
+  credentials: Credentials,
+  file: File,
+): Promise<ProductImportJob> {
+  return uploadProductCsv<ProductImportJob>(credentials, "/api/products/import?async=true", file);
+}
+
+export async function getProductImportJob(
+  credentials: Credentials,
+  jobId: number,
+): Promise<ProductImportJob> {
+  return request<ProductImportJob>(`/api/products/import/${jobId}`, { credentials });
 }
 
 export async function getNextProductSku(
@@ -287,7 +324,7 @@ export async function getNextProductSku(
 export async function createProduct(
   credentials: Credentials,
   body: {
-    sku: string;
+    sku?: string;
     name: string;
     description?: string;
     unitPrice: number;
@@ -326,8 +363,30 @@ export async function addStock(
   });
 }
 
-export async function getOrders(credentials: Credentials): Promise<SalesOrder[]> {
-  return request<SalesOrder[]>("/api/orders", { credentials });
+export async function getOrders(
+  credentials: Credentials,
+  query: SalesOrderQuery = {},
+): Promise<SalesOrderSummaryPageResponse> {
+  const searchParams = new URLSearchParams();
+  searchParams.set("size", String(query.size ?? 50));
+
+  if (query.status) {
+    searchParams.set("status", query.status);
+  }
+  if (query.from) {
+    searchParams.set("from", query.from);
+  }
+  if (query.to) {
+    searchParams.set("to", query.to);
+  }
+  if (query.customer) {
+    searchParams.set("customer", query.customer);
+  }
+  if (query.cursor) {
+    searchParams.set("cursor", query.cursor);
+  }
+
+  return request<SalesOrderSummaryPageResponse>(`/api/orders?${searchParams.toString()}`, { credentials });
 }
 
 export async function getOrder(credentials: Credentials, orderId: number): Promise<SalesOrder> {
@@ -418,6 +477,32 @@ export async function getPurchaseOrders(credentials: Credentials): Promise<Purch
   return request<PurchaseOrder[]>("/api/purchase-orders", { credentials });
 }
 
+export async function getPurchaseOrdersPage(
+  credentials: Credentials,
+  query: PurchaseOrderSummaryQuery = {},
+): Promise<PurchaseOrderSummaryPageResponse> {
+  const searchParams = new URLSearchParams();
+  searchParams.set("page", String(query.page ?? 0));
+  searchParams.set("size", String(query.size ?? 50));
+
+  if (query.status) {
+    searchParams.set("status", query.status);
+  }
+  if (query.supplierId !== undefined) {
+    searchParams.set("supplierId", String(query.supplierId));
+  }
+  if (query.from) {
+    searchParams.set("from", query.from);
+  }
+  if (query.to) {
+    searchParams.set("to", query.to);
+  }
+
+  return request<PurchaseOrderSummaryPageResponse>(`/api/purchase-orders/page?${searchParams.toString()}`, {
+    credentials,
+  });
+}
+
 export async function getPurchaseOrder(credentials: Credentials, purchaseOrderId: number): Promise<PurchaseOrder> {
   return request<PurchaseOrder>(`/api/purchase-orders/${purchaseOrderId}`, { credentials });
 }
@@ -452,6 +537,23 @@ export async function getReplenishmentSuggestions(
   return request<ReplenishmentSuggestion[]>("/api/purchase-orders/suggestions", { credentials });
 }
 
+export async function getReplenishmentSuggestionsPage(
+  credentials: Credentials,
+  query: { supplierId?: number; page?: number; size?: number } = {},
+): Promise<ReplenishmentSuggestionPageResponse> {
+  const searchParams = new URLSearchParams();
+  searchParams.set("page", String(query.page ?? 0));
+  searchParams.set("size", String(query.size ?? 50));
+  if (query.supplierId !== undefined) {
+    searchParams.set("supplierId", String(query.supplierId));
+  }
+
+  return request<ReplenishmentSuggestionPageResponse>(
+    `/api/purchase-orders/suggestions/page?${searchParams.toString()}`,
+    { credentials },
+  );
+}
+
 export async function createPurchaseOrder(
   credentials: Credentials,
   body: {
@@ -538,7 +640,7 @@ export async function exportPurchaseOrderReceiptsCsv(
 }
 
 export async function getSuppliers(credentials: Credentials): Promise<Supplier[]> {
-  return request<Supplier[]>("/api/suppliers", { credentials });
+  return request<Supplier[]>("/api/suppliers", { credentials, revalidate: true });
 }
 
 export async function getSupplier(credentials: Credentials, supplierId: number): Promise<Supplier> {
@@ -650,6 +752,12 @@ export async function getAuditLogs(
   if (query.to) {
     searchParams.set("to", query.to);
   }
+  if (query.cursor) {
+    searchParams.set("cursor", query.cursor);
+  }
+  if (query.includeTotal !== undefined) {
+    searchParams.set("includeTotal", String(query.includeTotal));
+  }
 
   return request<AuditLogPageResponse>(`/api/audit-logs?${searchParams.toString()}`, { credentials });
 }
@@ -78,9 +78,13 @@ export type ProductQuery = {
   q?: string;
   categoryId?: number;
   lowStockOnly?: boolean;
+  cursor?: string;
+  includeTotal?: boolean;
+  // relevanceはキーワード指定時のみ有効(SKU完全一致・前方一致を優先)。cursorとは併用できない。
+  sort?: "updated" | "relevance";
 };
 
-// 商品一覧ページング結果。
+// 商品一覧ページング結果。件数取得を省略した場合totalElements/totalPagesは-1。
 export type ProductPageResponse = {
   items: Product[];
   page: number;
@@ -89,6 +93,7 @@ export type ProductPageResponse = {
   totalPages: number;
   hasNext: boolean;
   hasPrevious: boolean;
+  nextCursor: string | null;
 };
 
 // 商品CSV一括取込の行エラー。
@@ -107,6 +112,25 @@ export type ProductImportResult = {
   errors: ProductImportError[];
 };
 
+export type ProductImportJobStatus = "QUEUED" | "RUNNING" | "COMPLETED" | "FAILED";
+
+// 商品CSVの非同期取込ジョブ。errorsは先頭から上限件数まで。
+export type ProductImportJob = {
+  jobId: number;
+  status: ProductImportJobStatus;
+  fileName: string | null;
+  processedRows: number;
+  successRows: number;
+  createdRows: number;
+  updatedRows: number;
+  failedRows: number;
+  errors: ProductImportError[];
+  message: string | null;
+  createdAt: string;
+  startedAt: string | null;
+  finishedAt: string | null;
+};
+
 // SKU自動採番候補。
 export type ProductSkuSuggestion = {
   sku: string;
@@ -121,16 +145,49 @@ export type SalesOrderItem = {
   unitPrice: number;
 };
 
+// 受注ステータス。
+export type SalesOrderStatus = "RESERVED" | "CONFIRMED" | "CANCELLED";
+
 // 受注ヘッダと明細の集約モデル。
 export type SalesOrder = {
   id: number;
   orderNumber: string;
   customerName: string;
-  status: "RESERVED" | "CONFIRMED" | "CANCELLED";
+  status: SalesOrderStatus;
   createdAt: string;
   items: SalesOrderItem[];
 };
 
+// 受注一覧の検索条件。from/toは更新日時で絞り込む。
+export type SalesOrderQuery = {
+  status?: SalesOrderStatus;
+  from?: string;
+  to?: string;
+  customer?: string;
+  cursor?: string;
+  size?: number;
+};
+
+// 受注一覧の1件分。明細は含めず明細数と合計金額だけを持つ。
+export type SalesOrderSummary = {
+  id: number;
+  orderNumber: string;
+  customerName: string;
+  status: SalesOrderStatus;
+  createdAt: string;
+  updatedAt: string;
+  lineCount: number;
+  totalAmount: number;
+};
+
+// 受注一覧のキーセットページング結果。続きはnextCursorを次回のcursorに渡して取得する。
+export type SalesOrderSummaryPageResponse = {
+  items: SalesOrderSummary[];
+  size: number;
+  hasNext: boolean;
+  nextCursor: string | null;
+};
+
 // 売上集計の粒度。
 export type SalesGroupBy = "DAY" | "WEEK" | "MONTH";
 
@@ -222,6 +279,47 @@ export type PurchaseOrderReceiptQuery = {
   limit?: number;
 };
 
+// 仕入発注ステータス。
+export type PurchaseOrderStatus = "ORDERED" | "PARTIALLY_RECEIVED" | "RECEIVED" | "CANCELLED";
+
+// 仕入発注一覧の検索条件。
+export type PurchaseOrderSummaryQuery = {
+  status?: PurchaseOrderStatus;
+  supplierId?: number;
+  from?: string;
+  to?: string;
+  page?: number;
+  size?: number;
+};
+
+// 仕入発注一覧の1件分。明細・入荷履歴は含めず件数と数量の合計だけを持つ。
+export type PurchaseOrderSummary = {
+  id: number;
+  orderNumber: string;
+  supplierId: number | null;
+  supplierCode: string | null;
+  supplierName: string;
+  status: PurchaseOrderStatus;
+  createdAt: string;
+  receivedAt: string | null;
+  itemCount: number;
+  totalQuantity: number;
+  totalReceivedQuantity: number;
+  totalRemainingQuantity: number;
+  receiptCount: number;
+};
+
+// 仕入発注一覧のページング結果。
+export type PurchaseOrderSummaryPageResponse = {
+  items: PurchaseOrderSummary[];
+  page: number;
+  size: number;
+  totalElements: number;
+  totalPages: number;
+  hasNext: boolean;
+  hasPrevious: boolean;
+};
+
 // 仕入発注ヘッダと明細の集約モデル。
 export type PurchaseOrder = {
   id: number;
@@ -230,7 +328,7 @@ export type PurchaseOrder = {
   supplierCode: string | null;
   supplierName: string;
   note: string | null;
-  status: "ORDERED" | "PARTIALLY_RECEIVED" | "RECEIVED" | "CANCELLED";
+  status: PurchaseOrderStatus;
   createdAt: string;
   receivedAt: string | null;
   totalQuantity: number;
@@ -260,6 +358,17 @@ export type ReplenishmentSuggestion = {
   lotSize: number;
 };
 
+// 補充提案のページング結果。
+export type ReplenishmentSuggestionPageResponse = {
+  items: ReplenishmentSuggestion[];
+  page: number;
+  size: number;
+  totalElements: number;
+  totalPages: number;
+  hasNext: boolean;
+  hasPrevious: boolean;
+};
+
 // 仕入先マスタ。
 export type Supplier = {
   id: number;
@@ -306,9 +415,11 @@ export type AuditLogQuery = {
   actor?: string;
   from?: string;
   to?: string;
+  cursor?: string;
+  includeTotal?: boolean;
 };
 
-// 監査ログページング結果。
+// 監査ログページング結果。件数取得を省略した場合totalElements/totalPagesは-1。
 export type AuditLogPageResponse = {
   items: AuditLog[];
   page: number;
@@ -317,6 +428,15 @@ export type AuditLogPageResponse = {
   totalPages: number;
   hasNext: boolean;
   hasPrevious: boolean;
+  nextCursor: string | null;
+};
+
+// 監査ログクリーンアップの1チャンク分の結果。
+export type AuditLogCleanupChunk = {
+  type: "PARTITION_DROP" | "DELETE";
+  target: string;
+  deletedCount: number;
+  durationMs: number;
 };
 
 // 監査ログクリーンアップ実行結果。
@@ -325,6 +445,7 @@ export type AuditLogCleanupResponse = {
   retentionDays: number;
   cutoff: string;
   executedAt: string;
+  chunks: AuditLogCleanupChunk[];
 };
 
 // バックエンド統一エラーペイロード。